@@ -1,18 +1,33 @@
 package com.school.attendance;
 
+import com.school.attendance.config.cache.LayeredCacheConfig;
+import com.school.attendance.service.cache.CacheWarmUpHealthIndicator;
+import com.school.attendance.service.cache.CacheWarmUpService;
+import com.school.attendance.service.cache.ExistenceFilterEndpoint;
+import com.school.attendance.service.cache.ExistenceFilterService;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication(exclude = {
     org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration.class,
     org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration.class,
-    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class,
+    org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration.class
 })
 @ComponentScan(basePackages = {
     "com.school.attendance.controller", 
     "com.school.attendance.service"
+}, excludeFilters = {
+    // Database-backed jobs: this application runs without a database
+    @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+            classes = {CacheWarmUpService.class, CacheWarmUpHealthIndicator.class,
+                    ExistenceFilterService.class, ExistenceFilterEndpoint.class})
 })
+// Local (per-instance) caches and analytics coalescing; the Redis tier is not configured here
+@Import(LayeredCacheConfig.class)
 public class AnalyticsApplication {
 
     public static void main(String[] args) {
@@ -1,5 +1,6 @@
 package com.school.attendance.config;
 
+import com.school.attendance.config.sharding.TenantContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.context.annotation.Bean;
@@ -12,7 +13,8 @@ import java.util.concurrent.Executor;
 
 /**
  * Asynchronous Processing Configuration
- * Enables background processing for notifications, reports, and heavy tasks
+ * Enables background processing for notifications, reports, and heavy tasks.
+ * Tasks run with the school (shard routing) of the thread that submitted them.
  */
 @Configuration
 @EnableAsync
@@ -30,6 +32,7 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setMaxPoolSize(15);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("General-Async-");
+        executor.setTaskDecorator(TenantContext::propagate);
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
         executor.initialize();
@@ -49,6 +52,7 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setMaxPoolSize(10);
         executor.setQueueCapacity(50);
         executor.setThreadNamePrefix("Notification-Async-");
+        executor.setTaskDecorator(TenantContext::propagate);
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(20);
         executor.initialize();
@@ -68,6 +72,7 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setMaxPoolSize(5);
         executor.setQueueCapacity(25);
         executor.setThreadNamePrefix("Report-Async-");
+        executor.setTaskDecorator(TenantContext::propagate);
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60); // Reports may take longer
         executor.initialize();
@@ -0,0 +1,122 @@
+package com.school.attendance.config;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.school.attendance.config.cache.CompactValueCodec;
+import com.school.attendance.config.cache.LayeredCacheProperties;
+import com.school.attendance.config.cache.RedisCacheInvalidationTransport;
+import com.school.attendance.config.cache.RedisCacheTagStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Redis Configuration for Caching
+ * The shared tier behind the local caches (LayeredCacheManager), with per-cache TTLs from app.cache.*,
+ * the pub/sub channel that keeps the instances' local tiers coherent, and the shared cache tag sets
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.redis.enabled", havingValue = "true")
+@Slf4j
+public class RedisConfig {
+
+    /**
+     * Redis cache manager; not primary, the layered manager wraps its caches
+     */
+    @Bean
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                               LayeredCacheProperties properties) {
+        RedisCacheConfiguration defaultCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(properties.getDefaults().getTtl())
+                .disableCachingNullValues()
+                .prefixCacheNameWith(properties.getRedis().getKeyPrefix())
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        valueSerializer(properties.getRedis())));
+
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        properties.getCaches().keySet().forEach(name -> cacheConfigurations.put(name,
+                defaultCacheConfig.entryTtl(properties.specFor(name).getTtl())));
+
+        RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(defaultCacheConfig)
+                .withInitialCacheConfigurations(cacheConfigurations)
+                .build();
+
+        log.info("Redis cache manager configured with {} cache types", cacheConfigurations.size());
+        return cacheManager;
+    }
+
+    /**
+     * Compact binary values by default; json keeps the previous readable format. Entries written in
+     * the other format fail to decode and are reloaded, so switching needs no flush.
+     */
+    private RedisSerializer<Object> valueSerializer(LayeredCacheProperties.Redis redis) {
+        if ("json".equalsIgnoreCase(redis.getCodec())) {
+            return jsonSerializer();
+        }
+        return new CompactValueCodec(redis.getCompressThreshold());
+    }
+
+    /**
+     * Type-tagged JSON values, readable with redis-cli
+     */
+    public static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.activateDefaultTyping(objectMapper.getPolymorphicTypeValidator(),
+            ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        // Started by the invalidation transport, which retries until Redis is reachable
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * Invalidation channel between instances
+     */
+    @Bean
+    public RedisCacheInvalidationTransport cacheInvalidationTransport(StringRedisTemplate redisTemplate,
+                                                                      RedisMessageListenerContainer container,
+                                                                      LayeredCacheProperties properties) {
+        return new RedisCacheInvalidationTransport(redisTemplate, container,
+                properties.getRedis().getInvalidationChannel(), properties.getRedis().getSubscribeRetryMs());
+    }
+
+    /**
+     * Tag sets of shared-tier entries, kept as long as the longest-lived cache entry
+     */
+    @Bean
+    public RedisCacheTagStore cacheTagStore(StringRedisTemplate redisTemplate, LayeredCacheProperties properties) {
+        Duration maxTtl = properties.getCaches().keySet().stream()
+                .map(name -> properties.specFor(name).getTtl())
+                .reduce(properties.getDefaults().getTtl(), (first, second) -> first.compareTo(second) >= 0 ? first : second);
+        return new RedisCacheTagStore(redisTemplate, properties.getRedis().getKeyPrefix(), maxTtl);
+    }
+}
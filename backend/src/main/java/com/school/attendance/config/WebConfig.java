@@ -1,5 +1,6 @@
 package com.school.attendance.config;
 
+import com.school.attendance.config.sharding.TenantInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
@@ -15,10 +16,20 @@ public class WebConfig implements WebMvcConfigurer {
     @Autowired
     private RequestLoggingInterceptor requestLoggingInterceptor;
     
+    // Present only when school sharding is enabled
+    @Autowired(required = false)
+    private TenantInterceptor tenantInterceptor;
+    
     @Override
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
         registry.addInterceptor(requestLoggingInterceptor)
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/api/health", "/actuator/**");
+        
+        if (tenantInterceptor != null) {
+            registry.addInterceptor(tenantInterceptor)
+                    .addPathPatterns("/api/**")
+                    .excludePathPatterns("/api/health", "/actuator/**");
+        }
     }
 }
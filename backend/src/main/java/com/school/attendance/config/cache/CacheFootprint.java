@@ -0,0 +1,71 @@
+package com.school.attendance.config.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Entry count and approximate size of a cache's local tier per key prefix. Size is the
+ * serialized JSON length of up to SAMPLE entries per prefix, scaled up to the prefix's entry
+ * count: a guide for sizing local-max-size and comparing prefixes, not an exact heap figure
+ * (object overhead typically puts the heap cost at a small multiple of it).
+ */
+public final class CacheFootprint {
+
+    static final int SAMPLE = 20;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+
+    private CacheFootprint() {
+    }
+
+    /**
+     * Footprint per prefix, in prefix order; estimatedBytes is -1 when no sample could be serialized
+     */
+    public static Map<String, PrefixFootprint> measure(Map<Object, Object> entries) {
+        Map<String, long[]> totals = new HashMap<>();
+        entries.forEach((key, value) -> {
+            // entries, sampled, sampled bytes
+            long[] total = totals.computeIfAbsent(CacheStatistics.prefixOf(key), prefix -> new long[3]);
+            total[0]++;
+            if (total[1] < SAMPLE) {
+                long size = sizeOf(value);
+                if (size >= 0) {
+                    total[1]++;
+                    total[2] += size;
+                }
+            }
+        });
+        Map<String, PrefixFootprint> footprint = new TreeMap<>();
+        totals.forEach((prefix, total) -> footprint.put(prefix, new PrefixFootprint(total[0],
+                total[1] > 0 ? total[2] * total[0] / total[1] : -1)));
+        return footprint;
+    }
+
+    /**
+     * Sum of the per-prefix estimates, skipping prefixes that could not be sampled
+     */
+    public static long estimatedBytes(Map<String, PrefixFootprint> footprint) {
+        return footprint.values().stream().mapToLong(PrefixFootprint::estimatedBytes).filter(bytes -> bytes > 0).sum();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static long sizeOf(Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value).length;
+        } catch (Exception | StackOverflowError e) {
+            // Lazy associations or cycles; leave it out of the sample
+            return -1;
+        }
+    }
+
+    public record PrefixFootprint(long entries, long estimatedBytes) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.school.attendance.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the local cache tiers of all instances coherent: writes, evictions and scoped evictions
+ * are broadcast, and every other instance drops the affected local entries (scoped evictions are
+ * replayed against that instance's own tag index, in both tiers). Messages from this instance are
+ * ignored. Messages missed while disconnected cannot be replayed, so a resubscription flushes
+ * every local tier and reads start again from the shared tier. The bus also carries keys added
+ * to the existence filters, so each instance's filters learn the other instances' inserts.
+ */
+@Slf4j
+public class CacheInvalidationBus implements CacheInvalidationTransport.Listener {
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final CacheInvalidationTransport transport;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong resubscriptions = new AtomicLong();
+    private final AtomicLong maxLagMs = new AtomicLong();
+    private volatile LayeredCacheManager cacheManager;
+    private volatile KeyAdditionListener keyAdditionListener;
+
+    public CacheInvalidationBus(CacheInvalidationTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Start relaying invalidations for the given manager
+     */
+    public void bind(LayeredCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+        cacheManager.setInvalidationBus(this);
+        transport.subscribe(this);
+        log.info("Cache invalidation bus started on node {}", nodeId);
+    }
+
+    public void publishKey(String cacheName, Object key) {
+        publish(CacheInvalidationMessage.isEncodable(key)
+                ? CacheInvalidationMessage.key(nodeId, cacheName, key)
+                // Other instances could not rebuild the key, so they drop the whole local cache
+                : CacheInvalidationMessage.clear(nodeId, cacheName));
+    }
+
+    public void publishScope(CacheScope scope, String... cacheNames) {
+        publish(CacheInvalidationMessage.scope(nodeId, scope, Arrays.asList(cacheNames)));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(CacheInvalidationMessage.clear(nodeId, cacheName));
+    }
+
+    /**
+     * Broadcast a key this instance added to its existence filters
+     */
+    public void publishKeyAdded(long schoolId, String kind, long hash) {
+        publish(CacheInvalidationMessage.added(nodeId, new CacheInvalidationMessage.ExistenceKey(schoolId, kind, hash)));
+    }
+
+    public void setKeyAdditionListener(KeyAdditionListener keyAdditionListener) {
+        this.keyAdditionListener = keyAdditionListener;
+    }
+
+    @Override
+    public void onMessage(String line) {
+        CacheInvalidationMessage message;
+        try {
+            message = CacheInvalidationMessage.decode(line);
+        } catch (RuntimeException e) {
+            rejected.incrementAndGet();
+            log.warn("Ignoring cache invalidation message '{}': {}", line, e.getMessage());
+            return;
+        }
+        if (nodeId.equals(message.origin())) {
+            return;
+        }
+        switch (message.type()) {
+            case KEY -> message.cacheNames().forEach(name -> cacheManager.getCache(name).evictLocal(message.key()));
+            case SCOPE -> cacheManager.evictQuietly(message.scope(), message.cacheNames().toArray(String[]::new));
+            case CLEAR -> message.cacheNames().forEach(name -> cacheManager.getCache(name).clearLocal());
+            case ADDED -> {
+                KeyAdditionListener listener = keyAdditionListener;
+                if (listener != null) {
+                    CacheInvalidationMessage.ExistenceKey added = (CacheInvalidationMessage.ExistenceKey) message.key();
+                    listener.keyAdded(added.schoolId(), added.kind(), added.hash());
+                }
+            }
+        }
+        maxLagMs.accumulateAndGet(System.currentTimeMillis() - message.sentAt(), Math::max);
+        received.incrementAndGet();
+    }
+
+    @Override
+    public void onSubscribed() {
+        // Whatever was sent before this subscription is lost to us, including before the first one
+        cacheManager.clearLocal();
+        if (!subscribed.compareAndSet(false, true)) {
+            log.warn("Cache invalidation bus resubscribed on node {}, local caches flushed", nodeId);
+            resubscriptions.incrementAndGet();
+            KeyAdditionListener listener = keyAdditionListener;
+            if (listener != null) {
+                listener.additionsMissed();
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getReceived() {
+        return received.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getResubscriptions() {
+        return resubscriptions.get();
+    }
+
+    /**
+     * Longest delay seen between another instance sending an invalidation and this one applying it
+     */
+    public long getMaxLagMs() {
+        return maxLagMs.get();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void publish(CacheInvalidationMessage message) {
+        try {
+            transport.publish(message.encode());
+            published.incrementAndGet();
+        } catch (RuntimeException e) {
+            // Other instances keep their copies until the local ttl expires
+            log.warn("Cache invalidation broadcast failed for {}: {}", message.cacheNames(), e.getMessage());
+        }
+    }
+
+    /**
+     * Receives keys other instances added to their existence filters
+     */
+    public interface KeyAdditionListener {
+
+        void keyAdded(long schoolId, String kind, long hash);
+
+        /**
+         * Additions may have been lost while the bus was disconnected
+         */
+        void additionsMissed();
+    }
+}
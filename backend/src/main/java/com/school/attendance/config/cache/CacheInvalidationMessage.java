@@ -0,0 +1,116 @@
+package com.school.attendance.config.cache;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One invalidation on the bus, encoded as a single '|'-separated line:
+ * {@code type|origin|sentAtMillis|cache[,cache...]|payload}, where the payload is a typed key
+ * for KEY (L:123, I:7 or S:text), schoolId,classId,studentId,date for SCOPE, empty for CLEAR and
+ * schoolId,kind,hash for ADDED (a key added to the existence filters, which names no cache).
+ */
+public record CacheInvalidationMessage(Type type, String origin, long sentAt, List<String> cacheNames,
+                                       Object key, CacheScope scope) {
+
+    public enum Type { KEY, SCOPE, CLEAR, ADDED }
+
+    /**
+     * Key of a row one instance inserted, for the other instances' existence filters
+     */
+    public record ExistenceKey(long schoolId, String kind, long hash) {
+    }
+
+    public static CacheInvalidationMessage key(String origin, String cacheName, Object key) {
+        return new CacheInvalidationMessage(Type.KEY, origin, System.currentTimeMillis(), List.of(cacheName), key, null);
+    }
+
+    public static CacheInvalidationMessage scope(String origin, CacheScope scope, List<String> cacheNames) {
+        return new CacheInvalidationMessage(Type.SCOPE, origin, System.currentTimeMillis(), cacheNames, null, scope);
+    }
+
+    public static CacheInvalidationMessage clear(String origin, String cacheName) {
+        return new CacheInvalidationMessage(Type.CLEAR, origin, System.currentTimeMillis(), List.of(cacheName), null, null);
+    }
+
+    public static CacheInvalidationMessage added(String origin, ExistenceKey key) {
+        return new CacheInvalidationMessage(Type.ADDED, origin, System.currentTimeMillis(), List.of(), key, null);
+    }
+
+    /**
+     * Whether a key survives encoding with its type, so the receiver evicts the same key
+     */
+    public static boolean isEncodable(Object key) {
+        return key instanceof String || key instanceof Long || key instanceof Integer;
+    }
+
+    public String encode() {
+        String payload = switch (type) {
+            case KEY -> encodeKey(key);
+            case SCOPE -> text(scope.schoolId()) + "," + text(scope.classId()) + "," + text(scope.studentId()) +
+                    "," + text(scope.date());
+            case CLEAR -> "";
+            case ADDED -> {
+                ExistenceKey added = (ExistenceKey) key;
+                yield added.schoolId() + "," + added.kind() + "," + added.hash();
+            }
+        };
+        return type.name().charAt(0) + "|" + origin + "|" + sentAt + "|" + String.join(",", cacheNames) + "|" + payload;
+    }
+
+    public static CacheInvalidationMessage decode(String line) {
+        String[] fields = line.split("\\|", 5);
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Malformed cache invalidation message: " + line);
+        }
+        List<String> cacheNames = fields[3].isEmpty() ? List.of() : Arrays.asList(fields[3].split(","));
+        long sentAt = Long.parseLong(fields[2]);
+        return switch (fields[0]) {
+            case "K" -> new CacheInvalidationMessage(Type.KEY, fields[1], sentAt, cacheNames, decodeKey(fields[4]), null);
+            case "S" -> {
+                String[] scope = fields[4].split(",", -1);
+                yield new CacheInvalidationMessage(Type.SCOPE, fields[1], sentAt, cacheNames, null, new CacheScope(
+                        scope[0].isEmpty() ? null : Long.valueOf(scope[0]),
+                        scope[1].isEmpty() ? null : Integer.valueOf(scope[1]),
+                        scope[2].isEmpty() ? null : Long.valueOf(scope[2]),
+                        scope[3].isEmpty() ? null : LocalDate.parse(scope[3])));
+            }
+            case "C" -> new CacheInvalidationMessage(Type.CLEAR, fields[1], sentAt, cacheNames, null, null);
+            case "A" -> {
+                String[] added = fields[4].split(",", -1);
+                yield new CacheInvalidationMessage(Type.ADDED, fields[1], sentAt, cacheNames, new ExistenceKey(
+                        Long.parseLong(added[0]), added[1], Long.parseLong(added[2])), null);
+            }
+            default -> throw new IllegalArgumentException("Unknown cache invalidation message type: " + line);
+        };
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static String encodeKey(Object key) {
+        if (key instanceof Long) {
+            return "L:" + key;
+        }
+        if (key instanceof Integer) {
+            return "I:" + key;
+        }
+        if (key instanceof String) {
+            return "S:" + key;
+        }
+        throw new IllegalArgumentException("Cache key type not supported on the bus: " + key.getClass().getName());
+    }
+
+    private static Object decodeKey(String text) {
+        String value = text.substring(2);
+        return switch (text.charAt(0)) {
+            case 'L' -> Long.valueOf(value);
+            case 'I' -> Integer.valueOf(value);
+            case 'S' -> value;
+            default -> throw new IllegalArgumentException("Unknown cache key type: " + text);
+        };
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : "";
+    }
+}
@@ -0,0 +1,23 @@
+package com.school.attendance.config.cache;
+
+/**
+ * Broadcast channel between instances for cache invalidation messages (Redis pub/sub in production).
+ * Delivery is fire-and-forget: messages sent while an instance is disconnected are lost to it,
+ * which is why every (re)subscription is reported.
+ */
+public interface CacheInvalidationTransport {
+
+    void publish(String message);
+
+    void subscribe(Listener listener);
+
+    interface Listener {
+
+        void onMessage(String message);
+
+        /**
+         * Called whenever the subscription is established, including after a reconnect
+         */
+        void onSubscribed();
+    }
+}
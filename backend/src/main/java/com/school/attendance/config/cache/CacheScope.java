@@ -0,0 +1,46 @@
+package com.school.attendance.config.cache;
+
+import java.time.LocalDate;
+
+/**
+ * What changed: any combination of school, class, student and date. An entry is in scope when
+ * it is tagged with every dimension the scope names (a date falls inside the entry's date range).
+ */
+public record CacheScope(Long schoolId, Integer classId, Long studentId, LocalDate date) {
+
+    public CacheScope {
+        if (schoolId == null && classId == null && studentId == null && date == null) {
+            throw new IllegalArgumentException("A cache scope needs a school, class, student or date");
+        }
+    }
+
+    public static CacheScope school(Long schoolId) {
+        return new CacheScope(schoolId, null, null, null);
+    }
+
+    public static CacheScope schoolClass(Integer classId) {
+        return new CacheScope(null, classId, null, null);
+    }
+
+    public static CacheScope student(Long studentId) {
+        return new CacheScope(null, null, studentId, null);
+    }
+
+    public static CacheScope date(LocalDate date) {
+        return new CacheScope(null, null, null, date);
+    }
+
+    /**
+     * Narrow the scope to one date
+     */
+    public CacheScope on(LocalDate date) {
+        return new CacheScope(schoolId, classId, studentId, date);
+    }
+
+    public boolean matches(CacheTags tags) {
+        return (schoolId == null || schoolId.equals(tags.schoolId()))
+                && (classId == null || classId.equals(tags.classId()))
+                && (studentId == null || studentId.equals(tags.studentId()))
+                && (date == null || tags.covers(date));
+    }
+}
@@ -0,0 +1,179 @@
+package com.school.attendance.config.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request, load and invalidation counts of one layered cache, per key prefix. A key's prefix is
+ * its first segment plus the tag name after it, e.g. {@code trend:student:*} for
+ * {@code trend:student:42:from:...} and {@code dailySummary:date:*}; values never end up in it.
+ * After MAX_PREFIXES distinct prefixes the rest are counted under "other", so unexpected keys
+ * cannot grow the meter registry without bound.
+ * Once bound to a registry each prefix is also published as Micrometer meters tagged with the
+ * cache and prefix: cache.requests (by result), cache.loads (a timer with a histogram) and
+ * cache.invalidations.
+ */
+public class CacheStatistics {
+
+    static final int MAX_PREFIXES = 50;
+    static final String OTHER = "other";
+
+    private final String cacheName;
+    private final ConcurrentMap<String, PrefixCounters> prefixes = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile MeterRegistry registry;
+
+    public CacheStatistics(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public static String prefixOf(Object key) {
+        if (!(key instanceof String text)) {
+            return key.getClass().getSimpleName();
+        }
+        String[] parts = text.split(":", 3);
+        if (parts.length > 1 && CacheTags.isTagName(parts[1])) {
+            return parts[0] + ":" + parts[1] + ":*";
+        }
+        return parts[0] + ":*";
+    }
+
+    void recordLocalHit(Object key) {
+        counters(key).localHits.increment();
+    }
+
+    void recordSharedHit(Object key) {
+        counters(key).sharedHits.increment();
+    }
+
+    void recordMiss(Object key) {
+        counters(key).misses.increment();
+    }
+
+    void recordLoad(Object key, long nanos, boolean success) {
+        PrefixCounters counters = counters(key);
+        (success ? counters.loads : counters.loadFailures).increment();
+        counters.loadNanos.add(nanos);
+        counters.maxLoadNanos.accumulate(nanos);
+        Timer timer = success ? counters.loadTimer : counters.failedLoadTimer;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void recordInvalidation(Object key) {
+        counters(key).invalidations.increment();
+    }
+
+    /**
+     * Publish every prefix seen so far, and any seen later, to the registry
+     */
+    void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        prefixes.forEach((prefix, counters) -> counters.register(registry, cacheName, prefix));
+    }
+
+    /**
+     * Counts so far per prefix, in prefix order
+     */
+    public Map<String, PrefixSnapshot> snapshot() {
+        Map<String, PrefixSnapshot> snapshot = new TreeMap<>();
+        prefixes.forEach((prefix, counters) -> snapshot.put(prefix, counters.snapshot()));
+        return snapshot;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private PrefixCounters counters(Object key) {
+        String prefix = prefixOf(key);
+        PrefixCounters counters = prefixes.get(prefix);
+        if (counters != null) {
+            return counters;
+        }
+        if (prefixes.size() >= MAX_PREFIXES) {
+            prefix = OTHER;
+        }
+        counters = prefixes.computeIfAbsent(prefix, ignored -> new PrefixCounters());
+        // Registering is idempotent; this covers prefixes first seen while bindTo was running
+        MeterRegistry current = registry;
+        if (current != null && counters.loadTimer == null) {
+            counters.register(current, cacheName, prefix);
+        }
+        return counters;
+    }
+
+    /**
+     * Counts for one prefix; hit ratio covers both tiers
+     */
+    public record PrefixSnapshot(long localHits, long sharedHits, long misses, double hitRatio, long loads,
+                                 long loadFailures, double meanLoadMs, double maxLoadMs, long invalidations) {
+    }
+
+    private static class PrefixCounters {
+
+        private final LongAdder localHits = new LongAdder();
+        private final LongAdder sharedHits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder loads = new LongAdder();
+        private final LongAdder loadFailures = new LongAdder();
+        private final LongAdder loadNanos = new LongAdder();
+        private final LongAccumulator maxLoadNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder invalidations = new LongAdder();
+        private volatile Timer loadTimer;
+        private volatile Timer failedLoadTimer;
+
+        void register(MeterRegistry registry, String cacheName, String prefix) {
+            Tags tags = Tags.of("cache", cacheName, "prefix", prefix);
+            requests(registry, tags, "local_hit", localHits);
+            requests(registry, tags, "shared_hit", sharedHits);
+            requests(registry, tags, "miss", misses);
+            FunctionCounter.builder("cache.invalidations", invalidations, LongAdder::sum)
+                    .description("Entries evicted because their data changed")
+                    .tags(tags)
+                    .register(registry);
+            loadTimer = loadTimer(registry, tags, "success");
+            failedLoadTimer = loadTimer(registry, tags, "failure");
+        }
+
+        PrefixSnapshot snapshot() {
+            long hits = localHits.sum() + sharedHits.sum();
+            long requests = hits + misses.sum();
+            long loadCount = loads.sum() + loadFailures.sum();
+            return new PrefixSnapshot(localHits.sum(), sharedHits.sum(), misses.sum(),
+                    requests > 0 ? Math.round(hits * 10000.0 / requests) / 10000.0 : 0.0,
+                    loads.sum(), loadFailures.sum(),
+                    loadCount > 0 ? toMillis(loadNanos.sum() / (double) loadCount) : 0.0,
+                    toMillis(maxLoadNanos.get()), invalidations.sum());
+        }
+
+        private static void requests(MeterRegistry registry, Tags tags, String result, LongAdder count) {
+            FunctionCounter.builder("cache.requests", count, LongAdder::sum)
+                    .description("Cache reads by the tier that answered, or miss")
+                    .tags(tags.and("result", result))
+                    .register(registry);
+        }
+
+        private static Timer loadTimer(MeterRegistry registry, Tags tags, String outcome) {
+            return Timer.builder("cache.loads")
+                    .description("Time to compute a missing entry")
+                    .tags(tags.and("outcome", outcome))
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private static double toMillis(double nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.school.attendance.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Layered cache entries by school, class, student and month (tags read from the key, see
+ * {@link CacheTags}), so a change can evict only the keys it affects.
+ * The index covers the entries this instance has written or read through and forgets each one
+ * once its ttl has passed. With a shared tier, entries written to it are also recorded in the
+ * shared tag store, so the instance making a change finds the shared copies of every instance.
+ */
+@Slf4j
+public class CacheTagIndex {
+
+    // Ranges longer than this go into one bucket that every date lookup checks
+    private static final int MAX_MONTH_TAGS = 24;
+    private static final String ANY_MONTH = "month:*";
+
+    private final ConcurrentMap<String, Set<CacheEntryRef>> entriesByTag = new ConcurrentHashMap<>();
+    private static final String MEMBER_SEPARATOR = "::";
+
+    private final com.github.benmanes.caffeine.cache.Cache<CacheEntryRef, Tracked> tracked;
+    @Nullable
+    private final CacheTagStore store;
+
+    public CacheTagIndex() {
+        this(null);
+    }
+
+    public CacheTagIndex(@Nullable CacheTagStore store) {
+        this.store = store;
+        this.tracked = Caffeine.newBuilder()
+                .expireAfter(new TrackedExpiry())
+                .executor(Runnable::run)
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    /**
+     * Remember an entry under its tags; keys without tags are not tracked
+     */
+    public void track(String cacheName, Object key, Duration ttl) {
+        CacheTags tags = CacheTags.fromKey(key);
+        if (tags.isEmpty()) {
+            return;
+        }
+        CacheEntryRef ref = new CacheEntryRef(cacheName, key);
+        tracked.put(ref, new Tracked(tags, ttl));
+        tagsOf(tags).forEach(tag -> entriesByTag.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(ref));
+    }
+
+    /**
+     * Remember an entry written to the shared tier, here and in the shared tag store
+     */
+    public void trackShared(String cacheName, Object key, Duration ttl) {
+        track(cacheName, key, ttl);
+        CacheTags tags = CacheTags.fromKey(key);
+        if (store == null || tags.isEmpty()) {
+            return;
+        }
+        try {
+            store.add(tagsOf(tags), member(cacheName, key), System.currentTimeMillis() + ttl.toMillis());
+        } catch (RuntimeException e) {
+            log.warn("Shared cache tag ADD failed for cache: {} key: {} - {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    public void untrack(String cacheName, Object key) {
+        tracked.invalidate(new CacheEntryRef(cacheName, key));
+        CacheTags tags = CacheTags.fromKey(key);
+        if (store == null || tags.isEmpty()) {
+            return;
+        }
+        try {
+            store.remove(tagsOf(tags), member(cacheName, key));
+        } catch (RuntimeException e) {
+            log.warn("Shared cache tag REMOVE failed for cache: {} key: {} - {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    public void untrackAll(String cacheName) {
+        tracked.invalidateAll(tracked.asMap().keySet().stream()
+                .filter(ref -> ref.cacheName().equals(cacheName))
+                .toList());
+    }
+
+    /**
+     * Tracked entries of the given caches (all caches when none are given) that are in scope
+     */
+    public List<CacheEntryRef> match(CacheScope scope, Collection<String> cacheNames) {
+        List<CacheEntryRef> matches = new ArrayList<>();
+        for (CacheEntryRef ref : candidates(scope)) {
+            Tracked entry = tracked.getIfPresent(ref);
+            if (entry != null && (cacheNames.isEmpty() || cacheNames.contains(ref.cacheName()))
+                    && scope.matches(entry.tags())) {
+                matches.add(ref);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Entries in scope tracked here and, with a shared tag store, those any instance wrote to the
+     * shared tier. Falls back to this instance's entries when the store cannot be read.
+     */
+    public List<CacheEntryRef> matchShared(CacheScope scope, Collection<String> cacheNames) {
+        List<CacheEntryRef> matches = match(scope, cacheNames);
+        if (store == null) {
+            return matches;
+        }
+        Set<CacheEntryRef> all = new LinkedHashSet<>(matches);
+        try {
+            for (String member : store.members(candidateTags(scope), System.currentTimeMillis())) {
+                int separator = member.indexOf(MEMBER_SEPARATOR);
+                if (separator < 0) {
+                    continue;
+                }
+                CacheEntryRef ref = new CacheEntryRef(member.substring(0, separator),
+                        member.substring(separator + MEMBER_SEPARATOR.length()));
+                if ((cacheNames.isEmpty() || cacheNames.contains(ref.cacheName()))
+                        && scope.matches(CacheTags.fromKey(ref.key()))) {
+                    all.add(ref);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Shared cache tag lookup failed for scope: {} - {}", scope, e.getMessage());
+        }
+        return new ArrayList<>(all);
+    }
+
+    public long size() {
+        return tracked.estimatedSize();
+    }
+
+    public record CacheEntryRef(String cacheName, Object key) {
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Entries under the most selective tag the scope names
+     */
+    private Set<CacheEntryRef> candidates(CacheScope scope) {
+        Set<CacheEntryRef> candidates = new LinkedHashSet<>();
+        candidateTags(scope).forEach(tag -> candidates.addAll(entriesByTag.getOrDefault(tag, Set.of())));
+        return candidates;
+    }
+
+    private static List<String> candidateTags(CacheScope scope) {
+        if (scope.studentId() != null) {
+            return List.of("student:" + scope.studentId());
+        }
+        if (scope.classId() != null) {
+            return List.of("class:" + scope.classId());
+        }
+        if (scope.schoolId() != null) {
+            return List.of("school:" + scope.schoolId());
+        }
+        return List.of(monthTag(YearMonth.from(scope.date())), ANY_MONTH);
+    }
+
+    private static String member(String cacheName, Object key) {
+        return cacheName + MEMBER_SEPARATOR + key;
+    }
+
+    private static List<String> tagsOf(CacheTags tags) {
+        List<String> names = new ArrayList<>();
+        if (tags.schoolId() != null) {
+            names.add("school:" + tags.schoolId());
+        }
+        if (tags.classId() != null) {
+            names.add("class:" + tags.classId());
+        }
+        if (tags.studentId() != null) {
+            names.add("student:" + tags.studentId());
+        }
+        if (tags.from() != null) {
+            YearMonth first = YearMonth.from(tags.from());
+            YearMonth last = YearMonth.from(tags.to());
+            if (first.plusMonths(MAX_MONTH_TAGS).isBefore(last)) {
+                names.add(ANY_MONTH);
+            } else {
+                for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                    names.add(monthTag(month));
+                }
+            }
+        }
+        return names;
+    }
+
+    private static String monthTag(YearMonth month) {
+        return "month:" + month;
+    }
+
+    private void onRemoval(CacheEntryRef ref, Tracked entry, RemovalCause cause) {
+        if (ref == null || entry == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        for (String tag : tagsOf(entry.tags())) {
+            entriesByTag.computeIfPresent(tag, (t, refs) -> {
+                if (tracked.getIfPresent(ref) == null) {
+                    refs.remove(ref);
+                }
+                return refs.isEmpty() ? null : refs;
+            });
+        }
+    }
+
+    private record Tracked(CacheTags tags, Duration ttl) {
+    }
+
+    private static class TrackedExpiry implements Expiry<CacheEntryRef, Tracked> {
+
+        @Override
+        public long expireAfterCreate(CacheEntryRef ref, Tracked entry, long currentTime) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheEntryRef ref, Tracked entry, long currentTime, long currentDuration) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(CacheEntryRef ref, Tracked entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.school.attendance.config.cache;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Tag sets shared by all instances (Redis in production): which shared-tier entries carry a tag,
+ * so a scoped eviction also finds entries written by other instances or before a restart.
+ * Members are "cacheName::key" and are forgotten once their expiry (epoch millis) has passed.
+ */
+public interface CacheTagStore {
+
+    void add(Collection<String> tags, String member, long expiresAtMillis);
+
+    /**
+     * Unexpired members of any of the tags
+     */
+    Set<String> members(Collection<String> tags, long nowMillis);
+
+    void remove(Collection<String> tags, String member);
+}
@@ -0,0 +1,83 @@
+package com.school.attendance.config.cache;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Set;
+
+/**
+ * School, class, student and date range an entry was computed for, read from its key.
+ * Keys are ':'-separated name/value pairs; the names understood are school, class, student,
+ * date, from/to (a date range) and year/month (a calendar month), e.g.
+ * {@code summary:student:42:from:2024-06-01:to:2024-06-30}. Other pairs are ignored.
+ */
+public record CacheTags(Long schoolId, Integer classId, Long studentId, LocalDate from, LocalDate to) {
+
+    public static final CacheTags NONE = new CacheTags(null, null, null, null, null);
+
+    private static final Set<String> NAMES = Set.of("school", "class", "student", "date", "from", "to", "year", "month");
+
+    public static CacheTags fromKey(Object key) {
+        if (!(key instanceof String text)) {
+            return NONE;
+        }
+        String[] parts = text.split(":");
+        Long schoolId = null;
+        Integer classId = null;
+        Long studentId = null;
+        LocalDate from = null;
+        LocalDate to = null;
+        Integer year = null;
+        Integer month = null;
+        // The first value of each name wins, so free text later in the key (search terms) cannot retag it
+        for (int i = 0; i + 1 < parts.length; i++) {
+            String value = parts[i + 1];
+            try {
+                switch (parts[i]) {
+                    case "school" -> schoolId = schoolId != null ? schoolId : Long.valueOf(value);
+                    case "class" -> classId = classId != null ? classId : Integer.valueOf(value);
+                    case "student" -> studentId = studentId != null ? studentId : Long.valueOf(value);
+                    case "date" -> {
+                        if (from == null) {
+                            from = to = LocalDate.parse(value);
+                        }
+                    }
+                    case "from" -> from = from != null ? from : LocalDate.parse(value);
+                    case "to" -> to = to != null ? to : LocalDate.parse(value);
+                    case "year" -> year = year != null ? year : Integer.valueOf(value);
+                    case "month" -> month = month != null ? month : Integer.valueOf(value);
+                    default -> {
+                        continue;
+                    }
+                }
+                i++;
+            } catch (NumberFormatException | DateTimeException e) {
+                // Not a tag after all; carry on with the next part
+            }
+        }
+        if (year != null && month != null && from == null && month >= 1 && month <= 12) {
+            YearMonth yearMonth = YearMonth.of(year, month);
+            from = yearMonth.atDay(1);
+            to = yearMonth.atEndOfMonth();
+        }
+        if (from == null || to == null) {
+            from = to = null;
+        }
+        return new CacheTags(schoolId, classId, studentId, from, to);
+    }
+
+    /**
+     * True for the pair names understood as tags (each is followed by its value in a key)
+     */
+    public static boolean isTagName(String part) {
+        return NAMES.contains(part);
+    }
+
+    public boolean isEmpty() {
+        return schoolId == null && classId == null && studentId == null && from == null;
+    }
+
+    public boolean covers(LocalDate date) {
+        return from != null && !date.isBefore(from) && !date.isAfter(to);
+    }
+}
@@ -0,0 +1,551 @@
+package com.school.attendance.config.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary encoding of cached values for the shared (Redis) tier.
+ * Covers what the caches hold: strings, numbers, booleans, dates and times, enums, lists, sets,
+ * maps, pages and records. Integers are varints and repeated strings (map keys, enum and record
+ * class names) are written once per value and referenced by index afterwards, so a list of
+ * report rows costs little more than its data. Anything else is embedded as JSON under its
+ * class name.
+ * Layout: magic, format version, flags, then the body, deflated at BEST_SPEED when it is at
+ * least compressThreshold bytes and compression actually helps. A record carries a hash of its
+ * component names and types. Values written by another format version, or a record whose
+ * components have changed since, fail to decode; the layered cache treats that as a miss.
+ */
+public class CompactValueCodec implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xCA;
+    static final byte VERSION = 1;
+    private static final int FLAG_DEFLATED = 1;
+    private static final int MAX_INTERNED = 4096;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte SHORT = 7;
+    private static final byte BYTE = 8;
+    private static final byte STRING = 9;
+    private static final byte STRING_REF = 10;
+    private static final byte BIG_DECIMAL = 11;
+    private static final byte BIG_INTEGER = 12;
+    private static final byte LOCAL_DATE = 13;
+    private static final byte LOCAL_DATE_TIME = 14;
+    private static final byte LOCAL_TIME = 15;
+    private static final byte INSTANT = 16;
+    private static final byte ENUM = 17;
+    private static final byte LIST = 18;
+    private static final byte SET = 19;
+    private static final byte MAP = 20;
+    private static final byte PAGE = 21;
+    private static final byte RECORD = 22;
+    private static final byte JSON = 23;
+
+    private final ObjectMapper jsonMapper;
+    private final int compressThreshold;
+    private final Map<Class<?>, RecordLayout> recordLayouts = new ConcurrentHashMap<>();
+
+    public CompactValueCodec(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+        this.jsonMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Writer body = new Writer();
+        try {
+            write(body, value);
+        } catch (Exception e) {
+            throw new SerializationException("Cannot encode " + value.getClass().getName(), e);
+        }
+
+        byte[] bytes = body.toByteArray();
+        if (bytes.length >= compressThreshold) {
+            byte[] deflated = deflate(bytes);
+            if (deflated.length < bytes.length) {
+                Writer out = new Writer();
+                out.header(FLAG_DEFLATED);
+                out.varint(bytes.length);
+                out.bytes(deflated);
+                return out.toByteArray();
+            }
+        }
+        Writer out = new Writer();
+        out.header(0);
+        out.bytes(bytes);
+        return out.toByteArray();
+    }
+
+    @Override
+    @Nullable
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < 3 || bytes[0] != MAGIC) {
+            throw new SerializationException("Not a compact cache value");
+        }
+        if (bytes[1] != VERSION) {
+            throw new SerializationException("Compact cache value has format version " + bytes[1]);
+        }
+        try {
+            Reader in = new Reader(bytes, 3);
+            if ((bytes[2] & FLAG_DEFLATED) != 0) {
+                int length = (int) in.varint();
+                in = new Reader(inflate(bytes, in.position, length), 0);
+            }
+            return read(in);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("Cannot decode compact cache value", e);
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void write(Writer out, @Nullable Object value) throws Exception {
+        if (value == null) {
+            out.tag(NULL);
+        } else if (value instanceof String text) {
+            out.string(text);
+        } else if (value instanceof Boolean flag) {
+            out.tag(flag ? TRUE : FALSE);
+        } else if (value instanceof Integer number) {
+            out.tag(INT);
+            out.zigzag(number);
+        } else if (value instanceof Long number) {
+            out.tag(LONG);
+            out.zigzag(number);
+        } else if (value instanceof Double number) {
+            out.tag(DOUBLE);
+            out.fixed64(Double.doubleToLongBits(number));
+        } else if (value instanceof Float number) {
+            out.tag(FLOAT);
+            out.fixed64(Float.floatToIntBits(number));
+        } else if (value instanceof Short number) {
+            out.tag(SHORT);
+            out.zigzag(number);
+        } else if (value instanceof Byte number) {
+            out.tag(BYTE);
+            out.zigzag(number);
+        } else if (value instanceof BigDecimal number) {
+            out.tag(BIG_DECIMAL);
+            out.zigzag(number.scale());
+            out.byteArray(number.unscaledValue().toByteArray());
+        } else if (value instanceof BigInteger number) {
+            out.tag(BIG_INTEGER);
+            out.byteArray(number.toByteArray());
+        } else if (value instanceof LocalDate date) {
+            out.tag(LOCAL_DATE);
+            out.zigzag(date.toEpochDay());
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.tag(LOCAL_DATE_TIME);
+            out.zigzag(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.varint(dateTime.getNano());
+        } else if (value instanceof LocalTime time) {
+            out.tag(LOCAL_TIME);
+            out.varint(time.toNanoOfDay());
+        } else if (value instanceof Instant instant) {
+            out.tag(INSTANT);
+            out.zigzag(instant.getEpochSecond());
+            out.varint(instant.getNano());
+        } else if (value instanceof Enum<?> constant) {
+            out.tag(ENUM);
+            out.string(constant.getDeclaringClass().getName());
+            out.string(constant.name());
+        } else if (value instanceof Page<?> page) {
+            out.tag(PAGE);
+            out.varint(page.getNumber());
+            out.varint(page.getSize());
+            out.varint(page.getTotalElements());
+            List<Sort.Order> orders = page.getSort().toList();
+            out.varint(orders.size());
+            for (Sort.Order order : orders) {
+                out.string(order.getProperty());
+                out.tag(order.isAscending() ? TRUE : FALSE);
+            }
+            writeElements(out, page.getContent());
+        } else if (value instanceof List<?> list) {
+            out.tag(LIST);
+            writeElements(out, list);
+        } else if (value instanceof Set<?> set) {
+            out.tag(SET);
+            writeElements(out, set);
+        } else if (value instanceof Map<?, ?> map) {
+            out.tag(MAP);
+            out.varint(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(out, entry.getKey());
+                write(out, entry.getValue());
+            }
+        } else if (value instanceof Record) {
+            RecordLayout layout = recordLayout(value.getClass());
+            out.tag(RECORD);
+            out.string(value.getClass().getName());
+            out.zigzag(layout.schemaHash());
+            for (RecordComponent component : layout.components()) {
+                write(out, component.getAccessor().invoke(value));
+            }
+        } else {
+            out.tag(JSON);
+            out.string(value.getClass().getName());
+            out.byteArray(jsonMapper.writeValueAsBytes(value));
+        }
+    }
+
+    private void writeElements(Writer out, java.util.Collection<?> elements) throws Exception {
+        out.varint(elements.size());
+        for (Object element : elements) {
+            write(out, element);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Nullable
+    private Object read(Reader in) throws Exception {
+        byte tag = in.tag();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return (int) in.zigzag();
+            case LONG:
+                return in.zigzag();
+            case DOUBLE:
+                return Double.longBitsToDouble(in.fixed64());
+            case FLOAT:
+                return Float.intBitsToFloat((int) in.fixed64());
+            case SHORT:
+                return (short) in.zigzag();
+            case BYTE:
+                return (byte) in.zigzag();
+            case STRING:
+            case STRING_REF:
+                return in.string(tag);
+            case BIG_DECIMAL: {
+                int scale = (int) in.zigzag();
+                return new BigDecimal(new BigInteger(in.byteArray()), scale);
+            }
+            case BIG_INTEGER:
+                return new BigInteger(in.byteArray());
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(in.zigzag());
+            case LOCAL_DATE_TIME:
+                return LocalDateTime.ofEpochSecond(in.zigzag(), (int) in.varint(), ZoneOffset.UTC);
+            case LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(in.varint());
+            case INSTANT:
+                return Instant.ofEpochSecond(in.zigzag(), in.varint());
+            case ENUM: {
+                Class<? extends Enum> type = (Class<? extends Enum>) classFor(in.string(in.tag()));
+                return Enum.valueOf(type, in.string(in.tag()));
+            }
+            case PAGE: {
+                int number = (int) in.varint();
+                int size = (int) in.varint();
+                long total = in.varint();
+                int orderCount = (int) in.varint();
+                List<Sort.Order> orders = new ArrayList<>(orderCount);
+                for (int i = 0; i < orderCount; i++) {
+                    String property = in.string(in.tag());
+                    orders.add(in.tag() == TRUE ? Sort.Order.asc(property) : Sort.Order.desc(property));
+                }
+                List<Object> content = readElements(in, new ArrayList<>());
+                return new PageImpl<>(content, PageRequest.of(number, Math.max(size, 1), Sort.by(orders)), total);
+            }
+            case LIST:
+                return readElements(in, new ArrayList<>());
+            case SET:
+                return readElements(in, new LinkedHashSet<>());
+            case MAP: {
+                int size = (int) in.varint();
+                Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, size * 2));
+                for (int i = 0; i < size; i++) {
+                    Object key = read(in);
+                    map.put(key, read(in));
+                }
+                return map;
+            }
+            case RECORD: {
+                Class<?> type = classFor(in.string(in.tag()));
+                RecordLayout layout = recordLayout(type);
+                if ((int) in.zigzag() != layout.schemaHash()) {
+                    throw new SerializationException("Cached " + type.getSimpleName() + " has an older schema");
+                }
+                Object[] values = new Object[layout.components().length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = read(in);
+                }
+                return layout.constructor().newInstance(values);
+            }
+            case JSON: {
+                Class<?> type = classFor(in.string(in.tag()));
+                return jsonMapper.readValue(in.byteArray(), type);
+            }
+            default:
+                throw new SerializationException("Unknown tag " + tag + " in compact cache value");
+        }
+    }
+
+    private <C extends java.util.Collection<Object>> C readElements(Reader in, C target) throws Exception {
+        int size = (int) in.varint();
+        for (int i = 0; i < size; i++) {
+            target.add(read(in));
+        }
+        return target;
+    }
+
+    private RecordLayout recordLayout(Class<?> type) {
+        return recordLayouts.computeIfAbsent(type, recordType -> {
+            RecordComponent[] components = recordType.getRecordComponents();
+            Class<?>[] types = Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+            StringBuilder schema = new StringBuilder();
+            for (RecordComponent component : components) {
+                schema.append(component.getName()).append(':').append(component.getGenericType().getTypeName()).append(';');
+            }
+            try {
+                Constructor<?> constructor = recordType.getDeclaredConstructor(types);
+                constructor.setAccessible(true);
+                Arrays.stream(components).forEach(component -> component.getAccessor().setAccessible(true));
+                return new RecordLayout(components, constructor, schema.toString().hashCode());
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("No canonical constructor on " + recordType.getName(), e);
+            }
+        });
+    }
+
+    private static Class<?> classFor(String name) throws ClassNotFoundException {
+        return Class.forName(name, false, CompactValueCodec.class.getClassLoader());
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset, int length) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            byte[] out = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(out, read, length - read);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new DataFormatException("Truncated compact cache value");
+            }
+            return out;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private record RecordLayout(RecordComponent[] components, Constructor<?> constructor, int schemaHash) {
+    }
+
+    /**
+     * Growable output buffer; strings seen before in the same value are written as references
+     */
+    private static final class Writer {
+
+        private byte[] buffer = new byte[256];
+        private int size;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        void header(int flags) {
+            write(MAGIC);
+            write(VERSION);
+            write(flags);
+        }
+
+        void tag(byte tag) {
+            write(tag);
+        }
+
+        void string(String text) {
+            Integer index = strings.get(text);
+            if (index != null) {
+                write(STRING_REF);
+                varint(index);
+                return;
+            }
+            if (strings.size() < MAX_INTERNED) {
+                strings.put(text, strings.size());
+            }
+            write(STRING);
+            byteArray(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void zigzag(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void fixed64(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void byteArray(byte[] bytes) {
+            varint(bytes.length);
+            bytes(bytes);
+        }
+
+        void bytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void write(int b) {
+            ensure(1);
+            buffer[size++] = (byte) b;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+        private final List<String> strings = new ArrayList<>();
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        byte tag() {
+            return bytes[position++];
+        }
+
+        String string(byte tag) {
+            if (tag == STRING_REF) {
+                return strings.get((int) varint());
+            }
+            if (tag != STRING) {
+                throw new SerializationException("Expected a string, found tag " + tag);
+            }
+            String text = new String(byteArray(), StandardCharsets.UTF_8);
+            if (strings.size() < MAX_INTERNED) {
+                strings.add(text);
+            }
+            return text;
+        }
+
+        long zigzag() {
+            long value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in compact cache value");
+        }
+
+        long fixed64() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (bytes[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        byte[] byteArray() {
+            int length = (int) varint();
+            byte[] out = Arrays.copyOfRange(bytes, position, position + length);
+            position += length;
+            return out;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.school.attendance.config.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Two-tier cache: a bounded in-process Caffeine map in front of an optional shared cache (Redis).
+ * Reads try the local tier first and copy shared hits into it; writes and evictions go to both.
+ * Shared-tier failures are logged and the local tier (or the loader) answers instead.
+ * Entries with tagged keys are recorded in the tag index for scoped eviction. When an invalidation
+ * bus is attached, writes and evictions are broadcast so other instances drop their local copies.
+ * Concurrent misses on the same key through {@link #get(Object, Callable)} (e.g. {@code @Cacheable(sync = true)})
+ * run the loader once; the other callers wait for its result up to the cache's load timeout.
+ * With refresh-ahead configured, hits on entries near the end of their ttl trigger a background
+ * reload through the same loader, so hot keys never expire under their readers.
+ * Reads, loads and invalidations are counted per key prefix (see {@link CacheStatistics}).
+ */
+@Slf4j
+public class LayeredCache extends AbstractValueAdaptingCache {
+
+    private static final Duration FOOTPRINT_INTERVAL = Duration.ofMinutes(1);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    @Nullable
+    private final Cache shared;
+    private final CacheTagIndex tagIndex;
+    private final Duration ttl;
+    private final SingleFlight loads;
+    @Nullable
+    private final RefreshAhead refreshAhead;
+    private final CacheStatistics statistics;
+    @Nullable
+    private volatile CacheInvalidationBus invalidationBus;
+    @Nullable
+    private volatile MeasuredFootprint lastFootprint;
+
+    public LayeredCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> local,
+                        @Nullable Cache shared, CacheTagIndex tagIndex, Duration ttl, Duration loadTimeout) {
+        this(name, local, shared, tagIndex, ttl, loadTimeout, null);
+    }
+
+    LayeredCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> local,
+                 @Nullable Cache shared, CacheTagIndex tagIndex, Duration ttl, Duration loadTimeout,
+                 @Nullable RefreshAhead refreshAhead) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.shared = shared;
+        this.tagIndex = tagIndex;
+        this.ttl = ttl;
+        this.loads = new SingleFlight(loadTimeout);
+        this.refreshAhead = refreshAhead;
+        this.statistics = new CacheStatistics(name);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() {
+        return local;
+    }
+
+    @Nullable
+    public Cache getShared() {
+        return shared;
+    }
+
+    @Override
+    @Nullable
+    protected Object lookup(Object key) {
+        Object value = local.getIfPresent(key);
+        if (value != null) {
+            statistics.recordLocalHit(key);
+            return value;
+        }
+        value = lookupShared(key);
+        if (value != null) {
+            statistics.recordSharedHit(key);
+        } else {
+            statistics.recordMiss(key);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object cached = lookup(key);
+        if (cached != null) {
+            if (refreshAhead != null) {
+                refreshAhead.refreshIfDue(key, () -> reload(key, valueLoader));
+            }
+            return (T) cached;
+        }
+        return loads.execute(key, () -> {
+            // Another caller may have loaded it between our miss and taking the lead
+            Object loaded = local.getIfPresent(key);
+            if (loaded == null) {
+                loaded = lookupShared(key);
+            }
+            if (loaded != null) {
+                return (T) loaded;
+            }
+            T value;
+            try {
+                value = timedLoad(key, valueLoader);
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            put(key, value);
+            return value;
+        });
+    }
+
+    public SingleFlight getLoads() {
+        return loads;
+    }
+
+    /**
+     * Background reloads completed so far (0 without refresh-ahead)
+     */
+    public long getRefreshes() {
+        return refreshAhead != null ? refreshAhead.getRefreshes() : 0;
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Entry count and approximate size of the local tier per key prefix (walks every entry)
+     */
+    public Map<String, CacheFootprint.PrefixFootprint> footprint() {
+        return CacheFootprint.measure(local.asMap());
+    }
+
+    /**
+     * Approximate size of the local tier, re-measured at most once per FOOTPRINT_INTERVAL
+     */
+    public long estimatedBytes() {
+        MeasuredFootprint last = lastFootprint;
+        long now = System.nanoTime();
+        if (last == null || now - last.measuredAt() > FOOTPRINT_INTERVAL.toNanos()) {
+            last = new MeasuredFootprint(CacheFootprint.estimatedBytes(footprint()), now);
+            lastFootprint = last;
+        }
+        return last.bytes();
+    }
+
+    /**
+     * Publish the local tier's Caffeine statistics, the per-prefix statistics, load coalescing,
+     * refreshes and estimated size to the registry, all tagged with the cache name
+     */
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, local, name, "tier", "local");
+        statistics.bindTo(registry);
+        FunctionCounter.builder("cache.loads.coalesced", loads, SingleFlight::getCoalesced)
+                .description("Callers that waited for another caller's load of the same key")
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("cache.refreshes", this, LayeredCache::getRefreshes)
+                .description("Entries reloaded in the background ahead of expiry")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.memory.estimated", this, LayeredCache::estimatedBytes)
+                .description("Approximate size of the local tier (sampled serialized size)")
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        if (value == null) {
+            // Null results are not cached; drop whatever was there instead
+            evict(key);
+            return;
+        }
+        if (shared != null) {
+            try {
+                shared.put(key, value);
+            } catch (RuntimeException e) {
+                log.warn("Shared cache PUT failed for cache: {} key: {} - {}", name, key, e.getMessage());
+            }
+        }
+        local.put(key, value);
+        if (shared != null) {
+            tagIndex.trackShared(name, key, ttl);
+        } else {
+            tagIndex.track(name, key, ttl);
+        }
+        if (refreshAhead != null) {
+            refreshAhead.loaded(key);
+        }
+        broadcastKey(key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictQuietly(key);
+        broadcastKey(key);
+    }
+
+    /**
+     * Evict from both tiers without telling other instances
+     */
+    void evictQuietly(Object key) {
+        if (shared != null) {
+            try {
+                shared.evict(key);
+            } catch (RuntimeException e) {
+                log.warn("Shared cache EVICT failed for cache: {} key: {} - {}", name, key, e.getMessage());
+            }
+        }
+        local.invalidate(key);
+        tagIndex.untrack(name, key);
+        statistics.recordInvalidation(key);
+        if (refreshAhead != null) {
+            refreshAhead.forget(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (shared != null) {
+            try {
+                shared.clear();
+            } catch (RuntimeException e) {
+                log.warn("Shared cache CLEAR failed for cache: {} - {}", name, e.getMessage());
+            }
+        }
+        local.invalidateAll();
+        tagIndex.untrackAll(name);
+        if (refreshAhead != null) {
+            refreshAhead.forgetAll();
+        }
+        CacheInvalidationBus bus = invalidationBus;
+        if (bus != null) {
+            bus.publishClear(name);
+        }
+    }
+
+    /**
+     * Drop the local copy only, e.g. when another instance has changed the shared entry
+     */
+    public void evictLocal(Object key) {
+        local.invalidate(key);
+        statistics.recordInvalidation(key);
+        if (refreshAhead != null) {
+            // Whoever wrote the newer value refreshes it from now on
+            refreshAhead.forget(key);
+        }
+    }
+
+    /**
+     * Drop every local entry only
+     */
+    public void clearLocal() {
+        local.invalidateAll();
+        if (refreshAhead != null) {
+            refreshAhead.forgetAll();
+        }
+    }
+
+    void setInvalidationBus(@Nullable CacheInvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    @Nullable
+    private Object lookupShared(Object key) {
+        if (shared == null) {
+            return null;
+        }
+        Object value;
+        try {
+            ValueWrapper wrapper = shared.get(key);
+            value = wrapper != null ? wrapper.get() : null;
+        } catch (RuntimeException e) {
+            log.warn("Shared cache GET failed for cache: {} key: {} - {}", name, key, e.getMessage());
+            return null;
+        }
+        if (value != null) {
+            local.put(key, value);
+            tagIndex.track(name, key, ttl);
+        }
+        return value;
+    }
+
+    private <T> T timedLoad(Object key, Callable<T> valueLoader) throws Exception {
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            T value = valueLoader.call();
+            success = true;
+            return value;
+        } finally {
+            statistics.recordLoad(key, System.nanoTime() - started, success);
+        }
+    }
+
+    private <T> T reload(Object key, Callable<T> valueLoader) throws Exception {
+        T value = timedLoad(key, valueLoader);
+        put(key, value);
+        log.debug("Refreshed {} in cache {} ahead of expiry", key, name);
+        return value;
+    }
+
+    private void broadcastKey(Object key) {
+        CacheInvalidationBus bus = invalidationBus;
+        if (bus != null) {
+            bus.publishKey(name, key);
+        }
+    }
+
+    private record MeasuredFootprint(long bytes, long measuredAt) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.school.attendance.config.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+/**
+ * Application cache configuration
+ * Spring's caching annotations resolve to layered caches; the Redis tier is added when
+ * app.cache.redis.enabled is set (see RedisConfig), otherwise each instance caches locally.
+ * With a shared tier, instances keep their local tiers coherent over the invalidation bus and
+ * share the tag sets used for scoped eviction.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(LayeredCacheProperties.class)
+public class LayeredCacheConfig {
+
+    @Bean
+    @Primary
+    public LayeredCacheManager cacheManager(LayeredCacheProperties properties,
+                                            ObjectProvider<RedisCacheManager> redisCacheManager,
+                                            ObjectProvider<CacheInvalidationTransport> invalidationTransport,
+                                            ObjectProvider<CacheTagStore> tagStore,
+                                            ObjectProvider<MeterRegistry> meterRegistry) {
+        LayeredCacheManager cacheManager = new LayeredCacheManager(properties, redisCacheManager.getIfAvailable(),
+                tagStore.getIfAvailable());
+        invalidationTransport.ifAvailable(transport -> new CacheInvalidationBus(transport).bind(cacheManager));
+        meterRegistry.ifAvailable(cacheManager::bindTo);
+        return cacheManager;
+    }
+
+    /**
+     * Coalescing for expensive computations outside the caches (analytics)
+     */
+    @Bean
+    public SingleFlight analyticsSingleFlight(LayeredCacheProperties properties) {
+        return new SingleFlight(properties.getDefaults().getLoadTimeout());
+    }
+}
@@ -0,0 +1,190 @@
+package com.school.attendance.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache manager handing out {@link LayeredCache}s: each cache gets its own bounded Caffeine tier,
+ * sized and expired per app.cache.caches.&lt;name&gt;, in front of the same-named cache of the shared
+ * manager (Redis) when one is configured. Without a shared manager the caches are local only.
+ * Tagged entries of all caches share one tag index, so a change can evict just its own keys; with
+ * a shared tag store the index also finds the shared entries other instances wrote.
+ * Caches with refresh-ahead share one small pool of daemon threads for their background reloads.
+ */
+@Slf4j
+public class LayeredCacheManager implements CacheManager {
+
+    private final LayeredCacheProperties properties;
+    @Nullable
+    private final CacheManager sharedCacheManager;
+    private final ConcurrentMap<String, LayeredCache> caches = new ConcurrentHashMap<>();
+    private final CacheTagIndex tagIndex;
+    private final ThreadPoolExecutor refreshExecutor;
+    @Nullable
+    private volatile CacheInvalidationBus invalidationBus;
+    @Nullable
+    private volatile MeterRegistry meterRegistry;
+
+    public LayeredCacheManager(LayeredCacheProperties properties, @Nullable CacheManager sharedCacheManager) {
+        this(properties, sharedCacheManager, null);
+    }
+
+    public LayeredCacheManager(LayeredCacheProperties properties, @Nullable CacheManager sharedCacheManager,
+                               @Nullable CacheTagStore tagStore) {
+        this.properties = properties;
+        this.sharedCacheManager = sharedCacheManager;
+        this.tagIndex = new CacheTagIndex(tagStore);
+        this.refreshExecutor = newRefreshExecutor(properties.getRefreshThreads());
+        properties.getCaches().keySet().forEach(this::getCache);
+    }
+
+    @Override
+    public LayeredCache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public boolean isShared() {
+        return sharedCacheManager != null;
+    }
+
+    /**
+     * Evict the entries of the given caches (all caches when none are given) that are in scope;
+     * returns the number of keys evicted
+     */
+    public int evict(CacheScope scope, String... cacheNames) {
+        int evicted = evict(tagIndex.matchShared(scope, Arrays.asList(cacheNames)));
+        CacheInvalidationBus bus = invalidationBus;
+        if (bus != null) {
+            bus.publishScope(scope, cacheNames);
+        }
+        return evicted;
+    }
+
+    /**
+     * Scoped eviction of this instance's tracked entries, without telling other instances
+     */
+    int evictQuietly(CacheScope scope, String... cacheNames) {
+        return evict(tagIndex.match(scope, Arrays.asList(cacheNames)));
+    }
+
+    /**
+     * Drop every local entry of every cache; the shared tier is left alone
+     */
+    public void clearLocal() {
+        caches.values().forEach(LayeredCache::clearLocal);
+    }
+
+    @Nullable
+    public CacheInvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    void setInvalidationBus(CacheInvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+        caches.values().forEach(cache -> cache.setInvalidationBus(invalidationBus));
+    }
+
+    public CacheTagIndex getTagIndex() {
+        return tagIndex;
+    }
+
+    /**
+     * Publish metrics of every cache, present and future, plus the tag index and invalidation bus
+     */
+    public synchronized void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        caches.values().forEach(cache -> cache.bindTo(registry));
+        Gauge.builder("cache.tags.tracked", tagIndex, CacheTagIndex::size)
+                .description("Entries tracked for scoped invalidation")
+                .register(registry);
+        CacheInvalidationBus bus = invalidationBus;
+        if (bus != null) {
+            FunctionCounter.builder("cache.bus.messages", bus, CacheInvalidationBus::getPublished)
+                    .tag("direction", "published").register(registry);
+            FunctionCounter.builder("cache.bus.messages", bus, CacheInvalidationBus::getReceived)
+                    .tag("direction", "received").register(registry);
+            FunctionCounter.builder("cache.bus.messages", bus, CacheInvalidationBus::getRejected)
+                    .tag("direction", "rejected").register(registry);
+            FunctionCounter.builder("cache.bus.resubscriptions", bus, CacheInvalidationBus::getResubscriptions)
+                    .register(registry);
+            Gauge.builder("cache.bus.lag.max", bus, CacheInvalidationBus::getMaxLagMs)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Stop background refreshes (called by the container on shutdown)
+     */
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private int evict(List<CacheTagIndex.CacheEntryRef> refs) {
+        refs.forEach(ref -> getCache(ref.cacheName()).evictQuietly(ref.key()));
+        return refs.size();
+    }
+
+    private LayeredCache createCache(String name) {
+        LayeredCacheProperties.Spec spec = properties.specFor(name);
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> local = Caffeine.newBuilder()
+                .maximumSize(spec.getLocalMaxSize())
+                .expireAfterWrite(spec.effectiveLocalTtl())
+                .recordStats()
+                .build();
+        Cache shared = sharedCacheManager != null ? sharedCacheManager.getCache(name) : null;
+        log.info("Cache '{}': local tier {} entries / {}, shared tier {}", name, spec.getLocalMaxSize(),
+                spec.effectiveLocalTtl(), shared != null ? spec.getTtl() : "none");
+        // The index forgets an entry once neither tier can still hold it
+        Duration ttl = shared != null ? spec.getTtl() : spec.effectiveLocalTtl();
+        RefreshAhead refreshAhead = spec.isRefreshAheadEnabled()
+                ? new RefreshAhead(spec.getRefreshAhead(), ttl, spec.getLocalMaxSize(), refreshExecutor)
+                : null;
+        LayeredCache cache = new LayeredCache(name, local, shared, tagIndex, ttl, spec.getLoadTimeout(),
+                refreshAhead);
+        cache.setInvalidationBus(invalidationBus);
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            cache.bindTo(registry);
+        }
+        return cache;
+    }
+
+    /**
+     * Bounded so a burst of due keys cannot pile up; a rejected refresh is retried on a later read
+     */
+    private static ThreadPoolExecutor newRefreshExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
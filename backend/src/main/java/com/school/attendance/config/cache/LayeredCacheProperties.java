@@ -0,0 +1,80 @@
+package com.school.attendance.config.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Application cache settings, per cache name (app.cache.caches.&lt;name&gt;.*) over shared defaults.
+ * ttl is the shared (Redis) expiry; the local tier keeps at most local-max-size entries for
+ * local-ttl, capped at ttl, so other instances' writes are seen within local-ttl. Callers waiting
+ * on another caller's load of the same key give up after load-timeout. With refresh-ahead set
+ * (a fraction of ttl, e.g. 0.8), entries still being read past that age are reloaded in the
+ * background on refresh-threads shared threads.
+ */
+@ConfigurationProperties(prefix = "app.cache")
+@Data
+public class LayeredCacheProperties {
+
+    private Spec defaults = new Spec(Duration.ofMinutes(30), Duration.ofMinutes(1), 10_000L,
+            Duration.ofSeconds(30), null);
+
+    private int refreshThreads = 2;
+
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    private Redis redis = new Redis();
+
+    /**
+     * Settings for one cache, falling back to the defaults for anything not set
+     */
+    public Spec specFor(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        if (spec == null) {
+            return defaults;
+        }
+        return new Spec(spec.getTtl() != null ? spec.getTtl() : defaults.getTtl(),
+                spec.getLocalTtl() != null ? spec.getLocalTtl() : defaults.getLocalTtl(),
+                spec.getLocalMaxSize() != null ? spec.getLocalMaxSize() : defaults.getLocalMaxSize(),
+                spec.getLoadTimeout() != null ? spec.getLoadTimeout() : defaults.getLoadTimeout(),
+                spec.getRefreshAhead() != null ? spec.getRefreshAhead() : defaults.getRefreshAhead());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Spec {
+        private Duration ttl;
+        private Duration localTtl;
+        private Long localMaxSize;
+        private Duration loadTimeout;
+        private Double refreshAhead;
+
+        /**
+         * Local expiry, never longer than the shared one
+         */
+        public Duration effectiveLocalTtl() {
+            return ttl != null && ttl.compareTo(localTtl) < 0 ? ttl : localTtl;
+        }
+
+        public boolean isRefreshAheadEnabled() {
+            return refreshAhead != null && refreshAhead > 0 && refreshAhead < 1;
+        }
+    }
+
+    @Data
+    public static class Redis {
+        private boolean enabled;
+        private String keyPrefix = "attendance:";
+        private String invalidationChannel = "attendance:cache-invalidation";
+        private long subscribeRetryMs = 5000;
+        /** compact (CompactValueCodec) or json */
+        private String codec = "compact";
+        private int compressThreshold = 1024;
+    }
+}
@@ -0,0 +1,81 @@
+package com.school.attendance.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cache invalidation over a Redis pub/sub channel. The listener container resubscribes on its
+ * own after a connection loss and reports each subscription, which the bus uses to flush.
+ * The first subscription is made in the background and retried, so the application starts
+ * (with local caches only) while Redis is unreachable.
+ */
+@Slf4j
+public class RedisCacheInvalidationTransport implements CacheInvalidationTransport, MessageListener,
+        SubscriptionListener {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ChannelTopic topic;
+    private final long retryIntervalMs;
+    private volatile Listener listener;
+
+    public RedisCacheInvalidationTransport(StringRedisTemplate redisTemplate,
+                                           RedisMessageListenerContainer listenerContainer, String channel,
+                                           long retryIntervalMs) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.topic = new ChannelTopic(channel);
+        this.retryIntervalMs = retryIntervalMs;
+    }
+
+    @Override
+    public void publish(String message) {
+        redisTemplate.convertAndSend(topic.getTopic(), message);
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        this.listener = listener;
+        listenerContainer.addMessageListener(this, topic);
+        Thread starter = new Thread(this::startListening, "cache-invalidation-subscriber");
+        starter.setDaemon(true);
+        starter.start();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        listener.onMessage(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        log.debug("Subscribed to cache invalidation channel {}", topic.getTopic());
+        listener.onSubscribed();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void startListening() {
+        while (!listenerContainer.isRunning()) {
+            try {
+                listenerContainer.start();
+            } catch (RuntimeException e) {
+                log.warn("Cannot subscribe to cache invalidation channel {}, retrying in {} ms: {}",
+                        topic.getTopic(), retryIntervalMs, e.getMessage());
+                try {
+                    Thread.sleep(retryIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
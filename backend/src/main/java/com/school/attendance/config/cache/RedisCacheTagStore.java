@@ -0,0 +1,74 @@
+package com.school.attendance.config.cache;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Cache tag sets as Redis sorted sets, one per tag, scored by each member's expiry. Expired
+ * members are dropped whenever the tag is written to, and a tag's set expires after the longest
+ * cache ttl without writes. Each call is one pipelined round trip.
+ */
+public class RedisCacheTagStore implements CacheTagStore {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final Duration maxTtl;
+
+    public RedisCacheTagStore(StringRedisTemplate redisTemplate, String keyPrefix, Duration maxTtl) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix + "tags:";
+        this.maxTtl = maxTtl;
+    }
+
+    @Override
+    public void add(Collection<String> tags, String member, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String tag : tags) {
+                byte[] key = key(tag);
+                connection.zSetCommands().zAdd(key, expiresAtMillis, bytes(member));
+                connection.zSetCommands().zRemRangeByScore(key, Double.NEGATIVE_INFINITY, now);
+                connection.keyCommands().expire(key, maxTtl.toSeconds());
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Set<String> members(Collection<String> tags, long nowMillis) {
+        Set<String> members = new LinkedHashSet<>();
+        for (Object result : redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            tags.forEach(tag -> connection.zSetCommands().zRangeByScore(key(tag), nowMillis, Double.POSITIVE_INFINITY));
+            return null;
+        })) {
+            if (result instanceof Collection<?> values) {
+                values.forEach(value -> members.add(String.valueOf(value)));
+            }
+        }
+        return members;
+    }
+
+    @Override
+    public void remove(Collection<String> tags, String member) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            tags.forEach(tag -> connection.zSetCommands().zRem(key(tag), bytes(member)));
+            return null;
+        });
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private byte[] key(String tag) {
+        return bytes(keyPrefix + tag);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+package com.school.attendance.config.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.school.attendance.config.sharding.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reloads an entry in the background once it has lived past a fraction of its ttl and is still
+ * being read, so readers keep being served while the next value is computed.
+ * Age counts from when this instance computed the value. Entries copied from the shared tier are
+ * refreshed by the instance that computed them, and that write reaches the others over the bus.
+ * The reload runs with the tenant of the read that triggered it, so it queries that school's shard.
+ */
+@Slf4j
+class RefreshAhead {
+
+    private final Cache<Object, Long> loadedAt;
+    private final long refreshAfterNanos;
+    private final Executor executor;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    RefreshAhead(double fraction, Duration ttl, long maxSize, Executor executor) {
+        this.refreshAfterNanos = (long) (ttl.toNanos() * fraction);
+        this.executor = executor;
+        this.loadedAt = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    void loaded(Object key) {
+        loadedAt.put(key, System.nanoTime());
+    }
+
+    void forget(Object key) {
+        loadedAt.invalidate(key);
+    }
+
+    void forgetAll() {
+        loadedAt.invalidateAll();
+    }
+
+    boolean isDue(Object key) {
+        Long loaded = loadedAt.getIfPresent(key);
+        return loaded != null && System.nanoTime() - loaded >= refreshAfterNanos;
+    }
+
+    /**
+     * Start a background reload of the key if it is due and not already being reloaded
+     */
+    void refreshIfDue(Object key, Callable<?> reload) {
+        if (!isDue(key) || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(TenantContext.propagate(() -> {
+                try {
+                    reload.call();
+                    refreshes.incrementAndGet();
+                } catch (Exception e) {
+                    // The current value stays until it expires
+                    failures.incrementAndGet();
+                    log.warn("Background refresh of {} failed: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            log.debug("Refresh queue full, {} will be reloaded on a later read", key);
+        }
+    }
+
+    long getRefreshes() {
+        return refreshes.get();
+    }
+
+    long getFailures() {
+        return failures.get();
+    }
+}
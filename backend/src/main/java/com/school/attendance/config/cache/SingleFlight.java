@@ -0,0 +1,97 @@
+package com.school.attendance.config.cache;
+
+import com.school.attendance.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key: the first caller runs the loader on its own
+ * thread and everyone arriving meanwhile waits for that result (or failure) instead of running it
+ * again. Waiters give up after the key's timeout; the computation itself is not interrupted.
+ */
+@Slf4j
+public class SingleFlight {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Duration defaultTimeout;
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public SingleFlight(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public <T> T execute(Object key, Supplier<T> loader) {
+        return execute(key, defaultTimeout, loader);
+    }
+
+    /**
+     * Run the loader for the key, or wait up to the timeout for the run already in flight
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Duration timeout, Supplier<T> loader) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+        if (running == null) {
+            executions.incrementAndGet();
+            try {
+                T value = loader.get();
+                call.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                call.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+
+        coalesced.incrementAndGet();
+        try {
+            return (T) running.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Gave up waiting {} ms for the computation of {}", timeout.toMillis(), key);
+            throw new BusinessException("Timed out waiting for the result, please retry shortly",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw (Error) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Interrupted while waiting for the result", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Keys being computed right now
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Loader runs started
+     */
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    /**
+     * Callers served by a run someone else started
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+}
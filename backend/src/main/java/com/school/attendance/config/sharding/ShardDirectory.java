@@ -0,0 +1,193 @@
+package com.school.attendance.config.sharding;
+
+import com.school.attendance.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * School-to-shard directory. Assignments live in {@code school_shard_assignments} on the
+ * default shard and are cached in memory; schools without an assignment (e.g. newly created)
+ * live on the default shard. The cache is reloaded whenever another instance changes the table
+ * (every change bumps a row version), and write paths re-read their school's row, so a move
+ * lock taken on one instance holds writes off on all of them.
+ */
+@Slf4j
+public class ShardDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String defaultShard;
+    private final Set<String> shards;
+
+    private final Map<Long, String> assignments = new ConcurrentHashMap<>();
+    private final Set<Long> moving = ConcurrentHashMap.newKeySet();
+    // Writes this instance has accepted and not finished, per school
+    private final Map<Long, AtomicInteger> writesInFlight = new ConcurrentHashMap<>();
+    private volatile long loadedVersion = -1;
+
+    public ShardDirectory(DataSource directoryDataSource, String defaultShard, Set<String> shards) {
+        this.jdbcTemplate = new JdbcTemplate(directoryDataSource);
+        this.defaultShard = defaultShard;
+        this.shards = Set.copyOf(shards);
+    }
+
+    /**
+     * Load all assignments and move locks from the directory table
+     */
+    public synchronized void load() {
+        Map<Long, String> loaded = new ConcurrentHashMap<>();
+        Set<Long> locked = ConcurrentHashMap.newKeySet();
+        long[] version = {0};
+        jdbcTemplate.query("SELECT school_id, shard_key, version, moving_since FROM school_shard_assignments", rs -> {
+            loaded.put(rs.getLong("school_id"), rs.getString("shard_key"));
+            if (rs.getTimestamp("moving_since") != null) {
+                locked.add(rs.getLong("school_id"));
+            }
+            version[0] += rs.getLong("version");
+        });
+        assignments.keySet().retainAll(loaded.keySet());
+        assignments.putAll(loaded);
+        moving.retainAll(locked);
+        moving.addAll(locked);
+        loadedVersion = version[0];
+        log.debug("Loaded {} school shard assignments across shards {}", assignments.size(), shards);
+    }
+
+    /**
+     * Reload when another instance has changed the directory since the last load
+     */
+    @Scheduled(fixedDelayString = "${app.sharding.directory-refresh-ms:5000}")
+    public void refresh() {
+        Long version = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(version), 0) FROM school_shard_assignments", Long.class);
+        if (version != null && version != loadedVersion) {
+            load();
+        }
+    }
+
+    /**
+     * Re-read one school's assignment and move lock, for writes that cannot act on a stale cache
+     */
+    public void refresh(Long schoolId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT shard_key, moving_since FROM school_shard_assignments WHERE school_id = ?", schoolId);
+        if (rows.isEmpty()) {
+            assignments.remove(schoolId);
+            moving.remove(schoolId);
+            return;
+        }
+        assignments.put(schoolId, (String) rows.get(0).get("shard_key"));
+        if (rows.get(0).get("moving_since") != null) {
+            moving.add(schoolId);
+        } else {
+            moving.remove(schoolId);
+        }
+    }
+
+    public String shardFor(Long schoolId) {
+        return schoolId != null ? assignments.getOrDefault(schoolId, defaultShard) : defaultShard;
+    }
+
+    /**
+     * Point a school at a shard (persisted before the in-memory switch)
+     */
+    public void assign(Long schoolId, String shard) {
+        if (!shards.contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int updated = jdbcTemplate.update(
+                "UPDATE school_shard_assignments SET shard_key = ?, assigned_at = ?, version = version + 1 " +
+                "WHERE school_id = ?", shard, now, schoolId);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO school_shard_assignments (school_id, shard_key, assigned_at, version) VALUES (?, ?, ?, 1)",
+                    schoolId, shard, now);
+        }
+        assignments.put(schoolId, shard);
+    }
+
+    /**
+     * Take the cluster-wide move lock of a school. Fails when another mover holds it, unless
+     * that lock is older than the timeout (its mover is assumed dead).
+     */
+    public void lockForMove(Long schoolId, String owner, long lockTimeoutMs) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO school_shard_assignments (school_id, shard_key, assigned_at, version) VALUES (?, ?, ?, 0)",
+                    schoolId, shardFor(schoolId), now);
+        } catch (DataIntegrityViolationException e) {
+            // The school already has a row
+        }
+        int locked = jdbcTemplate.update(
+                "UPDATE school_shard_assignments SET moving_since = ?, moving_owner = ?, version = version + 1 " +
+                "WHERE school_id = ? AND (moving_since IS NULL OR moving_since < ?)",
+                now, owner, schoolId, new Timestamp(now.getTime() - lockTimeoutMs));
+        if (locked == 0) {
+            throw new BusinessException("School " + schoolId + " is already being moved", HttpStatus.CONFLICT);
+        }
+        refresh(schoolId);
+    }
+
+    /**
+     * Release a move lock held by the given owner
+     */
+    public void unlockMove(Long schoolId, String owner) {
+        jdbcTemplate.update(
+                "UPDATE school_shard_assignments SET moving_since = NULL, moving_owner = NULL, version = version + 1 " +
+                "WHERE school_id = ? AND moving_owner = ?", schoolId, owner);
+        refresh(schoolId);
+    }
+
+    public boolean isMoving(Long schoolId) {
+        return schoolId != null && moving.contains(schoolId);
+    }
+
+    /**
+     * Count a write accepted for a school until {@link #endWrite} so a move can wait for it
+     */
+    public void beginWrite(Long schoolId) {
+        writesInFlight.computeIfAbsent(schoolId, id -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void endWrite(Long schoolId) {
+        AtomicInteger count = writesInFlight.get(schoolId);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    /**
+     * Wait until this instance has no write in flight for the school; false on timeout
+     */
+    public boolean awaitWrites(Long schoolId, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        AtomicInteger count = writesInFlight.get(schoolId);
+        while (count != null && count.get() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    public Set<String> getShards() {
+        return shards;
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+}
@@ -0,0 +1,38 @@
+package com.school.attendance.config.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes each connection to the shard of the current tenant: an explicit shard from
+ * {@link TenantContext} wins, otherwise the school's shard from the directory. Until
+ * {@link #requireTenant()} is called (once the application has started; schema bootstrap and
+ * data initialisation run unbound) a thread without a tenant uses the default shard; afterwards
+ * it fails, so work that forgot to bind a school cannot silently read or write the default shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardDirectory shardDirectory;
+    private volatile boolean tenantRequired;
+
+    public ShardRoutingDataSource(ShardDirectory shardDirectory) {
+        this.shardDirectory = shardDirectory;
+    }
+
+    public void requireTenant() {
+        tenantRequired = true;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = TenantContext.getShard();
+        if (shard != null) {
+            return shard;
+        }
+        Long schoolId = TenantContext.getSchoolId();
+        if (schoolId == null && tenantRequired) {
+            throw new IllegalStateException("No school or shard bound to this thread: bind one through TenantContext " +
+                    "(or TenantJobs for background work) before using the database");
+        }
+        return shardDirectory.shardFor(schoolId);
+    }
+}
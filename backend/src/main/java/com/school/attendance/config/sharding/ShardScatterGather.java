@@ -0,0 +1,64 @@
+package com.school.attendance.config.sharding;
+
+import com.school.attendance.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs a query on every shard in parallel and gathers the per-shard results.
+ * A cross-school answer is only correct with every shard in it, so any failure or
+ * timeout fails the whole call instead of returning partial results.
+ */
+@Slf4j
+public class ShardScatterGather {
+
+    private final ShardDirectory shardDirectory;
+    private final Executor executor;
+    private final long timeoutMs;
+
+    public ShardScatterGather(ShardDirectory shardDirectory, Executor executor, long timeoutMs) {
+        this.shardDirectory = shardDirectory;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Apply the query to each shard (bound through {@link TenantContext}); results keyed by shard
+     */
+    public <T> Map<String, T> onEveryShard(Function<String, T> query) {
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (String shard : shardDirectory.getShards()) {
+            futures.put(shard, CompletableFuture.supplyAsync(
+                    () -> TenantContext.callOnShard(shard, () -> query.apply(shard)), executor));
+        }
+
+        long started = System.currentTimeMillis();
+        try {
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                    .get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            throw new BusinessException("Cross-school query timed out", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            log.error("Cross-school query failed: {}", e.getCause().getMessage());
+            throw new BusinessException("Cross-school query failed", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Cross-school query interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        Map<String, T> results = new LinkedHashMap<>();
+        futures.forEach((shard, future) -> results.put(shard, future.join()));
+        log.debug("Scatter-gather over {} shards took {} ms", results.size(), System.currentTimeMillis() - started);
+        return results;
+    }
+}
@@ -0,0 +1,115 @@
+package com.school.attendance.config.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * School-sharded datasource configuration
+ * The application's DataSource becomes a router over the shard pools, keyed by the
+ * school bound to the current request; connections are acquired lazily so the route
+ * is decided at the first statement rather than when a transaction begins. Once the application
+ * is ready, a connection without a bound school or shard is an error.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+@Slf4j
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(ShardingProperties properties) {
+        if (!properties.getShards().containsKey(properties.getDefaultShard())) {
+            throw new IllegalStateException("Default shard '" + properties.getDefaultShard() +
+                    "' is not configured under app.sharding.shards");
+        }
+        log.info("Configuring {} shards (default: {})", properties.getShards().size(), properties.getDefaultShard());
+        return ShardDataSources.create(properties);
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(ShardDataSources shardDataSources, ShardingProperties properties) {
+        ShardDirectory directory = new ShardDirectory(shardDataSources.get(properties.getDefaultShard()),
+                properties.getDefaultShard(), shardDataSources.asMap().keySet());
+        directory.load();
+        return directory;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources, ShardDirectory shardDirectory) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shardDirectory);
+        routing.setTargetDataSources(new HashMap<>(shardDataSources.asMap()));
+        routing.setDefaultTargetDataSource(shardDataSources.get(shardDirectory.getDefaultShard()));
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Startup (schema bootstrap, data initialisation) runs unbound on the default shard; afterwards
+     * every connection must be bound to a school or shard
+     */
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> requireTenantWhenReady(DataSource dataSource) {
+        return event -> {
+            try {
+                dataSource.unwrap(ShardRoutingDataSource.class).requireTenant();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Shard routing datasource not found", e);
+            }
+        };
+    }
+
+    /**
+     * Database health per shard pool (replaces the check on the routing datasource, which has no tenant)
+     */
+    @Bean(name = "dbHealthContributor")
+    public HealthContributor dbHealthContributor(ShardDataSources shardDataSources) {
+        Map<String, HealthContributor> shards = new LinkedHashMap<>();
+        shardDataSources.asMap().forEach((shard, pool) -> shards.put(shard, new DataSourceHealthIndicator(pool)));
+        return CompositeHealthContributor.fromMap(shards);
+    }
+
+    @Bean
+    public TenantInterceptor tenantInterceptor(ShardDirectory shardDirectory) {
+        return new TenantInterceptor(shardDirectory);
+    }
+
+    @Bean(name = "shardQueryExecutor")
+    public ThreadPoolTaskExecutor shardQueryExecutor(ShardDirectory shardDirectory) {
+        int shards = shardDirectory.getShards().size();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(shards);
+        executor.setMaxPoolSize(shards * 2);
+        executor.setQueueCapacity(shards * 8);
+        executor.setThreadNamePrefix("Shard-Query-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public ShardScatterGather shardScatterGather(ShardDirectory shardDirectory,
+                                                 @Qualifier("shardQueryExecutor") ThreadPoolTaskExecutor shardQueryExecutor,
+                                                 @Value("${app.sharding.scatter-timeout-ms:30000}") long timeoutMs) {
+        return new ShardScatterGather(shardDirectory, shardQueryExecutor, timeoutMs);
+    }
+}
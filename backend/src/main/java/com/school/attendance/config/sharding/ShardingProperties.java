@@ -0,0 +1,31 @@
+package com.school.attendance.config.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shard datasources, keyed by shard name (app.sharding.shards.&lt;name&gt;.*).
+ * The default shard also holds the school-to-shard directory and serves requests without a school.
+ */
+@ConfigurationProperties(prefix = "app.sharding")
+@Data
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    private String defaultShard = "shard0";
+
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,89 @@
+package com.school.attendance.config.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread routing context: the school a request works on, or an explicit shard for
+ * cross-shard work (scatter-gather, rebalancing). Must be set before a transaction opens
+ * its connection and cleared when the work is done.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<Long> SCHOOL_ID = new ThreadLocal<>();
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static void setSchoolId(Long schoolId) {
+        SCHOOL_ID.set(schoolId);
+    }
+
+    public static Long getSchoolId() {
+        return SCHOOL_ID.get();
+    }
+
+    public static String getShard() {
+        return SHARD.get();
+    }
+
+    public static void clear() {
+        SCHOOL_ID.remove();
+        SHARD.remove();
+    }
+
+    /**
+     * Run work against one shard, whatever school the current thread is bound to
+     */
+    public static <T> T callOnShard(String shard, Supplier<T> work) {
+        String previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(SHARD, previous);
+        }
+    }
+
+    /**
+     * Wrap a task so it runs with the tenant of the thread submitting it (none, if that thread has
+     * none) and leaves the executing thread as it found it (for executors)
+     */
+    public static Runnable propagate(Runnable task) {
+        Long schoolId = SCHOOL_ID.get();
+        String shard = SHARD.get();
+        return () -> {
+            Long previousSchoolId = SCHOOL_ID.get();
+            String previousShard = SHARD.get();
+            restore(SCHOOL_ID, schoolId);
+            restore(SHARD, shard);
+            try {
+                task.run();
+            } finally {
+                restore(SCHOOL_ID, previousSchoolId);
+                restore(SHARD, previousShard);
+            }
+        };
+    }
+
+    /**
+     * Run work for one school (routed through the shard directory)
+     */
+    public static <T> T callForSchool(Long schoolId, Supplier<T> work) {
+        Long previous = SCHOOL_ID.get();
+        SCHOOL_ID.set(schoolId);
+        try {
+            return work.get();
+        } finally {
+            restore(SCHOOL_ID, previous);
+        }
+    }
+
+    private static <T> void restore(ThreadLocal<T> holder, T previous) {
+        if (previous != null) {
+            holder.set(previous);
+        } else {
+            holder.remove();
+        }
+    }
+}
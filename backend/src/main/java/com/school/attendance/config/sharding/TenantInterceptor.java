@@ -0,0 +1,98 @@
+package com.school.attendance.config.sharding;
+
+import com.school.attendance.entity.Role;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.service.CustomUserDetails;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Binds the request's school to the {@link TenantContext} so repository calls are routed to that
+ * school's shard. The school comes from the authenticated caller: a student or teacher account is
+ * bound to its own school, and a X-School-Id header (or schoolId parameter) naming another school is
+ * refused. Only admins choose the school with the header; unauthenticated requests may not name one.
+ * Writes re-read the school's directory row first: a school being moved between shards (locked
+ * by any instance) refuses writes until the move ends, and accepted writes are counted so the
+ * mover can wait for them. Requests without a school are not bound and cannot reach the database.
+ */
+@RequiredArgsConstructor
+public class TenantInterceptor implements HandlerInterceptor {
+
+    public static final String SCHOOL_HEADER = "X-School-Id";
+    private static final String SCHOOL_PARAMETER = "schoolId";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final String WRITE_ATTRIBUTE = TenantInterceptor.class.getName() + ".write";
+
+    private final ShardDirectory shardDirectory;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        Long schoolId = authorizedSchoolId(resolveSchoolId(request));
+        if (schoolId != null && !READ_METHODS.contains(request.getMethod())) {
+            shardDirectory.refresh(schoolId);
+            if (shardDirectory.isMoving(schoolId)) {
+                throw new BusinessException("School data is being moved, please retry shortly",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            shardDirectory.beginWrite(schoolId);
+            request.setAttribute(WRITE_ATTRIBUTE, schoolId);
+        }
+        TenantContext.setSchoolId(schoolId);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, @Nullable Exception ex) {
+        if (request.getAttribute(WRITE_ATTRIBUTE) instanceof Long schoolId) {
+            shardDirectory.endWrite(schoolId);
+        }
+        TenantContext.clear();
+    }
+
+    /**
+     * School the current caller may act for: the account's own school, or the requested one for admins
+     */
+    private static Long authorizedSchoolId(Long requested) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            if (user.getRole() == Role.ADMIN) {
+                return requested;
+            }
+            Long own = user.getSchoolId();
+            if (requested != null && !requested.equals(own)) {
+                throw new BusinessException("Not allowed to access school " + requested, HttpStatus.FORBIDDEN);
+            }
+            return own;
+        }
+        if (requested != null) {
+            throw new BusinessException("Sign in to access school data", HttpStatus.UNAUTHORIZED);
+        }
+        return null;
+    }
+
+    private Long resolveSchoolId(HttpServletRequest request) {
+        String value = request.getHeader(SCHOOL_HEADER);
+        if (value == null || value.isBlank()) {
+            value = request.getParameter(SCHOOL_PARAMETER);
+        }
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BusinessException("Invalid school id: " + value);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.school.attendance.config.sharding;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Binds background work (schedulers, startup jobs, executor tasks) to a tenant, as a request
+ * would through {@link TenantInterceptor}. Table-wide jobs run on every shard in turn; per-school
+ * work runs on its school's shard. Without sharding the work runs once, unbound, against the
+ * single database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TenantJobs {
+
+    private final ObjectProvider<ShardDirectory> shardDirectory;
+
+    /**
+     * Run the work on every shard; one result per shard. A failing shard does not stop the
+     * others: the first failure is rethrown once every shard has run.
+     */
+    public <T> List<T> onEveryShard(Supplier<T> work) {
+        ShardDirectory directory = shardDirectory.getIfAvailable();
+        if (directory == null) {
+            return Collections.singletonList(work.get());
+        }
+        List<T> results = new ArrayList<>();
+        RuntimeException failure = null;
+        for (String shard : directory.getShards()) {
+            try {
+                results.add(TenantContext.callOnShard(shard, work));
+            } catch (RuntimeException e) {
+                log.error("Background work failed on shard {}: {}", shard, e.getMessage());
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Rows of a per-school query gathered from every shard. Only rows of schools assigned to the
+     * shard they were read from are kept: a school being moved is briefly on two shards.
+     */
+    public <T> List<T> schoolRows(Supplier<List<T>> query, Function<T, Long> schoolId) {
+        ShardDirectory directory = shardDirectory.getIfAvailable();
+        if (directory == null) {
+            return query.get();
+        }
+        List<T> rows = new ArrayList<>();
+        for (String shard : directory.getShards()) {
+            TenantContext.callOnShard(shard, query).stream()
+                    .filter(row -> shard.equals(directory.shardFor(schoolId.apply(row))))
+                    .forEach(rows::add);
+        }
+        return rows;
+    }
+
+    /**
+     * Run work for one school; rows without a school (global rows) live on the default shard
+     */
+    public <T> T forSchool(Long schoolId, Supplier<T> work) {
+        ShardDirectory directory = shardDirectory.getIfAvailable();
+        if (directory == null) {
+            return work.get();
+        }
+        return schoolId != null
+                ? TenantContext.callForSchool(schoolId, work)
+                : TenantContext.callOnShard(directory.getDefaultShard(), work);
+    }
+}
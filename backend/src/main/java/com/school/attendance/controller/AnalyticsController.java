@@ -22,12 +22,25 @@ public class AnalyticsController {
     public ResponseEntity<List<AttendanceTrendDto>> getAttendanceTrends(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
-            @RequestParam(defaultValue = "student") String type) {
+            @RequestParam(defaultValue = "student") String type,
+            @RequestParam(required = false) Long schoolId) {
         
-        List<AttendanceTrendDto> trends = analyticsService.getAttendanceTrends(start, end, type);
+        List<AttendanceTrendDto> trends = analyticsService.getAttendanceTrends(schoolId, start, end, type);
         return ResponseEntity.ok(trends);
     }
 
+    @GetMapping("/attendance/streaks")
+    public ResponseEntity<List<AbsenceStreakDto>> getAbsenceStreaks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) Long schoolId,
+            @RequestParam(defaultValue = "3") int minDays,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        List<AbsenceStreakDto> streaks = analyticsService.getAbsenceStreaks(schoolId, start, end, minDays, limit);
+        return ResponseEntity.ok(streaks);
+    }
+
     @GetMapping("/gender-ratio")
     public ResponseEntity<GenderRatioDto> getGenderRatio(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
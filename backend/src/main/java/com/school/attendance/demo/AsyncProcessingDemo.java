@@ -64,8 +64,8 @@ public class AsyncProcessingDemo implements CommandLineRunner {
         log.info("=====================================");
         
         // Simulate bulk attendance for a class
-        eventPublisherService.notifyBulkAttendance(101L, LocalDate.now(), 30, 25, 5);
-        eventPublisherService.notifyBulkAttendance(102L, LocalDate.now(), 28, 26, 2);
+        eventPublisherService.notifyBulkAttendance(101, LocalDate.now(), 30, 25, 5);
+        eventPublisherService.notifyBulkAttendance(102, LocalDate.now(), 28, 26, 2);
         
         log.info("✅ Bulk attendance processing queued for async handling");
         
@@ -82,7 +82,7 @@ public class AsyncProcessingDemo implements CommandLineRunner {
         // Generate different types of reports asynchronously
         eventPublisherService.generateDailyReport(1L, today, 100L, "admin@school.com");
         eventPublisherService.generateStudentReport(1L, weekAgo, today, 100L, "teacher@school.com", 1L);
-        eventPublisherService.generateClassReport(101L, weekAgo, today, 100L, "principal@school.com", 1L);
+        eventPublisherService.generateClassReport(101, weekAgo, today, 100L, "principal@school.com", 1L);
         
         log.info("✅ Report generation requests queued for async processing");
         
@@ -0,0 +1,32 @@
+package com.school.attendance.dto;
+
+import java.time.LocalDate;
+
+public class AbsenceStreakDto {
+    private Long studentId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int days;
+
+    public AbsenceStreakDto() {}
+
+    public AbsenceStreakDto(Long studentId, LocalDate startDate, LocalDate endDate, int days) {
+        this.studentId = studentId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.days = days;
+    }
+
+    // Getters and Setters
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public int getDays() { return days; }
+    public void setDays(int days) { this.days = days; }
+}
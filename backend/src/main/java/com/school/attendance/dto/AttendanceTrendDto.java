@@ -7,6 +7,9 @@ public class AttendanceTrendDto {
     private int presentCount;
     private int absentCount;
     private int holidayCount;
+    private double attendanceRate;
+    private Double rateChange;
+    private double cumulativeRate;
 
     public AttendanceTrendDto() {}
 
@@ -29,4 +32,13 @@ public class AttendanceTrendDto {
 
     public int getHolidayCount() { return holidayCount; }
     public void setHolidayCount(int holidayCount) { this.holidayCount = holidayCount; }
+
+    public double getAttendanceRate() { return attendanceRate; }
+    public void setAttendanceRate(double attendanceRate) { this.attendanceRate = attendanceRate; }
+
+    public Double getRateChange() { return rateChange; }
+    public void setRateChange(Double rateChange) { this.rateChange = rateChange; }
+
+    public double getCumulativeRate() { return cumulativeRate; }
+    public void setCumulativeRate(double cumulativeRate) { this.cumulativeRate = cumulativeRate; }
 }
@@ -0,0 +1,59 @@
+package com.school.attendance.entity;
+
+import com.school.attendance.entity.converter.AttendanceStatusConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Cold-tier copy of an attendance record from a closed academic year.
+ * Rows are flat (no associations) so the archive table stays narrow and can be
+ * stored compressed; the original primary key is preserved.
+ */
+@Entity
+@Table(name = "attendance_records_archive",
+       indexes = {
+           @Index(name = "idx_archive_student_date_status", columnList = "student_id, date, status"),
+           @Index(name = "idx_archive_date", columnList = "date")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedAttendanceRecord {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Convert(converter = AttendanceStatusConverter.class)
+    @Column(nullable = false)
+    private AttendanceRecord.AttendanceStatus status;
+
+    @Column(length = 500)
+    private String note;
+
+    @Column(name = "marked_time")
+    private LocalTime markedTime;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "teacher_id")
+    private Long teacherId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,56 @@
+package com.school.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Registry of academic years in the archive tier. A segment is registered before its rows are
+ * moved and is complete once {@code archivedAt} is set; until then the year's rows may be in
+ * either tier, and repository range queries read both across it.
+ */
+@Entity
+@Table(name = "attendance_archive_segments",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"academic_year"})
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "academic_year", nullable = false, length = 9)
+    private String academicYear; // e.g. 2023-2024
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount = 0L;
+
+    @Column(name = "registered_at", nullable = false)
+    private LocalDateTime registeredAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt; // null while rows are still being moved
+
+    // Constructor without ID for registration
+    public AttendanceArchiveSegment(String academicYear, LocalDate startDate, LocalDate endDate,
+                                    LocalDateTime registeredAt) {
+        this.academicYear = academicYear;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.registeredAt = registeredAt;
+    }
+}
@@ -0,0 +1,75 @@
+package com.school.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of an attendance mark made with a client-supplied idempotency key.
+ * The row is claimed as PENDING before the mark is applied and COMPLETED once it is durable; a
+ * retried request carrying the same key is answered from a completed row instead of writing again.
+ * Rows are short-lived and purged once expired. Keys are unique per school and caller only.
+ */
+@Entity
+@Table(name = "attendance_idempotency_keys",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_attendance_idempotency_key", columnNames = {"school_id", "caller", "idempotency_key"})
+       },
+       indexes = {
+           @Index(name = "idx_attendance_idempotency_expires", columnList = "expires_at")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceIdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "school_id", nullable = false)
+    private Long schoolId;
+
+    // Authenticated user name of the client that sent the key, empty for anonymous calls
+    @Column(nullable = false, length = 100)
+    private String caller;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 of the mark (student, date, status, note, teacher): a key reused for another mark is rejected
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    // Version of the attendance row after the mark; null when the mark went through the write-behind journal
+    @Column(name = "record_version")
+    private Long recordVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    public enum Status {
+        PENDING, COMPLETED
+    }
+}
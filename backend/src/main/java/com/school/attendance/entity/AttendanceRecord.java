@@ -1,11 +1,13 @@
 package com.school.attendance.entity;
 
+import com.school.attendance.entity.converter.AttendanceStatusConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -18,6 +20,13 @@ import java.time.LocalTime;
 @Table(name = "attendance_records", 
        uniqueConstraints = {
            @UniqueConstraint(columnNames = {"date", "student_id"})
+       },
+       indexes = {
+           // Covering indexes: per-student ranges and per-day/status summaries
+           @Index(name = "idx_attendance_student_date_status", columnList = "student_id, date, status"),
+           @Index(name = "idx_attendance_date_status_student", columnList = "date, status, student_id"),
+           // A teacher's marks for a day, in marking order
+           @Index(name = "idx_attendance_teacher_date_created", columnList = "teacher_id, date, created_at")
        })
 @EntityListeners(AuditingEntityListener.class)
 @Data
@@ -34,10 +43,10 @@ public class AttendanceRecord {
     @Column(nullable = false)
     private LocalDate date;
 
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = AttendanceStatusConverter.class)
     @NotNull(message = "Attendance status is required")
     @Column(nullable = false)
-    private AttendanceStatus status;
+    private AttendanceStatus status; // stored as TINYINT code
 
     @Column(length = 500)
     private String note;
@@ -45,9 +54,6 @@ public class AttendanceRecord {
     @Column(name = "marked_time")
     private LocalTime markedTime;
 
-    @Column(name = "is_holiday", nullable = false)
-    private Boolean isHoliday = false;
-
     @CreatedDate
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -56,6 +62,12 @@ public class AttendanceRecord {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock: concurrent marks of the same row fail instead of silently overwriting each other
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Many-to-One relationships
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
@@ -74,35 +86,59 @@ public class AttendanceRecord {
         this.markedTime = markedTime;
         this.student = student;
         this.teacher = teacher;
-        this.isHoliday = false;
     }
 
-    // Constructor for holiday marking
+    /**
+     * Constructor for holiday marking
+     * @deprecated holidays are school calendar entries, not per-student rows;
+     * use {@code SchoolCalendarService.declareHoliday}
+     */
+    @Deprecated
     public AttendanceRecord(LocalDate date, Student student, String note) {
         this.date = date;
         this.status = AttendanceStatus.HOLIDAY;
         this.note = note;
         this.student = student;
-        this.isHoliday = true;
         this.markedTime = LocalTime.now();
     }
 
-    public enum AttendanceStatus {
-        PRESENT("Present"),
-        ABSENT("Absent"),
-        LATE("Late"),
-        HALF_DAY("Half Day"),
-        HOLIDAY("Holiday"),
-        SICK_LEAVE("Sick Leave");
+    // Holiday flag is derived from the status (no separate column)
+    public Boolean getIsHoliday() {
+        return status == AttendanceStatus.HOLIDAY;
+    }
 
+    public enum AttendanceStatus {
+        PRESENT(1, "Present"),
+        ABSENT(2, "Absent"),
+        LATE(3, "Late"),
+        HALF_DAY(4, "Half Day"),
+        HOLIDAY(5, "Holiday"),
+        SICK_LEAVE(6, "Sick Leave");
+
+        // Persisted codes: never renumber, only append
+        private final byte code;
         private final String displayName;
 
-        AttendanceStatus(String displayName) {
+        AttendanceStatus(int code, String displayName) {
+            this.code = (byte) code;
             this.displayName = displayName;
         }
 
+        public byte getCode() {
+            return code;
+        }
+
         public String getDisplayName() {
             return displayName;
         }
+
+        public static AttendanceStatus fromCode(byte code) {
+            for (AttendanceStatus status : values()) {
+                if (status.code == code) {
+                    return status;
+                }
+            }
+            throw new IllegalArgumentException("Unknown attendance status code: " + code);
+        }
     }
 }
@@ -0,0 +1,64 @@
+package com.school.attendance.entity;
+
+import com.school.attendance.entity.converter.AttendanceStatusConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Append-only history of attendance records, one row per version of a (student, date) entry.
+ * A version is current while {@code validTo} is null; a closed version with no successor means
+ * the record was deleted, and {@code changeReason} may say why (e.g. a holiday moved to the school
+ * calendar). Rows are written by the history writer, never through JPA.
+ */
+@Entity
+@Immutable
+@Table(name = "attendance_record_history",
+       indexes = {
+           // As-of lookups for one student's day and for a whole register on a date
+           @Index(name = "idx_history_student_date_valid", columnList = "student_id, date, valid_from"),
+           @Index(name = "idx_history_date_valid", columnList = "date, valid_from")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceRecordHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Convert(converter = AttendanceStatusConverter.class)
+    @Column(nullable = false)
+    private AttendanceRecord.AttendanceStatus status;
+
+    @Column(length = 500)
+    private String note;
+
+    @Column(name = "marked_time")
+    private LocalTime markedTime;
+
+    @Column(name = "teacher_id")
+    private Long teacherId;
+
+    @Column(name = "valid_from", nullable = false)
+    private LocalDateTime validFrom;
+
+    @Column(name = "valid_to")
+    private LocalDateTime validTo;
+
+    @Column(name = "change_reason", length = 100)
+    private String changeReason;
+}
@@ -0,0 +1,151 @@
+package com.school.attendance.entity;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.converter.RegisterNotesConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Alternative attendance storage: one row per class per day instead of one row per student.
+ * The roster is packed as 8-byte student IDs in roll-number order, with a parallel array of
+ * one-byte status codes (0 = not marked); notes are kept sparsely, keyed by student ID.
+ * Per-student marked time is not kept, only when the register was last marked and by whom.
+ * A class without sections has section {@link SchoolClass#NO_SECTION}, as in school_classes.
+ */
+@Entity
+@Table(name = "class_day_registers",
+       uniqueConstraints = {
+           @UniqueConstraint(columnNames = {"school_id", "standard", "section", "date"})
+       },
+       indexes = {
+           @Index(name = "idx_register_school_date", columnList = "school_id, date")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassDayRegister {
+
+    public static final int MAX_CLASS_SIZE = 200;
+    private static final byte NOT_MARKED = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "school_id", nullable = false)
+    private Long schoolId;
+
+    @Column(nullable = false, length = 10)
+    private String standard;
+
+    @Column(nullable = false, length = 10)
+    private String section = SchoolClass.NO_SECTION;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(name = "student_ids", nullable = false, length = MAX_CLASS_SIZE * Long.BYTES)
+    private byte[] studentIds = new byte[0];
+
+    @Column(nullable = false, length = MAX_CLASS_SIZE)
+    private byte[] statuses = new byte[0];
+
+    @Convert(converter = RegisterNotesConverter.class)
+    @Column(length = 4000)
+    private Map<Long, String> notes = new TreeMap<>();
+
+    @Column(name = "teacher_id")
+    private Long teacherId; // Last teacher who marked the register
+
+    @Column(name = "marked_at")
+    private LocalDateTime markedAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructor without ID for creation; roster must be in roll-number order
+    public ClassDayRegister(Long schoolId, String standard, String section, LocalDate date, List<Long> roster) {
+        if (roster.size() > MAX_CLASS_SIZE) {
+            throw new IllegalArgumentException("Class roster exceeds " + MAX_CLASS_SIZE + " students");
+        }
+        this.schoolId = schoolId;
+        this.standard = standard;
+        this.section = SchoolClass.section(section);
+        this.date = date;
+        ByteBuffer ids = ByteBuffer.allocate(roster.size() * Long.BYTES);
+        roster.forEach(ids::putLong);
+        this.studentIds = ids.array();
+        this.statuses = new byte[roster.size()];
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    public void setSection(String section) {
+        this.section = SchoolClass.section(section);
+    }
+
+    /**
+     * Number of students on the register
+     */
+    public int size() {
+        return statuses.length;
+    }
+
+    public Long studentIdAt(int index) {
+        return ByteBuffer.wrap(studentIds).getLong(index * Long.BYTES);
+    }
+
+    /**
+     * Status at a roster position, or null if the student has not been marked
+     */
+    public AttendanceStatus statusAt(int index) {
+        return statuses[index] == NOT_MARKED ? null : AttendanceStatus.fromCode(statuses[index]);
+    }
+
+    public int indexOf(Long studentId) {
+        ByteBuffer ids = ByteBuffer.wrap(studentIds);
+        for (int i = 0; i < statuses.length; i++) {
+            if (ids.getLong(i * Long.BYTES) == studentId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Mark a student; students joining after the register was created are appended to the roster
+     */
+    public void mark(Long studentId, AttendanceStatus status, String note, Long markedBy) {
+        int index = indexOf(studentId);
+        if (index < 0) {
+            if (size() >= MAX_CLASS_SIZE) {
+                throw new IllegalArgumentException("Class roster exceeds " + MAX_CLASS_SIZE + " students");
+            }
+            index = size();
+            studentIds = ByteBuffer.allocate((index + 1) * Long.BYTES).put(studentIds).putLong(studentId).array();
+            statuses = Arrays.copyOf(statuses, index + 1);
+        }
+        statuses[index] = status.getCode();
+        if (note != null) {
+            notes.put(studentId, note);
+        } else {
+            notes.remove(studentId);
+        }
+        teacherId = markedBy;
+        markedAt = LocalDateTime.now();
+        updatedAt = markedAt;
+    }
+}
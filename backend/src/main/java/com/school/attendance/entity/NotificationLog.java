@@ -10,7 +10,15 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notification_logs")
+@Table(name = "notification_logs",
+       indexes = {
+           // Status/type counts and dashboards are range reads on sent_at, never DATE(sent_at) scans
+           @Index(name = "idx_notification_logs_status_sent", columnList = "status, sent_at"),
+           @Index(name = "idx_notification_logs_type_sent", columnList = "type, sent_at"),
+           @Index(name = "idx_notification_logs_school_sent", columnList = "school_id, sent_at"),
+           // Retention purge and latest-first listing
+           @Index(name = "idx_notification_logs_sent", columnList = "sent_at")
+       })
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @NoArgsConstructor
@@ -0,0 +1,71 @@
+package com.school.attendance.entity;
+
+import com.school.attendance.entity.converter.CalendarScopeConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An exception to a school's regular week: a holiday on a normal working day, or an extra
+ * working day on a weekly off day. A null standard applies to the whole school; a null section
+ * with a standard applies to every section of that standard (both stored as '*'). The most
+ * specific entry wins, and each scope has at most one entry per day.
+ */
+@Entity
+@Table(name = "school_calendar_days",
+       uniqueConstraints = {
+           // Also serves the school's date-range reads
+           @UniqueConstraint(name = "uk_calendar_school_date_scope", columnNames = {"school_id", "date", "standard", "section"})
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchoolCalendarDay {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "school_id", nullable = false)
+    private Long schoolId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Convert(converter = CalendarScopeConverter.class)
+    @Column(nullable = false, length = 10)
+    private String standard;
+
+    @Convert(converter = CalendarScopeConverter.class)
+    @Column(nullable = false, length = 10)
+    private String section;
+
+    @Column(name = "working_day", nullable = false)
+    private Boolean workingDay = false;
+
+    @Column(length = 200)
+    private String description;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructor without ID for creation
+    public SchoolCalendarDay(Long schoolId, LocalDate date, String standard, String section,
+                             boolean workingDay, String description) {
+        this.schoolId = schoolId;
+        this.date = date;
+        this.standard = standard;
+        this.section = section;
+        this.workingDay = workingDay;
+        this.description = description;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public boolean isSchoolWide() {
+        return standard == null;
+    }
+}
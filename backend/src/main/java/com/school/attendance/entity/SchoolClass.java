@@ -0,0 +1,87 @@
+package com.school.attendance.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A class (standard and section) of a school. Students and teacher assignments reference it
+ * by a compact integer id instead of repeating the standard/section strings. A standard without
+ * sections has section {@link #NO_SECTION} (never null, so the unique key covers it).
+ */
+@Entity
+@Table(name = "school_classes",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_school_classes", columnNames = {"school_id", "standard", "section"})
+       })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "school-class")
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true) // by id: classes live in teachers' assignment sets
+@ToString(exclude = "school")
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchoolClass {
+
+    public static final String NO_SECTION = "";
+
+    @Id
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "school_id", nullable = false)
+    private School school;
+
+    @NotBlank(message = "Standard is required")
+    @Column(nullable = false, length = 10)
+    private String standard; // Class/Grade
+
+    @Column(nullable = false, length = 10)
+    private String section = NO_SECTION;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Display name, e.g. 10-A (or 10 without a section)
+    @Transient
+    public String getDisplayName() {
+        return section != null && !section.isEmpty() ? standard + "-" + section : standard;
+    }
+
+    public void setSection(String section) {
+        this.section = section(section);
+    }
+
+    // Constructor without ID for creation
+    public SchoolClass(School school, String standard, String section) {
+        this.school = school;
+        this.standard = standard;
+        this.section = section(section);
+    }
+
+    /**
+     * Stored form of a section: null (no section) becomes {@link #NO_SECTION}
+     */
+    public static String section(String section) {
+        return section != null ? section : NO_SECTION;
+    }
+}
@@ -8,6 +8,8 @@ import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -20,8 +22,15 @@ import java.util.List;
 @Table(name = "students", 
        uniqueConstraints = {
            @UniqueConstraint(columnNames = {"gr_no", "school_id"}),
-           @UniqueConstraint(columnNames = {"roll_no", "standard", "section", "school_id"})
+           @UniqueConstraint(name = "uk_students_class_roll", columnNames = {"class_id", "roll_no"})
+       },
+       indexes = {
+           // Class rosters by roll number, keyed by the integer class id
+           @Index(name = "idx_students_class_active_roll", columnList = "class_id, is_active, roll_no"),
+           @Index(name = "idx_students_school_active", columnList = "school_id, is_active")
        })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "student")
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @NoArgsConstructor
@@ -60,13 +69,6 @@ public class Student {
     @Column(length = 50)
     private String caste;
 
-    @NotBlank(message = "Standard is required")
-    @Column(nullable = false, length = 10)
-    private String standard; // Class/Grade
-
-    @Column(length = 10)
-    private String section;
-
     @Pattern(regexp = "^\\+?[1-9]\\d{1,14}$", message = "Invalid mobile number format")
     @Column(name = "mobile_number", length = 15)
     private String mobileNumber;
@@ -101,6 +103,11 @@ public class Student {
     @JoinColumn(name = "school_id", nullable = false)
     private School school;
 
+    @NotNull(message = "Class is required")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "class_id", nullable = false)
+    private SchoolClass schoolClass;
+
     // One-to-Many relationship
     @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<AttendanceRecord> attendanceRecords;
@@ -111,9 +118,20 @@ public class Student {
         return firstName + " " + lastName;
     }
 
+    // Standard and section come from the class
+    @Transient
+    public String getStandard() {
+        return schoolClass != null ? schoolClass.getStandard() : null;
+    }
+
+    @Transient
+    public String getSection() {
+        return schoolClass != null ? schoolClass.getSection() : null;
+    }
+
     // Constructor without ID for creation
     public Student(String grNo, String rollNo, String firstName, String lastName, 
-                  LocalDate dateOfBirth, Gender gender, String standard, String section,
+                  LocalDate dateOfBirth, Gender gender, SchoolClass schoolClass,
                   String mobileNumber, School school) {
         this.grNo = grNo;
         this.rollNo = rollNo;
@@ -121,8 +139,7 @@ public class Student {
         this.lastName = lastName;
         this.dateOfBirth = dateOfBirth;
         this.gender = gender;
-        this.standard = standard;
-        this.section = section;
+        this.schoolClass = schoolClass;
         this.mobileNumber = mobileNumber;
         this.school = school;
         this.isActive = true;
@@ -5,6 +5,8 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -19,7 +21,13 @@ import java.util.Set;
        uniqueConstraints = {
            @UniqueConstraint(columnNames = {"emp_no", "school_id"}),
            @UniqueConstraint(columnNames = {"email"})
+       },
+       indexes = {
+           @Index(name = "idx_teachers_school_active_name", columnList = "school_id, is_active, first_name"),
+           @Index(name = "idx_teachers_school_subject", columnList = "school_id, primary_subject, is_active, first_name")
        })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teacher")
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @NoArgsConstructor
@@ -84,17 +92,21 @@ public class Teacher {
 
     // Many-to-Many relationship for subjects
     @ElementCollection(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teacher-subjects")
     @CollectionTable(name = "teacher_subjects", 
-                    joinColumns = @JoinColumn(name = "teacher_id"))
+                    joinColumns = @JoinColumn(name = "teacher_id"),
+                    indexes = @Index(name = "idx_teacher_subjects_subject", columnList = "subject, teacher_id"))
     @Column(name = "subject")
     private Set<String> subjects;
 
     // Many-to-Many relationship for assigned classes
-    @ElementCollection(fetch = FetchType.LAZY)
-    @CollectionTable(name = "teacher_classes", 
-                    joinColumns = @JoinColumn(name = "teacher_id"))
-    @Column(name = "class_name")
-    private Set<String> assignedClasses;
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teacher-assigned-classes")
+    @JoinTable(name = "teacher_class_assignments",
+               joinColumns = @JoinColumn(name = "teacher_id"),
+               inverseJoinColumns = @JoinColumn(name = "class_id"),
+               indexes = @Index(name = "idx_teacher_class_assignments_class", columnList = "class_id, teacher_id"))
+    private Set<SchoolClass> assignedClasses;
 
     // Derived property for full name
     @Transient
@@ -5,7 +5,10 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+       indexes = {
+           @Index(name = "idx_users_reference_role", columnList = "reference_id, role")
+       })
 public class User {
     
     @Id
@@ -41,6 +44,10 @@ public class User {
     @Column(name = "reference_id")
     private Long referenceId;
     
+    // School of the linked Student or Teacher; null for admins, who may act for any school
+    @Column(name = "school_id")
+    private Long schoolId;
+    
     // Constructors
     public User() {
         this.createdAt = LocalDateTime.now();
@@ -142,6 +149,14 @@ public class User {
         this.referenceId = referenceId;
     }
     
+    public Long getSchoolId() {
+        return schoolId;
+    }
+    
+    public void setSchoolId(Long schoolId) {
+        this.schoolId = schoolId;
+    }
+    
     // Helper methods
     public boolean isAdmin() {
         return this.role == Role.ADMIN;
@@ -0,0 +1,23 @@
+package com.school.attendance.entity.converter;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link AttendanceStatus} as its one-byte code (TINYINT) instead of the enum name,
+ * keeping attendance rows and the status-bearing indexes narrow
+ */
+@Converter
+public class AttendanceStatusConverter implements AttributeConverter<AttendanceStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(AttendanceStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public AttendanceStatus convertToEntityAttribute(Byte code) {
+        return code == null ? null : AttendanceStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,25 @@
+package com.school.attendance.entity.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores the "every standard / every section" scope of a calendar entry (null in the entity) as
+ * {@code '*'}, so the scope columns are NOT NULL and the unique key on them holds: NULLs would be
+ * distinct and let a day be declared twice for the same scope. '' stays a class without a section.
+ */
+@Converter
+public class CalendarScopeConverter implements AttributeConverter<String, String> {
+
+    public static final String ALL = "*";
+
+    @Override
+    public String convertToDatabaseColumn(String scope) {
+        return scope == null ? ALL : scope;
+    }
+
+    @Override
+    public String convertToEntityAttribute(String scope) {
+        return scope == null || ALL.equals(scope) ? null : scope;
+    }
+}
@@ -0,0 +1,46 @@
+package com.school.attendance.entity.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stores the sparse per-student notes of a class-day register as a small JSON object
+ * keyed by student ID; an empty map is stored as NULL
+ */
+@Converter
+public class RegisterNotesConverter implements AttributeConverter<Map<Long, String>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<TreeMap<Long, String>> TYPE = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(Map<Long, String> notes) {
+        if (notes == null || notes.isEmpty()) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(notes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize register notes", e);
+        }
+    }
+
+    @Override
+    public Map<Long, String> convertToEntityAttribute(String json) {
+        if (json == null || json.isBlank()) {
+            return new TreeMap<>();
+        }
+        try {
+            return MAPPER.readValue(json, TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot read register notes", e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.school.attendance.entity.listener;
+
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.repository.AttendanceHistoryWriter;
+import com.school.attendance.repository.AttendanceHistoryWriter.Version;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects attendance record inserts, updates and deletes made through JPA and writes their
+ * history versions in one batch just before the transaction commits, on the same connection.
+ * Several changes to the same (student, date) in one transaction produce a single version.
+ */
+public class AttendanceHistoryListener implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    private final Map<SharedSessionContractImplementor, Map<String, Version>> pendingBySession =
+            new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof AttendanceRecord record) {
+            collect(event.getSession(), toVersion(record));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof AttendanceRecord record) {
+            collect(event.getSession(), toVersion(record));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof AttendanceRecord record) {
+            collect(event.getSession(), Version.deleted(record.getStudent().getId(), record.getDate()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void collect(EventSource session, Version version) {
+        Map<String, Version> pending = pendingBySession.computeIfAbsent(session, key -> {
+            session.getActionQueue().registerProcess(this::writePending);
+            session.getActionQueue().registerProcess((success, completedSession) ->
+                    pendingBySession.remove(completedSession));
+            return new LinkedHashMap<>();
+        });
+        pending.put(version.studentId() + ":" + version.date(), version);
+    }
+
+    private void writePending(SessionImplementor session) {
+        Map<String, Version> pending = pendingBySession.remove(session);
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        LocalDateTime changedAt = LocalDateTime.now();
+        session.doWork(connection -> AttendanceHistoryWriter.write(connection, pending.values(), changedAt));
+    }
+
+    private Version toVersion(AttendanceRecord record) {
+        return new Version(record.getStudent().getId(), record.getDate(), record.getStatus(), record.getNote(),
+                record.getMarkedTime(), record.getTeacher() != null ? record.getTeacher().getId() : null, false);
+    }
+}
@@ -44,7 +44,7 @@ public class AttendanceEvents {
     @Getter
     @EqualsAndHashCode(callSuper = false)
     public static class BulkAttendanceMarkedEvent extends ApplicationEvent {
-        private final Long classId;
+        private final Integer classId;
         private final Long teacherId;
         private final LocalDate attendanceDate;
         private final int totalStudents;
@@ -52,7 +52,7 @@ public class AttendanceEvents {
         private final int absentCount;
         private final LocalDateTime eventTimestamp;
 
-        public BulkAttendanceMarkedEvent(Object source, Long classId, Long teacherId, 
+        public BulkAttendanceMarkedEvent(Object source, Integer classId, Long teacherId, 
                                        LocalDate attendanceDate, int totalStudents, 
                                        int presentCount, int absentCount) {
             super(source);
@@ -109,12 +109,12 @@ public class AttendanceEvents {
         private final LocalDate fromDate;
         private final LocalDate toDate;
         private final Long schoolId;
-        private final Long classId; // Optional - for class-specific reports
+        private final Integer classId; // Optional - for class-specific reports
         private final LocalDateTime eventTimestamp;
 
         public AttendanceReportRequestedEvent(Object source, String reportType, String format,
                                             Long requestedBy, String email, LocalDate fromDate, 
-                                            LocalDate toDate, Long schoolId, Long classId) {
+                                            LocalDate toDate, Long schoolId, Integer classId) {
             super(source);
             this.reportType = reportType;
             this.format = format;
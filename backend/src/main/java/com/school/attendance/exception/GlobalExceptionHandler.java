@@ -4,6 +4,8 @@ import com.school.attendance.dto.ApiResponse;
 import com.school.attendance.util.LoggingUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -53,7 +55,39 @@ public class GlobalExceptionHandler {
                 "Business rule violation: " + ex.getMessage() + " | Path: " + path);
         
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), path);
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(response, ex.getStatus());
+    }
+    
+    /**
+     * Handle optimistic locking failures (the record was changed by someone else since it was read)
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<Object>> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, WebRequest request) {
+        
+        String path = extractPath(request);
+        LoggingUtil.logSecurityEvent("CONCURRENT_MODIFICATION", "unknown", 
+                "Optimistic lock conflict: " + ex.getMessage() + " | Path: " + path);
+        
+        ApiResponse<Object> response = ApiResponse.error(
+                "The record was changed by someone else, please reload and try again", path);
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+    
+    /**
+     * Handle unique/foreign key violations (e.g. two requests creating the same attendance record at once)
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiResponse<Object>> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex, WebRequest request) {
+        
+        String path = extractPath(request);
+        LoggingUtil.logSecurityEvent("DATA_CONFLICT", "unknown", 
+                "Data integrity violation: " + ex.getMostSpecificCause().getMessage() + " | Path: " + path);
+        
+        ApiResponse<Object> response = ApiResponse.error(
+                "The request conflicts with existing data, please reload and try again", path);
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
     
     /**
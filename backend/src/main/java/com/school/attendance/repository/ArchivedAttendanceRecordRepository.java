@@ -0,0 +1,37 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.ArchivedAttendanceRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedAttendanceRecordRepository extends JpaRepository<ArchivedAttendanceRecord, Long> {
+
+    /**
+     * Find archived records for a student between dates
+     */
+    List<ArchivedAttendanceRecord> findByStudentIdAndDateBetweenOrderByDateDesc(
+            Long studentId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Count archived records in a date range (used to verify a segment after archiving)
+     */
+    long countByDateBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Copy a chunk of hot rows into the archive table, preserving their primary keys
+     */
+    @Modifying
+    @Query(value = "INSERT INTO attendance_records_archive " +
+           "(id, date, status, note, marked_time, created_at, updated_at, student_id, teacher_id, archived_at) " +
+           "SELECT id, date, status, note, marked_time, created_at, updated_at, student_id, teacher_id, :archivedAt " +
+           "FROM attendance_records WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromHotTier(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,29 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.AttendanceArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface AttendanceArchiveSegmentRepository extends JpaRepository<AttendanceArchiveSegment, Long> {
+
+    /**
+     * Find the segment for an academic year
+     */
+    Optional<AttendanceArchiveSegment> findByAcademicYear(String academicYear);
+
+    /**
+     * Check if an academic year has already been archived
+     */
+    boolean existsByAcademicYear(String academicYear);
+
+    /**
+     * Last date held in the archive tier (the hot/cold boundary)
+     */
+    @Query("SELECT MAX(s.endDate) FROM AttendanceArchiveSegment s")
+    Optional<LocalDate> findArchiveBoundary();
+}
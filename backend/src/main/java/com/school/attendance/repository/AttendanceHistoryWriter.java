@@ -0,0 +1,95 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+
+/**
+ * Writes attendance history versions with two JDBC batches on the caller's connection
+ * (so they commit or roll back with the change itself): close the current version of
+ * every changed (student, date), then open the new versions.
+ */
+public final class AttendanceHistoryWriter {
+
+    private static final String CLOSE_SQL =
+            "UPDATE attendance_record_history SET valid_to = ? " +
+            "WHERE student_id = ? AND date = ? AND valid_to IS NULL";
+
+    private static final String OPEN_SQL =
+            "INSERT INTO attendance_record_history " +
+            "(student_id, date, status, note, marked_time, teacher_id, valid_from) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private AttendanceHistoryWriter() {
+    }
+
+    /**
+     * Record one version per change; changes must be coalesced to one per (student, date)
+     */
+    public static void write(Connection connection, Collection<Version> versions, LocalDateTime changedAt)
+            throws SQLException {
+        if (versions.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(changedAt);
+
+        try (PreparedStatement close = connection.prepareStatement(CLOSE_SQL)) {
+            for (Version version : versions) {
+                close.setTimestamp(1, timestamp);
+                close.setLong(2, version.studentId());
+                close.setDate(3, Date.valueOf(version.date()));
+                close.addBatch();
+            }
+            close.executeBatch();
+        }
+
+        try (PreparedStatement open = connection.prepareStatement(OPEN_SQL)) {
+            boolean any = false;
+            for (Version version : versions) {
+                if (version.deleted()) {
+                    continue;
+                }
+                open.setLong(1, version.studentId());
+                open.setDate(2, Date.valueOf(version.date()));
+                open.setByte(3, version.status().getCode());
+                open.setString(4, version.note());
+                if (version.markedTime() != null) {
+                    open.setTime(5, Time.valueOf(version.markedTime()));
+                } else {
+                    open.setNull(5, Types.TIME);
+                }
+                if (version.teacherId() != null) {
+                    open.setLong(6, version.teacherId());
+                } else {
+                    open.setNull(6, Types.BIGINT);
+                }
+                open.setTimestamp(7, timestamp);
+                open.addBatch();
+                any = true;
+            }
+            if (any) {
+                open.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * State of a (student, date) entry after a change; {@code deleted} closes the history
+     */
+    public record Version(Long studentId, LocalDate date, AttendanceStatus status, String note,
+                          LocalTime markedTime, Long teacherId, boolean deleted) {
+
+        public static Version deleted(Long studentId, LocalDate date) {
+            return new Version(studentId, date, null, null, null, null, true);
+        }
+    }
+}
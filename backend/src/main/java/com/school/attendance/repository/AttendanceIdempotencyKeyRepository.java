@@ -0,0 +1,28 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.AttendanceIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AttendanceIdempotencyKeyRepository extends JpaRepository<AttendanceIdempotencyKey, Long> {
+
+    /**
+     * Find a key stored by a caller for a school (single unique-index lookup)
+     */
+    Optional<AttendanceIdempotencyKey> findBySchoolIdAndCallerAndIdempotencyKey(Long schoolId, String caller,
+                                                                               String idempotencyKey);
+
+    /**
+     * Delete keys that expired before the given time
+     */
+    @Modifying
+    @Query("DELETE FROM AttendanceIdempotencyKey k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
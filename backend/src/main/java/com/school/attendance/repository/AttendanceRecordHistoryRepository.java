@@ -0,0 +1,68 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.AttendanceRecordHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * As-of and audit queries over attendance history.
+ * A version is valid at {@code asOf} when {@code validFrom <= asOf < validTo} (open-ended if validTo is null).
+ */
+@Repository
+public interface AttendanceRecordHistoryRepository extends JpaRepository<AttendanceRecordHistory, Long> {
+
+    /**
+     * What a student's attendance for a date showed at a point in time
+     */
+    @Query("SELECT h FROM AttendanceRecordHistory h WHERE h.studentId = :studentId AND h.date = :date AND " +
+           "h.validFrom <= :asOf AND (h.validTo IS NULL OR h.validTo > :asOf)")
+    Optional<AttendanceRecordHistory> findStudentAttendanceAsOf(@Param("studentId") Long studentId,
+                                                                @Param("date") LocalDate date,
+                                                                @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * What a class register for a date showed at a point in time
+     */
+    @Query("SELECT h FROM AttendanceRecordHistory h JOIN Student s ON s.id = h.studentId " +
+           "WHERE h.date = :date AND h.validFrom <= :asOf AND (h.validTo IS NULL OR h.validTo > :asOf) AND " +
+           "s.schoolClass.school.id = :schoolId AND s.schoolClass.standard = :standard AND " +
+           "s.schoolClass.section = :section " +
+           "ORDER BY s.rollNo")
+    List<AttendanceRecordHistory> findClassRegisterAsOf(@Param("schoolId") Long schoolId,
+                                                        @Param("standard") String standard,
+                                                        @Param("section") String section,
+                                                        @Param("date") LocalDate date,
+                                                        @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * What a student's attendance between dates showed at a point in time
+     */
+    @Query("SELECT h FROM AttendanceRecordHistory h WHERE h.studentId = :studentId AND " +
+           "h.date BETWEEN :startDate AND :endDate AND " +
+           "h.validFrom <= :asOf AND (h.validTo IS NULL OR h.validTo > :asOf) ORDER BY h.date DESC")
+    List<AttendanceRecordHistory> findStudentAttendanceBetweenAsOf(@Param("studentId") Long studentId,
+                                                                   @Param("startDate") LocalDate startDate,
+                                                                   @Param("endDate") LocalDate endDate,
+                                                                   @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * Full correction trail of a student's attendance for a date, oldest version first
+     */
+    List<AttendanceRecordHistory> findByStudentIdAndDateOrderByValidFromAsc(Long studentId, LocalDate date);
+
+    /**
+     * Versions of a date's attendance created in a time window (corrections made during that window)
+     */
+    @Query("SELECT h FROM AttendanceRecordHistory h WHERE h.date = :date AND " +
+           "h.validFrom BETWEEN :changedFrom AND :changedTo ORDER BY h.validFrom")
+    List<AttendanceRecordHistory> findChangesForDate(@Param("date") LocalDate date,
+                                                     @Param("changedFrom") LocalDateTime changedFrom,
+                                                     @Param("changedTo") LocalDateTime changedTo);
+}
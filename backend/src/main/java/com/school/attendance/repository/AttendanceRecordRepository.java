@@ -2,10 +2,10 @@ package com.school.attendance.repository;
 
 import com.school.attendance.entity.AttendanceRecord;
 import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,24 +15,19 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AttendanceRecordRepository extends JpaRepository<AttendanceRecord, Long>, JpaSpecificationExecutor<AttendanceRecord> {
+public interface AttendanceRecordRepository extends JpaRepository<AttendanceRecord, Long>, JpaSpecificationExecutor<AttendanceRecord>,
+        AttendanceRecordRepositoryCustom {
 
     /**
      * Find attendance record by student and date
      */
     Optional<AttendanceRecord> findByStudentIdAndDate(Long studentId, LocalDate date);
 
-    /**
-     * Find all attendance records for a student between dates
-     */
-    List<AttendanceRecord> findByStudentIdAndDateBetweenOrderByDateDesc(
-            Long studentId, LocalDate startDate, LocalDate endDate);
-
     /**
      * Find attendance records for a class on a specific date
      */
-    @Query("SELECT ar FROM AttendanceRecord ar JOIN ar.student s WHERE " +
-           "s.school.id = :schoolId AND s.standard = :standard AND s.section = :section AND " +
+    @Query("SELECT ar FROM AttendanceRecord ar JOIN ar.student s JOIN s.schoolClass c WHERE " +
+           "c.school.id = :schoolId AND c.standard = :standard AND c.section = :section AND " +
            "ar.date = :date ORDER BY s.rollNo")
     List<AttendanceRecord> findClassAttendanceByDate(@Param("schoolId") Long schoolId,
                                                     @Param("standard") String standard,
@@ -40,44 +35,26 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
                                                     @Param("date") LocalDate date);
 
     /**
-     * Find attendance records by teacher and date
-     */
-    List<AttendanceRecord> findByTeacherIdAndDateOrderByCreatedAt(Long teacherId, LocalDate date);
-
-    /**
-     * Find attendance records by status and date range
+     * Find attendance records for a class (by class id) on a specific date
      */
-    List<AttendanceRecord> findByStatusAndDateBetween(AttendanceStatus status, 
-                                                     LocalDate startDate, LocalDate endDate);
-
-    /**
-     * Count attendance by student and status in date range
-     */
-    @Query("SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.student.id = :studentId AND " +
-           "ar.status = :status AND ar.date BETWEEN :startDate AND :endDate AND ar.isHoliday = false")
-    long countByStudentAndStatus(@Param("studentId") Long studentId,
-                               @Param("status") AttendanceStatus status,
-                               @Param("startDate") LocalDate startDate,
-                               @Param("endDate") LocalDate endDate);
+    @Query("SELECT ar FROM AttendanceRecord ar JOIN ar.student s WHERE " +
+           "s.schoolClass.id = :classId AND ar.date = :date ORDER BY s.rollNo")
+    List<AttendanceRecord> findClassAttendanceByClassIdAndDate(@Param("classId") Integer classId,
+                                                               @Param("date") LocalDate date);
 
     /**
-     * Get attendance statistics for a student
+     * Find attendance records by teacher and date
      */
-    @Query("SELECT ar.status, COUNT(ar) FROM AttendanceRecord ar WHERE ar.student.id = :studentId AND " +
-           "ar.date BETWEEN :startDate AND :endDate AND ar.isHoliday = false " +
-           "GROUP BY ar.status")
-    List<Object[]> getStudentAttendanceStatistics(@Param("studentId") Long studentId,
-                                                 @Param("startDate") LocalDate startDate,
-                                                 @Param("endDate") LocalDate endDate);
+    List<AttendanceRecord> findByTeacherIdAndDateOrderByCreatedAt(Long teacherId, LocalDate date);
 
     /**
      * Get daily attendance summary for a school
      */
-    @Query("SELECT s.standard, s.section, ar.status, COUNT(ar) " +
-           "FROM AttendanceRecord ar JOIN ar.student s " +
-           "WHERE s.school.id = :schoolId AND ar.date = :date AND ar.isHoliday = false " +
-           "GROUP BY s.standard, s.section, ar.status " +
-           "ORDER BY s.standard, s.section")
+    @Query("SELECT c.standard, c.section, ar.status, COUNT(ar) " +
+           "FROM AttendanceRecord ar JOIN ar.student s JOIN s.schoolClass c " +
+           "WHERE s.school.id = :schoolId AND ar.date = :date AND ar.status <> HOLIDAY " +
+           "GROUP BY c.id, c.standard, c.section, ar.status " +
+           "ORDER BY c.standard, c.section")
     List<Object[]> getDailyAttendanceSummary(@Param("schoolId") Long schoolId, @Param("date") LocalDate date);
 
     /**
@@ -85,17 +62,11 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
      */
     List<AttendanceRecord> findByDateAndStatus(LocalDate date, AttendanceStatus status);
 
-    /**
-     * Find attendance records for a student between dates
-     */
-    List<AttendanceRecord> findByStudentAndDateBetween(com.school.attendance.entity.Student student, 
-                                                      LocalDate startDate, LocalDate endDate);
-
     /**
      * Find students not marked for attendance on a specific date
      */
-    @Query("SELECT s FROM Student s WHERE s.school.id = :schoolId AND s.standard = :standard AND " +
-           "s.section = :section AND s.isActive = true AND " +
+    @Query("SELECT s FROM Student s JOIN s.schoolClass c WHERE c.school.id = :schoolId AND c.standard = :standard AND " +
+           "c.section = :section AND s.isActive = true AND " +
            "NOT EXISTS (SELECT ar FROM AttendanceRecord ar WHERE ar.student = s AND ar.date = :date)")
     List<Object> findStudentsNotMarkedAttendance(@Param("schoolId") Long schoolId,
                                                 @Param("standard") String standard,
@@ -108,46 +79,34 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
     boolean existsByStudentIdAndDate(Long studentId, LocalDate date);
 
     /**
-     * Find attendance records with pagination
+     * Student ids and dates of a school's attendance since a date, for the existence filters
      */
-    Page<AttendanceRecord> findByDateBetweenOrderByDateDesc(LocalDate startDate, LocalDate endDate, Pageable pageable);
+    @Query("SELECT ar.student.id, ar.date FROM AttendanceRecord ar WHERE ar.student.school.id = :schoolId AND ar.date >= :from")
+    List<Object[]> findStudentDatesBySchoolIdSince(@Param("schoolId") Long schoolId, @Param("from") LocalDate from);
 
     /**
-     * Get monthly attendance summary for a class
+     * Delete attendance records for a specific date (for corrections)
      */
-    @Query("SELECT ar.date, ar.status, COUNT(ar) " +
-           "FROM AttendanceRecord ar JOIN ar.student s " +
-           "WHERE s.school.id = :schoolId AND s.standard = :standard AND s.section = :section AND " +
-           "ar.date BETWEEN :startDate AND :endDate AND ar.isHoliday = false " +
-           "GROUP BY ar.date, ar.status " +
-           "ORDER BY ar.date")
-    List<Object[]> getMonthlyClassAttendanceSummary(@Param("schoolId") Long schoolId,
-                                                   @Param("standard") String standard,
-                                                   @Param("section") String section,
-                                                   @Param("startDate") LocalDate startDate,
-                                                   @Param("endDate") LocalDate endDate);
+    void deleteByStudentIdAndDate(Long studentId, LocalDate date);
 
     /**
-     * Get attendance percentage for a student
+     * Earliest attendance date still in the hot table
      */
-    @Query("SELECT " +
-           "COUNT(*) as totalDays, " +
-           "SUM(CASE WHEN ar.status = 'PRESENT' OR ar.status = 'LATE' THEN 1 ELSE 0 END) as presentDays " +
-           "FROM AttendanceRecord ar " +
-           "WHERE ar.student.id = :studentId AND ar.date BETWEEN :startDate AND :endDate AND ar.isHoliday = false")
-    Object[] getStudentAttendancePercentage(@Param("studentId") Long studentId,
-                                          @Param("startDate") LocalDate startDate,
-                                          @Param("endDate") LocalDate endDate);
+    @Query("SELECT MIN(ar.date) FROM AttendanceRecord ar")
+    Optional<LocalDate> findEarliestDate();
 
     /**
-     * Find holidays in date range
+     * Find a chunk of record IDs on or before a date (for archiving)
      */
-    List<AttendanceRecord> findByIsHolidayTrueAndDateBetweenOrderByDate(LocalDate startDate, LocalDate endDate);
+    @Query("SELECT ar.id FROM AttendanceRecord ar WHERE ar.date <= :endDate ORDER BY ar.id")
+    List<Long> findIdsByDateOnOrBefore(@Param("endDate") LocalDate endDate, Pageable pageable);
 
     /**
-     * Delete attendance records for a specific date (for corrections)
+     * Delete records by ID (after they have been copied to the archive)
      */
-    void deleteByStudentIdAndDate(Long studentId, LocalDate date);
+    @Modifying
+    @Query("DELETE FROM AttendanceRecord ar WHERE ar.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 
     // ========== PERFORMANCE OPTIMIZED QUERIES ==========
 
@@ -161,50 +120,17 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
     List<AttendanceRecord> findByDateWithStudentAndTeacher(@Param("date") LocalDate date);
 
     /**
-     * Paginated attendance records with optimized fetching
+     * Optimized attendance summary query for dashboard, grouped by the integer class id
+     * (students.class_id); class names are resolved from the class cache
      */
-    @Query(value = "SELECT ar FROM AttendanceRecord ar " +
-           "JOIN FETCH ar.student s " +
-           "LEFT JOIN FETCH ar.teacher t " +
-           "WHERE ar.date BETWEEN :startDate AND :endDate",
-           countQuery = "SELECT COUNT(ar) FROM AttendanceRecord ar " +
-           "WHERE ar.date BETWEEN :startDate AND :endDate")
-    Page<AttendanceRecord> findAttendanceWithPagination(@Param("startDate") LocalDate startDate,
-                                                        @Param("endDate") LocalDate endDate,
-                                                        Pageable pageable);
-
-    /**
-     * Optimized attendance summary query for dashboard
-     */
-    @Query("SELECT CONCAT(s.standard, COALESCE(CONCAT('-', s.section), '')) as className, " +
+    @Query("SELECT s.schoolClass.id as classId, " +
            "COUNT(ar) as totalRecords, " +
-           "SUM(CASE WHEN ar.status = 'PRESENT' THEN 1 ELSE 0 END) as presentCount, " +
-           "SUM(CASE WHEN ar.status = 'ABSENT' THEN 1 ELSE 0 END) as absentCount, " +
-           "SUM(CASE WHEN ar.status = 'LATE' THEN 1 ELSE 0 END) as lateCount " +
+           "SUM(CASE WHEN ar.status = PRESENT THEN 1 ELSE 0 END) as presentCount, " +
+           "SUM(CASE WHEN ar.status = ABSENT THEN 1 ELSE 0 END) as absentCount, " +
+           "SUM(CASE WHEN ar.status = LATE THEN 1 ELSE 0 END) as lateCount " +
            "FROM AttendanceRecord ar " +
            "JOIN ar.student s " +
            "WHERE ar.date = :date " +
-           "GROUP BY s.standard, s.section")
+           "GROUP BY s.schoolClass.id")
     List<Object[]> getDailyAttendanceSummaryByClass(@Param("date") LocalDate date);
-
-    /**
-     * Efficient query for student attendance trends
-     */
-    @Query("SELECT ar.date as date, ar.status as status " +
-           "FROM AttendanceRecord ar " +
-           "WHERE ar.student.id = :studentId " +
-           "AND ar.date BETWEEN :startDate AND :endDate " +
-           "ORDER BY ar.date DESC")
-    List<Object[]> getStudentAttendanceTrend(@Param("studentId") Long studentId,
-                                           @Param("startDate") LocalDate startDate,
-                                           @Param("endDate") LocalDate endDate);
-
-    /**
-     * Bulk attendance status update (for performance)
-     */
-    @Query("UPDATE AttendanceRecord ar SET ar.status = :status " +
-           "WHERE ar.student.id IN :studentIds AND ar.date = :date")
-    int bulkUpdateAttendanceStatus(@Param("studentIds") List<Long> studentIds,
-                                  @Param("date") LocalDate date,
-                                  @Param("status") AttendanceStatus status);
 }
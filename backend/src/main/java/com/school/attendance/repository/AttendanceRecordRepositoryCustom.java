@@ -0,0 +1,109 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.Student;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Range queries that span the hot table and the archive tier.
+ * Implemented by {@link AttendanceRecordRepositoryImpl}; records read from the
+ * archive are detached, read-only copies. Aggregates add up both tiers.
+ */
+public interface AttendanceRecordRepositoryCustom {
+
+    /**
+     * Find all attendance records for a student between dates (hot and archived)
+     */
+    List<AttendanceRecord> findByStudentIdAndDateBetweenOrderByDateDesc(
+            Long studentId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Find attendance records for a student between dates (hot and archived)
+     */
+    List<AttendanceRecord> findByStudentAndDateBetween(Student student, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Date/status pairs for a student, newest first (hot and archived)
+     */
+    List<Object[]> getStudentAttendanceTrend(Long studentId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Find attendance records by status and date range (hot and archived)
+     */
+    List<AttendanceRecord> findByStatusAndDateBetween(AttendanceStatus status, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Find holidays in date range, oldest first (hot and archived)
+     */
+    List<AttendanceRecord> findByIsHolidayTrueAndDateBetweenOrderByDate(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Count attendance by student and status in date range; holidays are never counted
+     */
+    long countByStudentAndStatus(Long studentId, AttendanceStatus status, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Status/count pairs for a student, holidays excluded
+     */
+    List<Object[]> getStudentAttendanceStatistics(Long studentId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Marked days and present (or late) days for a student, holidays excluded
+     */
+    Object[] getStudentAttendancePercentage(Long studentId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Date/status/count rows for a class, ordered by date, holidays excluded
+     */
+    List<Object[]> getMonthlyClassAttendanceSummary(Long schoolId, String standard, String section,
+                                                   LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Page through attendance records between dates, newest first (hot rows, then archived).
+     * The pageable's sort is not applied.
+     */
+    Page<AttendanceRecord> findByDateBetweenOrderByDateDesc(LocalDate startDate, LocalDate endDate, Pageable pageable);
+
+    /**
+     * Same as {@link #findByDateBetweenOrderByDateDesc}; hot rows are read with student and teacher fetched
+     */
+    Page<AttendanceRecord> findAttendanceWithPagination(LocalDate startDate, LocalDate endDate, Pageable pageable);
+
+    /**
+     * Stream all attendance records between dates, oldest first (archived, then hot; while a
+     * year is being archived, its remaining hot rows come after the archived ones).
+     * Rows are read through a forward-only cursor with the student fetched; the persistence
+     * context is cleared after every fetch batch, so each record is read-only and only valid
+     * until the next one is pulled. Must be called inside a transaction and closed after use.
+     */
+    Stream<AttendanceRecord> streamByDateBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Stream a school's attendance records between dates (see {@link #streamByDateBetween})
+     */
+    Stream<AttendanceRecord> streamBySchoolIdAndDateBetween(Long schoolId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Bulk attendance status update (for performance); closes and reopens the affected
+     * history versions in the same transaction
+     */
+    int bulkUpdateAttendanceStatus(List<Long> studentIds, LocalDate date, AttendanceStatus status);
+
+    /**
+     * Last date that may be held in the archive tier, if any academic year has been
+     * registered for archiving (including one whose rows are still being moved)
+     */
+    Optional<LocalDate> getArchiveBoundary();
+
+    /**
+     * Reload the archive boundary after an academic year has been archived
+     */
+    void refreshArchiveBoundary();
+}
@@ -0,0 +1,502 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.ArchivedAttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.Student;
+import com.school.attendance.entity.Teacher;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Hot/cold aware implementation of {@link AttendanceRecordRepositoryCustom}.
+ * Ranges entirely after the archive boundary only touch {@code attendance_records};
+ * ranges that cross it are split at the boundary and the archived part is appended.
+ * While a year is being archived its dates are read from both tables; both reads run in
+ * one repeatable-read transaction, so a chunk moved in between is neither missed nor counted twice.
+ */
+@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+public class AttendanceRecordRepositoryImpl implements AttendanceRecordRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.streaming.fetch-size:500}")
+    private int streamFetchSize;
+
+    // Other nodes archive rarely, so a short-lived snapshot is enough; the archive job waits it out
+    @Value("${app.archive.boundary-cache-seconds:300}")
+    private long boundaryCacheSeconds;
+
+    private volatile TierBoundaries tierBoundaries;
+
+    @Override
+    public List<AttendanceRecord> findByStudentIdAndDateBetweenOrderByDateDesc(
+            Long studentId, LocalDate startDate, LocalDate endDate) {
+        List<AttendanceRecord> records = readTiers(startDate, endDate,
+                (from, to) -> entityManager.createQuery(
+                                "SELECT ar FROM AttendanceRecord ar WHERE ar.student.id = :studentId AND " +
+                                "ar.date BETWEEN :startDate AND :endDate ORDER BY ar.date DESC", AttendanceRecord.class)
+                        .setParameter("studentId", studentId)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList(),
+                (from, to) -> entityManager.createQuery(
+                                "SELECT a FROM ArchivedAttendanceRecord a WHERE a.studentId = :studentId AND " +
+                                "a.date BETWEEN :startDate AND :endDate ORDER BY a.date DESC", ArchivedAttendanceRecord.class)
+                        .setParameter("studentId", studentId)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList().stream().map(this::toAttendanceRecord).toList());
+        // Both tiers can hold dates of a year being archived; the sort is linear on already ordered input
+        records.sort(Comparator.comparing(AttendanceRecord::getDate).reversed());
+        return records;
+    }
+
+    @Override
+    public List<AttendanceRecord> findByStudentAndDateBetween(Student student, LocalDate startDate, LocalDate endDate) {
+        return findByStudentIdAndDateBetweenOrderByDateDesc(student.getId(), startDate, endDate);
+    }
+
+    @Override
+    public List<Object[]> getStudentAttendanceTrend(Long studentId, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> trend = readTiers(startDate, endDate,
+                (from, to) -> entityManager.createQuery(
+                                "SELECT ar.date, ar.status FROM AttendanceRecord ar WHERE ar.student.id = :studentId " +
+                                "AND ar.date BETWEEN :startDate AND :endDate ORDER BY ar.date DESC", Object[].class)
+                        .setParameter("studentId", studentId)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList(),
+                (from, to) -> entityManager.createQuery(
+                                "SELECT a.date, a.status FROM ArchivedAttendanceRecord a WHERE a.studentId = :studentId " +
+                                "AND a.date BETWEEN :startDate AND :endDate ORDER BY a.date DESC", Object[].class)
+                        .setParameter("studentId", studentId)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList());
+        trend.sort(Comparator.comparing((Object[] row) -> (LocalDate) row[0]).reversed());
+        return trend;
+    }
+
+    @Override
+    public List<AttendanceRecord> findByStatusAndDateBetween(AttendanceStatus status, LocalDate startDate,
+                                                             LocalDate endDate) {
+        return readTiers(startDate, endDate,
+                (from, to) -> entityManager.createQuery(
+                                "SELECT ar FROM AttendanceRecord ar WHERE ar.status = :status AND " +
+                                "ar.date BETWEEN :startDate AND :endDate", AttendanceRecord.class)
+                        .setParameter("status", status)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList(),
+                (from, to) -> entityManager.createQuery(
+                                "SELECT a FROM ArchivedAttendanceRecord a WHERE a.status = :status AND " +
+                                "a.date BETWEEN :startDate AND :endDate", ArchivedAttendanceRecord.class)
+                        .setParameter("status", status)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList().stream().map(this::toAttendanceRecord).toList());
+    }
+
+    @Override
+    public List<AttendanceRecord> findByIsHolidayTrueAndDateBetweenOrderByDate(LocalDate startDate, LocalDate endDate) {
+        List<AttendanceRecord> holidays = findByStatusAndDateBetween(AttendanceStatus.HOLIDAY, startDate, endDate);
+        holidays.sort(Comparator.comparing(AttendanceRecord::getDate));
+        return holidays;
+    }
+
+    @Override
+    public long countByStudentAndStatus(Long studentId, AttendanceStatus status, LocalDate startDate, LocalDate endDate) {
+        if (status == AttendanceStatus.HOLIDAY) {
+            return 0;
+        }
+        return readTiers(startDate, endDate,
+                (from, to) -> List.of(entityManager.createQuery(
+                                "SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.student.id = :studentId AND " +
+                                "ar.status = :status AND ar.date BETWEEN :startDate AND :endDate", Long.class)
+                        .setParameter("studentId", studentId)
+                        .setParameter("status", status)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getSingleResult()),
+                (from, to) -> List.of(entityManager.createQuery(
+                                "SELECT COUNT(a) FROM ArchivedAttendanceRecord a WHERE a.studentId = :studentId AND " +
+                                "a.status = :status AND a.date BETWEEN :startDate AND :endDate", Long.class)
+                        .setParameter("studentId", studentId)
+                        .setParameter("status", status)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getSingleResult()))
+                .stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public List<Object[]> getStudentAttendanceStatistics(Long studentId, LocalDate startDate, LocalDate endDate) {
+        Map<AttendanceStatus, Long> counts = new EnumMap<>(AttendanceStatus.class);
+        readTiers(startDate, endDate,
+                (from, to) -> entityManager.createQuery(
+                                "SELECT ar.status, COUNT(ar) FROM AttendanceRecord ar WHERE ar.student.id = :studentId AND " +
+                                "ar.date BETWEEN :startDate AND :endDate AND ar.status <> HOLIDAY " +
+                                "GROUP BY ar.status", Object[].class)
+                        .setParameter("studentId", studentId)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList(),
+                (from, to) -> entityManager.createQuery(
+                                "SELECT a.status, COUNT(a) FROM ArchivedAttendanceRecord a WHERE a.studentId = :studentId AND " +
+                                "a.date BETWEEN :startDate AND :endDate AND a.status <> HOLIDAY " +
+                                "GROUP BY a.status", Object[].class)
+                        .setParameter("studentId", studentId)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList())
+                .forEach(row -> counts.merge((AttendanceStatus) row[0], (Long) row[1], Long::sum));
+
+        return counts.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                .toList();
+    }
+
+    @Override
+    public Object[] getStudentAttendancePercentage(Long studentId, LocalDate startDate, LocalDate endDate) {
+        long[] totals = new long[2]; // {marked days, present days}
+        readTiers(startDate, endDate,
+                (from, to) -> entityManager.createQuery(
+                                "SELECT COUNT(ar), SUM(CASE WHEN ar.status = PRESENT OR ar.status = LATE THEN 1 ELSE 0 END) " +
+                                "FROM AttendanceRecord ar WHERE ar.student.id = :studentId AND " +
+                                "ar.date BETWEEN :startDate AND :endDate AND ar.status <> HOLIDAY", Object[].class)
+                        .setParameter("studentId", studentId)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList(),
+                (from, to) -> entityManager.createQuery(
+                                "SELECT COUNT(a), SUM(CASE WHEN a.status = PRESENT OR a.status = LATE THEN 1 ELSE 0 END) " +
+                                "FROM ArchivedAttendanceRecord a WHERE a.studentId = :studentId AND " +
+                                "a.date BETWEEN :startDate AND :endDate AND a.status <> HOLIDAY", Object[].class)
+                        .setParameter("studentId", studentId)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList())
+                .forEach(row -> {
+                    totals[0] += row[0] != null ? ((Number) row[0]).longValue() : 0;
+                    totals[1] += row[1] != null ? ((Number) row[1]).longValue() : 0;
+                });
+        return new Object[]{totals[0], totals[1]};
+    }
+
+    @Override
+    public List<Object[]> getMonthlyClassAttendanceSummary(Long schoolId, String standard, String section,
+                                                           LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Map<AttendanceStatus, Long>> byDate = new TreeMap<>();
+        readTiers(startDate, endDate,
+                (from, to) -> entityManager.createQuery(
+                                "SELECT ar.date, ar.status, COUNT(ar) " +
+                                "FROM AttendanceRecord ar JOIN ar.student s JOIN s.schoolClass c " +
+                                "WHERE c.school.id = :schoolId AND c.standard = :standard AND c.section = :section AND " +
+                                "ar.date BETWEEN :startDate AND :endDate AND ar.status <> HOLIDAY " +
+                                "GROUP BY ar.date, ar.status", Object[].class)
+                        .setParameter("schoolId", schoolId)
+                        .setParameter("standard", standard)
+                        .setParameter("section", section)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList(),
+                (from, to) -> entityManager.createQuery(
+                                "SELECT a.date, a.status, COUNT(a) " +
+                                "FROM ArchivedAttendanceRecord a JOIN Student s ON s.id = a.studentId JOIN s.schoolClass c " +
+                                "WHERE c.school.id = :schoolId AND c.standard = :standard AND c.section = :section AND " +
+                                "a.date BETWEEN :startDate AND :endDate AND a.status <> HOLIDAY " +
+                                "GROUP BY a.date, a.status", Object[].class)
+                        .setParameter("schoolId", schoolId)
+                        .setParameter("standard", standard)
+                        .setParameter("section", section)
+                        .setParameter("startDate", from)
+                        .setParameter("endDate", to)
+                        .getResultList())
+                .forEach(row -> byDate.computeIfAbsent((LocalDate) row[0], date -> new EnumMap<>(AttendanceStatus.class))
+                        .merge((AttendanceStatus) row[1], (Long) row[2], Long::sum));
+
+        List<Object[]> summary = new ArrayList<>();
+        byDate.forEach((date, counts) -> counts.forEach((status, count) ->
+                summary.add(new Object[]{date, status, count})));
+        return summary;
+    }
+
+    @Override
+    public Page<AttendanceRecord> findByDateBetweenOrderByDateDesc(LocalDate startDate, LocalDate endDate,
+                                                                   Pageable pageable) {
+        LocalDate hotStart = hotStart(startDate);
+        Optional<LocalDate> coldEnd = coldEnd(startDate, endDate);
+        long hotCount = hotStart.isAfter(endDate) ? 0 : entityManager.createQuery(
+                        "SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.date BETWEEN :startDate AND :endDate", Long.class)
+                .setParameter("startDate", hotStart)
+                .setParameter("endDate", endDate)
+                .getSingleResult();
+        long coldCount = coldEnd.map(end -> entityManager.createQuery(
+                        "SELECT COUNT(a) FROM ArchivedAttendanceRecord a WHERE a.date BETWEEN :startDate AND :endDate", Long.class)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", end)
+                .getSingleResult()).orElse(0L);
+
+        // Hot rows are the newer ones: a page takes the rest of the hot rows, then continues into the archive
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        List<AttendanceRecord> content = new ArrayList<>();
+        if (offset < hotCount) {
+            content.addAll(entityManager.createQuery(
+                            "SELECT ar FROM AttendanceRecord ar JOIN FETCH ar.student LEFT JOIN FETCH ar.teacher " +
+                            "WHERE ar.date BETWEEN :startDate AND :endDate ORDER BY ar.date DESC, ar.id DESC",
+                            AttendanceRecord.class)
+                    .setParameter("startDate", hotStart)
+                    .setParameter("endDate", endDate)
+                    .setFirstResult((int) offset)
+                    .setMaxResults(limit)
+                    .getResultList());
+        }
+        if (content.size() < limit && coldEnd.isPresent()) {
+            entityManager.createQuery(
+                            "SELECT a FROM ArchivedAttendanceRecord a WHERE a.date BETWEEN :startDate AND :endDate " +
+                            "ORDER BY a.date DESC, a.id DESC", ArchivedAttendanceRecord.class)
+                    .setParameter("startDate", startDate)
+                    .setParameter("endDate", coldEnd.get())
+                    .setFirstResult((int) Math.max(0, offset - hotCount))
+                    .setMaxResults(limit - content.size())
+                    .getResultList()
+                    .forEach(archived -> content.add(toAttendanceRecord(archived)));
+        }
+        return new PageImpl<>(content, pageable, hotCount + coldCount);
+    }
+
+    @Override
+    public Page<AttendanceRecord> findAttendanceWithPagination(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        return findByDateBetweenOrderByDateDesc(startDate, endDate, pageable);
+    }
+
+    @Override
+    public Stream<AttendanceRecord> streamByDateBetween(LocalDate startDate, LocalDate endDate) {
+        return streamBySchoolIdAndDateBetween(null, startDate, endDate);
+    }
+
+    @Override
+    public Stream<AttendanceRecord> streamBySchoolIdAndDateBetween(Long schoolId, LocalDate startDate, LocalDate endDate) {
+        String schoolFilter = schoolId != null ? "AND s.school.id = :schoolId " : "";
+        LocalDate hotStart = hotStart(startDate);
+        List<Supplier<Stream<AttendanceRecord>>> tiers = new ArrayList<>(2);
+
+        // Ordered by (date, student) / (date, id) so both tiers are read in index order without a sort
+        coldEnd(startDate, endDate).ifPresent(coldEnd -> tiers.add(() -> scroll(
+                "SELECT a, s FROM ArchivedAttendanceRecord a JOIN Student s ON s.id = a.studentId " +
+                "JOIN FETCH s.schoolClass " +
+                "WHERE a.date BETWEEN :startDate AND :endDate " + schoolFilter +
+                "ORDER BY a.date, a.id", Object[].class, schoolId, startDate, coldEnd,
+                row -> toAttendanceRecord((ArchivedAttendanceRecord) row[0], (Student) row[1]))));
+
+        if (!hotStart.isAfter(endDate)) {
+            tiers.add(() -> scroll(
+                    "SELECT ar FROM AttendanceRecord ar JOIN FETCH ar.student s JOIN FETCH s.schoolClass " +
+                    "WHERE ar.date BETWEEN :startDate AND :endDate " + schoolFilter +
+                    "ORDER BY ar.date, s.id", AttendanceRecord.class, schoolId, hotStart, endDate,
+                    Function.identity()));
+        }
+
+        // flatMap opens each tier lazily and closes it when drained, so only one cursor is open at a time
+        return tiers.stream().flatMap(Supplier::get);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.DEFAULT)
+    public int bulkUpdateAttendanceStatus(List<Long> studentIds, LocalDate date, AttendanceStatus status) {
+        if (studentIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // Bulk statements bypass entity events, so history is maintained here
+        entityManager.flush();
+
+        entityManager.createNativeQuery(
+                        "UPDATE attendance_record_history SET valid_to = :now " +
+                        "WHERE date = :date AND student_id IN (:studentIds) AND valid_to IS NULL")
+                .setParameter("now", now)
+                .setParameter("date", date)
+                .setParameter("studentIds", studentIds)
+                .executeUpdate();
+
+        int updated = entityManager.createQuery(
+                        "UPDATE AttendanceRecord ar SET ar.status = :status, ar.updatedAt = :now, ar.version = ar.version + 1 " +
+                        "WHERE ar.student.id IN :studentIds AND ar.date = :date")
+                .setParameter("status", status)
+                .setParameter("now", now)
+                .setParameter("studentIds", studentIds)
+                .setParameter("date", date)
+                .executeUpdate();
+
+        entityManager.createNativeQuery(
+                        "INSERT INTO attendance_record_history " +
+                        "(student_id, date, status, note, marked_time, teacher_id, valid_from) " +
+                        "SELECT student_id, date, status, note, marked_time, teacher_id, :now " +
+                        "FROM attendance_records WHERE date = :date AND student_id IN (:studentIds)")
+                .setParameter("now", now)
+                .setParameter("date", date)
+                .setParameter("studentIds", studentIds)
+                .executeUpdate();
+
+        return updated;
+    }
+
+    @Override
+    public Optional<LocalDate> getArchiveBoundary() {
+        return boundaries().archived();
+    }
+
+    @Override
+    public void refreshArchiveBoundary() {
+        tierBoundaries = null;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Read the hot part of a range, then the archived part; each reader gets its sub-range
+     */
+    private <T> List<T> readTiers(LocalDate startDate, LocalDate endDate,
+                                  BiFunction<LocalDate, LocalDate, List<T>> hot,
+                                  BiFunction<LocalDate, LocalDate, List<T>> cold) {
+        LocalDate hotStart = hotStart(startDate);
+        List<T> rows = new ArrayList<>();
+        if (!hotStart.isAfter(endDate)) {
+            rows.addAll(hot.apply(hotStart, endDate));
+        }
+        coldEnd(startDate, endDate).ifPresent(coldEnd -> rows.addAll(cold.apply(startDate, coldEnd)));
+        return rows;
+    }
+
+    /**
+     * First date of the range that can still live in the hot table (after the last completed segment)
+     */
+    private LocalDate hotStart(LocalDate startDate) {
+        return boundaries().moved()
+                .map(boundary -> boundary.isBefore(startDate) ? startDate : boundary.plusDays(1))
+                .orElse(startDate);
+    }
+
+    /**
+     * Last date of the range that can live in the archive (up to the last registered segment), if any
+     */
+    private Optional<LocalDate> coldEnd(LocalDate startDate, LocalDate endDate) {
+        return boundaries().archived()
+                .filter(boundary -> !startDate.isAfter(boundary))
+                .map(boundary -> boundary.isBefore(endDate) ? boundary : endDate);
+    }
+
+    private TierBoundaries boundaries() {
+        TierBoundaries snapshot = tierBoundaries;
+        if (snapshot == null || System.currentTimeMillis() - snapshot.loadedAt() > boundaryCacheSeconds * 1000) {
+            Object[] row = entityManager.createQuery(
+                    "SELECT MAX(s.endDate), MAX(CASE WHEN s.archivedAt IS NOT NULL THEN s.endDate END) " +
+                    "FROM AttendanceArchiveSegment s", Object[].class).getSingleResult();
+            snapshot = new TierBoundaries(Optional.ofNullable((LocalDate) row[0]),
+                    Optional.ofNullable((LocalDate) row[1]), System.currentTimeMillis());
+            tierBoundaries = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Rebuild a detached, read-only attendance record from its archived copy
+     */
+    private AttendanceRecord toAttendanceRecord(ArchivedAttendanceRecord archived) {
+        return toAttendanceRecord(archived, entityManager.getReference(Student.class, archived.getStudentId()));
+    }
+
+    private AttendanceRecord toAttendanceRecord(ArchivedAttendanceRecord archived, Student student) {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setId(archived.getId());
+        record.setDate(archived.getDate());
+        record.setStatus(archived.getStatus());
+        record.setNote(archived.getNote());
+        record.setMarkedTime(archived.getMarkedTime());
+        record.setCreatedAt(archived.getCreatedAt());
+        record.setUpdatedAt(archived.getUpdatedAt());
+        record.setStudent(student);
+        if (archived.getTeacherId() != null) {
+            record.setTeacher(entityManager.getReference(Teacher.class, archived.getTeacherId()));
+        }
+        return record;
+    }
+
+    /**
+     * Forward-only, read-only cursor over a query, mapped to attendance records.
+     * The persistence context is cleared after every fetch batch to keep memory flat.
+     */
+    private <T> Stream<AttendanceRecord> scroll(String hql, Class<T> resultType, Long schoolId,
+                                                LocalDate startDate, LocalDate endDate,
+                                                Function<T, AttendanceRecord> mapper) {
+        Session session = entityManager.unwrap(Session.class);
+        SelectionQuery<T> query = session.createSelectionQuery(hql, resultType)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate)
+                .setFetchSize(streamFetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE);
+        if (schoolId != null) {
+            query.setParameter("schoolId", schoolId);
+        }
+
+        ScrollableResults<T> results = query.scroll(ScrollMode.FORWARD_ONLY);
+        Spliterator<AttendanceRecord> rows = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private long count;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super AttendanceRecord> action) {
+                if (count > 0 && count % streamFetchSize == 0) {
+                    session.clear();
+                }
+                if (!results.next()) {
+                    return false;
+                }
+                count++;
+                action.accept(mapper.apply(results.get()));
+                return true;
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(results::close);
+    }
+
+    /**
+     * Last date of any registered segment, and last date of the completed ones; they differ while
+     * a year is being moved, and dates between them are read from both tiers
+     */
+    private record TierBoundaries(Optional<LocalDate> archived, Optional<LocalDate> moved, long loadedAt) {
+    }
+}
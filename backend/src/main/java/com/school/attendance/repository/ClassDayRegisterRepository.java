@@ -0,0 +1,41 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.ClassDayRegister;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ClassDayRegisterRepository extends JpaRepository<ClassDayRegister, Long> {
+
+    /**
+     * Find the register of a class on a date (section SchoolClass.NO_SECTION for a standard without sections)
+     */
+    @Query("SELECT r FROM ClassDayRegister r WHERE r.schoolId = :schoolId AND r.standard = :standard AND " +
+           "r.section = :section AND r.date = :date")
+    Optional<ClassDayRegister> findClassRegister(@Param("schoolId") Long schoolId,
+                                                 @Param("standard") String standard,
+                                                 @Param("section") String section,
+                                                 @Param("date") LocalDate date);
+
+    /**
+     * Find all class registers of a school on a date
+     */
+    List<ClassDayRegister> findBySchoolIdAndDateOrderByStandardAscSectionAsc(Long schoolId, LocalDate date);
+
+    /**
+     * Find the registers of a class between dates
+     */
+    @Query("SELECT r FROM ClassDayRegister r WHERE r.schoolId = :schoolId AND r.standard = :standard AND " +
+           "r.section = :section AND r.date BETWEEN :startDate AND :endDate ORDER BY r.date")
+    List<ClassDayRegister> findClassRegistersBetween(@Param("schoolId") Long schoolId,
+                                                     @Param("standard") String standard,
+                                                     @Param("section") String section,
+                                                     @Param("startDate") LocalDate startDate,
+                                                     @Param("endDate") LocalDate endDate);
+}
@@ -4,10 +4,12 @@ import com.school.attendance.entity.NotificationLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -30,9 +32,17 @@ public interface NotificationLogRepository extends JpaRepository<NotificationLog
     // Get notifications by status
     List<NotificationLog> findByStatus(NotificationLog.NotificationStatus status);
 
-    // Count notifications by status for today
-    @Query("SELECT COUNT(n) FROM NotificationLog n WHERE n.status = :status AND DATE(n.sentAt) = CURRENT_DATE")
-    Long countByStatusToday(@Param("status") NotificationLog.NotificationStatus status);
+    // Count notifications by status for today (a sent_at range, so it stays on the (status, sent_at) index)
+    default Long countByStatusToday(NotificationLog.NotificationStatus status) {
+        LocalDate today = LocalDate.now();
+        return countByStatusSentBetween(status, today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+    }
+
+    @Query("SELECT COUNT(n) FROM NotificationLog n WHERE n.status = :status AND " +
+           "n.sentAt >= :start AND n.sentAt < :end")
+    Long countByStatusSentBetween(@Param("status") NotificationLog.NotificationStatus status,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
 
     // Get failed notifications for retry
     List<NotificationLog> findByStatusAndSentAtBefore(
@@ -53,4 +63,17 @@ public interface NotificationLogRepository extends JpaRepository<NotificationLog
      * Find notifications by type
      */
     List<NotificationLog> findByType(NotificationLog.NotificationType type);
+
+    /**
+     * Find a chunk of log IDs sent before a time, oldest first (for the retention purge)
+     */
+    @Query("SELECT n.id FROM NotificationLog n WHERE n.sentAt < :cutoff ORDER BY n.sentAt")
+    List<Long> findIdsSentBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Delete logs by ID
+     */
+    @Modifying
+    @Query("DELETE FROM NotificationLog n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
 }
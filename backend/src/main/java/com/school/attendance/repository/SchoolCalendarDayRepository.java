@@ -0,0 +1,39 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.SchoolCalendarDay;
+import com.school.attendance.entity.converter.CalendarScopeConverter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SchoolCalendarDayRepository extends JpaRepository<SchoolCalendarDay, Long> {
+
+    /**
+     * Find a school's calendar entries between dates (school-wide and per class)
+     */
+    List<SchoolCalendarDay> findBySchoolIdAndDateBetweenOrderByDate(Long schoolId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Find the entry for exactly this scope on a date (null standard/section = wider scope)
+     */
+    default Optional<SchoolCalendarDay> findEntry(Long schoolId, LocalDate date, String standard, String section) {
+        CalendarScopeConverter scope = new CalendarScopeConverter();
+        return findByScope(schoolId, date, scope.convertToDatabaseColumn(standard), scope.convertToDatabaseColumn(section));
+    }
+
+    /**
+     * Find the entry for a scope as stored ('*' = every standard / every section); unique key lookup
+     */
+    @Query("SELECT d FROM SchoolCalendarDay d WHERE d.schoolId = :schoolId AND d.date = :date AND " +
+           "d.standard = :standard AND d.section = :section")
+    Optional<SchoolCalendarDay> findByScope(@Param("schoolId") Long schoolId,
+                                            @Param("date") LocalDate date,
+                                            @Param("standard") String standard,
+                                            @Param("section") String section);
+}
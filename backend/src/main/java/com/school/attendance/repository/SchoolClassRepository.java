@@ -0,0 +1,28 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.SchoolClass;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SchoolClassRepository extends JpaRepository<SchoolClass, Integer> {
+
+    /**
+     * Find a class by standard and section (SchoolClass.NO_SECTION for a standard without sections)
+     */
+    @Query("SELECT c FROM SchoolClass c WHERE c.school.id = :schoolId AND c.standard = :standard AND c.section = :section")
+    Optional<SchoolClass> findClass(@Param("schoolId") Long schoolId,
+                                    @Param("standard") String standard,
+                                    @Param("section") String section);
+
+    /**
+     * Find all classes of a school in standard/section order
+     */
+    @Query("SELECT c FROM SchoolClass c WHERE c.school.id = :schoolId ORDER BY c.standard, c.section")
+    List<SchoolClass> findBySchoolId(@Param("schoolId") Long schoolId);
+}
@@ -1,8 +1,11 @@
 package com.school.attendance.repository;
 
 import com.school.attendance.entity.School;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,6 +18,7 @@ public interface SchoolRepository extends JpaRepository<School, Long> {
     /**
      * Find school by name (case-insensitive)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<School> findByNameIgnoreCase(String name);
 
     /**
@@ -40,6 +44,12 @@ public interface SchoolRepository extends JpaRepository<School, Long> {
            "EXISTS (SELECT 1 FROM Teacher t WHERE t.school = s AND t.isActive = true)")
     List<School> findActiveSchools();
 
+    /**
+     * School ids with their time zones (null when not set)
+     */
+    @Query("SELECT s.id, s.timeZone FROM School s ORDER BY s.id")
+    List<Object[]> findIdsAndTimeZones();
+
     /**
      * Get school statistics
      */
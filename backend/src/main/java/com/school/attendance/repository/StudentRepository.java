@@ -1,11 +1,14 @@
 package com.school.attendance.repository;
 
 import com.school.attendance.entity.Student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -24,11 +27,17 @@ public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpec
     /**
      * Find student by Roll Number, Standard, Section, and School
      */
-    @Query("SELECT s FROM Student s WHERE s.rollNo = :rollNo AND s.standard = :standard AND s.section = :section AND s.school.id = :schoolId")
+    @Query("SELECT s FROM Student s JOIN s.schoolClass c WHERE s.rollNo = :rollNo AND c.standard = :standard AND c.section = :section AND c.school.id = :schoolId")
     Optional<Student> findByRollNoAndStandardAndSectionAndSchoolId(
             @Param("rollNo") String rollNo, @Param("standard") String standard, 
             @Param("section") String section, @Param("schoolId") Long schoolId);
 
+    /**
+     * GR numbers and roll numbers (with standard and section) of every student in a school, for the existence filters
+     */
+    @Query("SELECT s.grNo, s.rollNo, c.standard, c.section FROM Student s JOIN s.schoolClass c WHERE s.school.id = :schoolId")
+    List<Object[]> findExistenceKeysBySchoolId(@Param("schoolId") Long schoolId);
+
     /**
      * Find all students by school with pagination
      */
@@ -38,7 +47,7 @@ public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpec
     /**
      * Find students by class (standard and section) with pagination
      */
-    @Query("SELECT s FROM Student s WHERE s.school.id = :schoolId AND s.standard = :standard AND s.section = :section AND s.isActive = true ORDER BY s.rollNo")
+    @Query("SELECT s FROM Student s JOIN s.schoolClass c WHERE c.school.id = :schoolId AND c.standard = :standard AND c.section = :section AND s.isActive = true ORDER BY s.rollNo")
     Page<Student> findBySchoolIdAndStandardAndSectionAndIsActiveTrue(
             @Param("schoolId") Long schoolId, @Param("standard") String standard, 
             @Param("section") String section, Pageable pageable);
@@ -46,28 +55,46 @@ public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpec
     /**
      * Find students by class (standard and section) - legacy method
      */
-    @Query("SELECT s FROM Student s WHERE s.school.id = :schoolId AND s.standard = :standard AND s.section = :section AND s.isActive = true ORDER BY s.rollNo")
+    @Query("SELECT s FROM Student s JOIN s.schoolClass c WHERE c.school.id = :schoolId AND c.standard = :standard AND c.section = :section AND s.isActive = true ORDER BY s.rollNo")
     List<Student> findBySchoolIdAndStandardAndSectionAndIsActiveTrueOrderByRollNo(
             @Param("schoolId") Long schoolId, @Param("standard") String standard, @Param("section") String section);
 
+    /**
+     * Find students of a class by its id (students.class_id index, no join)
+     */
+    @Query("SELECT s FROM Student s WHERE s.schoolClass.id = :classId AND s.isActive = true ORDER BY s.rollNo")
+    List<Student> findByClassIdAndIsActiveTrueOrderByRollNo(@Param("classId") Integer classId);
+
+    /**
+     * Find students of a class by its id with pagination
+     */
+    @Query("SELECT s FROM Student s WHERE s.schoolClass.id = :classId AND s.isActive = true ORDER BY s.rollNo")
+    Page<Student> findByClassIdAndIsActiveTrue(@Param("classId") Integer classId, Pageable pageable);
+
+    /**
+     * Count active students of a class by its id
+     */
+    @Query("SELECT COUNT(s) FROM Student s WHERE s.schoolClass.id = :classId AND s.isActive = true")
+    long countByClassIdAndIsActiveTrue(@Param("classId") Integer classId);
+
     /**
      * Find students by standard only with pagination
      */
-    @Query("SELECT s FROM Student s WHERE s.school.id = :schoolId AND s.standard = :standard AND s.isActive = true ORDER BY s.rollNo")
+    @Query("SELECT s FROM Student s JOIN s.schoolClass c WHERE c.school.id = :schoolId AND c.standard = :standard AND s.isActive = true ORDER BY s.rollNo")
     Page<Student> findBySchoolIdAndStandardAndIsActiveTrue(
             @Param("schoolId") Long schoolId, @Param("standard") String standard, Pageable pageable);
 
     /**
      * Find students by standard only - legacy method
      */
-    @Query("SELECT s FROM Student s WHERE s.school.id = :schoolId AND s.standard = :standard AND s.isActive = true ORDER BY s.rollNo")
+    @Query("SELECT s FROM Student s JOIN s.schoolClass c WHERE c.school.id = :schoolId AND c.standard = :standard AND s.isActive = true ORDER BY s.rollNo")
     List<Student> findBySchoolIdAndStandardAndIsActiveTrueOrderByRollNo(
             @Param("schoolId") Long schoolId, @Param("standard") String standard);
 
     /**
      * Find all active students in a school
      */
-    @Query("SELECT s FROM Student s WHERE s.school.id = :schoolId AND s.isActive = true ORDER BY s.standard ASC, s.section ASC, s.rollNo ASC")
+    @Query("SELECT s FROM Student s JOIN FETCH s.schoolClass c WHERE s.school.id = :schoolId AND s.isActive = true ORDER BY c.standard ASC, c.section ASC, s.rollNo ASC")
     List<Student> findBySchoolIdAndIsActiveTrueOrderByStandardAscSectionAscRollNoAsc(@Param("schoolId") Long schoolId);
 
     /**
@@ -107,7 +134,7 @@ public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpec
     /**
      * Count students by class
      */
-    @Query("SELECT COUNT(s) FROM Student s WHERE s.school.id = :schoolId AND s.standard = :standard AND s.section = :section AND s.isActive = true")
+    @Query("SELECT COUNT(s) FROM Student s JOIN s.schoolClass c WHERE c.school.id = :schoolId AND c.standard = :standard AND c.section = :section AND s.isActive = true")
     long countBySchoolIdAndStandardAndSectionAndIsActiveTrue(
             @Param("schoolId") Long schoolId, @Param("standard") String standard, @Param("section") String section);
 
@@ -120,13 +147,15 @@ public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpec
     /**
      * Get all standards in a school
      */
-    @Query("SELECT DISTINCT s.standard FROM Student s WHERE s.school.id = :schoolId AND s.isActive = true ORDER BY s.standard")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT DISTINCT c.standard FROM Student s JOIN s.schoolClass c WHERE s.school.id = :schoolId AND s.isActive = true ORDER BY c.standard")
     List<String> findDistinctStandardsBySchoolId(@Param("schoolId") Long schoolId);
 
     /**
      * Get all sections for a standard in a school
      */
-    @Query("SELECT DISTINCT s.section FROM Student s WHERE s.school.id = :schoolId AND s.standard = :standard AND s.isActive = true ORDER BY s.section")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT DISTINCT c.section FROM Student s JOIN s.schoolClass c WHERE c.school.id = :schoolId AND c.standard = :standard AND s.isActive = true ORDER BY c.section")
     List<String> findDistinctSectionsBySchoolIdAndStandard(@Param("schoolId") Long schoolId, @Param("standard") String standard);
 
     /**
@@ -138,23 +167,34 @@ public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpec
     /**
      * Check if Roll Number exists in class
      */
-    @Query("SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END FROM Student s WHERE s.rollNo = :rollNo AND s.standard = :standard AND s.section = :section AND s.school.id = :schoolId")
+    @Query("SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END FROM Student s JOIN s.schoolClass c WHERE s.rollNo = :rollNo AND c.standard = :standard AND c.section = :section AND c.school.id = :schoolId")
     boolean existsByRollNoAndStandardAndSectionAndSchoolId(
             @Param("rollNo") String rollNo, @Param("standard") String standard, 
             @Param("section") String section, @Param("schoolId") Long schoolId);
 
     /**
-     * Find students with low attendance (custom query for reporting)
+     * Find students with low attendance (custom query for reporting).
+     * The denominator is the working days of the range from the school calendar, so unmarked
+     * working days count as not attended; see {@code SchoolCalendarService.countWorkingDays}.
+     */
+    default List<Student> findStudentsWithLowAttendance(Long schoolId, java.time.LocalDate startDate,
+                                                       java.time.LocalDate endDate, double threshold,
+                                                       int workingDays) {
+        long minAttendedDays = (long) Math.ceil(threshold * workingDays / 100.0);
+        return findStudentsAttendingFewerThan(schoolId, startDate, endDate, minAttendedDays);
+    }
+
+    /**
+     * Find active students present (or late) on fewer than the given number of days
      */
     @Query("SELECT s FROM Student s WHERE s.school.id = :schoolId AND s.isActive = true AND " +
-           "s.id IN (SELECT ar.student.id FROM AttendanceRecord ar WHERE " +
-           "ar.date BETWEEN :startDate AND :endDate AND ar.isHoliday = false " +
-           "GROUP BY ar.student.id " +
-           "HAVING (SUM(CASE WHEN ar.status = 'PRESENT' OR ar.status = 'LATE' THEN 1 ELSE 0 END) * 100.0 / COUNT(*)) < :threshold)")
-    List<Student> findStudentsWithLowAttendance(@Param("schoolId") Long schoolId, 
-                                               @Param("startDate") java.time.LocalDate startDate,
-                                               @Param("endDate") java.time.LocalDate endDate,
-                                               @Param("threshold") double threshold);
+           "(SELECT COUNT(ar) FROM AttendanceRecord ar WHERE ar.student = s AND " +
+           "ar.date BETWEEN :startDate AND :endDate AND (ar.status = PRESENT OR ar.status = LATE)) " +
+           "< :minAttendedDays")
+    List<Student> findStudentsAttendingFewerThan(@Param("schoolId") Long schoolId,
+                                                 @Param("startDate") java.time.LocalDate startDate,
+                                                 @Param("endDate") java.time.LocalDate endDate,
+                                                 @Param("minAttendedDays") long minAttendedDays);
 
     /**
      * Find all active students
@@ -1,11 +1,15 @@
 package com.school.attendance.repository;
 
+import com.school.attendance.entity.SchoolClass;
 import com.school.attendance.entity.Teacher;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -85,8 +89,8 @@ public interface TeacherRepository extends JpaRepository<Teacher, Long>, JpaSpec
     /**
      * Find teachers assigned to a specific class
      */
-    @Query("SELECT DISTINCT t FROM Teacher t JOIN t.assignedClasses c WHERE t.school.id = :schoolId AND t.isActive = true AND c = :className")
-    List<Teacher> findByAssignedClass(@Param("schoolId") Long schoolId, @Param("className") String className);
+    @Query("SELECT DISTINCT t FROM Teacher t JOIN t.assignedClasses c WHERE t.school.id = :schoolId AND t.isActive = true AND c.id = :classId")
+    List<Teacher> findByAssignedClass(@Param("schoolId") Long schoolId, @Param("classId") Integer classId);
 
     /**
      * Count total active teachers in school
@@ -108,22 +112,24 @@ public interface TeacherRepository extends JpaRepository<Teacher, Long>, JpaSpec
     /**
      * Get all subjects taught in school
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT s FROM Teacher t JOIN t.subjects s WHERE t.school.id = :schoolId AND t.isActive = true ORDER BY s")
     List<String> findAllSubjectsBySchoolId(@Param("schoolId") Long schoolId);
 
     /**
      * Get all classes assigned in school
      */
-    @Query("SELECT DISTINCT c FROM Teacher t JOIN t.assignedClasses c WHERE t.school.id = :schoolId AND t.isActive = true ORDER BY c")
-    List<String> findAllAssignedClassesBySchoolId(@Param("schoolId") Long schoolId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT DISTINCT c FROM Teacher t JOIN t.assignedClasses c WHERE t.school.id = :schoolId AND t.isActive = true ORDER BY c.standard, c.section")
+    List<SchoolClass> findAllAssignedClassesBySchoolId(@Param("schoolId") Long schoolId);
 
     /**
      * Find teachers who haven't marked attendance for a specific date and class
      */
-    @Query("SELECT t FROM Teacher t WHERE t.school.id = :schoolId AND t.isActive = true AND " +
-           ":className MEMBER OF t.assignedClasses AND " +
+    @Query("SELECT DISTINCT t FROM Teacher t JOIN t.assignedClasses c WHERE t.school.id = :schoolId AND t.isActive = true AND " +
+           "c.id = :classId AND " +
            "NOT EXISTS (SELECT ar FROM AttendanceRecord ar WHERE ar.teacher = t AND ar.date = :date)")
     List<Teacher> findTeachersNotMarkedAttendance(@Param("schoolId") Long schoolId, 
-                                                 @Param("className") String className,
+                                                 @Param("classId") Integer classId,
                                                  @Param("date") java.time.LocalDate date);
 }
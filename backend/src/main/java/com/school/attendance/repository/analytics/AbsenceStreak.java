@@ -0,0 +1,10 @@
+package com.school.attendance.repository.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * A run of consecutive marked school days a student was absent (ABSENT or SICK_LEAVE).
+ * Holidays neither extend nor break a streak.
+ */
+public record AbsenceStreak(Long studentId, LocalDate startDate, LocalDate endDate, int days) {
+}
@@ -0,0 +1,127 @@
+package com.school.attendance.repository.analytics;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.school.attendance.repository.analytics.AttendanceAnalyticsSql.*;
+
+/**
+ * Fallback for databases without window functions: the database still does the grouping,
+ * and the previous/running values are folded over the (small) grouped series in Java.
+ * Streaks are found in one pass over the marked days in (student, date) order.
+ */
+//@Repository
+@ConditionalOnProperty(name = "app.analytics.window-functions", havingValue = "false")
+@RequiredArgsConstructor
+public class AggregateAttendanceAnalyticsRepository implements AttendanceAnalyticsRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<AttendanceSeriesPoint> getDailySeries(Long schoolId, LocalDate startDate, LocalDate endDate) {
+        return series(DAILY_PERIOD, schoolId, startDate, endDate);
+    }
+
+    @Override
+    public List<AttendanceSeriesPoint> getMonthlySeries(Long schoolId, LocalDate startDate, LocalDate endDate) {
+        return series(MONTHLY_PERIOD, schoolId, startDate, endDate);
+    }
+
+    @Override
+    public List<AbsenceStreak> findAbsenceStreaks(Long schoolId, LocalDate startDate, LocalDate endDate,
+                                                  int minDays, int limit) {
+        String sql = "SELECT a.student_id, a.date, a.status FROM " + source(schoolId) + " a " +
+                     "WHERE a.status <> " + HOLIDAY_CODE + " ORDER BY a.student_id, a.date";
+        List<AbsenceStreak> streaks = new ArrayList<>();
+        StreakTracker tracker = new StreakTracker(minDays, streaks);
+
+        jdbcTemplate.query(sql, parameters(schoolId, startDate, endDate), rs -> {
+            tracker.accept(rs.getLong("student_id"), rs.getDate("date").toLocalDate(),
+                    ABSENT_STATUSES.contains(AttendanceStatus.fromCode(rs.getByte("status"))));
+        });
+        tracker.close();
+
+        return streaks.stream()
+                .sorted(Comparator.comparingInt(AbsenceStreak::days).reversed()
+                        .thenComparing(AbsenceStreak::startDate)
+                        .thenComparing(AbsenceStreak::studentId))
+                .limit(limit)
+                .toList();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private List<AttendanceSeriesPoint> series(String period, Long schoolId, LocalDate startDate, LocalDate endDate) {
+        String sql = periodCounts(period, schoolId) + " ORDER BY period";
+        List<AttendanceSeriesPoint> points = new ArrayList<>();
+
+        jdbcTemplate.query(sql, parameters(schoolId, startDate, endDate), rs -> {
+            AttendanceSeriesPoint previous = points.isEmpty() ? null : points.get(points.size() - 1);
+            long present = count(rs, "present");
+            long absent = count(rs, "absent");
+            long late = count(rs, "late");
+            long halfDay = count(rs, "half_day");
+            long sickLeave = count(rs, "sick_leave");
+            long attended = present + late;
+            long marked = present + absent + late + halfDay + sickLeave;
+
+            points.add(new AttendanceSeriesPoint(period(rs), present, absent, late, halfDay, sickLeave,
+                    count(rs, "holiday"), count(rs, "holiday_days"),
+                    previous != null ? previous.attended() : null,
+                    previous != null ? previous.marked() : null,
+                    (previous != null ? previous.runningAttended() : 0) + attended,
+                    (previous != null ? previous.runningMarked() : 0) + marked));
+        });
+        return points;
+    }
+
+    /**
+     * Tracks the current absence run while rows arrive in (student, date) order
+     */
+    private static class StreakTracker {
+
+        private final int minDays;
+        private final List<AbsenceStreak> streaks;
+
+        private Long studentId;
+        private LocalDate start;
+        private LocalDate end;
+        private int days;
+
+        StreakTracker(int minDays, List<AbsenceStreak> streaks) {
+            this.minDays = minDays;
+            this.streaks = streaks;
+        }
+
+        void accept(Long rowStudentId, LocalDate date, boolean absent) {
+            if (!rowStudentId.equals(studentId)) {
+                close();
+                studentId = rowStudentId;
+            }
+            if (!absent) {
+                close();
+                return;
+            }
+            if (days == 0) {
+                start = date;
+            }
+            end = date;
+            days++;
+        }
+
+        void close() {
+            if (days >= minDays && days > 0) {
+                streaks.add(new AbsenceStreak(studentId, start, end, days));
+            }
+            days = 0;
+        }
+    }
+}
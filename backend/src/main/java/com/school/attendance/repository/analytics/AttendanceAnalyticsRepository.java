@@ -0,0 +1,28 @@
+package com.school.attendance.repository.analytics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Trend, month-over-month and streak analytics computed in the database.
+ * Series span the hot table and the archive tier; only the final points are returned.
+ * A null schoolId covers all schools.
+ */
+public interface AttendanceAnalyticsRepository {
+
+    /**
+     * Daily attendance series between dates (days without records are omitted)
+     */
+    List<AttendanceSeriesPoint> getDailySeries(Long schoolId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Monthly attendance series between dates; each point's period is the first day of its month
+     */
+    List<AttendanceSeriesPoint> getMonthlySeries(Long schoolId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Absence streaks of at least minDays between dates, longest first
+     */
+    List<AbsenceStreak> findAbsenceStreaks(Long schoolId, LocalDate startDate, LocalDate endDate,
+                                           int minDays, int limit);
+}
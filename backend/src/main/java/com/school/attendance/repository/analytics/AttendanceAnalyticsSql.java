@@ -0,0 +1,104 @@
+package com.school.attendance.repository.analytics;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * SQL shared by the analytics repositories. Kept to syntax that MariaDB and H2 both accept;
+ * statuses are compared by their stored TINYINT codes so the status indexes stay usable.
+ */
+final class AttendanceAnalyticsSql {
+
+    static final String DAILY_PERIOD = "a.date";
+    static final String MONTHLY_PERIOD = "YEAR(a.date) * 100 + MONTH(a.date)";
+
+    static final Set<AttendanceStatus> ABSENT_STATUSES = EnumSet.of(AttendanceStatus.ABSENT, AttendanceStatus.SICK_LEAVE);
+    static final String ABSENT_CODES = codes(ABSENT_STATUSES);
+    static final byte HOLIDAY_CODE = AttendanceStatus.HOLIDAY.getCode();
+
+    private AttendanceAnalyticsSql() {
+    }
+
+    /**
+     * Hot and archived rows between :startDate and :endDate as (student_id, date, status),
+     * restricted to :schoolId when one is given
+     */
+    static String source(Long schoolId) {
+        return "(" + tier("attendance_records", schoolId) + " UNION ALL " +
+               tier("attendance_records_archive", schoolId) + ")";
+    }
+
+    /**
+     * Per-period status counts; the inner query of the series
+     */
+    static String periodCounts(String period, Long schoolId) {
+        return "SELECT " + period + " AS period, " +
+               count(AttendanceStatus.PRESENT) + " AS present, " +
+               count(AttendanceStatus.ABSENT) + " AS absent, " +
+               count(AttendanceStatus.LATE) + " AS late, " +
+               count(AttendanceStatus.HALF_DAY) + " AS half_day, " +
+               count(AttendanceStatus.SICK_LEAVE) + " AS sick_leave, " +
+               count(AttendanceStatus.HOLIDAY) + " AS holiday, " +
+               "COUNT(DISTINCT CASE WHEN a.status = " + HOLIDAY_CODE + " THEN a.date END) AS holiday_days " +
+               "FROM " + source(schoolId) + " a " +
+               "GROUP BY " + period;
+    }
+
+    static MapSqlParameterSource parameters(Long schoolId, LocalDate startDate, LocalDate endDate) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("startDate", startDate)
+                .addValue("endDate", endDate);
+        if (schoolId != null) {
+            parameters.addValue("schoolId", schoolId);
+        }
+        return parameters;
+    }
+
+    /**
+     * Period column as a date: the day itself, or the first day of a yyyymm month key
+     */
+    static LocalDate period(ResultSet rs) throws SQLException {
+        Object period = rs.getObject("period");
+        if (period instanceof Number key) {
+            return YearMonth.of(key.intValue() / 100, key.intValue() % 100).atDay(1);
+        }
+        return rs.getDate("period").toLocalDate();
+    }
+
+    static long count(ResultSet rs, String column) throws SQLException {
+        return rs.getLong(column);
+    }
+
+    static Long nullableCount(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static String tier(String table, Long schoolId) {
+        String schoolJoin = schoolId != null
+                ? "JOIN students s ON s.id = t.student_id AND s.school_id = :schoolId "
+                : "";
+        return "SELECT t.student_id, t.date, t.status FROM " + table + " t " + schoolJoin +
+               "WHERE t.date BETWEEN :startDate AND :endDate";
+    }
+
+    private static String count(AttendanceStatus status) {
+        return "SUM(CASE WHEN a.status = " + status.getCode() + " THEN 1 ELSE 0 END)";
+    }
+
+    private static String codes(Set<AttendanceStatus> statuses) {
+        return statuses.stream()
+                .map(status -> String.valueOf(status.getCode()))
+                .collect(Collectors.joining(", "));
+    }
+}
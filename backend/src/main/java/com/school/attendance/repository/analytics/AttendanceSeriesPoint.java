@@ -0,0 +1,61 @@
+package com.school.attendance.repository.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * One point of an attendance series (a day, or the first day of a month) with the
+ * previous point and running totals already computed, so callers only derive ratios.
+ * "Attended" is PRESENT or LATE; "marked" is every status except HOLIDAY.
+ */
+public record AttendanceSeriesPoint(LocalDate period,
+                                    long present,
+                                    long absent,
+                                    long late,
+                                    long halfDay,
+                                    long sickLeave,
+                                    long holiday,
+                                    long holidayDays,
+                                    Long previousAttended,
+                                    Long previousMarked,
+                                    long runningAttended,
+                                    long runningMarked) {
+
+    public long attended() {
+        return present + late;
+    }
+
+    public long marked() {
+        return present + absent + late + halfDay + sickLeave;
+    }
+
+    public long total() {
+        return marked() + holiday;
+    }
+
+    public double attendanceRate() {
+        return percentage(attended(), marked());
+    }
+
+    /**
+     * Attendance rate of the previous point, or null for the first point of the series
+     */
+    public Double previousAttendanceRate() {
+        return previousMarked != null ? percentage(previousAttended, previousMarked) : null;
+    }
+
+    /**
+     * Change in attendance rate against the previous point (percentage points)
+     */
+    public Double rateChange() {
+        Double previous = previousAttendanceRate();
+        return previous != null ? attendanceRate() - previous : null;
+    }
+
+    public double cumulativeAttendanceRate() {
+        return percentage(runningAttended, runningMarked);
+    }
+
+    private static double percentage(long part, long whole) {
+        return whole > 0 ? (part * 100.0) / whole : 0.0;
+    }
+}
@@ -0,0 +1,94 @@
+package com.school.attendance.repository.analytics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.school.attendance.repository.analytics.AttendanceAnalyticsSql.*;
+
+/**
+ * Analytics computed with window functions (MariaDB 10.2+, H2 2.x): LAG for the previous
+ * point, a running SUM for cumulative rates, and ROW_NUMBER differences for streak islands.
+ */
+//@Repository
+@ConditionalOnProperty(name = "app.analytics.window-functions", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class WindowFunctionAttendanceAnalyticsRepository implements AttendanceAnalyticsRepository {
+
+    private static final String MARKED = "p.present + p.absent + p.late + p.half_day + p.sick_leave";
+    private static final String RUNNING = " OVER (ORDER BY p.period ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW)";
+
+    private static final RowMapper<AttendanceSeriesPoint> POINT_MAPPER = (rs, rowNum) -> new AttendanceSeriesPoint(
+            period(rs),
+            count(rs, "present"),
+            count(rs, "absent"),
+            count(rs, "late"),
+            count(rs, "half_day"),
+            count(rs, "sick_leave"),
+            count(rs, "holiday"),
+            count(rs, "holiday_days"),
+            nullableCount(rs, "previous_attended"),
+            nullableCount(rs, "previous_marked"),
+            count(rs, "running_attended"),
+            count(rs, "running_marked"));
+
+    private static final RowMapper<AbsenceStreak> STREAK_MAPPER = (rs, rowNum) -> new AbsenceStreak(
+            rs.getLong("student_id"),
+            rs.getDate("start_date").toLocalDate(),
+            rs.getDate("end_date").toLocalDate(),
+            rs.getInt("days"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<AttendanceSeriesPoint> getDailySeries(Long schoolId, LocalDate startDate, LocalDate endDate) {
+        return series(DAILY_PERIOD, schoolId, startDate, endDate);
+    }
+
+    @Override
+    public List<AttendanceSeriesPoint> getMonthlySeries(Long schoolId, LocalDate startDate, LocalDate endDate) {
+        return series(MONTHLY_PERIOD, schoolId, startDate, endDate);
+    }
+
+    @Override
+    public List<AbsenceStreak> findAbsenceStreaks(Long schoolId, LocalDate startDate, LocalDate endDate,
+                                                  int minDays, int limit) {
+        // Gaps and islands: within a student's marked days, consecutive absences share the same
+        // difference between the overall row number and the row number among absences
+        String sql = "SELECT g.student_id, MIN(g.date) AS start_date, MAX(g.date) AS end_date, COUNT(*) AS days " +
+                     "FROM (SELECT m.student_id, m.date, m.absent, " +
+                     "ROW_NUMBER() OVER (PARTITION BY m.student_id ORDER BY m.date) - " +
+                     "ROW_NUMBER() OVER (PARTITION BY m.student_id, m.absent ORDER BY m.date) AS island " +
+                     "FROM (SELECT a.student_id, a.date, " +
+                     "CASE WHEN a.status IN (" + ABSENT_CODES + ") THEN 1 ELSE 0 END AS absent " +
+                     "FROM " + source(schoolId) + " a WHERE a.status <> " + HOLIDAY_CODE + ") m) g " +
+                     "WHERE g.absent = 1 " +
+                     "GROUP BY g.student_id, g.island " +
+                     "HAVING COUNT(*) >= :minDays " +
+                     "ORDER BY COUNT(*) DESC, MIN(g.date), g.student_id " +
+                     "LIMIT :limit";
+
+        return jdbcTemplate.query(sql, parameters(schoolId, startDate, endDate)
+                .addValue("minDays", minDays)
+                .addValue("limit", limit), STREAK_MAPPER);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private List<AttendanceSeriesPoint> series(String period, Long schoolId, LocalDate startDate, LocalDate endDate) {
+        String sql = "SELECT p.period, p.present, p.absent, p.late, p.half_day, p.sick_leave, p.holiday, p.holiday_days, " +
+                     "LAG(p.present + p.late) OVER (ORDER BY p.period) AS previous_attended, " +
+                     "LAG(" + MARKED + ") OVER (ORDER BY p.period) AS previous_marked, " +
+                     "SUM(p.present + p.late)" + RUNNING + " AS running_attended, " +
+                     "SUM(" + MARKED + ")" + RUNNING + " AS running_marked " +
+                     "FROM (" + periodCounts(period, schoolId) + ") p " +
+                     "ORDER BY p.period";
+
+        return jdbcTemplate.query(sql, parameters(schoolId, startDate, endDate), POINT_MAPPER);
+    }
+}
@@ -0,0 +1,31 @@
+package com.school.attendance.repository.register;
+
+import com.school.attendance.entity.AttendanceRecord;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Class-level attendance reads, independent of the storage model
+ * ({@code app.attendance.storage-model}: {@code rows} = one attendance_records row per student
+ * per day, {@code register} = one class_day_registers row per class per day).
+ * Result shapes match the corresponding {@code AttendanceRecordRepository} queries.
+ */
+public interface ClassAttendanceQueries {
+
+    /**
+     * Attendance records of a class on a date, ordered by roll number
+     */
+    List<AttendanceRecord> findClassAttendanceByDate(Long schoolId, String standard, String section, LocalDate date);
+
+    /**
+     * Rows of [standard, section, status, count] for a school on a date (holidays excluded)
+     */
+    List<Object[]> getDailyAttendanceSummary(Long schoolId, LocalDate date);
+
+    /**
+     * Rows of [date, status, count] for a class between dates (holidays excluded)
+     */
+    List<Object[]> getMonthlyClassAttendanceSummary(Long schoolId, String standard, String section,
+                                                    LocalDate startDate, LocalDate endDate);
+}
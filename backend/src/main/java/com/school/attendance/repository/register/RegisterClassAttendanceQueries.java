@@ -0,0 +1,107 @@
+package com.school.attendance.repository.register;
+
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.ClassDayRegister;
+import com.school.attendance.entity.SchoolClass;
+import com.school.attendance.entity.Student;
+import com.school.attendance.repository.ClassDayRegisterRepository;
+import com.school.attendance.repository.StudentRepository;
+import com.school.attendance.repository.TeacherRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ClassAttendanceQueries} over class-day registers. Records are rebuilt as detached,
+ * read-only views; students come from the second-level cache.
+ */
+//@Component
+@ConditionalOnProperty(name = "app.attendance.storage-model", havingValue = "register")
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class RegisterClassAttendanceQueries implements ClassAttendanceQueries {
+
+    private final ClassDayRegisterRepository classDayRegisterRepository;
+    private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+
+    @Override
+    public List<AttendanceRecord> findClassAttendanceByDate(Long schoolId, String standard, String section,
+                                                            LocalDate date) {
+        return classDayRegisterRepository.findClassRegister(schoolId, standard, SchoolClass.section(section), date)
+                .map(this::toRecords)
+                .orElseGet(List::of);
+    }
+
+    @Override
+    public List<Object[]> getDailyAttendanceSummary(Long schoolId, LocalDate date) {
+        List<Object[]> summary = new ArrayList<>();
+        for (ClassDayRegister register : classDayRegisterRepository.findBySchoolIdAndDateOrderByStandardAscSectionAsc(
+                schoolId, date)) {
+            countStatuses(register).forEach((status, count) ->
+                    summary.add(new Object[]{register.getStandard(), register.getSection(), status, count}));
+        }
+        return summary;
+    }
+
+    @Override
+    public List<Object[]> getMonthlyClassAttendanceSummary(Long schoolId, String standard, String section,
+                                                           LocalDate startDate, LocalDate endDate) {
+        List<Object[]> summary = new ArrayList<>();
+        for (ClassDayRegister register : classDayRegisterRepository.findClassRegistersBetween(
+                schoolId, standard, SchoolClass.section(section), startDate, endDate)) {
+            countStatuses(register).forEach((status, count) ->
+                    summary.add(new Object[]{register.getDate(), status, count}));
+        }
+        return summary;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Map<AttendanceStatus, Long> countStatuses(ClassDayRegister register) {
+        Map<AttendanceStatus, Long> counts = new EnumMap<>(AttendanceStatus.class);
+        for (int i = 0; i < register.size(); i++) {
+            AttendanceStatus status = register.statusAt(i);
+            if (status != null && status != AttendanceStatus.HOLIDAY) {
+                counts.merge(status, 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private List<AttendanceRecord> toRecords(ClassDayRegister register) {
+        List<Long> studentIds = new ArrayList<>(register.size());
+        for (int i = 0; i < register.size(); i++) {
+            studentIds.add(register.studentIdAt(i));
+        }
+        Map<Long, Student> students = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+
+        // Roster order is roll-number order (late joiners appended), so no sort is needed
+        List<AttendanceRecord> records = new ArrayList<>();
+        for (int i = 0; i < register.size(); i++) {
+            AttendanceStatus status = register.statusAt(i);
+            Student student = students.get(register.studentIdAt(i));
+            if (status == null || student == null) {
+                continue;
+            }
+            AttendanceRecord record = new AttendanceRecord(register.getDate(), status,
+                    register.getNotes().get(student.getId()), null, student,
+                    register.getTeacherId() != null ? teacherRepository.getReferenceById(register.getTeacherId()) : null);
+            record.setCreatedAt(register.getCreatedAt());
+            record.setUpdatedAt(register.getUpdatedAt());
+            records.add(record);
+        }
+        return records;
+    }
+}
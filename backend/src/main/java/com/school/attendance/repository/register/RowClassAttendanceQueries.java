@@ -0,0 +1,39 @@
+package com.school.attendance.repository.register;
+
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.repository.AttendanceRecordRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * {@link ClassAttendanceQueries} over the per-student attendance_records rows (default model)
+ */
+//@Component
+@ConditionalOnProperty(name = "app.attendance.storage-model", havingValue = "rows", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RowClassAttendanceQueries implements ClassAttendanceQueries {
+
+    private final AttendanceRecordRepository attendanceRecordRepository;
+
+    @Override
+    public List<AttendanceRecord> findClassAttendanceByDate(Long schoolId, String standard, String section,
+                                                            LocalDate date) {
+        return attendanceRecordRepository.findClassAttendanceByDate(schoolId, standard, section, date);
+    }
+
+    @Override
+    public List<Object[]> getDailyAttendanceSummary(Long schoolId, LocalDate date) {
+        return attendanceRecordRepository.getDailyAttendanceSummary(schoolId, date);
+    }
+
+    @Override
+    public List<Object[]> getMonthlyClassAttendanceSummary(Long schoolId, String standard, String section,
+                                                           LocalDate startDate, LocalDate endDate) {
+        return attendanceRecordRepository.getMonthlyClassAttendanceSummary(schoolId, standard, section,
+                startDate, endDate);
+    }
+}
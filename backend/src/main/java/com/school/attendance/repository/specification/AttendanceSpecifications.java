@@ -48,9 +48,10 @@ public class AttendanceSpecifications {
                 status == null ? null : criteriaBuilder.equal(root.get("status"), status);
     }
 
-    public static Specification<AttendanceRecord> hasClassId(Long classId) {
+    public static Specification<AttendanceRecord> hasClassId(Integer classId) {
+        // Compares students.class_id directly; the class row itself is not joined
         return (root, query, criteriaBuilder) ->
-                classId == null ? null : criteriaBuilder.equal(root.get("student").get("classEntity").get("id"), classId);
+                classId == null ? null : criteriaBuilder.equal(root.get("student").get("schoolClass").get("id"), classId);
     }
 
     /**
@@ -78,7 +79,7 @@ public class AttendanceSpecifications {
     /**
      * Specification for daily attendance report
      */
-    public static Specification<AttendanceRecord> forDailyReport(LocalDate date, Long classId) {
+    public static Specification<AttendanceRecord> forDailyReport(LocalDate date, Integer classId) {
         return Specification.where(hasDate(date))
                 .and(hasClassId(classId))
                 .and(withStudentAndTeacher());
@@ -1,16 +1,51 @@
 package com.school.attendance.service;
 
+import com.school.attendance.config.cache.SingleFlight;
 import com.school.attendance.dto.*;
+import com.school.attendance.repository.analytics.AttendanceAnalyticsRepository;
+import com.school.attendance.repository.analytics.AttendanceSeriesPoint;
+import com.school.attendance.service.calendar.SchoolCalendarService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
+@RequiredArgsConstructor
 public class AnalyticsService {
 
+    // Absent when the application runs without a database (analytics demo mode)
+    private final Optional<AttendanceAnalyticsRepository> attendanceAnalyticsRepository;
+    private final Optional<SchoolCalendarService> schoolCalendarService;
+    // Identical concurrent requests (dashboards refreshing together) share one database computation
+    private final SingleFlight analyticsSingleFlight;
+
+    /**
+     * Daily (or, for type "monthly", monthly) attendance trend with the change against the
+     * previous point and the cumulative rate, computed in the database
+     */
     public List<AttendanceTrendDto> getAttendanceTrends(LocalDate startDate, LocalDate endDate, String type) {
+        return getAttendanceTrends(null, startDate, endDate, type);
+    }
+
+    public List<AttendanceTrendDto> getAttendanceTrends(Long schoolId, LocalDate startDate, LocalDate endDate, String type) {
+        if (attendanceAnalyticsRepository.isPresent()) {
+            AttendanceAnalyticsRepository repository = attendanceAnalyticsRepository.get();
+            boolean monthly = "monthly".equalsIgnoreCase(type);
+            String key = "trends:school:" + schoolId + ":from:" + startDate + ":to:" + endDate + ":monthly:" + monthly;
+            return coalesced(key, () -> {
+                List<AttendanceSeriesPoint> series = monthly
+                        ? repository.getMonthlySeries(schoolId, startDate, endDate)
+                        : repository.getDailySeries(schoolId, startDate, endDate);
+                return series.stream()
+                        .map(point -> toTrendDto(point, holidays(schoolId, point, monthly, startDate, endDate)))
+                        .collect(Collectors.toList());
+            });
+        }
+
         // Mock data for demonstration
         List<AttendanceTrendDto> trends = new ArrayList<>();
         
@@ -31,6 +66,22 @@ public class AnalyticsService {
         return trends;
     }
 
+    /**
+     * Longest runs of consecutive absences between dates
+     */
+    public List<AbsenceStreakDto> getAbsenceStreaks(Long schoolId, LocalDate startDate, LocalDate endDate,
+                                                    int minDays, int limit) {
+        String key = "streaks:school:" + schoolId + ":from:" + startDate + ":to:" + endDate +
+                ":min:" + minDays + ":limit:" + limit;
+        return attendanceAnalyticsRepository
+                .map(repository -> coalesced(key,
+                        () -> repository.findAbsenceStreaks(schoolId, startDate, endDate, minDays, limit)))
+                .orElse(List.of())
+                .stream()
+                .map(streak -> new AbsenceStreakDto(streak.studentId(), streak.startDate(), streak.endDate(), streak.days()))
+                .collect(Collectors.toList());
+    }
+
     public GenderRatioDto getGenderRatio(LocalDate startDate, LocalDate endDate) {
         // Mock data for demonstration
         GenderRatioDto ratio = new GenderRatioDto();
@@ -102,4 +153,35 @@ public class AnalyticsService {
         
         return stats;
     }
+
+    // ========== HELPER METHODS ==========
+
+    private <T> T coalesced(String key, Supplier<T> computation) {
+        return analyticsSingleFlight.execute(key, computation);
+    }
+
+    private AttendanceTrendDto toTrendDto(AttendanceSeriesPoint point, int holidayCount) {
+        AttendanceTrendDto trend = new AttendanceTrendDto(point.period(), (int) point.attended(),
+                (int) (point.marked() - point.attended()), holidayCount);
+        trend.setAttendanceRate(point.attendanceRate());
+        trend.setRateChange(point.rateChange());
+        trend.setCumulativeRate(point.cumulativeAttendanceRate());
+        return trend;
+    }
+
+    /**
+     * Non-working days of the school in a point's period from the calendar; without a school
+     * (or calendar) fall back to days that still carry legacy HOLIDAY rows
+     */
+    private int holidays(Long schoolId, AttendanceSeriesPoint point, boolean monthly,
+                         LocalDate startDate, LocalDate endDate) {
+        if (schoolId == null || schoolCalendarService.isEmpty()) {
+            return (int) point.holidayDays();
+        }
+        LocalDate from = monthly ? point.period().withDayOfMonth(1) : point.period();
+        LocalDate to = monthly ? point.period().withDayOfMonth(point.period().lengthOfMonth()) : point.period();
+        from = from.isBefore(startDate) ? startDate : from;
+        to = to.isAfter(endDate) ? endDate : to;
+        return schoolCalendarService.get().countNonWorkingDays(schoolId, null, null, from, to);
+    }
 }
@@ -0,0 +1,158 @@
+package com.school.attendance.service;
+
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.entity.AttendanceIdempotencyKey;
+import com.school.attendance.entity.AttendanceIdempotencyKey.Status;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.repository.AttendanceIdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Attendance Idempotency Service
+ * Remembers the outcome of marks made with a client-supplied idempotency key for a short time, so a
+ * retried request (e.g. a mobile client resending after a timeout) costs one key lookup instead of a
+ * second write that fails on the (date, student_id) unique constraint and rolls back. A key is
+ * claimed before the mark is applied, so two requests racing with the same key cannot both mark.
+ * A key only identifies a request of one caller (the authenticated user) for one school, so keys
+ * are looked up and stored under both.
+ */
+//@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceIdempotencyService {
+
+    private final AttendanceIdempotencyKeyRepository idempotencyKeyRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TenantJobs tenantJobs;
+
+    @Value("${app.attendance.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.attendance.idempotency.pending-timeout-seconds:60}")
+    private long pendingTimeoutSeconds;
+
+    /**
+     * Claim a key for a mark before applying it. Returns the stored COMPLETED key when the current
+     * caller already made this mark with the key in the school; otherwise inserts (or reuses an
+     * expired row for) a PENDING claim and returns it. The insert is flushed inside the caller's
+     * transaction, so a concurrent request with the same key fails on the unique key. A key reused
+     * for a different mark is rejected, as is one whose first request is still being applied.
+     */
+    @Transactional
+    public AttendanceIdempotencyKey claim(Long schoolId, String idempotencyKey, String requestHash,
+                                                    Long studentId, LocalDate date) {
+        LocalDateTime now = LocalDateTime.now();
+        String caller = currentCaller();
+        Optional<AttendanceIdempotencyKey> stored = idempotencyKeyRepository
+                .findBySchoolIdAndCallerAndIdempotencyKey(schoolId, caller, idempotencyKey);
+        if (stored.isPresent() && !stored.get().isExpired(now)) {
+            AttendanceIdempotencyKey key = stored.get();
+            if (!key.getRequestHash().equals(requestHash)) {
+                throw new BusinessException("Idempotency key " + idempotencyKey + " was already used for a different attendance mark",
+                        HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+            if (key.getStatus() == Status.PENDING) {
+                throw new BusinessException("A request with idempotency key " + idempotencyKey + " is still being processed",
+                        HttpStatus.CONFLICT);
+            }
+            return key;
+        }
+
+        // Only an expired key that has not been purged yet is reused in place
+        AttendanceIdempotencyKey key = stored.orElseGet(AttendanceIdempotencyKey::new);
+        key.setSchoolId(schoolId);
+        key.setCaller(caller);
+        key.setIdempotencyKey(idempotencyKey);
+        key.setRequestHash(requestHash);
+        key.setStudentId(studentId);
+        key.setDate(date);
+        key.setRecordVersion(null);
+        key.setStatus(Status.PENDING);
+        key.setCreatedAt(now);
+        key.setExpiresAt(now.plusSeconds(pendingTimeoutSeconds));
+        return idempotencyKeyRepository.saveAndFlush(key);
+    }
+
+    /**
+     * Record the outcome of a claimed mark. Joins the marking transaction when there is one, so a
+     * mark that rolls back leaves no key.
+     */
+    @Transactional
+    public AttendanceIdempotencyKey complete(AttendanceIdempotencyKey key, Long recordVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        key.setRecordVersion(recordVersion);
+        key.setStatus(Status.COMPLETED);
+        key.setExpiresAt(now.plusHours(ttlHours));
+        return idempotencyKeyRepository.save(key);
+    }
+
+    /**
+     * Drop a committed claim whose mark failed, so the client can retry with the same key
+     */
+    @Transactional
+    public void release(AttendanceIdempotencyKey key) {
+        idempotencyKeyRepository.deleteById(key.getId());
+    }
+
+    /**
+     * Delete expired keys on every shard, one transaction per shard
+     */
+    @Scheduled(cron = "${app.attendance.idempotency.purge-cron:0 15 * * * *}")
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int deleted = tenantJobs.onEveryShard(() -> transaction.execute(status -> idempotencyKeyRepository.deleteExpired(now)))
+                .stream().mapToInt(Integer::intValue).sum();
+        if (deleted > 0) {
+            log.info("Purged {} expired attendance idempotency keys", deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * Hash identifying a mark, stored with its key
+     */
+    public static String requestHash(Long studentId, LocalDate date, AttendanceStatus status, String note, Long teacherId) {
+        String request = studentId + "|" + date + "|" + status + "|" + (note != null ? note : "") + "|" + teacherId;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Name of the authenticated user making the request, empty for anonymous calls
+     */
+    private static String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return "";
+        }
+        return authentication.getName();
+    }
+}
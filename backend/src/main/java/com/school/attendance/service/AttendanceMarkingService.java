@@ -0,0 +1,299 @@
+package com.school.attendance.service;
+
+import com.school.attendance.entity.AttendanceIdempotencyKey;
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.Student;
+import com.school.attendance.entity.Teacher;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.exception.ResourceNotFoundException;
+import com.school.attendance.repository.AttendanceRecordRepository;
+import com.school.attendance.repository.StudentRepository;
+import com.school.attendance.repository.TeacherRepository;
+import com.school.attendance.service.cache.ExistenceFilterService;
+import com.school.attendance.service.writebehind.AttendanceMark;
+import com.school.attendance.service.writebehind.AttendanceWriteBehindService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Attendance Marking Service
+ * Single entry point for marking attendance. Writes go straight to the database, or through the
+ * write-behind journal when {@code app.attendance.write-behind.enabled=true}; reads overlay marks
+ * that are journaled but not yet flushed. Rows carry an optimistic-lock version, and marks may carry
+ * an idempotency key so client retries are answered without a second write.
+ */
+//@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceMarkingService {
+
+    private final AttendanceRecordRepository attendanceRecordRepository;
+    private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+    private final Optional<AttendanceWriteBehindService> writeBehindService;
+    private final AttendanceIdempotencyService idempotencyService;
+    private final Optional<ExistenceFilterService> existenceFilters;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Mark attendance for a student. With write-behind enabled the mark is durable in the
+     * journal when this returns and reaches attendance_records on the next flush.
+     */
+    public void markAttendance(Long studentId, LocalDate date, AttendanceStatus status, String note, Long teacherId) {
+        markAttendance(null, studentId, date, status, note, teacherId, null);
+    }
+
+    /**
+     * Mark attendance with an optional idempotency key and expected row version.
+     * A retry with an already completed key returns the stored outcome without writing; an
+     * {@code expectedVersion} that no longer matches the row (another teacher marked the student
+     * meanwhile) fails with an optimistic locking conflict instead of overwriting their mark.
+     * Runs in its own transaction unless the caller has one: when a concurrent mark inserted the
+     * student's row for the date first, the insert fails on the unique key and the mark is retried
+     * once in a new transaction, which finds that row and updates it. With write-behind the wait
+     * for the journal fsync happens after that transaction, and the idempotency key it claimed is
+     * completed in a second one once the mark is durable (or released if it could not be journaled).
+     * Idempotency keys are scoped to the student's school and the calling user.
+     *
+     * @return version of the attendance row after the mark (once flushed, for a write-behind mark)
+     */
+    public Long markAttendance(String idempotencyKey, Long studentId, LocalDate date, AttendanceStatus status,
+                               String note, Long teacherId, Long expectedVersion) {
+        String requestHash = idempotencyKey != null
+                ? AttendanceIdempotencyService.requestHash(studentId, date, status, note, teacherId) : null;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        boolean joined = TransactionSynchronizationManager.isActualTransactionActive();
+        Outcome outcome;
+        try {
+            outcome = transaction.execute(tx ->
+                    mark(idempotencyKey, requestHash, studentId, date, status, note, teacherId, expectedVersion));
+        } catch (DataIntegrityViolationException e) {
+            if (joined) {
+                throw e;
+            }
+            log.debug("Attendance of student {} on {} was inserted concurrently, retrying as an update", studentId, date);
+            outcome = transaction.execute(tx ->
+                    mark(idempotencyKey, requestHash, studentId, date, status, note, teacherId, expectedVersion));
+        }
+
+        if (outcome.journaled() != null) {
+            AttendanceIdempotencyKey claimed = outcome.claimed();
+            AttendanceMark mark;
+            try {
+                mark = awaitJournaled(outcome.journaled());
+            } catch (RuntimeException e) {
+                if (claimed != null) {
+                    transaction.executeWithoutResult(tx -> idempotencyService.release(claimed));
+                }
+                throw e;
+            }
+            if (claimed != null) {
+                transaction.executeWithoutResult(tx -> idempotencyService.complete(claimed, mark.version()));
+            }
+            return mark.version();
+        }
+        return outcome.version();
+    }
+
+    /**
+     * Current attendance status of a student of a school on a date, including pending marks.
+     * Students not marked yet are usually answered by the existence filter without a query.
+     */
+    @Transactional(readOnly = true)
+    public Optional<AttendanceStatus> getAttendanceStatus(Long schoolId, Long studentId, LocalDate date) {
+        Optional<AttendanceMark> pending = writeBehindService.flatMap(service -> service.getPending(studentId, date));
+        if (pending.isPresent()) {
+            return pending.map(AttendanceMark::status);
+        }
+        Supplier<Optional<AttendanceRecord>> lookup = () -> attendanceRecordRepository.findByStudentIdAndDate(studentId, date);
+        return existenceFilters.map(filters -> filters.findAttendance(schoolId, studentId, date, lookup))
+                .orElseGet(lookup)
+                .map(AttendanceRecord::getStatus);
+    }
+
+    /**
+     * Whether a student of a school has been marked on a date, including pending marks
+     */
+    @Transactional(readOnly = true)
+    public boolean isMarked(Long schoolId, Long studentId, LocalDate date) {
+        if (writeBehindService.flatMap(service -> service.getPending(studentId, date)).isPresent()) {
+            return true;
+        }
+        return existenceFilters.map(filters -> filters.attendanceExists(schoolId, studentId, date))
+                .orElseGet(() -> attendanceRecordRepository.existsByStudentIdAndDate(studentId, date));
+    }
+
+    /**
+     * Attendance of a class on a date, including pending marks (ordered by roll number)
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceRecord> getClassAttendance(Long schoolId, String standard, String section, LocalDate date) {
+        List<AttendanceRecord> records = attendanceRecordRepository.findClassAttendanceByDate(schoolId, standard, section, date);
+        List<AttendanceMark> pending = writeBehindService.map(service -> service.getPendingForDate(date)).orElse(List.of());
+        if (pending.isEmpty()) {
+            return records;
+        }
+
+        Map<Long, AttendanceMark> pendingByStudent = pending.stream()
+                .collect(Collectors.toMap(AttendanceMark::studentId, Function.identity()));
+        Map<Long, AttendanceRecord> byStudent = new HashMap<>();
+        records.forEach(record -> byStudent.put(record.getStudent().getId(), record));
+
+        for (Student student : studentRepository.findBySchoolIdAndStandardAndSectionAndIsActiveTrueOrderByRollNo(
+                schoolId, standard, section)) {
+            AttendanceMark mark = pendingByStudent.get(student.getId());
+            if (mark != null) {
+                byStudent.put(student.getId(), toRecord(mark, student, byStudent.get(student.getId())));
+            }
+        }
+
+        List<AttendanceRecord> merged = new ArrayList<>(byStudent.values());
+        merged.sort(Comparator.comparing(record -> record.getStudent().getRollNo()));
+        return merged;
+    }
+
+    /**
+     * Attendance of a student between dates, newest first, including pending marks
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceRecord> getStudentAttendance(Long studentId, LocalDate startDate, LocalDate endDate) {
+        List<AttendanceRecord> records = attendanceRecordRepository
+                .findByStudentIdAndDateBetweenOrderByDateDesc(studentId, startDate, endDate);
+        List<AttendanceMark> pending = writeBehindService
+                .map(service -> service.getPendingForStudent(studentId, startDate, endDate)).orElse(List.of());
+        if (pending.isEmpty()) {
+            return records;
+        }
+
+        Map<LocalDate, AttendanceRecord> byDate = new HashMap<>();
+        records.forEach(record -> byDate.put(record.getDate(), record));
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Student", "id", studentId));
+        pending.forEach(mark -> byDate.put(mark.date(), toRecord(mark, student, byDate.get(mark.date()))));
+
+        List<AttendanceRecord> merged = new ArrayList<>(byDate.values());
+        merged.sort(Comparator.comparing(AttendanceRecord::getDate).reversed());
+        return merged;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Validate and apply a mark inside the caller's transaction. A write-behind mark is only queued
+     * for the journal here; its future is returned for the caller to wait on after the transaction.
+     */
+    private Outcome mark(String idempotencyKey, String requestHash, Long studentId, LocalDate date,
+                         AttendanceStatus status, String note, Long teacherId, Long expectedVersion) {
+        // Reference entities are second-level cached, so these checks rarely hit the database
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Student", "id", studentId));
+        Long schoolId = student.getSchool().getId();
+
+        // Claimed first: a concurrent request with the same key fails on the unique key from here on
+        AttendanceIdempotencyKey claimed = null;
+        if (idempotencyKey != null) {
+            claimed = idempotencyService.claim(schoolId, idempotencyKey, requestHash, studentId, date);
+            if (claimed.getStatus() == AttendanceIdempotencyKey.Status.COMPLETED) {
+                log.debug("Attendance mark for student {} on {} already applied (key {})", studentId, date, idempotencyKey);
+                return new Outcome(claimed.getRecordVersion(), null, null);
+            }
+        }
+
+        if (date.isAfter(LocalDate.now())) {
+            throw new BusinessException("Cannot mark attendance for a future date");
+        }
+
+        Teacher teacher = teacherId != null ? teacherRepository.findById(teacherId)
+                .orElseThrow(() -> new ResourceNotFoundException("Teacher", "id", teacherId)) : null;
+
+        // Always read from the database: the existence filter may not know rows written elsewhere
+        Optional<AttendanceRecord> existing = attendanceRecordRepository.findByStudentIdAndDate(studentId, date);
+        existenceFilters.ifPresent(filters -> filters.recordAttendance(schoolId, studentId, date));
+        if (writeBehindService.isPresent()) {
+            // The expected version is checked against marks still pending as well as the row
+            AttendanceMark mark = new AttendanceMark(studentId, date, status, note, LocalTime.now(), teacherId,
+                    LocalDateTime.now(), schoolId, null);
+            return new Outcome(null, writeBehindService.get().mark(mark, expectedVersion,
+                    existing.map(AttendanceRecord::getVersion).orElse(-1L)), claimed);
+        }
+
+        if (expectedVersion != null && !existing.map(AttendanceRecord::getVersion).orElse(-1L).equals(expectedVersion)) {
+            throw new ObjectOptimisticLockingFailureException(AttendanceRecord.class,
+                    existing.map(AttendanceRecord::getId).orElse(null));
+        }
+        LocalTime markedTime = LocalTime.now();
+
+        AttendanceRecord record = existing
+                .orElseGet(() -> new AttendanceRecord(date, status, note, markedTime, student, teacher));
+        record.setStatus(status);
+        record.setNote(note);
+        record.setMarkedTime(markedTime);
+        record.setTeacher(teacher);
+        // Flushed here so a concurrent mark fails inside this call and the new version is known
+        Long version = attendanceRecordRepository.saveAndFlush(record).getVersion();
+
+        if (claimed != null) {
+            idempotencyService.complete(claimed, version);
+        }
+        return new Outcome(version, null, null);
+    }
+
+    /**
+     * Wait until a write-behind mark is durable, rethrowing why it could not be journaled
+     */
+    private static AttendanceMark awaitJournaled(CompletableFuture<AttendanceMark> journaled) {
+        try {
+            return journaled.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Detached view of a pending mark with the version it will have (keeps the ID of the row it will overwrite, if any)
+     */
+    private AttendanceRecord toRecord(AttendanceMark mark, Student student, AttendanceRecord existing) {
+        AttendanceRecord record = new AttendanceRecord(mark.date(), mark.status(), mark.note(), mark.markedTime(),
+                student, mark.teacherId() != null ? teacherRepository.getReferenceById(mark.teacherId()) : null);
+        if (existing != null) {
+            record.setId(existing.getId());
+            record.setCreatedAt(existing.getCreatedAt());
+        }
+        record.setVersion(mark.version());
+        record.setUpdatedAt(mark.markedAt());
+        return record;
+    }
+
+    /**
+     * Result of {@link #mark}: the row version, or the pending journal append of a write-behind mark
+     * and the idempotency key claimed for it (completed or released once the append settles)
+     */
+    private record Outcome(Long version, CompletableFuture<AttendanceMark> journaled, AttendanceIdempotencyKey claimed) {
+    }
+}
@@ -67,4 +67,8 @@ public class CustomUserDetails implements UserDetails {
     public Role getRole() {
         return user.getRole();
     }
+
+    public Long getSchoolId() {
+        return user.getSchoolId();
+    }
 }
@@ -0,0 +1,117 @@
+package com.school.attendance.service;
+
+import com.school.attendance.entity.School;
+import com.school.attendance.entity.SchoolClass;
+import com.school.attendance.exception.ResourceNotFoundException;
+import com.school.attendance.repository.SchoolClassRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * School Class Service
+ * Maps (school, standard, section) to the integer class id once and keeps both directions
+ * in memory, so grouping, cache keys and lookups work on ints instead of string triples.
+ * Class rows are never renamed in place: a changed standard/section is a new class.
+ */
+//@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchoolClassService {
+
+    private final SchoolClassRepository schoolClassRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<ClassKey, Integer> idsByKey = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    /**
+     * Integer id of a class
+     */
+    @Transactional(readOnly = true)
+    public Integer getClassId(Long schoolId, String standard, String section) {
+        ClassKey key = new ClassKey(schoolId, standard, SchoolClass.section(section));
+        Integer id = idsByKey.get(key);
+        if (id != null) {
+            return id;
+        }
+        SchoolClass schoolClass = schoolClassRepository.findClass(schoolId, standard, key.section())
+                .orElseThrow(() -> new ResourceNotFoundException("SchoolClass", "standard/section",
+                        standard + (section != null ? "-" + section : "")));
+        remember(schoolId, schoolClass);
+        return schoolClass.getId();
+    }
+
+    /**
+     * Find a class or create it (e.g. when a student is admitted to a new section). Created in its
+     * own transaction: when a concurrent request creates the same class first, the insert fails on
+     * uk_school_classes and the class it created is read back instead.
+     */
+    public SchoolClass getOrCreate(School school, String standard, String section) {
+        String classSection = SchoolClass.section(section);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        SchoolClass schoolClass;
+        try {
+            schoolClass = transaction.execute(status -> schoolClassRepository.findClass(school.getId(), standard, classSection)
+                    .orElseGet(() -> {
+                        log.info("Creating class {}{} for school {}", standard,
+                                classSection.isEmpty() ? "" : "-" + classSection, school.getId());
+                        return schoolClassRepository.save(new SchoolClass(school, standard, classSection));
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Class {}-{} of school {} was created concurrently", standard, classSection, school.getId());
+            schoolClass = transaction.execute(status -> schoolClassRepository.findClass(school.getId(), standard, classSection)
+                    .orElseThrow(() -> e));
+        }
+        remember(school.getId(), schoolClass);
+        return schoolClass;
+    }
+
+    /**
+     * Display name of a class, e.g. 10-A
+     */
+    @Transactional(readOnly = true)
+    public String getDisplayName(Integer classId) {
+        return namesById.computeIfAbsent(classId, id -> schoolClassRepository.findById(id)
+                .map(SchoolClass::getDisplayName)
+                .orElseThrow(() -> new ResourceNotFoundException("SchoolClass", "id", id)));
+    }
+
+    /**
+     * All classes of a school
+     */
+    @Transactional(readOnly = true)
+    public List<SchoolClass> getClasses(Long schoolId) {
+        List<SchoolClass> classes = schoolClassRepository.findBySchoolId(schoolId);
+        classes.forEach(schoolClass -> remember(schoolId, schoolClass));
+        return classes;
+    }
+
+    /**
+     * Forget a deleted class
+     */
+    public void evict(Integer classId) {
+        namesById.remove(classId);
+        idsByKey.values().removeIf(classId::equals);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void remember(Long schoolId, SchoolClass schoolClass) {
+        idsByKey.put(new ClassKey(schoolId, schoolClass.getStandard(), schoolClass.getSection()), schoolClass.getId());
+        namesById.put(schoolClass.getId(), schoolClass.getDisplayName());
+    }
+
+    private record ClassKey(Long schoolId, String standard, String section) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.school.attendance.service.archive;
+
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.entity.AttendanceArchiveSegment;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.repository.ArchivedAttendanceRecordRepository;
+import com.school.attendance.repository.AttendanceArchiveSegmentRepository;
+import com.school.attendance.repository.AttendanceRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves closed academic years from {@code attendance_records} into the compressed
+ * {@code attendance_records_archive} table so the hot indexes only cover recent years.
+ *
+ * Invariant: every row dated on or before the last completed segment lives in the archive.
+ * Archiving a year therefore also sweeps any older stragglers, and years are processed
+ * oldest first. A year's segment is registered before any row moves, and rows only move once
+ * every node's cached boundary includes it, so range queries read both tiers across the year
+ * for the whole run. The scheduled run archives every shard.
+ */
+//@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceArchiveService {
+
+    private final AttendanceRecordRepository attendanceRecordRepository;
+    private final ArchivedAttendanceRecordRepository archivedAttendanceRecordRepository;
+    private final AttendanceArchiveSegmentRepository segmentRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TenantJobs tenantJobs;
+
+    @Value("${app.archive.academic-year-start-month:6}")
+    private int academicYearStartMonth;
+
+    @Value("${app.archive.retained-closed-years:1}")
+    private int retainedClosedYears;
+
+    @Value("${app.archive.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.archive.boundary-cache-seconds:300}")
+    private long boundaryCacheSeconds;
+
+    /**
+     * Archive every closed academic year that is past the retention window
+     */
+    @Scheduled(cron = "${app.archive.cron:-}")
+    public void archiveClosedAcademicYears() {
+        tenantJobs.onEveryShard(() -> {
+            LocalDate earliest = attendanceRecordRepository.findEarliestDate().orElse(null);
+            if (earliest == null) {
+                log.debug("No hot attendance records, nothing to archive");
+                return null;
+            }
+
+            int lastArchivableYear = lastArchivableStartYear(LocalDate.now());
+            for (int startYear = academicYearStartYear(earliest); startYear <= lastArchivableYear; startYear++) {
+                archiveAcademicYear(startYear);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Archive a single academic year, e.g. {@code 2023} for 2023-2024, on the shard bound to the calling thread
+     */
+    public AttendanceArchiveSegment archiveAcademicYear(int startYear) {
+        if (startYear > lastArchivableStartYear(LocalDate.now())) {
+            throw new BusinessException("Academic year " + academicYearLabel(startYear) +
+                    " is not closed or is still within the retention window");
+        }
+
+        LocalDate startDate = LocalDate.of(startYear, academicYearStartMonth, 1);
+        LocalDate endDate = startDate.plusYears(1).minusDays(1);
+        String label = academicYearLabel(startYear);
+        log.info("Archiving attendance for academic year {} ({} to {})", label, startDate, endDate);
+
+        long startTime = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // Register the year first: from here on range queries read both tiers across it
+        AttendanceArchiveSegment registered = transactionTemplate.execute(status ->
+                segmentRepository.findByAcademicYear(label).orElseGet(() -> segmentRepository.save(
+                        new AttendanceArchiveSegment(label, startDate, endDate, LocalDateTime.now()))));
+        attendanceRecordRepository.refreshArchiveBoundary();
+        awaitBoundaryCaches(registered);
+
+        long moved = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> moveChunk(endDate));
+            moved += chunk;
+        } while (chunk == chunkSize);
+
+        AttendanceArchiveSegment segment = transactionTemplate.execute(status -> {
+            AttendanceArchiveSegment completed = segmentRepository.findById(registered.getId()).orElseThrow();
+            completed.setRowCount(archivedAttendanceRecordRepository.countByDateBetween(startDate, endDate));
+            completed.setArchivedAt(LocalDateTime.now());
+            return segmentRepository.save(completed);
+        });
+        attendanceRecordRepository.refreshArchiveBoundary();
+
+        log.info("Archived {} attendance records for academic year {} in {}ms",
+                moved, label, System.currentTimeMillis() - startTime);
+        return segment;
+    }
+
+    /**
+     * Get all archived academic years
+     */
+    public List<AttendanceArchiveSegment> getArchivedSegments() {
+        return new ArrayList<>(segmentRepository.findAll());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Wait until every node's cached archive boundary has expired since the segment was registered
+     */
+    private void awaitBoundaryCaches(AttendanceArchiveSegment segment) {
+        long waitMillis = Duration.between(LocalDateTime.now(),
+                segment.getRegisteredAt().plusSeconds(boundaryCacheSeconds)).toMillis();
+        if (waitMillis <= 0) {
+            return;
+        }
+        log.info("Academic year {} registered; waiting {}ms for other nodes to read both tiers",
+                segment.getAcademicYear(), waitMillis);
+        try {
+            Thread.sleep(waitMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Archiving interrupted before any rows were moved", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Copy one chunk of rows on or before the end date into the archive and delete them from the hot table
+     */
+    private int moveChunk(LocalDate endDate) {
+        List<Long> ids = attendanceRecordRepository.findIdsByDateOnOrBefore(endDate, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedAttendanceRecordRepository.copyFromHotTier(ids, LocalDateTime.now());
+        attendanceRecordRepository.deleteByIdIn(ids);
+        return ids.size();
+    }
+
+    /**
+     * Start year of the academic year containing a date
+     */
+    private int academicYearStartYear(LocalDate date) {
+        return date.getMonthValue() >= academicYearStartMonth ? date.getYear() : date.getYear() - 1;
+    }
+
+    /**
+     * Latest academic year that is closed and outside the retention window
+     */
+    private int lastArchivableStartYear(LocalDate today) {
+        return academicYearStartYear(today) - 1 - retainedClosedYears;
+    }
+
+    private String academicYearLabel(int startYear) {
+        return startYear + "-" + (startYear + 1);
+    }
+}
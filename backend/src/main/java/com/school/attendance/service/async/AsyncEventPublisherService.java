@@ -35,7 +35,7 @@ public class AsyncEventPublisherService {
     /**
      * Publish bulk attendance marked event
      */
-    public void publishBulkAttendanceMarked(Long classId, Long teacherId, LocalDate attendanceDate, 
+    public void publishBulkAttendanceMarked(Integer classId, Long teacherId, LocalDate attendanceDate, 
                                           int totalStudents, int presentCount, int absentCount) {
         log.debug("Publishing bulk attendance marked event for class: {}", classId);
         
@@ -63,7 +63,7 @@ public class AsyncEventPublisherService {
      * Publish attendance report request
      */
     public void publishReportRequest(String reportType, String format, Long requestedBy, String email,
-                                   LocalDate fromDate, LocalDate toDate, Long schoolId, Long classId) {
+                                   LocalDate fromDate, LocalDate toDate, Long schoolId, Integer classId) {
         log.info("Publishing report request - Type: {}, RequestedBy: {}", reportType, requestedBy);
         
         AttendanceEvents.AttendanceReportRequestedEvent event = new AttendanceEvents.AttendanceReportRequestedEvent(
@@ -98,7 +98,7 @@ public class AsyncEventPublisherService {
     /**
      * Trigger async notification for bulk attendance
      */
-    public void notifyBulkAttendance(Long classId, LocalDate date, int total, int present, int absent) {
+    public void notifyBulkAttendance(Integer classId, LocalDate date, int total, int present, int absent) {
         publishBulkAttendanceMarked(classId, null, date, total, present, absent);
     }
 
@@ -120,7 +120,7 @@ public class AsyncEventPublisherService {
     /**
      * Generate class report asynchronously
      */
-    public void generateClassReport(Long classId, LocalDate fromDate, LocalDate toDate, 
+    public void generateClassReport(Integer classId, LocalDate fromDate, LocalDate toDate, 
                                   Long requestedBy, String email, Long schoolId) {
         publishReportRequest("CLASS_ATTENDANCE", "PDF", requestedBy, email, fromDate, toDate, schoolId, classId);
     }
@@ -1,6 +1,8 @@
 package com.school.attendance.service.async;
 
 import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.SchoolClass;
 import com.school.attendance.entity.Student;
 import com.school.attendance.event.AttendanceEvents;
 import com.school.attendance.repository.AttendanceRecordRepository;
@@ -8,14 +10,14 @@ import com.school.attendance.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Async Report Generation Service
@@ -34,6 +36,7 @@ public class AsyncReportGenerationService {
      */
     @Async("reportTaskExecutor")
     @EventListener
+    @Transactional(readOnly = true)
     public void handleReportRequest(AttendanceEvents.AttendanceReportRequestedEvent event) {
         log.info("Processing report request - Type: {}, School: {}, Class: {}, Date Range: {} to {}", 
                 event.getReportType(), event.getSchoolId(), event.getClassId(), 
@@ -81,19 +84,29 @@ public class AsyncReportGenerationService {
         report.append("School ID: ").append(event.getSchoolId()).append("\n");
         report.append("Generated: ").append(LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE)).append("\n\n");
 
-        // Get attendance data for the date - using a simpler approach for now
-        LocalDate reportDate = LocalDate.parse(event.getFromDate().toString());
-        List<AttendanceRecord> attendanceList = attendanceRecordRepository.findByDateBetweenOrderByDateDesc(
-                reportDate, reportDate, PageRequest.of(0, 1000)).getContent();
-        
-        // Calculate statistics
-        Map<String, Long> statusCounts = attendanceList.stream()
-                .collect(Collectors.groupingBy(record -> record.getStatus().name(), Collectors.counting()));
+        // Stream the day's records and aggregate as we go (constant memory, no row limit)
+        LocalDate reportDate = event.getFromDate();
+        Map<AttendanceStatus, Long> statusCounts = new EnumMap<>(AttendanceStatus.class);
+        Map<Integer, long[]> classCounts = new HashMap<>(); // class id -> {present, total}
+        Map<Integer, String> classNames = new HashMap<>();
+
+        try (Stream<AttendanceRecord> records = streamAttendance(event.getSchoolId(), reportDate, reportDate)) {
+            records.forEach(record -> {
+                statusCounts.merge(record.getStatus(), 1L, Long::sum);
+                SchoolClass schoolClass = record.getStudent().getSchoolClass();
+                long[] counts = classCounts.computeIfAbsent(schoolClass.getId(), id -> {
+                    classNames.put(id, schoolClass.getDisplayName());
+                    return new long[2];
+                });
+                counts[0] += isPresent(record.getStatus()) ? 1 : 0;
+                counts[1]++;
+            });
+        }
         
-        long totalStudents = attendanceList.size();
-        long presentCount = statusCounts.getOrDefault("PRESENT", 0L);
-        long absentCount = statusCounts.getOrDefault("ABSENT", 0L);
-        long lateCount = statusCounts.getOrDefault("LATE", 0L);
+        long totalStudents = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        long presentCount = statusCounts.getOrDefault(AttendanceStatus.PRESENT, 0L);
+        long absentCount = statusCounts.getOrDefault(AttendanceStatus.ABSENT, 0L);
+        long lateCount = statusCounts.getOrDefault(AttendanceStatus.LATE, 0L);
         
         double attendancePercentage = totalStudents > 0 ? 
                 (double) (presentCount + lateCount) / totalStudents * 100 : 0.0;
@@ -113,19 +126,14 @@ public class AsyncReportGenerationService {
         if (event.getClassId() == null) {
             report.append("CLASS-WISE BREAKDOWN:\n");
             report.append("-".repeat(25)).append("\n");
-            Map<String, List<AttendanceRecord>> classGroups = attendanceList.stream()
-                    .collect(Collectors.groupingBy(a -> a.getStudent().getStandard() + "-" + 
-                            (a.getStudent().getSection() != null ? a.getStudent().getSection() : "")));
-            
-            classGroups.forEach((classKey, classAttendance) -> {
-                long classTotal = classAttendance.size();
-                long classPresent = classAttendance.stream()
-                        .mapToLong(a -> "PRESENT".equals(a.getStatus().name()) || "LATE".equals(a.getStatus().name()) ? 1 : 0)
-                        .sum();
+            classNames.entrySet().stream().sorted(Map.Entry.comparingByValue()).forEach(entry -> {
+                long[] counts = classCounts.get(entry.getKey());
+                long classTotal = counts[1];
+                long classPresent = counts[0];
                 double classPercentage = classTotal > 0 ? (double) classPresent / classTotal * 100 : 0.0;
                 
                 report.append(String.format("Class %s: %d/%d students present (%.1f%%)\n", 
-                        classKey, classPresent, classTotal, classPercentage));
+                        entry.getValue(), classPresent, classTotal, classPercentage));
             });
         }
         
@@ -146,18 +154,16 @@ public class AsyncReportGenerationService {
         report.append(String.format("Period: %s to %s\n", event.getFromDate(), event.getToDate()));
         report.append(String.format("Generated: %s\n\n", LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE)));
         
-        // Get attendance records for the period
-        List<AttendanceRecord> attendanceRecords = attendanceRecordRepository.findByDateBetweenOrderByDateDesc(
-                event.getFromDate(), event.getToDate(), PageRequest.of(0, 1000)).getContent();
-        
-        // Calculate statistics
-        Map<String, Long> statusCounts = attendanceRecords.stream()
-                .collect(Collectors.groupingBy(record -> record.getStatus().name(), Collectors.counting()));
+        // Stream the period's records and count statuses as we go
+        Map<AttendanceStatus, Long> statusCounts = new EnumMap<>(AttendanceStatus.class);
+        try (Stream<AttendanceRecord> records = streamAttendance(event.getSchoolId(), event.getFromDate(), event.getToDate())) {
+            records.forEach(record -> statusCounts.merge(record.getStatus(), 1L, Long::sum));
+        }
         
-        long totalDays = attendanceRecords.size();
-        long presentDays = statusCounts.getOrDefault("PRESENT", 0L);
-        long absentDays = statusCounts.getOrDefault("ABSENT", 0L);
-        long lateDays = statusCounts.getOrDefault("LATE", 0L);
+        long totalDays = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        long presentDays = statusCounts.getOrDefault(AttendanceStatus.PRESENT, 0L);
+        long absentDays = statusCounts.getOrDefault(AttendanceStatus.ABSENT, 0L);
+        long lateDays = statusCounts.getOrDefault(AttendanceStatus.LATE, 0L);
         
         double attendancePercentage = totalDays > 0 ? 
                 (double) (presentDays + lateDays) / totalDays * 100 : 0.0;
@@ -187,6 +193,17 @@ public class AsyncReportGenerationService {
         report.append(String.format("Period: %s to %s\n", event.getFromDate(), event.getToDate()));
         report.append(String.format("Generated: %s\n\n", LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE)));
         
+        // One pass over the school's records for the period: student -> {present, total}
+        Map<Long, long[]> studentCounts = new HashMap<>();
+        try (Stream<AttendanceRecord> records = attendanceRecordRepository.streamBySchoolIdAndDateBetween(
+                event.getSchoolId(), event.getFromDate(), event.getToDate())) {
+            records.forEach(record -> {
+                long[] counts = studentCounts.computeIfAbsent(record.getStudent().getId(), id -> new long[2]);
+                counts[0] += isPresent(record.getStatus()) ? 1 : 0;
+                counts[1]++;
+            });
+        }
+
         // Get all students in the school
         List<Student> allStudents = studentRepository.findBySchoolIdAndIsActiveTrueOrderByStandardAscSectionAscRollNoAsc(event.getSchoolId());
         
@@ -195,21 +212,17 @@ public class AsyncReportGenerationService {
         report.append(String.format("%-15s %-20s %-15s %-10s\n", "GR No", "Student Name", "Class", "Percentage"));
         report.append("-".repeat(70)).append("\n");
         
-        for (Student student : allStudents.subList(0, Math.min(100, allStudents.size()))) { // Limit to avoid memory issues
-            List<AttendanceRecord> studentAttendance = attendanceRecordRepository
-                    .findByStudentIdAndDateBetweenOrderByDateDesc(student.getId(), event.getFromDate(), event.getToDate());
-            
-            long totalDays = studentAttendance.size();
-            long presentDays = studentAttendance.stream()
-                    .mapToLong(a -> "PRESENT".equals(a.getStatus().name()) || "LATE".equals(a.getStatus().name()) ? 1 : 0)
-                    .sum();
+        for (Student student : allStudents) {
+            long[] counts = studentCounts.getOrDefault(student.getId(), new long[2]);
+            long totalDays = counts[1];
+            long presentDays = counts[0];
             
             double percentage = totalDays > 0 ? (double) presentDays / totalDays * 100 : 0.0;
             
             report.append(String.format("%-15s %-20s %-15s %-10.1f%%\n",
                     student.getGrNo(),
                     student.getFirstName() + " " + student.getLastName(),
-                    student.getStandard() + "-" + (student.getSection() != null ? student.getSection() : ""),
+                    student.getSchoolClass().getDisplayName(),
                     percentage));
         }
         
@@ -266,6 +279,19 @@ public class AsyncReportGenerationService {
 
     // ========== HELPER METHODS ==========
 
+    /**
+     * Stream attendance for a school, or for all schools when no school is given
+     */
+    private Stream<AttendanceRecord> streamAttendance(Long schoolId, LocalDate fromDate, LocalDate toDate) {
+        return schoolId != null
+                ? attendanceRecordRepository.streamBySchoolIdAndDateBetween(schoolId, fromDate, toDate)
+                : attendanceRecordRepository.streamByDateBetween(fromDate, toDate);
+    }
+
+    private boolean isPresent(AttendanceStatus status) {
+        return status == AttendanceStatus.PRESENT || status == AttendanceStatus.LATE;
+    }
+
     /**
      * Save report to storage (file system/cloud)
      */
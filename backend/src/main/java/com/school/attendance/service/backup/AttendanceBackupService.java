@@ -0,0 +1,461 @@
+package com.school.attendance.service.backup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.school.attendance.config.sharding.TenantContext;
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.exception.ResourceNotFoundException;
+import com.school.attendance.service.backup.BackupManifest.Mode;
+import com.school.attendance.service.backup.BackupManifest.Segment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Attendance Backup Service
+ * Exports the database as per-table, per-month gzip segments with SHA-256 checksums. All segments of
+ * a run are read in one REPEATABLE READ read-only transaction, so the tables are copied as of the
+ * same instant (a row archived mid-run is in exactly one of them), and bounded by the run's cutoff;
+ * rows changed after the cutoff belong to the next run. Incremental runs export only rows whose
+ * change column falls in [previous cutoff - safety lag, cutoff): a row stamped before the previous
+ * cutoff but committed after that run's snapshot is still picked up, and rows exported twice are
+ * replaced by id on restore. Nightly time and size thus follow the day's changes rather than the
+ * whole history. Restore replays a chain (full + incrementals) with batched inserts.
+ * Hard deletes other than archiving (which keeps row ids) are picked up by the next full run.
+ * With sharding, each shard is backed up into its own subdirectory of the backup directory.
+ */
+//@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceBackupService {
+
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final String WHOLE_TABLE = "all";
+    private static final String UNDATED = "undated";
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final DateTimeFormatter PERIOD = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    // Parent tables first (restore order). Reference tables are small and copied whole on every run;
+    // attendance and log tables are split by month and filtered on their change column when incremental.
+    private static final List<BackupTable> TABLES = List.of(
+            BackupTable.whole("schools"),
+            BackupTable.whole("school_classes"),
+            BackupTable.whole("users"),
+            BackupTable.whole("students"),
+            BackupTable.whole("teachers"),
+            BackupTable.whole("teacher_subjects"),
+            BackupTable.whole("teacher_class_assignments"),
+            BackupTable.whole("notification_settings"),
+            BackupTable.whole("school_calendar_days"),
+            BackupTable.whole("attendance_archive_segments"),
+            BackupTable.monthly("attendance_records", "date", "COALESCE(updated_at, created_at)", null),
+            // Archiving moves rows with their ids: restoring an archived row removes its hot copy
+            BackupTable.monthly("attendance_records_archive", "date", "archived_at", "attendance_records"),
+            BackupTable.monthly("attendance_record_history", "date", "COALESCE(valid_to, valid_from)", null),
+            BackupTable.monthly("class_day_registers", "date", "COALESCE(updated_at, created_at)", null),
+            BackupTable.monthly("notification_logs", "sent_at", "sent_at", null));
+
+    private static final ObjectMapper MANIFEST_MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .build();
+
+    private final DataSource dataSource;
+    private final TenantJobs tenantJobs;
+
+    @Value("${app.backup.dir:./data/backups}")
+    private String backupDir;
+
+    @Value("${app.backup.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.backup.restore-batch-size:1000}")
+    private int restoreBatchSize;
+
+    @Value("${app.backup.full-interval-days:7}")
+    private int fullIntervalDays;
+
+    // Longest expected delay between a change's timestamp and its commit (write-behind flushes, long transactions)
+    @Value("${app.backup.safety-lag-seconds:300}")
+    private long safetyLagSeconds;
+
+    /**
+     * Nightly backup of every shard: incremental on top of the shard's latest run, full when its
+     * last full run is too old
+     */
+    @Scheduled(cron = "${app.backup.cron:-}")
+    public List<BackupManifest> runScheduledBackup() {
+        LocalDateTime fullDue = LocalDateTime.now().minusDays(fullIntervalDays);
+        return tenantJobs.onEveryShard(() -> {
+            boolean fullIsRecent = listBackups().stream()
+                    .anyMatch(manifest -> manifest.mode() == Mode.FULL && manifest.cutoff().isAfter(fullDue));
+            return backup(fullIsRecent ? Mode.INCREMENTAL : Mode.FULL);
+        });
+    }
+
+    /**
+     * Run a backup of the shard bound to the calling thread. An incremental run without a previous
+     * backup becomes a full run.
+     */
+    public synchronized BackupManifest backup(Mode requestedMode) {
+        Optional<BackupManifest> previous = listBackups().stream().reduce((first, second) -> second);
+        Mode mode = requestedMode == Mode.INCREMENTAL && previous.isEmpty() ? Mode.FULL : requestedMode;
+        LocalDateTime cutoff = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        if (mode == Mode.INCREMENTAL && !cutoff.isAfter(previous.get().cutoff())) {
+            throw new BusinessException("A backup was already taken at " + previous.get().cutoff());
+        }
+        LocalDateTime changedSince = mode == Mode.INCREMENTAL
+                ? previous.get().cutoff().minusSeconds(safetyLagSeconds) : null;
+
+        String id = RUN_ID.format(cutoff) + "-" + mode.name().toLowerCase();
+        Path directory = root().resolve(id);
+        log.info("Starting {} backup {} (changes since {})", mode, id, changedSince != null ? changedSince : "the beginning");
+        long started = System.currentTimeMillis();
+
+        // One snapshot for the whole run: a database snapshot cannot be shared between connections,
+        // so segments are read one after another on the transaction's connection
+        TransactionTemplate snapshot = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+        JdbcTemplate reader = new JdbcTemplate(dataSource);
+        reader.setFetchSize(fetchSize);
+
+        List<Segment> segments;
+        try {
+            segments = snapshot.execute(status -> {
+                List<Segment> exported = new ArrayList<>();
+                for (BackupTable table : TABLES) {
+                    List<SegmentTask> tasks = new ArrayList<>();
+                    if (table.isWhole()) {
+                        tasks.add(new SegmentTask(table, WHOLE_TABLE, null));
+                    } else {
+                        months(reader, table, changedSince, cutoff).forEach(month -> tasks.add(
+                                new SegmentTask(table, month != null ? PERIOD.format(month) : UNDATED, month)));
+                    }
+                    for (SegmentTask task : tasks) {
+                        Segment segment = exportSegment(reader, task, directory, changedSince, cutoff);
+                        if (segment.rows() > 0) {
+                            exported.add(segment);
+                        }
+                    }
+                }
+                return exported;
+            });
+        } catch (RuntimeException e) {
+            deleteQuietly(directory);
+            throw new IllegalStateException("Backup " + id + " failed: " + e.getMessage(), e);
+        }
+
+        BackupManifest manifest = new BackupManifest(id, mode,
+                mode == Mode.INCREMENTAL ? previous.get().id() : null, changedSince, cutoff, segments);
+        try {
+            Files.createDirectories(directory);
+            MANIFEST_MAPPER.writeValue(directory.resolve(MANIFEST_FILE).toFile(), manifest);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write manifest for backup " + id, e);
+        }
+
+        log.info("Backup {} finished in {} ms: {} segments, {} rows, {} bytes", id,
+                System.currentTimeMillis() - started, segments.size(), manifest.totalRows(), manifest.totalBytes());
+        return manifest;
+    }
+
+    /**
+     * Completed backups (those with a manifest), oldest first
+     */
+    public List<BackupManifest> listBackups() {
+        Path root = root();
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> directories = Files.list(root)) {
+            return directories
+                    .map(directory -> directory.resolve(MANIFEST_FILE))
+                    .filter(Files::isRegularFile)
+                    .map(this::readManifest)
+                    .sorted(Comparator.comparing(BackupManifest::cutoff))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list backups in " + root, e);
+        }
+    }
+
+    /**
+     * Restore a backup (and the runs it builds on) into this service's database.
+     * The target must be a freshly migrated, empty schema. Every checksum is verified before anything is loaded.
+     */
+    public long restore(String backupId) {
+        List<BackupManifest> chain = resolveChain(backupId);
+        for (BackupManifest manifest : chain) {
+            for (Segment segment : manifest.segments()) {
+                verifyChecksum(manifest, segment);
+            }
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Long schools = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schools", Long.class);
+        if (schools != null && schools > 0) {
+            throw new BusinessException("Restore target already contains data");
+        }
+
+        log.info("Restoring backup {} ({} runs)", backupId, chain.size());
+        long started = System.currentTimeMillis();
+        long rows = 0;
+        BackupManifest latest = chain.get(chain.size() - 1);
+        for (BackupTable table : TABLES) {
+            if (table.isWhole()) {
+                // Reference tables are complete in every run: the latest copy wins
+                for (Segment segment : segmentsOf(latest, table)) {
+                    rows += load(latest, segment, table, false);
+                }
+                continue;
+            }
+            for (int run = 0; run < chain.size(); run++) {
+                BackupManifest manifest = chain.get(run);
+                for (Segment segment : segmentsOf(manifest, table)) {
+                    rows += load(manifest, segment, table, run > 0);
+                }
+            }
+        }
+
+        log.info("Restored {} rows from backup {} in {} ms", rows, backupId, System.currentTimeMillis() - started);
+        return rows;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Backups of the shard bound to the calling thread (the backup directory itself without sharding)
+     */
+    private Path root() {
+        String shard = TenantContext.getShard();
+        return shard != null ? Paths.get(backupDir, shard) : Paths.get(backupDir);
+    }
+
+    /**
+     * Months that have rows to export (changed in the window, when incremental); null for rows without a date
+     */
+    private List<LocalDate> months(JdbcTemplate reader, BackupTable table, LocalDateTime changedSince,
+                                   LocalDateTime cutoff) {
+        String column = table.partitionColumn();
+        List<Integer> yearMonths = reader.queryForList(
+                "SELECT DISTINCT EXTRACT(YEAR FROM " + column + ") * 100 + EXTRACT(MONTH FROM " + column + ") " +
+                "FROM " + table.name() + " WHERE " + changeFilter(table, changedSince),
+                Integer.class, changeArgs(changedSince, cutoff));
+        return yearMonths.stream()
+                .sorted(Comparator.nullsLast(Comparator.naturalOrder()))
+                .map(yearMonth -> yearMonth != null ? LocalDate.of(yearMonth / 100, yearMonth % 100, 1) : null)
+                .toList();
+    }
+
+    private Segment exportSegment(JdbcTemplate reader, SegmentTask task, Path directory, LocalDateTime changedSince,
+                                  LocalDateTime cutoff) {
+        BackupTable table = task.table();
+        String file = table.name() + "/" + task.period() + ".jsonl.gz";
+        Path path = directory.resolve(file);
+
+        String sql = "SELECT * FROM " + table.name();
+        List<Object> args = new ArrayList<>();
+        if (task.month() != null) {
+            sql += " WHERE " + table.partitionColumn() + " >= ? AND " + table.partitionColumn() + " < ? AND " +
+                    changeFilter(table, changedSince);
+            args.add(task.month());
+            args.add(task.month().plusMonths(1));
+            args.addAll(List.of(changeArgs(changedSince, cutoff)));
+        } else if (!table.isWhole()) {
+            sql += " WHERE " + table.partitionColumn() + " IS NULL AND " + changeFilter(table, changedSince);
+            args.addAll(List.of(changeArgs(changedSince, cutoff)));
+        }
+
+        try (BackupSegmentFile.Writer writer = new BackupSegmentFile.Writer(path)) {
+            reader.query(sql, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+            writer.close();
+            if (writer.getRows() == 0) {
+                Files.delete(path);
+                return new Segment(table.name(), task.period(), file, 0, 0, null);
+            }
+            log.debug("Exported {} rows of {} for {}", writer.getRows(), table.name(), task.period());
+            return new Segment(table.name(), task.period(), file, writer.getRows(), Files.size(path), writer.getSha256());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write segment " + path, e);
+        }
+    }
+
+    /**
+     * Insert a segment in batches, one transaction per segment. Incremental segments replace rows
+     * with the same id; superseding segments also remove those ids from the table they replace.
+     */
+    private long load(BackupManifest manifest, Segment segment, BackupTable table, boolean replaceExisting) {
+        Path path = root().resolve(manifest.id()).resolve(segment.file());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        return transaction.execute(status -> {
+            try (BackupSegmentFile.Reader reader = new BackupSegmentFile.Reader(path)) {
+                List<String> columns = reader.getColumns();
+                String insertSql = "INSERT INTO " + table.name() + " (" + String.join(", ", columns) + ") VALUES (" +
+                        IntStream.range(0, columns.size()).mapToObj(i -> "?").collect(Collectors.joining(", ")) + ")";
+                int idColumn = columns.indexOf("id");
+
+                long rows = 0;
+                List<Object[]> batch = new ArrayList<>(restoreBatchSize);
+                for (Object[] row = reader.next(); row != null; row = reader.next()) {
+                    batch.add(row);
+                    if (batch.size() == restoreBatchSize) {
+                        rows += insertBatch(jdbcTemplate, table, insertSql, batch, idColumn, replaceExisting);
+                    }
+                }
+                rows += insertBatch(jdbcTemplate, table, insertSql, batch, idColumn, replaceExisting);
+                log.debug("Restored {} rows of {} for {} from {}", rows, table.name(), segment.period(), manifest.id());
+                return rows;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read segment " + path, e);
+            }
+        });
+    }
+
+    private int insertBatch(JdbcTemplate jdbcTemplate, BackupTable table, String insertSql, List<Object[]> batch,
+                            int idColumn, boolean replaceExisting) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        if (idColumn >= 0 && (replaceExisting || table.supersedes() != null)) {
+            List<Object> ids = batch.stream().map(row -> row[idColumn]).toList();
+            String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+            if (replaceExisting) {
+                jdbcTemplate.update("DELETE FROM " + table.name() + " WHERE id IN (" + placeholders + ")", ids.toArray());
+            }
+            if (table.supersedes() != null) {
+                jdbcTemplate.update("DELETE FROM " + table.supersedes() + " WHERE id IN (" + placeholders + ")", ids.toArray());
+            }
+        }
+        jdbcTemplate.batchUpdate(insertSql, batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    /**
+     * The backup and the runs it builds on, full run first
+     */
+    private List<BackupManifest> resolveChain(String backupId) {
+        List<BackupManifest> chain = new ArrayList<>();
+        String id = backupId;
+        while (id != null) {
+            Path manifest = root().resolve(id).resolve(MANIFEST_FILE);
+            if (!Files.isRegularFile(manifest)) {
+                throw new ResourceNotFoundException("Backup", "id", id);
+            }
+            BackupManifest run = readManifest(manifest);
+            chain.add(run);
+            id = run.baseBackupId();
+        }
+        Collections.reverse(chain);
+        return chain;
+    }
+
+    private void verifyChecksum(BackupManifest manifest, Segment segment) {
+        Path path = root().resolve(manifest.id()).resolve(segment.file());
+        try {
+            if (!Files.isRegularFile(path) || !BackupSegmentFile.sha256(path).equals(segment.sha256())) {
+                throw new BusinessException("Backup segment " + manifest.id() + "/" + segment.file() +
+                        " is missing or corrupt");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read segment " + path, e);
+        }
+    }
+
+    private List<Segment> segmentsOf(BackupManifest manifest, BackupTable table) {
+        return manifest.segments().stream()
+                .filter(segment -> segment.table().equals(table.name()))
+                .sorted(Comparator.comparing(Segment::period))
+                .toList();
+    }
+
+    private String changeFilter(BackupTable table, LocalDateTime changedSince) {
+        String changed = table.changeColumn();
+        return changedSince != null
+                ? changed + " >= ? AND " + changed + " < ?"
+                : "(" + changed + " < ? OR " + changed + " IS NULL)";
+    }
+
+    private Object[] changeArgs(LocalDateTime changedSince, LocalDateTime cutoff) {
+        return changedSince != null ? new Object[]{changedSince, cutoff} : new Object[]{cutoff};
+    }
+
+    private BackupManifest readManifest(Path file) {
+        try {
+            return MANIFEST_MAPPER.readValue(file.toFile(), BackupManifest.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read backup manifest " + file, e);
+        }
+    }
+
+    private void deleteQuietly(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Could not remove incomplete backup {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * A table in the backup: whole, or split by month on {@code partitionColumn} with changes
+     * detected through {@code changeColumn} (a column or expression)
+     */
+    private record BackupTable(String name, String partitionColumn, String changeColumn, String supersedes) {
+
+        static BackupTable whole(String name) {
+            return new BackupTable(name, null, null, null);
+        }
+
+        static BackupTable monthly(String name, String partitionColumn, String changeColumn, String supersedes) {
+            return new BackupTable(name, partitionColumn, changeColumn, supersedes);
+        }
+
+        boolean isWhole() {
+            return partitionColumn == null;
+        }
+    }
+
+    private record SegmentTask(BackupTable table, String period, LocalDate month) {
+    }
+}
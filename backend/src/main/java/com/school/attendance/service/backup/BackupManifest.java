@@ -0,0 +1,35 @@
+package com.school.attendance.service.backup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Manifest of one backup run, written last: a backup directory without a manifest is incomplete.
+ * An incremental run holds rows changed in [{@code changedSince}, {@code cutoff}) and names the run it
+ * builds on; restoring it replays the chain back to the last full run.
+ */
+public record BackupManifest(String id,
+                             Mode mode,
+                             String baseBackupId,
+                             LocalDateTime changedSince,
+                             LocalDateTime cutoff,
+                             List<Segment> segments) {
+
+    public enum Mode {
+        FULL, INCREMENTAL
+    }
+
+    /**
+     * One compressed segment: a table's rows for a month ({@code period} yyyy-MM), or the whole table ("all")
+     */
+    public record Segment(String table, String period, String file, long rows, long bytes, String sha256) {
+    }
+
+    public long totalRows() {
+        return segments.stream().mapToLong(Segment::rows).sum();
+    }
+
+    public long totalBytes() {
+        return segments.stream().mapToLong(Segment::bytes).sum();
+    }
+}
@@ -0,0 +1,225 @@
+package com.school.attendance.service.backup;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Segment file format: gzip-compressed JSON lines. The first line holds the column names and JDBC
+ * types, every following line one row as a JSON array. Dates and times are ISO strings and binary
+ * columns Base64, so segments load into MariaDB and H2 alike.
+ */
+final class BackupSegmentFile {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private BackupSegmentFile() {
+    }
+
+    /**
+     * SHA-256 of a file, as written to the manifest
+     */
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Writes rows from a result set; the checksum is computed over the compressed bytes as they are written
+     */
+    static final class Writer implements Closeable {
+
+        private final MessageDigest digest = newDigest();
+        private final BufferedWriter out;
+        private int[] types;
+        private long rows;
+
+        Writer(Path file) throws IOException {
+            Files.createDirectories(file.getParent());
+            out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                    new DigestOutputStream(Files.newOutputStream(file), digest), 64 * 1024), StandardCharsets.UTF_8));
+        }
+
+        void write(ResultSet rs) throws SQLException, IOException {
+            if (types == null) {
+                writeHeader(rs.getMetaData());
+            }
+            ArrayNode row = MAPPER.createArrayNode();
+            for (int i = 0; i < types.length; i++) {
+                row.add(MAPPER.valueToTree(encode(rs, i + 1, types[i])));
+            }
+            out.write(MAPPER.writeValueAsString(row));
+            out.newLine();
+            rows++;
+        }
+
+        long getRows() {
+            return rows;
+        }
+
+        /**
+         * Hex SHA-256 of the file; only valid after {@link #close()}
+         */
+        String getSha256() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void writeHeader(ResultSetMetaData metaData) throws SQLException, IOException {
+            int count = metaData.getColumnCount();
+            types = new int[count];
+            ObjectNode header = MAPPER.createObjectNode();
+            ArrayNode columns = header.putArray("columns");
+            ArrayNode columnTypes = header.putArray("types");
+            for (int i = 0; i < count; i++) {
+                types[i] = metaData.getColumnType(i + 1);
+                columns.add(metaData.getColumnName(i + 1).toLowerCase());
+                columnTypes.add(types[i]);
+            }
+            out.write(MAPPER.writeValueAsString(header));
+            out.newLine();
+        }
+
+        private static Object encode(ResultSet rs, int index, int type) throws SQLException {
+            Object value = switch (type) {
+                case Types.DATE -> rs.getObject(index, LocalDate.class);
+                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> rs.getObject(index, LocalDateTime.class);
+                case Types.TIME -> rs.getObject(index, LocalTime.class);
+                case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> rs.getBytes(index);
+                case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.CLOB, Types.NCLOB -> rs.getString(index);
+                default -> rs.getObject(index);
+            };
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof byte[] bytes) {
+                return Base64.getEncoder().encodeToString(bytes);
+            }
+            if (value instanceof LocalDate || value instanceof LocalDateTime || value instanceof LocalTime) {
+                return value.toString();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Reads a segment back as insert-ready rows
+     */
+    static final class Reader implements Closeable {
+
+        private final BufferedReader in;
+        private final List<String> columns = new ArrayList<>();
+        private final int[] types;
+
+        Reader(Path file) throws IOException {
+            in = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file), 64 * 1024),
+                    StandardCharsets.UTF_8));
+            JsonNode header = MAPPER.readTree(in.readLine());
+            header.get("columns").forEach(column -> columns.add(column.asText()));
+            JsonNode columnTypes = header.get("types");
+            types = new int[columnTypes.size()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = columnTypes.get(i).asInt();
+            }
+        }
+
+        List<String> getColumns() {
+            return columns;
+        }
+
+        /**
+         * Next row, or null at the end of the segment
+         */
+        Object[] next() throws IOException {
+            String line = in.readLine();
+            if (line == null) {
+                return null;
+            }
+            JsonNode row = MAPPER.readTree(line);
+            Object[] values = new Object[types.length];
+            for (int i = 0; i < types.length; i++) {
+                values[i] = decode(row.get(i), types[i]);
+            }
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private static Object decode(JsonNode value, int type) {
+            if (value == null || value.isNull()) {
+                return null;
+            }
+            return switch (type) {
+                case Types.DATE -> Date.valueOf(LocalDate.parse(value.asText()));
+                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> Timestamp.valueOf(LocalDateTime.parse(value.asText()));
+                // java.sql.Time would drop the fractional seconds
+                case Types.TIME -> LocalTime.parse(value.asText());
+                case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> Base64.getDecoder().decode(value.asText());
+                default -> {
+                    if (value.isBoolean()) {
+                        yield value.booleanValue();
+                    }
+                    if (value.isIntegralNumber()) {
+                        yield value.canConvertToLong() ? (Object) value.longValue() : value.bigIntegerValue();
+                    }
+                    if (value.isNumber()) {
+                        yield value.decimalValue();
+                    }
+                    yield value.asText();
+                }
+            };
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
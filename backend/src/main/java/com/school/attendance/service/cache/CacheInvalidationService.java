@@ -0,0 +1,44 @@
+package com.school.attendance.service.cache;
+
+import com.school.attendance.config.cache.CacheScope;
+import com.school.attendance.config.cache.LayeredCacheManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+
+/**
+ * Cache Invalidation Service
+ * Evicts only the cached entries a change affects, by school, class, student and/or date,
+ * instead of clearing whole caches for every school.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationService {
+
+    private final LayeredCacheManager cacheManager;
+
+    /**
+     * Evict the entries in scope from the given caches (all caches when none are given).
+     * Inside a transaction the eviction is repeated once it completes, so a concurrent
+     * reload cannot cache the data as it was before the change.
+     */
+    public int evict(CacheScope scope, String... cacheNames) {
+        int evicted = cacheManager.evict(scope, cacheNames);
+        log.debug("Evicted {} cache entries for {} from {}", evicted, scope,
+                cacheNames.length > 0 ? Arrays.toString(cacheNames) : "all caches");
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cacheManager.evict(scope, cacheNames);
+                }
+            });
+        }
+        return evicted;
+    }
+}
@@ -0,0 +1,34 @@
+package com.school.attendance.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Cache Statistics Endpoint
+ * /actuator/cachestats lists every application cache; /actuator/cachestats/{name} one cache
+ */
+@Component
+@Endpoint(id = "cachestats")
+@RequiredArgsConstructor
+public class CacheStatisticsEndpoint {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> caches() {
+        return cacheStatisticsService.getStatistics();
+    }
+
+    @ReadOperation
+    @Nullable
+    public Map<String, Object> cache(@Selector String name) {
+        // null answers 404 for an unknown cache
+        return cacheStatisticsService.getCacheNames().contains(name) ? cacheStatisticsService.getStatistics(name) : null;
+    }
+}
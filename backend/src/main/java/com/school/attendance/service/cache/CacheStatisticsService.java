@@ -0,0 +1,128 @@
+package com.school.attendance.service.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.school.attendance.config.cache.CacheFootprint;
+import com.school.attendance.config.cache.CacheStatistics;
+import com.school.attendance.config.cache.LayeredCache;
+import com.school.attendance.config.cache.LayeredCacheManager;
+import com.school.attendance.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Cache Statistics Service
+ * Per-cache and per-key-prefix statistics of the application caches: requests by the tier that
+ * answered, load times, invalidations, size/expiry evictions, entry counts and approximate
+ * memory. The same figures are published to Micrometer by the cache manager.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheStatisticsService {
+
+    private final LayeredCacheManager cacheManager;
+
+    public Set<String> getCacheNames() {
+        return new TreeSet<>(cacheManager.getCacheNames());
+    }
+
+    /**
+     * Statistics of every cache, by cache name
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (String name : getCacheNames()) {
+            result.put(name, getStatistics(name));
+        }
+        return result;
+    }
+
+    /**
+     * Statistics of one cache, with a breakdown per key prefix
+     */
+    public Map<String, Object> getStatistics(String cacheName) {
+        if (!getCacheNames().contains(cacheName)) {
+            throw new ResourceNotFoundException("Cache", "name", cacheName);
+        }
+        LayeredCache cache = cacheManager.getCache(cacheName);
+        CacheStats local = cache.getNativeCache().stats();
+        Map<String, CacheFootprint.PrefixFootprint> footprint = cache.footprint();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", cache.getNativeCache().estimatedSize());
+        stats.put("maxEntries", cache.getNativeCache().policy().eviction()
+                .map(eviction -> eviction.getMaximum()).orElse(null));
+        stats.put("estimatedBytes", CacheFootprint.estimatedBytes(footprint));
+        stats.put("shared", cache.getShared() != null);
+        stats.put("localHitRate", round(local.hitRate()));
+        stats.put("evictions", local.evictionCount());
+        stats.put("loadsInFlight", cache.getLoads().inFlight());
+        stats.put("coalescedLoads", cache.getLoads().getCoalesced());
+        stats.put("refreshes", cache.getRefreshes());
+
+        Map<String, Map<String, Object>> prefixes = new LinkedHashMap<>();
+        Map<String, CacheStatistics.PrefixSnapshot> counts = cache.getStatistics().snapshot();
+        TreeSet<String> names = new TreeSet<>(counts.keySet());
+        names.addAll(footprint.keySet());
+        for (String prefix : names) {
+            Map<String, Object> prefixStats = new LinkedHashMap<>();
+            CacheFootprint.PrefixFootprint size = footprint.get(prefix);
+            prefixStats.put("entries", size != null ? size.entries() : 0);
+            prefixStats.put("estimatedBytes", size != null ? size.estimatedBytes() : 0);
+            CacheStatistics.PrefixSnapshot snapshot = counts.get(prefix);
+            if (snapshot != null) {
+                prefixStats.put("localHits", snapshot.localHits());
+                prefixStats.put("sharedHits", snapshot.sharedHits());
+                prefixStats.put("misses", snapshot.misses());
+                prefixStats.put("hitRatio", snapshot.hitRatio());
+                prefixStats.put("loads", snapshot.loads());
+                prefixStats.put("loadFailures", snapshot.loadFailures());
+                prefixStats.put("meanLoadMs", snapshot.meanLoadMs());
+                prefixStats.put("maxLoadMs", snapshot.maxLoadMs());
+                prefixStats.put("invalidations", snapshot.invalidations());
+            }
+            prefixes.put(prefix, prefixStats);
+        }
+        stats.put("prefixes", prefixes);
+        return stats;
+    }
+
+    /**
+     * Periodically log a summary line per cache and per prefix
+     */
+    @Scheduled(fixedDelayString = "${app.cache.stats-log-interval-ms:300000}")
+    public void logCacheStats() {
+        logCacheStats(getCacheNames().toArray(String[]::new));
+    }
+
+    /**
+     * Log a summary line for each of the given caches and their prefixes
+     */
+    public void logCacheStats(String... cacheNames) {
+        for (String name : cacheNames) {
+            LayeredCache cache = cacheManager.getCache(name);
+            CacheStats local = cache.getNativeCache().stats();
+            log.info("Cache {}: entries={}, ~{} KB, localHitRate={}, evictions={}, coalescedLoads={}, refreshes={}",
+                    name, cache.getNativeCache().estimatedSize(), cache.estimatedBytes() / 1024,
+                    round(local.hitRate()), local.evictionCount(), cache.getLoads().getCoalesced(),
+                    cache.getRefreshes());
+            cache.getStatistics().snapshot().forEach((prefix, snapshot) ->
+                    log.info("Cache {} {}: hitRatio={}, misses={}, loads={} (mean {} ms, max {} ms), invalidations={}",
+                            name, prefix, snapshot.hitRatio(), snapshot.misses(), snapshot.loads(),
+                            snapshot.meanLoadMs(), snapshot.maxLoadMs(), snapshot.invalidations()));
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static double round(double ratio) {
+        return Math.round(ratio * 10000.0) / 10000.0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.school.attendance.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache Warm-Up Health
+ * Out of service until the startup warm-up has loaded the critical caches; part of the
+ * readiness group, so instances only receive traffic once their dashboards are warm
+ */
+@Component("cacheWarmUp")
+@ConditionalOnProperty(name = "app.cache.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CacheWarmUpHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmUpService cacheWarmUpService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = cacheWarmUpService.isCriticalWarm() ? Health.up() : Health.outOfService();
+        return builder.withDetail("pendingSchools", cacheWarmUpService.getPendingSchools()).build();
+    }
+}
@@ -0,0 +1,311 @@
+package com.school.attendance.service.cache;
+
+import com.school.attendance.config.sharding.TenantContext;
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.repository.SchoolRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Cache Warm-Up Service
+ * Fills each school's caches at startup and again every morning at app.cache.warm-up.local-time
+ * in the school's own time zone. All schools are warmed together; every load is its own task on a
+ * pool of db-concurrency threads, so at most that many warm-up queries reach the database at once.
+ * Loads go through the cached services' proxies, so their results land in the caches, and run
+ * bound to their school so they query its shard. A school counts as warmed for the day only when
+ * all its loads succeeded; one that failed is tried again at the next check.
+ * The readiness probe stays out of service until the startup run has loaded every school's
+ * critical entries (today's dashboard summary and the list of standards).
+ */
+@Service
+@ConditionalOnProperty(name = "app.cache.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class CacheWarmUpService {
+
+    // Absent when the application runs without a database
+    private final Optional<SchoolRepository> schoolRepository;
+    private final Optional<CachedStudentService> studentCaches;
+    private final Optional<CachedAttendanceService> attendanceCaches;
+    private final TenantJobs tenantJobs;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor executor;
+    private final LocalTime warmUpAt;
+    private final ZoneId defaultZone;
+    private final Duration readinessTimeout;
+
+    // Local date each school was last warmed for its school day
+    private final Map<Long, LocalDate> warmedOn = new ConcurrentHashMap<>();
+    private final Set<Long> warming = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pendingSchools = new AtomicInteger();
+    private final Counter warmedSchools;
+    private final Counter failedSchools;
+    private final Timer schoolDuration;
+    private volatile boolean criticalWarm;
+
+    public CacheWarmUpService(Optional<SchoolRepository> schoolRepository,
+                              Optional<CachedStudentService> studentCaches,
+                              Optional<CachedAttendanceService> attendanceCaches,
+                              TenantJobs tenantJobs,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.warm-up.local-time:06:30}") String warmUpAt,
+                              @Value("${app.cache.warm-up.default-time-zone:Asia/Kolkata}") String defaultZone,
+                              @Value("${app.cache.warm-up.db-concurrency:4}") int dbConcurrency,
+                              @Value("${app.cache.warm-up.readiness-timeout:2m}") Duration readinessTimeout) {
+        this.schoolRepository = schoolRepository;
+        this.studentCaches = studentCaches;
+        this.attendanceCaches = attendanceCaches;
+        this.tenantJobs = tenantJobs;
+        this.meterRegistry = meterRegistry;
+        this.warmUpAt = LocalTime.parse(warmUpAt);
+        this.defaultZone = ZoneId.of(defaultZone);
+        this.readinessTimeout = readinessTimeout;
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(dbConcurrency);
+        executor.setMaxPoolSize(dbConcurrency);
+        executor.setThreadNamePrefix("Cache-WarmUp-");
+        executor.setDaemon(true);
+        executor.initialize();
+
+        Gauge.builder("cache.warmup.schools.pending", pendingSchools, AtomicInteger::get)
+                .description("Schools whose warm-up is still running")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.critical.ready", this, service -> service.criticalWarm ? 1 : 0)
+                .description("1 once the startup run has loaded every school's critical entries")
+                .register(meterRegistry);
+        warmedSchools = Counter.builder("cache.warmup.schools").tag("outcome", "warmed").register(meterRegistry);
+        failedSchools = Counter.builder("cache.warmup.schools").tag("outcome", "failed").register(meterRegistry);
+        schoolDuration = Timer.builder("cache.warmup.school.duration")
+                .description("Time to warm all caches of one school")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Warm every school once the application has started; readiness waits for the critical entries
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        warmUpAll("startup");
+    }
+
+    /**
+     * Warm the schools whose school day is about to start and that are not warmed for it yet
+     */
+    @Scheduled(cron = "${app.cache.warm-up.check-cron:0 */5 * * * *}")
+    public void warmUpBeforeSchoolDay() {
+        warmUpDueSchools(Instant.now());
+    }
+
+    /**
+     * Warm all schools; the returned future completes when every load has finished
+     */
+    public CompletableFuture<Void> warmUpAll(String trigger) {
+        Instant now = Instant.now();
+        CompletableFuture<WarmUpRun> run = CompletableFuture
+                .supplyAsync(this::loadSchoolZones, executor)
+                .thenApply(schools -> {
+                    schools.keySet().removeIf(schoolId -> !warming.add(schoolId));
+                    return warmUp(schools, now, trigger);
+                });
+
+        run.thenCompose(WarmUpRun::critical)
+                .orTimeout(readinessTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        log.warn("Critical caches not fully warmed ({}), accepting traffic anyway",
+                                error.getMessage());
+                    }
+                    criticalWarm = true;
+                });
+        return run.thenCompose(WarmUpRun::all);
+    }
+
+    /**
+     * Warm the schools whose local time at the given instant is past the warm-up time, which have
+     * not been warmed for their local date yet and are not being warmed right now
+     */
+    public CompletableFuture<Void> warmUpDueSchools(Instant now) {
+        Map<Long, ZoneId> due = new ConcurrentHashMap<>();
+        loadSchoolZones().forEach((schoolId, zone) -> {
+            ZonedDateTime local = now.atZone(zone);
+            LocalDate today = local.toLocalDate();
+            if (!local.toLocalTime().isBefore(warmUpAt) && !today.equals(warmedOn.get(schoolId))
+                    && warming.add(schoolId)) {
+                due.put(schoolId, zone);
+            }
+        });
+        if (due.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return warmUp(due, now, "schedule").all();
+    }
+
+    /**
+     * True once the startup run has loaded the critical entries (or given up waiting for them)
+     */
+    public boolean isCriticalWarm() {
+        return criticalWarm;
+    }
+
+    public int getPendingSchools() {
+        return pendingSchools.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private WarmUpRun warmUp(Map<Long, ZoneId> schools, Instant now, String trigger) {
+        CachedStudentService students = studentCaches.orElse(null);
+        CachedAttendanceService attendance = attendanceCaches.orElse(null);
+        if (schools.isEmpty() || (students == null && attendance == null)) {
+            warming.removeAll(schools.keySet());
+            log.info("No schools or cached services to warm, skipping cache warm-up ({})", trigger);
+            return new WarmUpRun(CompletableFuture.completedFuture(null), CompletableFuture.completedFuture(null));
+        }
+
+        log.info("Warming caches for {} schools ({})", schools.size(), trigger);
+        long started = System.nanoTime();
+        AtomicInteger failed = new AtomicInteger();
+        pendingSchools.addAndGet(schools.size());
+
+        List<CompletableFuture<Void>> critical = new ArrayList<>();
+        List<CompletableFuture<Void>> all = new ArrayList<>();
+        schools.forEach((schoolId, zone) -> {
+            long schoolStarted = System.nanoTime();
+            SchoolWarmUp school = warmUpSchool(schoolId, now.atZone(zone).toLocalDate(), students, attendance);
+            critical.add(school.critical().exceptionally(error -> null));
+            all.add(school.all().handle((ignored, error) -> {
+                schoolDuration.record(System.nanoTime() - schoolStarted, TimeUnit.NANOSECONDS);
+                pendingSchools.decrementAndGet();
+                if (error != null) {
+                    failed.incrementAndGet();
+                    failedSchools.increment();
+                    log.warn("Cache warm-up failed for school {}: {}", schoolId, error.getMessage());
+                } else {
+                    warmedSchools.increment();
+                    // A run after the warm-up time covers the day's scheduled run
+                    ZonedDateTime local = now.atZone(zone);
+                    if (!local.toLocalTime().isBefore(warmUpAt)) {
+                        warmedOn.put(schoolId, local.toLocalDate());
+                    }
+                }
+                warming.remove(schoolId);
+                return null;
+            }));
+        });
+
+        CompletableFuture<Void> done = allOf(all).whenComplete((ignored, error) -> {
+            long elapsed = System.nanoTime() - started;
+            Timer.builder("cache.warmup.run.duration")
+                    .description("Time to warm all due schools")
+                    .tag("trigger", trigger)
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Cache warm-up ({}) finished for {} schools, {} failed, in {} ms", trigger, schools.size(),
+                    failed.get(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        });
+        return new WarmUpRun(allOf(critical), done);
+    }
+
+    /**
+     * Critical: the list of standards and today's dashboard summary. The rest: sections and
+     * student counts of every class, the month overview and month-to-date class statistics.
+     */
+    private SchoolWarmUp warmUpSchool(Long schoolId, LocalDate today, CachedStudentService students,
+                                      CachedAttendanceService attendance) {
+        List<CompletableFuture<?>> critical = new ArrayList<>();
+        List<CompletableFuture<?>> rest = new ArrayList<>();
+        if (students != null) {
+            CompletableFuture<List<String>> standards = load(schoolId, () -> students.getStandardsBySchool(schoolId));
+            critical.add(standards);
+            rest.add(standards.thenCompose(list -> allOf(list.stream()
+                    .map(standard -> load(schoolId, () -> students.getSectionsByStandard(schoolId, standard))
+                            .thenCompose(sections -> allOf(sections.stream()
+                                    .map(section -> load(schoolId, () ->
+                                            students.getStudentCountByClass(schoolId, standard, section)))
+                                    .toList())))
+                    .toList())));
+        }
+        if (attendance != null) {
+            critical.add(load(schoolId, () -> attendance.getDailyAttendanceSummaryByClass(today, schoolId)));
+            rest.add(load(schoolId, () -> attendance.getMonthlyAttendanceOverview(schoolId, today.getYear(),
+                    today.getMonthValue())));
+            rest.add(load(schoolId, () -> attendance.getClassAttendanceStatistics(schoolId, today.withDayOfMonth(1), today)));
+        }
+        CompletableFuture<Void> criticalDone = allOf(critical);
+        rest.add(criticalDone);
+        return new SchoolWarmUp(criticalDone, allOf(rest));
+    }
+
+    private <T> CompletableFuture<T> load(Long schoolId, Supplier<T> loader) {
+        return CompletableFuture.supplyAsync(() -> TenantContext.callForSchool(schoolId, loader), executor);
+    }
+
+    private Map<Long, ZoneId> loadSchoolZones() {
+        Map<Long, ZoneId> zones = new ConcurrentHashMap<>();
+        if (schoolRepository.isEmpty()) {
+            return zones;
+        }
+        SchoolRepository repository = schoolRepository.get();
+        List<Object[]> rows = tenantJobs.schoolRows(repository::findIdsAndTimeZones, row -> (Long) row[0]);
+        for (Object[] row : rows) {
+            zones.put((Long) row[0], zoneOf((Long) row[0], (String) row[1]));
+        }
+        return zones;
+    }
+
+    private ZoneId zoneOf(Long schoolId, String timeZone) {
+        if (timeZone == null || timeZone.isBlank()) {
+            return defaultZone;
+        }
+        try {
+            return ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            log.warn("School {} has an invalid time zone '{}', using {}", schoolId, timeZone, defaultZone);
+            return defaultZone;
+        }
+    }
+
+    private static CompletableFuture<Void> allOf(List<? extends CompletableFuture<?>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    private record SchoolWarmUp(CompletableFuture<Void> critical, CompletableFuture<Void> all) {
+    }
+
+    private record WarmUpRun(CompletableFuture<Void> critical, CompletableFuture<Void> all) {
+    }
+}
@@ -1,9 +1,17 @@
 package com.school.attendance.service.cache;
 
+import com.school.attendance.config.cache.CacheScope;
 import com.school.attendance.entity.AttendanceRecord;
-import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.Student;
+import com.school.attendance.exception.ResourceNotFoundException;
 import com.school.attendance.repository.AttendanceRecordRepository;
+import com.school.attendance.repository.StudentRepository;
+import com.school.attendance.repository.analytics.AttendanceAnalyticsRepository;
+import com.school.attendance.repository.analytics.AttendanceSeriesPoint;
 import com.school.attendance.repository.specification.AttendanceSpecifications;
+import com.school.attendance.service.SchoolClassService;
+import com.school.attendance.service.cache.snapshot.AttendanceRow;
+import com.school.attendance.service.calendar.SchoolCalendarService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -29,12 +37,17 @@ import java.util.stream.Collectors;
 public class CachedAttendanceService {
 
     private final AttendanceRecordRepository attendanceRecordRepository;
+    private final AttendanceAnalyticsRepository attendanceAnalyticsRepository;
+    private final StudentRepository studentRepository;
+    private final SchoolCalendarService schoolCalendarService;
+    private final SchoolClassService schoolClassService;
+    private final CacheInvalidationService cacheInvalidationService;
 
     /**
      * Get daily attendance summary by class with caching
      */
     @Cacheable(value = "dashboardAnalytics", 
-               key = "'dailySummary:' + #date + ':school:' + #schoolId")
+               key = "'dailySummary:date:' + #date + ':school:' + #schoolId", sync = true)
     public List<Map<String, Object>> getDailyAttendanceSummaryByClass(LocalDate date, Long schoolId) {
         log.debug("Fetching daily attendance summary for date: {} school: {} (cache miss)", date, schoolId);
         
@@ -42,7 +55,8 @@ public class CachedAttendanceService {
         
         return results.stream().map(row -> {
             Map<String, Object> summary = new HashMap<>();
-            summary.put("className", row[0]);
+            summary.put("classId", row[0]);
+            summary.put("className", schoolClassService.getDisplayName((Integer) row[0]));
             summary.put("totalRecords", row[1]);
             summary.put("presentCount", row[2]);
             summary.put("absentCount", row[3]);
@@ -92,43 +106,45 @@ public class CachedAttendanceService {
         log.debug("Fetching attendance summary for student: {} from {} to {} (cache miss)", 
                 studentId, startDate, endDate);
         
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Student", "id", studentId));
         Object[] result = attendanceRecordRepository.getStudentAttendancePercentage(studentId, startDate, endDate);
-        
+        long markedDays = result != null && result.length >= 2 && result[0] != null ? (Long) result[0] : 0;
+        long presentDays = result != null && result.length >= 2 && result[1] != null ? (Long) result[1] : 0;
+
+        // Every working day of the class counts, marked or not; days still ahead do not
+        LocalDate lastDay = endDate.isAfter(LocalDate.now()) ? LocalDate.now() : endDate;
+        long totalDays = schoolCalendarService.countWorkingDays(student.getSchool().getId(),
+                student.getStandard(), student.getSection(), startDate, lastDay);
+        totalDays = Math.max(totalDays, markedDays);
+
         Map<String, Object> summary = new HashMap<>();
-        if (result != null && result.length >= 2) {
-            long totalDays = (Long) result[0];
-            long presentDays = (Long) result[1];
-            long absentDays = totalDays - presentDays;
-            
-            summary.put("totalDays", totalDays);
-            summary.put("presentDays", presentDays);
-            summary.put("absentDays", absentDays);
-            summary.put("attendancePercentage", totalDays > 0 ? (presentDays * 100.0) / totalDays : 0.0);
-        } else {
-            summary.put("totalDays", 0);
-            summary.put("presentDays", 0);
-            summary.put("absentDays", 0);
-            summary.put("attendancePercentage", 0.0);
-        }
+        summary.put("totalDays", totalDays);
+        summary.put("markedDays", markedDays);
+        summary.put("presentDays", presentDays);
+        summary.put("absentDays", totalDays - presentDays);
+        summary.put("attendancePercentage", totalDays > 0 ? (presentDays * 100.0) / totalDays : 0.0);
         
         return summary;
     }
 
     /**
-     * Get attendance for a specific date with optimized query and caching
+     * Get attendance for a specific date with optimized query and caching; cached as flat rows, not entities
      */
     @Cacheable(value = "attendanceSummaries", 
-               key = "'date:' + #date + ':school:' + #schoolId")
-    public List<AttendanceRecord> getAttendanceByDate(LocalDate date, Long schoolId) {
+               key = "'date:' + #date + ':school:' + #schoolId", sync = true)
+    public List<AttendanceRow> getAttendanceByDate(LocalDate date, Long schoolId) {
         log.debug("Fetching attendance for date: {} school: {} (cache miss)", date, schoolId);
-        return attendanceRecordRepository.findByDateWithStudentAndTeacher(date);
+        return attendanceRecordRepository.findByDateWithStudentAndTeacher(date).stream()
+                .map(AttendanceRow::of)
+                .collect(Collectors.toList());
     }
 
     /**
      * Get monthly attendance overview with caching
      */
     @Cacheable(value = "attendancePatterns", 
-               key = "'monthly:school:' + #schoolId + ':year:' + #year + ':month:' + #month")
+               key = "'monthly:school:' + #schoolId + ':year:' + #year + ':month:' + #month", sync = true)
     public Map<String, Object> getMonthlyAttendanceOverview(Long schoolId, int year, int month) {
         log.debug("Fetching monthly attendance overview for school: {} year: {} month: {} (cache miss)", 
                 schoolId, year, month);
@@ -136,22 +152,19 @@ public class CachedAttendanceService {
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.plusMonths(1).minusDays(1);
         
-        // Get attendance data using specifications
-        Specification<AttendanceRecord> spec = AttendanceSpecifications.hasDateBetween(startDate, endDate)
-                .and(AttendanceSpecifications.withStudentAndTeacher());
-        
-        List<AttendanceRecord> records = attendanceRecordRepository.findAll(spec);
+        // The previous month is included so the database can compute the month-over-month change
+        AttendanceSeriesPoint point = attendanceAnalyticsRepository
+                .getMonthlySeries(schoolId, startDate.minusMonths(1), endDate).stream()
+                .filter(p -> p.period().equals(startDate))
+                .findFirst()
+                .orElse(null);
         
         Map<String, Object> overview = new HashMap<>();
         
-        // Calculate overall stats
-        long totalRecords = records.size();
-        long presentCount = records.stream().mapToLong(r -> 
-            r.getStatus() == AttendanceStatus.PRESENT ? 1 : 0).sum();
-        long absentCount = records.stream().mapToLong(r -> 
-            r.getStatus() == AttendanceStatus.ABSENT ? 1 : 0).sum();
-        long lateCount = records.stream().mapToLong(r -> 
-            r.getStatus() == AttendanceStatus.LATE ? 1 : 0).sum();
+        long totalRecords = point != null ? point.total() : 0;
+        long presentCount = point != null ? point.present() : 0;
+        long absentCount = point != null ? point.absent() : 0;
+        long lateCount = point != null ? point.late() : 0;
         
         overview.put("totalRecords", totalRecords);
         overview.put("presentCount", presentCount);
@@ -160,15 +173,18 @@ public class CachedAttendanceService {
         overview.put("presentPercentage", totalRecords > 0 ? (presentCount * 100.0) / totalRecords : 0.0);
         overview.put("absentPercentage", totalRecords > 0 ? (absentCount * 100.0) / totalRecords : 0.0);
         overview.put("latePercentage", totalRecords > 0 ? (lateCount * 100.0) / totalRecords : 0.0);
+        overview.put("attendanceRate", point != null ? point.attendanceRate() : 0.0);
+        overview.put("previousMonthAttendanceRate", point != null ? point.previousAttendanceRate() : null);
+        overview.put("monthOverMonthChange", point != null ? point.rateChange() : null);
         
         return overview;
     }
 
     /**
-     * Get attendance statistics by class with caching
+     * Get attendance statistics by class with caching; concurrent misses share one computation
      */
     @Cacheable(value = "attendancePatterns", 
-               key = "'classStats:school:' + #schoolId + ':from:' + #startDate + ':to:' + #endDate")
+               key = "'classStats:school:' + #schoolId + ':from:' + #startDate + ':to:' + #endDate", sync = true)
     public List<Map<String, Object>> getClassAttendanceStatistics(Long schoolId, LocalDate startDate, LocalDate endDate) {
         log.debug("Fetching class attendance statistics for school: {} from {} to {} (cache miss)", 
                 schoolId, startDate, endDate);
@@ -180,15 +196,16 @@ public class CachedAttendanceService {
         
         List<AttendanceRecord> records = attendanceRecordRepository.findAll(spec);
         
-        // Group by class and calculate statistics
-        Map<String, Map<String, Object>> classStats = new HashMap<>();
+        // Group by the integer class id (read from the student row, the class is not loaded)
+        Map<Integer, Map<String, Object>> classStats = new HashMap<>();
         
         for (AttendanceRecord record : records) {
-            String className = record.getStudent().getStandard() + "-" + record.getStudent().getSection();
+            Integer classId = record.getStudent().getSchoolClass().getId();
             
-            classStats.computeIfAbsent(className, k -> {
+            classStats.computeIfAbsent(classId, k -> {
                 Map<String, Object> stats = new HashMap<>();
-                stats.put("className", className);
+                stats.put("classId", classId);
+                stats.put("className", schoolClassService.getDisplayName(classId));
                 stats.put("totalRecords", 0L);
                 stats.put("presentCount", 0L);
                 stats.put("absentCount", 0L);
@@ -196,7 +213,7 @@ public class CachedAttendanceService {
                 return stats;
             });
             
-            Map<String, Object> stats = classStats.get(className);
+            Map<String, Object> stats = classStats.get(classId);
             stats.put("totalRecords", (Long) stats.get("totalRecords") + 1);
             
             switch (record.getStatus()) {
@@ -247,40 +264,37 @@ public class CachedAttendanceService {
         log.info("Invalidating all attendance caches due to data changes");
     }
 
+    /**
+     * Clear the attendance caches in scope (school, class, student and/or date)
+     */
+    public void invalidate(CacheScope scope) {
+        log.info("Invalidating attendance caches for {}", scope);
+        cacheInvalidationService.evict(scope, "attendanceSummaries", "dashboardAnalytics", "attendancePatterns");
+    }
+
+    /**
+     * Clear caches affected by one student's attendance on a date: the student's summaries and
+     * trends, and the school's views covering that date
+     */
+    public void invalidateAttendanceMark(Long schoolId, Long studentId, LocalDate date) {
+        invalidate(CacheScope.student(studentId));
+        invalidate(CacheScope.school(schoolId).on(date));
+    }
+
     /**
      * Clear caches for a specific date
      */
-    @CacheEvict(value = {"attendanceSummaries", "dashboardAnalytics"}, allEntries = true)
     public void invalidateDateCache(LocalDate date) {
         log.info("Invalidating attendance caches for date: {}", date);
+        cacheInvalidationService.evict(CacheScope.date(date), "attendanceSummaries", "dashboardAnalytics");
     }
 
     /**
      * Clear caches for a specific student
      */
-    @CacheEvict(value = {"attendanceSummaries", "attendancePatterns"}, allEntries = true)
     public void invalidateStudentCache(Long studentId) {
         log.info("Invalidating attendance caches for student: {}", studentId);
+        cacheInvalidationService.evict(CacheScope.student(studentId), "attendanceSummaries", "attendancePatterns");
     }
 
-    /**
-     * Warm up frequently accessed caches
-     */
-    public void warmUpAttendanceCaches(Long schoolId) {
-        log.info("Warming up attendance caches for school: {}", schoolId);
-        
-        LocalDate today = LocalDate.now();
-        LocalDate startOfMonth = today.withDayOfMonth(1);
-        
-        // Warm up today's attendance
-        this.getDailyAttendanceSummaryByClass(today, schoolId);
-        
-        // Warm up current month overview
-        this.getMonthlyAttendanceOverview(schoolId, today.getYear(), today.getMonthValue());
-        
-        // Warm up class statistics for current month
-        this.getClassAttendanceStatistics(schoolId, startOfMonth, today);
-        
-        log.info("Attendance cache warm-up completed for school: {}", schoolId);
-    }
 }
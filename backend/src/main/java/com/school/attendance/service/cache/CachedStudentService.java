@@ -1,24 +1,29 @@
 package com.school.attendance.service.cache;
 
+import com.school.attendance.config.cache.CacheScope;
 import com.school.attendance.entity.Student;
+import com.school.attendance.exception.BusinessException;
 import com.school.attendance.repository.StudentRepository;
+import com.school.attendance.service.cache.snapshot.StudentCard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Cached Student Service for High-Performance Data Access
- * Implements intelligent caching strategies for frequently accessed student data
+ * Implements intelligent caching strategies for frequently accessed student data; students are
+ * cached as StudentCard snapshots, never as entities
  */
 //@Service
 @RequiredArgsConstructor
@@ -27,23 +32,27 @@ import java.util.Optional;
 public class CachedStudentService {
 
     private final StudentRepository studentRepository;
+    private final SecondLevelCacheService secondLevelCacheService;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final CacheStatisticsService cacheStatisticsService;
+    private final Optional<ExistenceFilterService> existenceFilters;
 
     /**
      * Get student by ID with caching
      */
-    @Cacheable(value = "studentProfiles", key = "#studentId", unless = "#result == null")
-    public Optional<Student> getStudentById(Long studentId) {
+    @Cacheable(value = "studentProfiles", key = "'student:' + #studentId", unless = "#result == null")
+    public Optional<StudentCard> getStudentById(Long studentId) {
         log.debug("Fetching student by ID: {} (cache miss)", studentId);
-        return studentRepository.findById(studentId);
+        return studentRepository.findById(studentId).map(StudentCard::of);
     }
 
     /**
      * Get student by GR number with caching
      */
-    @Cacheable(value = "studentProfiles", key = "'grNo:' + #grNo + ':school:' + #schoolId", unless = "#result.isEmpty()")
-    public Optional<Student> getStudentByGrNo(String grNo, Long schoolId) {
+    @Cacheable(value = "studentProfiles", key = "'grNo:' + #grNo + ':school:' + #schoolId", unless = "#result == null")
+    public Optional<StudentCard> getStudentByGrNo(String grNo, Long schoolId) {
         log.debug("Fetching student by GR No: {} for school: {} (cache miss)", grNo, schoolId);
-        return studentRepository.findByGrNoAndSchoolId(grNo, schoolId);
+        return studentRepository.findByGrNoAndSchoolId(grNo, schoolId).map(StudentCard::of);
     }
 
     /**
@@ -51,9 +60,20 @@ public class CachedStudentService {
      */
     @Cacheable(value = "classInformation", 
                key = "'students:school:' + #schoolId + ':standard:' + #standard + ':section:' + #section + ':page:' + #pageable.pageNumber + ':size:' + #pageable.pageSize")
-    public Page<Student> getStudentsByClass(Long schoolId, String standard, String section, Pageable pageable) {
+    public Page<StudentCard> getStudentsByClass(Long schoolId, String standard, String section, Pageable pageable) {
         log.debug("Fetching students for class {} {} with pagination (cache miss)", standard, section);
-        return studentRepository.findBySchoolIdAndStandardAndSectionAndIsActiveTrue(schoolId, standard, section, pageable);
+        return studentRepository.findBySchoolIdAndStandardAndSectionAndIsActiveTrue(schoolId, standard, section, pageable)
+                .map(StudentCard::of);
+    }
+
+    /**
+     * Get students of a class by its integer id with caching and pagination
+     */
+    @Cacheable(value = "classInformation", 
+               key = "'students:class:' + #classId + ':page:' + #pageable.pageNumber + ':size:' + #pageable.pageSize")
+    public Page<StudentCard> getStudentsByClassId(Integer classId, Pageable pageable) {
+        log.debug("Fetching students for class {} with pagination (cache miss)", classId);
+        return studentRepository.findByClassIdAndIsActiveTrue(classId, pageable).map(StudentCard::of);
     }
 
     /**
@@ -61,9 +81,11 @@ public class CachedStudentService {
      */
     @Cacheable(value = "schoolConfiguration", 
                key = "'activeStudents:school:' + #schoolId")
-    public List<Student> getActiveStudentsBySchool(Long schoolId) {
+    public List<StudentCard> getActiveStudentsBySchool(Long schoolId) {
         log.debug("Fetching all active students for school: {} (cache miss)", schoolId);
-        return studentRepository.findBySchoolIdAndIsActiveTrueOrderByStandardAscSectionAscRollNoAsc(schoolId);
+        return studentRepository.findBySchoolIdAndIsActiveTrueOrderByStandardAscSectionAscRollNoAsc(schoolId).stream()
+                .map(StudentCard::of)
+                .toList();
     }
 
     /**
@@ -71,9 +93,9 @@ public class CachedStudentService {
      */
     @Cacheable(value = "studentProfiles", 
                key = "'search:school:' + #schoolId + ':name:' + #searchTerm + ':page:' + #pageable.pageNumber")
-    public Page<Student> searchStudentsByName(Long schoolId, String searchTerm, Pageable pageable) {
+    public Page<StudentCard> searchStudentsByName(Long schoolId, String searchTerm, Pageable pageable) {
         log.debug("Searching students by name: {} (cache miss)", searchTerm);
-        return studentRepository.searchByName(schoolId, searchTerm, pageable);
+        return studentRepository.searchByName(schoolId, searchTerm, pageable).map(StudentCard::of);
     }
 
     /**
@@ -86,6 +108,15 @@ public class CachedStudentService {
         return studentRepository.countBySchoolIdAndStandardAndSectionAndIsActiveTrue(schoolId, standard, section);
     }
 
+    /**
+     * Get student count of a class by its integer id with caching
+     */
+    @Cacheable(value = "classInformation", key = "'count:class:' + #classId")
+    public long getStudentCountByClassId(Integer classId) {
+        log.debug("Getting student count for class {} (cache miss)", classId);
+        return studentRepository.countByClassIdAndIsActiveTrue(classId);
+    }
+
     /**
      * Get all standards in school with caching
      */
@@ -109,24 +140,32 @@ public class CachedStudentService {
     // ========== CACHE INVALIDATION METHODS ==========
 
     /**
-     * Update student and refresh cache
+     * Update student and evict its cached card; listings of the student's old and new class/school are evicted
      */
     @Transactional
-    @CachePut(value = "studentProfiles", key = "#result.id")
-    @CacheEvict(value = {"classInformation", "schoolConfiguration"}, allEntries = true)
+    @CacheEvict(value = "studentProfiles", key = "'student:' + #student.id")
     public Student updateStudent(Student student) {
-        log.info("Updating student: {} and refreshing cache", student.getId());
-        return studentRepository.save(student);
+        log.info("Updating student: {} and evicting its cached card", student.getId());
+        Optional<Student> previous = studentRepository.findById(student.getId());
+        previous.ifPresent(this::evictListings);
+        rejectDuplicateKeys(student, previous.orElse(null));
+        Student savedStudent = studentRepository.save(student);
+        evictListings(savedStudent);
+        // A changed GR or roll number is a new key; the old one stays in the filter until its rebuild
+        existenceFilters.ifPresent(filters -> filters.recordStudent(savedStudent));
+        return savedStudent;
     }
 
     /**
-     * Create new student and invalidate related caches
+     * Create new student and invalidate the class/school caches of its school
      */
     @Transactional
-    @CacheEvict(value = {"classInformation", "schoolConfiguration"}, allEntries = true)
     public Student createStudent(Student student) {
         log.info("Creating new student and invalidating class/school caches");
+        rejectDuplicateKeys(student, null);
         Student savedStudent = studentRepository.save(student);
+        evictListings(savedStudent);
+        existenceFilters.ifPresent(filters -> filters.recordStudent(savedStudent));
         
         // Cache the new student
         this.cacheStudent(savedStudent);
@@ -138,22 +177,20 @@ public class CachedStudentService {
      * Delete student and clear all related caches
      */
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = "studentProfiles", key = "#studentId"),
-        @CacheEvict(value = {"classInformation", "schoolConfiguration"}, allEntries = true)
-    })
+    @CacheEvict(value = "studentProfiles", key = "'student:' + #studentId")
     public void deleteStudent(Long studentId) {
         log.info("Deleting student: {} and clearing caches", studentId);
+        studentRepository.findById(studentId).ifPresent(this::evictListings);
         studentRepository.deleteById(studentId);
     }
 
     /**
      * Manually cache a student (useful after creation)
      */
-    @CachePut(value = "studentProfiles", key = "#student.id")
-    public Student cacheStudent(Student student) {
+    @CachePut(value = "studentProfiles", key = "'student:' + #student.id")
+    public StudentCard cacheStudent(Student student) {
         log.debug("Manually caching student: {}", student.getId());
-        return student;
+        return StudentCard.of(student);
     }
 
     /**
@@ -162,44 +199,69 @@ public class CachedStudentService {
     @CacheEvict(value = {"studentProfiles", "classInformation", "schoolConfiguration"}, allEntries = true)
     public void clearAllStudentCaches() {
         log.info("Clearing all student-related caches");
+        secondLevelCacheService.evictStudentRegion();
     }
 
     /**
      * Clear caches for a specific school
      */
-    @CacheEvict(value = {"classInformation", "schoolConfiguration"}, allEntries = true)
     public void clearSchoolCaches(Long schoolId) {
         log.info("Clearing caches for school: {}", schoolId);
+        cacheInvalidationService.evict(CacheScope.school(schoolId), "classInformation", "schoolConfiguration");
+        secondLevelCacheService.evictSchool(schoolId);
+        secondLevelCacheService.evictQueryResults();
     }
 
     /**
-     * Warm up frequently used caches
+     * Reject a GR or roll number that is new for the student but already used in its school.
+     * Unused keys are usually ruled out by the existence filter without a query; a duplicate the
+     * filter cannot see yet (bulk loads) still fails on the unique keys.
      */
-    public void warmUpCaches(Long schoolId) {
-        log.info("Warming up student caches for school: {}", schoolId);
-        
-        // Warm up standards and sections
-        this.getStandardsBySchool(schoolId);
-        
-        // Warm up each class
-        List<String> standards = this.getStandardsBySchool(schoolId);
-        for (String standard : standards) {
-            List<String> sections = this.getSectionsByStandard(schoolId, standard);
-            for (String section : sections) {
-                // Get first page of students to warm cache
-                this.getStudentCountByClass(schoolId, standard, section);
-            }
+    private void rejectDuplicateKeys(Student student, Student previous) {
+        if (existenceFilters.isEmpty() || student.getSchool() == null || student.getSchool().getId() == null) {
+            return;
+        }
+        ExistenceFilterService filters = existenceFilters.get();
+        Long schoolId = student.getSchool().getId();
+        boolean sameSchool = previous != null && previous.getSchool() != null
+                && schoolId.equals(previous.getSchool().getId());
+
+        boolean newGrNo = !sameSchool || !Objects.equals(previous.getGrNo(), student.getGrNo());
+        if (newGrNo && filters.grNoExists(schoolId, student.getGrNo())) {
+            throw new BusinessException("Student with GR Number " + student.getGrNo() +
+                    " already exists in this school", HttpStatus.CONFLICT);
+        }
+        boolean newRollNo = student.getSchoolClass() != null
+                && (!sameSchool || !Objects.equals(previous.getRollNo(), student.getRollNo())
+                || !Objects.equals(previous.getStandard(), student.getStandard())
+                || !Objects.equals(previous.getSection(), student.getSection()));
+        if (newRollNo && filters.rollNoExists(schoolId, student.getStandard(), student.getSection(), student.getRollNo())) {
+            throw new BusinessException("Student with Roll Number " + student.getRollNo() +
+                    " already exists in class " + student.getSchoolClass().getDisplayName(), HttpStatus.CONFLICT);
+        }
+    }
+
+    /**
+     * Evict the school's student lookups and listings and the class's listings
+     * (profiles by id are keyed per student and handled by the caller)
+     */
+    private void evictListings(Student student) {
+        if (student.getSchool() != null && student.getSchool().getId() != null) {
+            cacheInvalidationService.evict(CacheScope.school(student.getSchool().getId()),
+                    "studentProfiles", "classInformation", "schoolConfiguration");
+        }
+        if (student.getSchoolClass() != null && student.getSchoolClass().getId() != null) {
+            cacheInvalidationService.evict(CacheScope.schoolClass(student.getSchoolClass().getId()),
+                    "classInformation");
         }
-        
-        log.info("Cache warm-up completed for school: {}", schoolId);
     }
 
     // ========== PERFORMANCE MONITORING METHODS ==========
 
     /**
-     * Get cache statistics for monitoring
+     * Log hit ratios, load times and sizes of the student caches, per key prefix
      */
     public void logCacheStats() {
-        log.info("Student cache performance stats logged - implement with cache metrics if needed");
+        cacheStatisticsService.logCacheStats("studentProfiles", "classInformation", "schoolConfiguration");
     }
 }
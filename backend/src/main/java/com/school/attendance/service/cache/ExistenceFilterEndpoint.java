@@ -0,0 +1,27 @@
+package com.school.attendance.service.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Existence Filter Endpoint
+ * /actuator/existencefilters reports the filters' sizes, checks and false-positive rates per kind of key
+ */
+@Component
+@Endpoint(id = "existencefilters")
+@ConditionalOnProperty(name = "app.existence-filter.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ExistenceFilterEndpoint {
+
+    private final ExistenceFilterService existenceFilterService;
+
+    @ReadOperation
+    public List<ExistenceFilterService.KindReport> filters() {
+        return existenceFilterService.getReport();
+    }
+}
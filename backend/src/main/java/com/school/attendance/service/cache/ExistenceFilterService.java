@@ -0,0 +1,457 @@
+package com.school.attendance.service.cache;
+
+import com.school.attendance.config.cache.CacheInvalidationBus;
+import com.school.attendance.config.cache.LayeredCacheManager;
+import com.school.attendance.config.sharding.TenantContext;
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.entity.Student;
+import com.school.attendance.repository.AttendanceRecordRepository;
+import com.school.attendance.repository.SchoolRepository;
+import com.school.attendance.repository.StudentRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Existence Filter Service
+ * Negative cache for existence checks (GR number and roll number of a student, attendance of a
+ * student on a date). Each school has one Bloom
+ * filter per kind of key: a "definitely not" answer is returned without a query, and only possible
+ * matches reach the database. Filters are rebuilt from the database (each school on its shard) at
+ * startup and nightly, and updated by this instance's inserts (again after commit, so a rebuild
+ * running meanwhile cannot miss them); a filter that outgrows its size is rebuilt early. Committed
+ * inserts are broadcast on the cache invalidation bus when the shared cache tier is enabled, and a
+ * bus resubscription (additions possibly missed) rebuilds every filter. Rows written around the
+ * services (bulk loads, restores) appear at the next rebuild, so writes never trust a "no" from
+ * here: a "yes" may reject a duplicate early, but the unique constraints on these keys stay the
+ * final check.
+ * Attendance keys cover the last attendance-days days; older dates always go to the database.
+ * Schools without a filter yet (e.g. during the startup build) are checked in the database.
+ */
+@Service
+@ConditionalOnProperty(name = "app.existence-filter.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ExistenceFilterService implements CacheInvalidationBus.KeyAdditionListener {
+
+    private static final int MIN_KEYS = 1000;
+    private static final int HEADROOM = 2;
+
+    public enum Kind { GR_NO, ROLL_NO, ATTENDANCE }
+
+    // Absent when the application runs without a database
+    private final Optional<SchoolRepository> schoolRepository;
+    private final Optional<StudentRepository> studentRepository;
+    private final Optional<AttendanceRecordRepository> attendanceRecordRepository;
+    private final LayeredCacheManager cacheManager;
+    private final TenantJobs tenantJobs;
+    private final double falsePositiveRate;
+    private final int attendanceDays;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Map<Long, SchoolSlot> schools = new ConcurrentHashMap<>();
+    private final Set<Long> rebuilding = ConcurrentHashMap.newKeySet();
+    private final Map<Kind, CheckCounters> counters = new EnumMap<>(Kind.class);
+    private volatile CacheInvalidationBus invalidationBus;
+
+    public ExistenceFilterService(Optional<SchoolRepository> schoolRepository,
+                                  Optional<StudentRepository> studentRepository,
+                                  Optional<AttendanceRecordRepository> attendanceRecordRepository,
+                                  LayeredCacheManager cacheManager,
+                                  TenantJobs tenantJobs,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.existence-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${app.existence-filter.attendance-days:400}") int attendanceDays) {
+        this.schoolRepository = schoolRepository;
+        this.studentRepository = studentRepository;
+        this.attendanceRecordRepository = attendanceRecordRepository;
+        this.cacheManager = cacheManager;
+        this.tenantJobs = tenantJobs;
+        this.falsePositiveRate = falsePositiveRate;
+        this.attendanceDays = attendanceDays;
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("Existence-Filter-");
+        executor.setDaemon(true);
+        executor.initialize();
+
+        for (Kind kind : Kind.values()) {
+            CheckCounters checks = new CheckCounters();
+            counters.put(kind, checks);
+            String tag = kind.name().toLowerCase();
+            checks.register(meterRegistry, tag);
+            Gauge.builder("existence.filter.false.positive.rate", this, service -> service.report(kind).falsePositiveRate())
+                    .description("Share of absent keys the filter could not rule out (observed)")
+                    .tag("kind", tag)
+                    .register(meterRegistry);
+            Gauge.builder("existence.filter.expected.false.positive.rate", this,
+                            service -> service.report(kind).expectedFalsePositiveRate())
+                    .description("False-positive rate expected from the filters' size and contents")
+                    .tag("kind", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Join the invalidation bus and build every school's filters once the application has started
+     * (subscribed first, so inserts committed elsewhere during the build are not lost)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        invalidationBus = cacheManager.getInvalidationBus();
+        if (invalidationBus != null) {
+            invalidationBus.setKeyAdditionListener(this);
+        }
+        rebuildAll();
+    }
+
+    /**
+     * Rebuild every school's filters, dropping keys of deleted rows and adding other instances' inserts
+     */
+    @Scheduled(cron = "${app.existence-filter.rebuild-cron:0 15 2 * * *}")
+    public void rebuildNightly() {
+        rebuildAll();
+    }
+
+    /**
+     * Rebuild all schools on the filter thread; the returned future completes when all are built
+     */
+    public CompletableFuture<Void> rebuildAll() {
+        if (schoolRepository.isEmpty()) {
+            log.debug("Existence filters not built: no database in this application");
+            return CompletableFuture.completedFuture(null);
+        }
+        SchoolRepository repository = schoolRepository.get();
+        return CompletableFuture.runAsync(() -> {
+            long started = System.currentTimeMillis();
+            // Under sharding each shard lists only the schools assigned to it
+            List<Long> schoolIds = tenantJobs
+                    .schoolRows(repository::findIdsAndTimeZones, row -> (Long) row[0])
+                    .stream()
+                    .map(row -> (Long) row[0])
+                    .collect(Collectors.toList());
+            for (Long schoolId : schoolIds) {
+                rebuildSchool(schoolId);
+            }
+            log.info("Existence filters built for {} schools in {} ms", schoolIds.size(),
+                    System.currentTimeMillis() - started);
+            logReport();
+        }, executor);
+    }
+
+    // ========== EXISTENCE CHECKS ==========
+
+    public boolean grNoExists(Long schoolId, String grNo) {
+        return exists(Kind.GR_NO, schoolId, BloomFilter.hash(grNo), null,
+                () -> studentRepository.orElseThrow().existsByGrNoAndSchoolId(grNo, schoolId));
+    }
+
+    public boolean rollNoExists(Long schoolId, String standard, String section, String rollNo) {
+        return exists(Kind.ROLL_NO, schoolId, BloomFilter.hash(standard, section, rollNo), null,
+                () -> studentRepository.orElseThrow()
+                        .existsByRollNoAndStandardAndSectionAndSchoolId(rollNo, standard, section, schoolId));
+    }
+
+    public boolean attendanceExists(Long schoolId, Long studentId, LocalDate date) {
+        return exists(Kind.ATTENDANCE, schoolId, BloomFilter.hash(studentId, date.toEpochDay()), date,
+                () -> attendanceRecordRepository.orElseThrow().existsByStudentIdAndDate(studentId, date));
+    }
+
+    /**
+     * Run a lookup of a student's attendance on a date only when the filter cannot rule it out
+     */
+    public <T> Optional<T> findAttendance(Long schoolId, Long studentId, LocalDate date, Supplier<Optional<T>> lookup) {
+        return find(Kind.ATTENDANCE, schoolId, BloomFilter.hash(studentId, date.toEpochDay()), date, lookup);
+    }
+
+    // ========== INSERTS ==========
+
+    public void recordStudent(Student student) {
+        if (student.getSchool() == null) {
+            return;
+        }
+        Long schoolId = student.getSchool().getId();
+        add(schoolId, Kind.GR_NO, BloomFilter.hash(student.getGrNo()));
+        add(schoolId, Kind.ROLL_NO, BloomFilter.hash(student.getStandard(), student.getSection(), student.getRollNo()));
+    }
+
+    public void recordAttendance(Long schoolId, Long studentId, LocalDate date) {
+        add(schoolId, Kind.ATTENDANCE, BloomFilter.hash(studentId, date.toEpochDay()));
+    }
+
+    // ========== OTHER INSTANCES ==========
+
+    @Override
+    public void keyAdded(long schoolId, String kind, long hash) {
+        addNow(schoolId, Kind.valueOf(kind), hash);
+    }
+
+    @Override
+    public void additionsMissed() {
+        log.warn("Existence filter additions of other instances may have been missed, rebuilding");
+        rebuildAll();
+    }
+
+    // ========== REPORTING ==========
+
+    /**
+     * Checks, filter sizes and false-positive rates (observed and expected) per kind of key.
+     * The observed rate is the share of absent keys the filters let through to the database.
+     */
+    public List<KindReport> getReport() {
+        List<KindReport> reports = new ArrayList<>();
+        for (Kind kind : Kind.values()) {
+            reports.add(report(kind));
+        }
+        return reports;
+    }
+
+    public void logReport() {
+        for (KindReport report : getReport()) {
+            log.info("Existence filter {}: {} schools, {} keys, {} KB; {} checks, {} answered without a query, " +
+                            "{} false positives (observed rate {}, expected {})",
+                    report.kind(), report.schools(), report.keys(), report.bits() / 8 / 1024, report.checks(),
+                    report.filtered(), report.falsePositives(), String.format("%.4f", report.falsePositiveRate()),
+                    String.format("%.4f", report.expectedFalsePositiveRate()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private boolean exists(Kind kind, Long schoolId, long hash, @Nullable LocalDate date, Supplier<Boolean> database) {
+        return find(kind, schoolId, hash, date, () -> database.get() ? Optional.of(Boolean.TRUE) : Optional.empty())
+                .isPresent();
+    }
+
+    private <T> Optional<T> find(Kind kind, Long schoolId, long hash, @Nullable LocalDate date,
+                                 Supplier<Optional<T>> lookup) {
+        CheckCounters checks = counters.get(kind);
+        SchoolSlot slot = schools.get(schoolId);
+        SchoolFilters filters = slot != null ? slot.current : null;
+        if (filters == null || (date != null && date.isBefore(filters.attendanceFrom))) {
+            checks.unfiltered.increment();
+            return lookup.get();
+        }
+        if (!filters.get(kind).mightContain(hash)) {
+            checks.filtered.increment();
+            return Optional.empty();
+        }
+        Optional<T> result = lookup.get();
+        (result.isPresent() ? checks.positives : checks.falsePositives).increment();
+        return result;
+    }
+
+    private void add(Long schoolId, Kind kind, long hash) {
+        addNow(schoolId, kind, hash);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A rebuild reading the database before this commit would otherwise drop the key
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(schoolId, kind, hash);
+                    publish(schoolId, kind, hash);
+                }
+            });
+        } else {
+            publish(schoolId, kind, hash);
+        }
+    }
+
+    private void publish(Long schoolId, Kind kind, long hash) {
+        CacheInvalidationBus bus = invalidationBus;
+        if (bus != null) {
+            bus.publishKeyAdded(schoolId, kind.name(), hash);
+        }
+    }
+
+    private void addNow(Long schoolId, Kind kind, long hash) {
+        SchoolSlot slot = schools.get(schoolId);
+        if (slot == null) {
+            return;
+        }
+        // Pending first: once it is null the rebuilt filters are already current
+        Queue<Addition> pending = slot.pending;
+        if (pending != null) {
+            pending.add(new Addition(kind, hash));
+        }
+        SchoolFilters filters = slot.current;
+        if (filters != null) {
+            BloomFilter filter = filters.get(kind);
+            filter.add(hash);
+            if (filter.isSaturated() && rebuilding.add(schoolId)) {
+                log.info("Existence filter {} of school {} is full, rebuilding", kind, schoolId);
+                executor.execute(() -> rebuildSchool(schoolId));
+            }
+        }
+    }
+
+    private void rebuildSchool(Long schoolId) {
+        TenantContext.callForSchool(schoolId, () -> {
+            loadSchool(schoolId);
+            return null;
+        });
+    }
+
+    private void loadSchool(Long schoolId) {
+        SchoolSlot slot = schools.computeIfAbsent(schoolId, id -> new SchoolSlot());
+        Queue<Addition> pending = new ConcurrentLinkedQueue<>();
+        slot.pending = pending;
+        try {
+            LocalDate attendanceFrom = LocalDate.now().minusDays(attendanceDays);
+            List<Object[]> students = studentRepository.map(repository -> repository.findExistenceKeysBySchoolId(schoolId))
+                    .orElse(List.of());
+            List<Object[]> attendance = attendanceRecordRepository
+                    .map(repository -> repository.findStudentDatesBySchoolIdSince(schoolId, attendanceFrom))
+                    .orElse(List.of());
+
+            SchoolFilters filters = new SchoolFilters(attendanceFrom);
+            filters.put(Kind.GR_NO, filter(students.size()));
+            filters.put(Kind.ROLL_NO, filter(students.size()));
+            filters.put(Kind.ATTENDANCE, filter(attendance.size()));
+            for (Object[] row : students) {
+                filters.get(Kind.GR_NO).add(BloomFilter.hash((String) row[0]));
+                filters.get(Kind.ROLL_NO).add(BloomFilter.hash((String) row[2], (String) row[3], (String) row[1]));
+            }
+            for (Object[] row : attendance) {
+                filters.get(Kind.ATTENDANCE).add(BloomFilter.hash((Long) row[0], ((LocalDate) row[1]).toEpochDay()));
+            }
+
+            drain(pending, filters);
+            slot.current = filters;
+            slot.pending = null;
+            drain(pending, filters);
+        } catch (RuntimeException e) {
+            slot.pending = null;
+            log.warn("Existence filters of school {} not rebuilt: {}", schoolId, e.getMessage());
+        } finally {
+            rebuilding.remove(schoolId);
+        }
+    }
+
+    private BloomFilter filter(int keys) {
+        return new BloomFilter(Math.max(MIN_KEYS, (long) keys * HEADROOM), falsePositiveRate);
+    }
+
+    private static void drain(Queue<Addition> pending, SchoolFilters filters) {
+        Addition addition;
+        while ((addition = pending.poll()) != null) {
+            filters.get(addition.kind()).add(addition.hash());
+        }
+    }
+
+    private KindReport report(Kind kind) {
+        int schoolCount = 0;
+        long keys = 0;
+        long bits = 0;
+        double weightedRate = 0;
+        for (SchoolSlot slot : schools.values()) {
+            SchoolFilters filters = slot.current;
+            if (filters != null) {
+                BloomFilter filter = filters.get(kind);
+                schoolCount++;
+                keys += filter.getAdded();
+                bits += filter.getBits();
+                weightedRate += filter.expectedFalsePositiveRate() * filter.getAdded();
+            }
+        }
+        CheckCounters checks = counters.get(kind);
+        long filtered = checks.filtered.sum();
+        long falsePositives = checks.falsePositives.sum();
+        long absent = filtered + falsePositives;
+        return new KindReport(kind.name(), schoolCount, keys, bits,
+                keys > 0 ? weightedRate / keys : 0.0,
+                filtered + falsePositives + checks.positives.sum() + checks.unfiltered.sum(),
+                filtered, falsePositives, checks.unfiltered.sum(),
+                absent > 0 ? (double) falsePositives / absent : 0.0);
+    }
+
+    /**
+     * Filters and check outcomes of one kind of key, over all schools
+     */
+    public record KindReport(String kind, int schools, long keys, long bits, double expectedFalsePositiveRate,
+                             long checks, long filtered, long falsePositives, long unfiltered,
+                             double falsePositiveRate) {
+    }
+
+    private record Addition(Kind kind, long hash) {
+    }
+
+    private static final class SchoolSlot {
+        private volatile SchoolFilters current;
+        // Keys added while a rebuild is loading, replayed into the rebuilt filters
+        private volatile Queue<Addition> pending;
+    }
+
+    private static final class SchoolFilters {
+
+        private final LocalDate attendanceFrom;
+        private final Map<Kind, BloomFilter> filters = new EnumMap<>(Kind.class);
+
+        SchoolFilters(LocalDate attendanceFrom) {
+            this.attendanceFrom = attendanceFrom;
+        }
+
+        void put(Kind kind, BloomFilter filter) {
+            filters.put(kind, filter);
+        }
+
+        BloomFilter get(Kind kind) {
+            return filters.get(kind);
+        }
+    }
+
+    private static final class CheckCounters {
+
+        private final LongAdder filtered = new LongAdder();
+        private final LongAdder falsePositives = new LongAdder();
+        private final LongAdder positives = new LongAdder();
+        private final LongAdder unfiltered = new LongAdder();
+
+        void register(MeterRegistry registry, String kind) {
+            checks(registry, kind, "filtered", filtered);
+            checks(registry, kind, "false_positive", falsePositives);
+            checks(registry, kind, "positive", positives);
+            checks(registry, kind, "unfiltered", unfiltered);
+        }
+
+        private static void checks(MeterRegistry registry, String kind, String result, LongAdder count) {
+            FunctionCounter.builder("existence.filter.checks", count, LongAdder::sum)
+                    .description("Existence checks by outcome; only filtered ones skip the database")
+                    .tags("kind", kind, "result", result)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.school.attendance.service.cache;
+
+import com.school.attendance.entity.School;
+import com.school.attendance.entity.SchoolClass;
+import com.school.attendance.entity.Student;
+import com.school.attendance.entity.Teacher;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hibernate Second-Level Cache Service
+ * Region-level eviction for the cached reference entities (School, SchoolClass, Teacher, Student)
+ * and hit-rate reporting for the second-level and query caches
+ */
+//@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SecondLevelCacheService {
+
+    private static final String TEACHER_SUBJECTS_ROLE = Teacher.class.getName() + ".subjects";
+    private static final String TEACHER_CLASSES_ROLE = Teacher.class.getName() + ".assignedClasses";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    // ========== EVICTION METHODS ==========
+
+    /**
+     * Evict a single school
+     */
+    public void evictSchool(Long schoolId) {
+        log.debug("Evicting school {} from second-level cache", schoolId);
+        cache().evictEntityData(School.class, schoolId);
+    }
+
+    /**
+     * Evict a single class
+     */
+    public void evictSchoolClass(Integer classId) {
+        log.debug("Evicting class {} from second-level cache", classId);
+        cache().evictEntityData(SchoolClass.class, classId);
+    }
+
+    /**
+     * Evict a single student
+     */
+    public void evictStudent(Long studentId) {
+        log.debug("Evicting student {} from second-level cache", studentId);
+        cache().evictEntityData(Student.class, studentId);
+    }
+
+    /**
+     * Evict a single teacher together with its subject and class collections
+     */
+    public void evictTeacher(Long teacherId) {
+        log.debug("Evicting teacher {} from second-level cache", teacherId);
+        Cache cache = cache();
+        cache.evictEntityData(Teacher.class, teacherId);
+        cache.evictCollectionData(TEACHER_SUBJECTS_ROLE, teacherId);
+        cache.evictCollectionData(TEACHER_CLASSES_ROLE, teacherId);
+    }
+
+    /**
+     * Evict the whole student region and cached query results
+     */
+    public void evictStudentRegion() {
+        log.info("Evicting student region and query results from second-level cache");
+        Cache cache = cache();
+        cache.evictEntityData(Student.class);
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * Evict the whole teacher region, its collections and cached query results
+     */
+    public void evictTeacherRegion() {
+        log.info("Evicting teacher regions and query results from second-level cache");
+        Cache cache = cache();
+        cache.evictEntityData(Teacher.class);
+        cache.evictCollectionData(TEACHER_SUBJECTS_ROLE);
+        cache.evictCollectionData(TEACHER_CLASSES_ROLE);
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * Evict cached query results only (entity regions are kept)
+     */
+    public void evictQueryResults() {
+        cache().evictQueryRegions();
+    }
+
+    /**
+     * Evict every second-level cache region
+     */
+    public void evictAll() {
+        log.info("Evicting all second-level cache regions");
+        cache().evictAllRegions();
+    }
+
+    // ========== PERFORMANCE MONITORING METHODS ==========
+
+    /**
+     * Get hit/miss/put counts and hit rate per region, plus query cache totals
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Statistics statistics = statistics();
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats != null) {
+                result.put(region, toStats(regionStats.getHitCount(), regionStats.getMissCount(),
+                        regionStats.getPutCount()));
+            }
+        }
+
+        result.put("queryCache", toStats(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+        result.put("secondLevelCache", toStats(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        return result;
+    }
+
+    /**
+     * Periodically log the hit rate of every region
+     */
+    @Scheduled(fixedDelayString = "${app.cache.hibernate.stats-log-interval-ms:300000}")
+    public void logCacheStats() {
+        getStatistics().forEach((region, stats) ->
+                log.info("Second-level cache region {}: hits={}, misses={}, puts={}, hitRate={}%",
+                        region, stats.get("hits"), stats.get("misses"), stats.get("puts"), stats.get("hitRate")));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Map<String, Object> toStats(long hits, long misses, long puts) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long lookups = hits + misses;
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("puts", puts);
+        stats.put("hitRate", lookups > 0 ? Math.round(hits * 10000.0 / lookups) / 100.0 : 0.0);
+        return stats;
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,49 @@
+package com.school.attendance.service.cache.snapshot;
+
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.Student;
+import com.school.attendance.entity.Teacher;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Immutable, flat copy of an attendance record with the names a daily register shows: the record
+ * plus its student and the teacher who marked it. Built from records fetched with their student
+ * and teacher, inside the loading transaction.
+ */
+public record AttendanceRow(Long id,
+                            LocalDate date,
+                            AttendanceStatus status,
+                            String note,
+                            LocalTime markedTime,
+                            Long studentId,
+                            String studentName,
+                            String grNo,
+                            String rollNo,
+                            Integer classId,
+                            String standard,
+                            String section,
+                            Long teacherId,
+                            String teacherName) {
+
+    public static AttendanceRow of(AttendanceRecord record) {
+        Student student = record.getStudent();
+        Teacher teacher = record.getTeacher();
+        return new AttendanceRow(record.getId(),
+                record.getDate(),
+                record.getStatus(),
+                record.getNote(),
+                record.getMarkedTime(),
+                student.getId(),
+                student.getFullName(),
+                student.getGrNo(),
+                student.getRollNo(),
+                student.getSchoolClass() != null ? student.getSchoolClass().getId() : null,
+                student.getStandard(),
+                student.getSection(),
+                teacher != null ? teacher.getId() : null,
+                teacher != null ? teacher.getFullName() : null);
+    }
+}
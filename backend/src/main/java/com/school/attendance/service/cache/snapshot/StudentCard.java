@@ -0,0 +1,55 @@
+package com.school.attendance.service.cache.snapshot;
+
+import com.school.attendance.entity.Student;
+import com.school.attendance.entity.Student.Gender;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable, flat copy of a student as the caches hold it: profile lookups, and class rosters and
+ * search results as pages of cards. Built inside the loading transaction, so a cached student
+ * never carries a lazy association or a Hibernate proxy.
+ */
+public record StudentCard(Long id,
+                          Long schoolId,
+                          Integer classId,
+                          String standard,
+                          String section,
+                          String grNo,
+                          String rollNo,
+                          String firstName,
+                          String lastName,
+                          LocalDate dateOfBirth,
+                          Gender gender,
+                          String mobileNumber,
+                          String parentName,
+                          String parentMobile,
+                          String parentEmail,
+                          String profilePhotoPath,
+                          boolean active) {
+
+    public static StudentCard of(Student student) {
+        // Reading the id of a lazy association does not initialize it; the class is needed for its names
+        return new StudentCard(student.getId(),
+                student.getSchool() != null ? student.getSchool().getId() : null,
+                student.getSchoolClass() != null ? student.getSchoolClass().getId() : null,
+                student.getStandard(),
+                student.getSection(),
+                student.getGrNo(),
+                student.getRollNo(),
+                student.getFirstName(),
+                student.getLastName(),
+                student.getDateOfBirth(),
+                student.getGender(),
+                student.getMobileNumber(),
+                student.getParentName(),
+                student.getParentMobile(),
+                student.getParentEmail(),
+                student.getProfilePhotoPath(),
+                Boolean.TRUE.equals(student.getIsActive()));
+    }
+
+    public String fullName() {
+        return firstName + " " + lastName;
+    }
+}
@@ -0,0 +1,136 @@
+package com.school.attendance.service.calendar;
+
+import com.school.attendance.entity.SchoolCalendarDay;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Working days of one school for one calendar year, one bit per day of the year.
+ * Classes with their own overrides get a separate bitset; every other class shares the school's.
+ * Instances are immutable once built.
+ */
+public final class SchoolCalendar {
+
+    private final Long schoolId;
+    private final int year;
+    private final BitSet schoolDays;
+    private final Map<String, BitSet> standardDays;
+    private final Map<String, BitSet> classDays;
+
+    private SchoolCalendar(Long schoolId, int year, BitSet schoolDays,
+                           Map<String, BitSet> standardDays, Map<String, BitSet> classDays) {
+        this.schoolId = schoolId;
+        this.year = year;
+        this.schoolDays = schoolDays;
+        this.standardDays = standardDays;
+        this.classDays = classDays;
+    }
+
+    /**
+     * Build from the weekly off days and the year's calendar entries
+     */
+    public static SchoolCalendar build(Long schoolId, int year, Set<DayOfWeek> weeklyOffDays,
+                                       List<SchoolCalendarDay> entries) {
+        LocalDate first = LocalDate.of(year, 1, 1);
+        BitSet schoolDays = new BitSet(first.lengthOfYear());
+        for (LocalDate date = first; date.getYear() == year; date = date.plusDays(1)) {
+            if (!weeklyOffDays.contains(date.getDayOfWeek())) {
+                schoolDays.set(date.getDayOfYear() - 1);
+            }
+        }
+
+        // Widest scope first so narrower entries are applied on top
+        List<SchoolCalendarDay> ordered = entries.stream()
+                .filter(entry -> entry.getDate().getYear() == year)
+                .sorted(Comparator.comparingInt(SchoolCalendar::scope))
+                .toList();
+
+        Map<String, BitSet> standardDays = new HashMap<>();
+        Map<String, BitSet> classDays = new HashMap<>();
+        for (SchoolCalendarDay entry : ordered) {
+            BitSet days = switch (scope(entry)) {
+                case 0 -> schoolDays;
+                case 1 -> standardDays.computeIfAbsent(entry.getStandard(), key -> (BitSet) schoolDays.clone());
+                default -> classDays.computeIfAbsent(classKey(entry.getStandard(), entry.getSection()),
+                        key -> (BitSet) standardDays.getOrDefault(entry.getStandard(), schoolDays).clone());
+            };
+            days.set(entry.getDate().getDayOfYear() - 1, Boolean.TRUE.equals(entry.getWorkingDay()));
+        }
+        return new SchoolCalendar(schoolId, year, schoolDays, standardDays, classDays);
+    }
+
+    public Long getSchoolId() {
+        return schoolId;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Whether the whole school works on a date
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        return isWorkingDay(date, null, null);
+    }
+
+    /**
+     * Whether a class works on a date (null standard = the school-wide calendar)
+     */
+    public boolean isWorkingDay(LocalDate date, String standard, String section) {
+        checkYear(date);
+        return daysFor(standard, section).get(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * Working days of a class between dates, inclusive; the range is clipped to this year
+     */
+    public int countWorkingDays(LocalDate startDate, LocalDate endDate, String standard, String section) {
+        int from = startDate.getYear() < year ? 0 : startDate.getDayOfYear() - 1;
+        int to = endDate.getYear() > year ? LocalDate.of(year, 12, 31).getDayOfYear() : endDate.getDayOfYear();
+        if (startDate.getYear() > year || endDate.getYear() < year || from >= to) {
+            return 0;
+        }
+        return daysFor(standard, section).get(from, to).cardinality();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private BitSet daysFor(String standard, String section) {
+        if (standard == null) {
+            return schoolDays;
+        }
+        BitSet days = classDays.get(classKey(standard, section));
+        if (days != null) {
+            return days;
+        }
+        return standardDays.getOrDefault(standard, schoolDays);
+    }
+
+    private void checkYear(LocalDate date) {
+        if (date.getYear() != year) {
+            throw new IllegalArgumentException("Date " + date + " is outside the " + year + " calendar");
+        }
+    }
+
+    /**
+     * 0 = school-wide, 1 = every section of a standard, 2 = one class
+     */
+    private static int scope(SchoolCalendarDay entry) {
+        if (entry.getStandard() == null) {
+            return 0;
+        }
+        return entry.getSection() == null ? 1 : 2;
+    }
+
+    private static String classKey(String standard, String section) {
+        return standard + "|" + section;
+    }
+}
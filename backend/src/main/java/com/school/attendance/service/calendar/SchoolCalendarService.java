@@ -0,0 +1,194 @@
+package com.school.attendance.service.calendar;
+
+import com.school.attendance.entity.SchoolCalendarDay;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.exception.ResourceNotFoundException;
+import com.school.attendance.repository.SchoolCalendarDayRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * School Calendar Service
+ * Holidays and extra working days are stored once per school (or per class) in
+ * {@code school_calendar_days} instead of one HOLIDAY attendance row per student.
+ * Each school's year is cached in memory as a {@link SchoolCalendar} bitset and serves as the
+ * denominator for attendance percentages: every working day counts, marked or not. Changes made on
+ * this instance evict at once; cached years are reloaded after app.calendar.cache-ttl-seconds so
+ * changes made on other instances are picked up too.
+ */
+//@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchoolCalendarService {
+
+    private final SchoolCalendarDayRepository schoolCalendarDayRepository;
+
+    private final Map<CalendarKey, CachedCalendar> calendars = new ConcurrentHashMap<>();
+
+    @Value("${app.calendar.weekly-off-days:SUNDAY}")
+    private String weeklyOffDays;
+
+    @Value("${app.calendar.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    private volatile Set<DayOfWeek> parsedWeeklyOffDays;
+
+    /**
+     * Cached calendar of a school for a year
+     */
+    public SchoolCalendar getCalendar(Long schoolId, int year) {
+        long now = System.currentTimeMillis();
+        return calendars.compute(new CalendarKey(schoolId, year), (key, cached) -> {
+            if (cached != null && now - cached.loadedAt() < TimeUnit.SECONDS.toMillis(cacheTtlSeconds)) {
+                return cached;
+            }
+            List<SchoolCalendarDay> entries = schoolCalendarDayRepository.findBySchoolIdAndDateBetweenOrderByDate(
+                    schoolId, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+            log.debug("Loaded {} calendar entries for school {} in {}", entries.size(), schoolId, year);
+            return new CachedCalendar(SchoolCalendar.build(schoolId, year, getWeeklyOffDays(), entries), now);
+        }).calendar();
+    }
+
+    /**
+     * Whether a class works on a date (null standard = the school-wide calendar)
+     */
+    public boolean isWorkingDay(Long schoolId, LocalDate date, String standard, String section) {
+        return getCalendar(schoolId, date.getYear()).isWorkingDay(date, standard, section);
+    }
+
+    /**
+     * Working days of a class between dates, inclusive
+     */
+    public int countWorkingDays(Long schoolId, String standard, String section, LocalDate startDate, LocalDate endDate) {
+        int workingDays = 0;
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            workingDays += getCalendar(schoolId, year).countWorkingDays(startDate, endDate, standard, section);
+        }
+        return workingDays;
+    }
+
+    /**
+     * Holidays and weekly off days of a class between dates, inclusive
+     */
+    public int countNonWorkingDays(Long schoolId, String standard, String section, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+        long days = endDate.toEpochDay() - startDate.toEpochDay() + 1;
+        return (int) days - countWorkingDays(schoolId, standard, section, startDate, endDate);
+    }
+
+    /**
+     * Entries (holidays and extra working days) of a school between dates
+     */
+    public List<SchoolCalendarDay> getEntries(Long schoolId, LocalDate startDate, LocalDate endDate) {
+        return schoolCalendarDayRepository.findBySchoolIdAndDateBetweenOrderByDate(schoolId, startDate, endDate);
+    }
+
+    /**
+     * Declare a holiday for the school (null standard), a standard (null section) or a class
+     */
+    @Transactional
+    public SchoolCalendarDay declareHoliday(Long schoolId, LocalDate date, String standard, String section,
+                                            String description) {
+        return saveEntry(schoolId, date, standard, section, false, description);
+    }
+
+    /**
+     * Declare an extra working day, e.g. a make-up Saturday, for the school, a standard or a class
+     */
+    @Transactional
+    public SchoolCalendarDay declareWorkingDay(Long schoolId, LocalDate date, String standard, String section,
+                                               String description) {
+        return saveEntry(schoolId, date, standard, section, true, description);
+    }
+
+    /**
+     * Remove an entry so the day follows the regular week (or the wider scope) again
+     */
+    @Transactional
+    public void removeEntry(Long schoolId, LocalDate date, String standard, String section) {
+        SchoolCalendarDay entry = schoolCalendarDayRepository.findEntry(schoolId, date, standard, section)
+                .orElseThrow(() -> new ResourceNotFoundException("SchoolCalendarDay", "date", date));
+        schoolCalendarDayRepository.delete(entry);
+        evictAfterCommit(schoolId, date.getYear());
+    }
+
+    /**
+     * Drop cached calendars of a school (all years)
+     */
+    public void evict(Long schoolId) {
+        calendars.keySet().removeIf(key -> key.schoolId().equals(schoolId));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private SchoolCalendarDay saveEntry(Long schoolId, LocalDate date, String standard, String section,
+                                        boolean workingDay, String description) {
+        if (standard == null && section != null) {
+            throw new BusinessException("A section override needs its standard");
+        }
+
+        SchoolCalendarDay entry = schoolCalendarDayRepository.findEntry(schoolId, date, standard, section)
+                .orElseGet(() -> new SchoolCalendarDay(schoolId, date, standard, section, workingDay, description));
+        entry.setWorkingDay(workingDay);
+        entry.setDescription(description);
+        SchoolCalendarDay saved = schoolCalendarDayRepository.save(entry);
+
+        log.info("School {} calendar: {} is a {} for {}", schoolId, date, workingDay ? "working day" : "holiday",
+                standard == null ? "the whole school" : standard + (section != null ? "-" + section : ""));
+        evictAfterCommit(schoolId, date.getYear());
+        return saved;
+    }
+
+    /**
+     * Evict once the change is visible, so a concurrent reload cannot cache the old calendar
+     */
+    private void evictAfterCommit(Long schoolId, int year) {
+        CalendarKey key = new CalendarKey(schoolId, year);
+        calendars.remove(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    calendars.remove(key);
+                }
+            });
+        }
+    }
+
+    private Set<DayOfWeek> getWeeklyOffDays() {
+        Set<DayOfWeek> days = parsedWeeklyOffDays;
+        if (days == null) {
+            days = weeklyOffDays == null || weeklyOffDays.isBlank()
+                    ? EnumSet.noneOf(DayOfWeek.class)
+                    : Arrays.stream(weeklyOffDays.split(","))
+                            .map(day -> DayOfWeek.valueOf(day.trim().toUpperCase()))
+                            .collect(Collectors.toCollection(() -> EnumSet.noneOf(DayOfWeek.class)));
+            parsedWeeklyOffDays = days;
+        }
+        return days;
+    }
+
+    private record CalendarKey(Long schoolId, int year) {
+    }
+
+    private record CachedCalendar(SchoolCalendar calendar, long loadedAt) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.school.attendance.service.notification;
+
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.repository.NotificationLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Notification Log Retention Service
+ * Deletes notification logs older than {@code app.notification.log.retention-days} in bounded chunks,
+ * one short transaction per chunk, so the purge never holds long locks on the table being written to.
+ * The scheduled purge runs on every shard.
+ */
+//@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationLogRetentionService {
+
+    private final NotificationLogRepository notificationLogRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TenantJobs tenantJobs;
+
+    @Value("${app.notification.log.retention-days:180}")
+    private int retentionDays;
+
+    @Value("${app.notification.log.purge-chunk-size:5000}")
+    private int chunkSize;
+
+    /**
+     * Purge logs past the retention window
+     */
+    @Scheduled(cron = "${app.notification.log.purge-cron:0 45 2 * * *}")
+    public long purgeExpiredLogs() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        return tenantJobs.onEveryShard(() -> purgeSentBefore(cutoff)).stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Purge logs sent before a time (on the shard bound to the calling thread)
+     */
+    public long purgeSentBefore(LocalDateTime cutoff) {
+        long startTime = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long deleted = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> deleteChunk(cutoff));
+            deleted += chunk;
+        } while (chunk == chunkSize);
+
+        if (deleted > 0) {
+            log.info("Purged {} notification logs sent before {} in {}ms",
+                    deleted, cutoff, System.currentTimeMillis() - startTime);
+        }
+        return deleted;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private int deleteChunk(LocalDateTime cutoff) {
+        List<Long> ids = notificationLogRepository.findIdsSentBefore(cutoff, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return notificationLogRepository.deleteByIdIn(ids);
+    }
+}
@@ -0,0 +1,158 @@
+package com.school.attendance.service.notification;
+
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.entity.NotificationLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Notification Log Writer
+ * Buffers notification log rows and inserts them in JDBC batches, every
+ * {@code app.notification.log.flush-interval-ms} or as soon as {@code batch-size} rows are waiting,
+ * instead of one repository save (and one transaction) per message sent. Rows are written on their
+ * school's shard.
+ */
+//@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationLogWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notification_logs (type, recipient, subject, message, status, error_message, sent_at, student_id, school_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantJobs tenantJobs;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong dropped = new AtomicLong();
+    private BlockingQueue<NotificationLog> buffer;
+
+    @Value("${app.notification.log.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.notification.log.max-pending:20000}")
+    private int maxPending;
+
+    @PostConstruct
+    public void start() {
+        buffer = new LinkedBlockingQueue<>(maxPending);
+    }
+
+    /**
+     * Queue a log row. The calling thread only writes when the batch is full and no flush is running.
+     */
+    public void append(NotificationLog notificationLog) {
+        if (notificationLog.getSentAt() == null) {
+            notificationLog.setSentAt(LocalDateTime.now());
+        }
+        if (!buffer.offer(notificationLog)) {
+            // Database unreachable for a while: keep sending notifications, lose only the log rows
+            long total = dropped.incrementAndGet();
+            log.warn("Notification log buffer full ({} rows), dropped log for {} ({} dropped so far)",
+                    maxPending, notificationLog.getRecipient(), total);
+            return;
+        }
+        if (buffer.size() >= batchSize && flushLock.tryLock()) {
+            try {
+                drainAndWrite();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write everything buffered so far
+     */
+    @Scheduled(fixedDelayString = "${app.notification.log.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            drainAndWrite();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void drainAndWrite() {
+        List<NotificationLog> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                insert(batch);
+            } catch (DataAccessException e) {
+                // Put the rows back for the next scheduled flush (as many as still fit)
+                int requeued = (int) batch.stream().filter(buffer::offer).count();
+                dropped.addAndGet(batch.size() - requeued);
+                log.error("Failed to write {} notification logs, {} requeued: {}", batch.size(), requeued, e.getMessage());
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private void insert(List<NotificationLog> batch) {
+        Map<Long, List<NotificationLog>> bySchool = new LinkedHashMap<>();
+        batch.forEach(row -> bySchool.computeIfAbsent(row.getSchoolId(), id -> new ArrayList<>()).add(row));
+        int written = 0;
+        for (List<NotificationLog> rows : bySchool.values()) {
+            tenantJobs.forSchool(rows.get(0).getSchoolId(), () -> insertRows(rows));
+            // Written schools leave the batch, so a later failure only requeues the rest
+            Set<NotificationLog> done = Collections.newSetFromMap(new IdentityHashMap<>());
+            done.addAll(rows);
+            batch.removeIf(done::contains);
+            written += rows.size();
+        }
+        log.debug("Wrote {} notification logs", written);
+    }
+
+    private int[][] insertRows(List<NotificationLog> rows) {
+        return jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.getType().name());
+            ps.setString(2, row.getRecipient());
+            ps.setString(3, row.getSubject());
+            ps.setString(4, row.getMessage());
+            ps.setString(5, row.getStatus().name());
+            ps.setString(6, row.getErrorMessage());
+            ps.setTimestamp(7, Timestamp.valueOf(row.getSentAt()));
+            ps.setObject(8, row.getStudentId());
+            ps.setObject(9, row.getSchoolId());
+        });
+    }
+}
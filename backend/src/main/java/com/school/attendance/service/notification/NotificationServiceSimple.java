@@ -34,6 +34,9 @@ public class NotificationServiceSimple {
     @Autowired
     private NotificationLogRepository notificationLogRepository;
     
+    @Autowired
+    private NotificationLogWriter notificationLogWriter;
+    
     @Autowired
     private NotificationSettingsRepository settingsRepository;
     
@@ -48,7 +51,7 @@ public class NotificationServiceSimple {
         
         boolean success = emailService.sendEmail(to, subject, body);
         
-        // Log the notification
+        // Log the notification (buffered, written in batches)
         try {
             NotificationLog log;
             if (success) {
@@ -56,7 +59,7 @@ public class NotificationServiceSimple {
             } else {
                 log = new NotificationLog(NotificationLog.NotificationType.EMAIL, to, subject, body, "Email sending failed", studentId, schoolId);
             }
-            notificationLogRepository.save(log);
+            notificationLogWriter.append(log);
         } catch (Exception e) {
             logger.error("Error logging email notification: {}", e.getMessage());
         }
@@ -80,7 +83,7 @@ public class NotificationServiceSimple {
             } else {
                 log = new NotificationLog(NotificationLog.NotificationType.SMS, to, "SMS", message, "SMS sending failed", studentId, schoolId);
             }
-            notificationLogRepository.save(log);
+            notificationLogWriter.append(log);
         } catch (Exception e) {
             logger.error("Error logging SMS notification: {}", e.getMessage());
         }
@@ -99,7 +102,7 @@ public class NotificationServiceSimple {
      * Get notification logs by school
      */
     public Page<NotificationLog> getNotificationLogsBySchool(Long schoolId, Pageable pageable) {
-        return notificationLogRepository.findAll(pageable); // For now, return all logs
+        return notificationLogRepository.findBySchoolIdOrderBySentAtDesc(schoolId, pageable);
     }
 
     /**
@@ -0,0 +1,103 @@
+package com.school.attendance.service.register;
+
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.ClassDayRegister;
+import com.school.attendance.entity.Student;
+import com.school.attendance.repository.AttendanceRecordRepository;
+import com.school.attendance.repository.ClassDayRegisterRepository;
+import com.school.attendance.repository.StudentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Class-Day Register Migration Service
+ * Builds class-day registers from per-student attendance rows, one day per transaction.
+ * Re-running a range is safe: existing registers are re-marked from the rows. A day whose register
+ * insert loses a race with a concurrent run (unique key per class and date) is retried once.
+ * Switch reads over with {@code app.attendance.storage-model=register} once a range is migrated.
+ */
+//@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClassDayRegisterMigrationService {
+
+    private final AttendanceRecordRepository attendanceRecordRepository;
+    private final ClassDayRegisterRepository classDayRegisterRepository;
+    private final StudentRepository studentRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Migrate a school's attendance between dates; returns the number of registers written
+     */
+    public int migrate(Long schoolId, LocalDate startDate, LocalDate endDate) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int registers = 0;
+        long rows = 0;
+
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            LocalDate day = date;
+            long[] dayCounts;
+            try {
+                dayCounts = transaction.execute(status -> migrateDay(schoolId, day));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Registers of school {} on {} were created concurrently, migrating the day again", schoolId, day);
+                dayCounts = transaction.execute(status -> migrateDay(schoolId, day));
+            }
+            registers += (int) dayCounts[0];
+            rows += dayCounts[1];
+        }
+
+        log.info("Migrated {} attendance rows into {} class-day registers for school {} ({} to {})",
+                rows, registers, schoolId, startDate, endDate);
+        return registers;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Returns {registers written, rows read}
+     */
+    private long[] migrateDay(Long schoolId, LocalDate date) {
+        Map<Integer, List<AttendanceRecord>> byClass = new LinkedHashMap<>();
+        try (Stream<AttendanceRecord> records = attendanceRecordRepository.streamBySchoolIdAndDateBetween(schoolId, date, date)) {
+            records.forEach(record -> byClass
+                    .computeIfAbsent(record.getStudent().getSchoolClass().getId(), key -> new ArrayList<>())
+                    .add(record));
+        }
+
+        long rows = 0;
+        for (Map.Entry<Integer, List<AttendanceRecord>> classRecords : byClass.entrySet()) {
+            Student sample = classRecords.getValue().get(0).getStudent();
+            ClassDayRegister register = classDayRegisterRepository
+                    .findClassRegister(schoolId, sample.getStandard(), sample.getSection(), date)
+                    .orElseGet(() -> new ClassDayRegister(schoolId, sample.getStandard(), sample.getSection(), date,
+                            roster(classRecords.getKey())));
+
+            for (AttendanceRecord record : classRecords.getValue()) {
+                register.mark(record.getStudent().getId(), record.getStatus(), record.getNote(),
+                        record.getTeacher() != null ? record.getTeacher().getId() : null);
+                rows++;
+            }
+            classDayRegisterRepository.save(register);
+        }
+        return new long[]{byClass.size(), rows};
+    }
+
+    private List<Long> roster(Integer classId) {
+        return studentRepository.findByClassIdAndIsActiveTrueOrderByRollNo(classId)
+                .stream()
+                .map(Student::getId)
+                .toList();
+    }
+}
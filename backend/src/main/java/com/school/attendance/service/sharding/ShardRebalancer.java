@@ -0,0 +1,275 @@
+package com.school.attendance.service.sharding;
+
+import com.school.attendance.config.sharding.ShardDataSources;
+import com.school.attendance.config.sharding.ShardDirectory;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Shard Rebalancer
+ * Moves one school's rows to another shard: the school's move lock is taken in the shard
+ * directory (every instance then refuses writes for it), writes this instance already accepted
+ * are waited for, rows are copied table by table in parent-first order (ids preserved), the
+ * directory is switched, source and target are compared row for row, and only then are the source
+ * rows deleted. A write another instance accepted before the lock that lands on the source during
+ * the copy fails the comparison; a failed move is removed from the target, switched back, and the
+ * school stays where it was.
+ * Ids must be unique across shards (e.g. per-shard auto_increment_offset) for rows to move
+ * without renumbering. Users and the shard directory are global and stay on the default shard.
+ */
+@Service
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRebalancer {
+
+    private static final String SCHOOL_STUDENTS = "student_id IN (SELECT id FROM students WHERE school_id = ?)";
+    private static final String SCHOOL_TEACHERS = "teacher_id IN (SELECT id FROM teachers WHERE school_id = ?)";
+
+    // Parent tables first; deleted in reverse order
+    private static final List<ShardTable> TABLES = List.of(
+            new ShardTable("schools", "id = ?"),
+            new ShardTable("school_classes", "school_id = ?"),
+            new ShardTable("students", "school_id = ?"),
+            new ShardTable("teachers", "school_id = ?"),
+            new ShardTable("teacher_subjects", SCHOOL_TEACHERS),
+            new ShardTable("teacher_class_assignments", SCHOOL_TEACHERS),
+            new ShardTable("notification_settings", "school_id = ?"),
+            new ShardTable("attendance_records", SCHOOL_STUDENTS),
+            new ShardTable("attendance_records_archive", SCHOOL_STUDENTS),
+            new ShardTable("attendance_record_history", SCHOOL_STUDENTS),
+            new ShardTable("class_day_registers", "school_id = ?"),
+            new ShardTable("school_calendar_days", "school_id = ?"),
+            new ShardTable("notification_logs", "school_id = ?"));
+
+    private final ShardDataSources shardDataSources;
+    private final ShardDirectory shardDirectory;
+
+    @Value("${app.sharding.rebalance.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.sharding.rebalance.drain-ms:2000}")
+    private long drainMs;
+
+    @Value("${app.sharding.rebalance.lock-timeout-ms:3600000}")
+    private long lockTimeoutMs;
+
+    /**
+     * Move a school to the target shard; returns the rows moved per table
+     */
+    public Map<String, Long> moveSchool(Long schoolId, String targetShard) {
+        shardDirectory.refresh(schoolId);
+        String sourceShard = shardDirectory.shardFor(schoolId);
+        if (sourceShard.equals(targetShard)) {
+            throw new BusinessException("School " + schoolId + " is already on shard " + targetShard);
+        }
+        DataSource source = shardDataSources.get(sourceShard);
+        DataSource target = shardDataSources.get(targetShard);
+        if (count(new JdbcTemplate(source), TABLES.get(0), schoolId) == 0) {
+            throw new ResourceNotFoundException("School", "id", schoolId);
+        }
+
+        log.info("Moving school {} from shard {} to shard {}", schoolId, sourceShard, targetShard);
+        long started = System.currentTimeMillis();
+        String owner = moveOwner();
+        shardDirectory.lockForMove(schoolId, owner, lockTimeoutMs);
+        try {
+            drainInFlightWrites(schoolId);
+
+            Map<String, Long> moved = new LinkedHashMap<>();
+            try {
+                for (ShardTable table : TABLES) {
+                    moved.put(table.name(), copy(table, schoolId, source, target));
+                }
+                shardDirectory.assign(schoolId, targetShard);
+                verify(moved, schoolId, source, target);
+            } catch (RuntimeException e) {
+                log.error("Moving school {} to shard {} failed, removing the partial copy: {}",
+                        schoolId, targetShard, e.getMessage());
+                if (targetShard.equals(shardDirectory.shardFor(schoolId))) {
+                    shardDirectory.assign(schoolId, sourceShard);
+                }
+                delete(schoolId, target);
+                throw e;
+            }
+
+            delete(schoolId, source);
+
+            log.info("Moved school {} to shard {} in {} ms: {}", schoolId, targetShard,
+                    System.currentTimeMillis() - started, moved);
+            return moved;
+        } finally {
+            shardDirectory.unlockMove(schoolId, owner);
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Wait for the writes this instance accepted before the lock; other instances' are caught by {@link #verify}
+     */
+    private void drainInFlightWrites(Long schoolId) {
+        try {
+            if (!shardDirectory.awaitWrites(schoolId, drainMs)) {
+                throw new BusinessException("Writes for school " + schoolId + " are still running, move not started",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("School move interrupted");
+        }
+    }
+
+    private String moveOwner() {
+        String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+        return owner.length() > 100 ? owner.substring(owner.length() - 100) : owner;
+    }
+
+    private long copy(ShardTable table, Long schoolId, DataSource source, DataSource target) {
+        JdbcTemplate reader = new JdbcTemplate(source);
+        reader.setFetchSize(chunkSize);
+        TableCopy tableCopy = new TableCopy(table.name(), new JdbcTemplate(target));
+        reader.query("SELECT * FROM " + table.name() + " WHERE " + table.filter(), tableCopy, schoolId);
+        tableCopy.flush();
+        return tableCopy.rows;
+    }
+
+    /**
+     * Compare row counts and contents of source and target; a difference means the copy is
+     * incomplete or a write reached the source after its rows were read
+     */
+    private void verify(Map<String, Long> moved, Long schoolId, DataSource source, DataSource target) {
+        for (ShardTable table : TABLES) {
+            long copied = moved.get(table.name());
+            TableDigest onSource = digest(source, table, schoolId);
+            TableDigest onTarget = digest(target, table, schoolId);
+            if (copied != onSource.rows() || copied != onTarget.rows()) {
+                throw new IllegalStateException("Row count mismatch for " + table.name() + ": copied " + copied +
+                        ", source " + onSource.rows() + ", target " + onTarget.rows());
+            }
+            if (onSource.checksum() != onTarget.checksum()) {
+                throw new IllegalStateException("Rows of " + table.name() + " changed on the source during the move");
+            }
+        }
+    }
+
+    /**
+     * Row count and an order-independent checksum of every column of the school's rows
+     */
+    private TableDigest digest(DataSource dataSource, ShardTable table, Long schoolId) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(chunkSize);
+        long[] digest = new long[2];
+        jdbcTemplate.query("SELECT * FROM " + table.name() + " WHERE " + table.filter(), rs -> {
+            long row = 1;
+            for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                Object value = rs.getObject(i);
+                row = 31 * row + (value instanceof byte[] bytes ? Arrays.hashCode(bytes) : Objects.hashCode(value));
+            }
+            digest[0]++;
+            digest[1] += row * 0x9E3779B97F4A7C15L;
+        }, schoolId);
+        return new TableDigest(digest[0], digest[1]);
+    }
+
+    /**
+     * Delete the school's rows from one shard, children first, in a single transaction
+     */
+    private void delete(Long schoolId, DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<ShardTable> childrenFirst = new ArrayList<>(TABLES);
+        Collections.reverse(childrenFirst);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status ->
+                childrenFirst.forEach(table -> jdbcTemplate.update(
+                        "DELETE FROM " + table.name() + " WHERE " + table.filter(), schoolId)));
+    }
+
+    private long count(JdbcTemplate jdbcTemplate, ShardTable table, Long schoolId) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + table.name() + " WHERE " + table.filter(), Long.class, schoolId);
+        return count != null ? count : 0;
+    }
+
+    private record ShardTable(String name, String filter) {
+    }
+
+    private record TableDigest(long rows, long checksum) {
+    }
+
+    /**
+     * Streams a table's rows into batched inserts on the target, column for column
+     */
+    private class TableCopy implements RowCallbackHandler {
+
+        private final String table;
+        private final JdbcTemplate target;
+        private final List<Object[]> batch = new ArrayList<>();
+        private String insertSql;
+        private long rows;
+
+        TableCopy(String table, JdbcTemplate target) {
+            this.table = table;
+            this.target = target;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            ResultSetMetaData metaData = rs.getMetaData();
+            int columns = metaData.getColumnCount();
+            if (insertSql == null) {
+                insertSql = insertSql(metaData);
+            }
+            Object[] row = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            batch.add(row);
+            rows++;
+            if (batch.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                target.batchUpdate(insertSql, batch);
+                batch.clear();
+            }
+        }
+
+        private String insertSql(ResultSetMetaData metaData) throws SQLException {
+            List<String> columns = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columns.add(metaData.getColumnName(i));
+            }
+            return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" +
+                    IntStream.range(0, columns.size()).mapToObj(i -> "?").collect(Collectors.joining(", ")) + ")";
+        }
+    }
+}
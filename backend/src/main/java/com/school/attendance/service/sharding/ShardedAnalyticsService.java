@@ -0,0 +1,114 @@
+package com.school.attendance.service.sharding;
+
+import com.school.attendance.config.sharding.ShardScatterGather;
+import com.school.attendance.config.sharding.TenantContext;
+import com.school.attendance.repository.analytics.AbsenceStreak;
+import com.school.attendance.repository.analytics.AttendanceAnalyticsRepository;
+import com.school.attendance.repository.analytics.AttendanceSeriesPoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sharded Analytics Service
+ * A single school's analytics run on its own shard; cross-school series and streaks are
+ * computed on every shard in parallel and merged here. Series are merged on their counts,
+ * and the previous/running values are recomputed over the merged series.
+ */
+//@Service
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardedAnalyticsService {
+
+    private final ShardScatterGather shardScatterGather;
+    private final AttendanceAnalyticsRepository attendanceAnalyticsRepository;
+
+    /**
+     * Daily series for one school, or across all schools when schoolId is null
+     */
+    public List<AttendanceSeriesPoint> getDailySeries(Long schoolId, LocalDate startDate, LocalDate endDate) {
+        if (schoolId != null) {
+            return TenantContext.callForSchool(schoolId,
+                    () -> attendanceAnalyticsRepository.getDailySeries(schoolId, startDate, endDate));
+        }
+        return mergeSeries(shardScatterGather.onEveryShard(
+                shard -> attendanceAnalyticsRepository.getDailySeries(null, startDate, endDate)).values());
+    }
+
+    /**
+     * Monthly series for one school, or across all schools when schoolId is null
+     */
+    public List<AttendanceSeriesPoint> getMonthlySeries(Long schoolId, LocalDate startDate, LocalDate endDate) {
+        if (schoolId != null) {
+            return TenantContext.callForSchool(schoolId,
+                    () -> attendanceAnalyticsRepository.getMonthlySeries(schoolId, startDate, endDate));
+        }
+        return mergeSeries(shardScatterGather.onEveryShard(
+                shard -> attendanceAnalyticsRepository.getMonthlySeries(null, startDate, endDate)).values());
+    }
+
+    /**
+     * Longest absence streaks across all schools
+     */
+    public List<AbsenceStreak> findAbsenceStreaks(LocalDate startDate, LocalDate endDate, int minDays, int limit) {
+        // Each shard returns its own top N, so the global top N is among them
+        Map<String, List<AbsenceStreak>> perShard = shardScatterGather.onEveryShard(
+                shard -> attendanceAnalyticsRepository.findAbsenceStreaks(null, startDate, endDate, minDays, limit));
+
+        return perShard.values().stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingInt(AbsenceStreak::days).reversed()
+                        .thenComparing(AbsenceStreak::startDate)
+                        .thenComparing(AbsenceStreak::studentId))
+                .limit(limit)
+                .toList();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Sum per-period counts across shards, then recompute previous and running values
+     */
+    static List<AttendanceSeriesPoint> mergeSeries(Collection<List<AttendanceSeriesPoint>> shardSeries) {
+        Map<LocalDate, long[]> totals = new TreeMap<>();
+        for (List<AttendanceSeriesPoint> series : shardSeries) {
+            for (AttendanceSeriesPoint point : series) {
+                long[] counts = totals.computeIfAbsent(point.period(), period -> new long[7]);
+                counts[0] += point.present();
+                counts[1] += point.absent();
+                counts[2] += point.late();
+                counts[3] += point.halfDay();
+                counts[4] += point.sickLeave();
+                counts[5] += point.holiday();
+                // Holidays are calendar days, so shards report the same days rather than adding up
+                counts[6] = Math.max(counts[6], point.holidayDays());
+            }
+        }
+
+        List<AttendanceSeriesPoint> merged = new ArrayList<>(totals.size());
+        AttendanceSeriesPoint previous = null;
+        for (Map.Entry<LocalDate, long[]> entry : totals.entrySet()) {
+            long[] c = entry.getValue();
+            long attended = c[0] + c[2];
+            long marked = c[0] + c[1] + c[2] + c[3] + c[4];
+            AttendanceSeriesPoint point = new AttendanceSeriesPoint(entry.getKey(), c[0], c[1], c[2], c[3], c[4], c[5], c[6],
+                    previous != null ? previous.attended() : null,
+                    previous != null ? previous.marked() : null,
+                    (previous != null ? previous.runningAttended() : 0) + attended,
+                    (previous != null ? previous.runningMarked() : 0) + marked);
+            merged.add(point);
+            previous = point;
+        }
+        return merged;
+    }
+}
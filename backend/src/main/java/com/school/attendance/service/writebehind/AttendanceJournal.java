@@ -0,0 +1,358 @@
+package com.school.attendance.service.writebehind;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented journal of attendance marks.
+ *
+ * <p>Each entry is framed as {@code [length][crc32][payload]}. Appends are queued and written by a
+ * single writer thread that drains everything queued so far, writes it and issues one fsync for
+ * the whole group, so a burst of marks costs one fsync per group rather than per mark. An append's
+ * future completes only after its group has been forced to disk. The owner's durable-mark callback
+ * runs for each mark of a group before the segment can be rolled, so a mark in a sealed segment has
+ * always been handed to the owner.
+ *
+ * <p>{@link #roll()} seals the current segment; sealed segments are deleted by the owner once their
+ * marks are in the database. On startup {@link #replay()} returns every mark still in the journal,
+ * stopping at the first torn or corrupt entry of a segment.
+ */
+@Slf4j
+public class AttendanceJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "attendance-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final int MAX_ENTRY_BYTES = 64 * 1024;
+    private static final int MAX_GROUP_SIZE = 4096;
+
+    private final Path directory;
+    private final Consumer<AttendanceMark> onDurable;
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private FileChannel channel;
+    private Path currentSegment;
+    private long nextSegmentIndex;
+    private volatile long appendCount;
+    private volatile long syncCount;
+
+    private AttendanceJournal(Path directory, Consumer<AttendanceMark> onDurable) throws IOException {
+        this.directory = directory;
+        this.onDurable = onDurable;
+        Files.createDirectories(directory);
+        List<Path> existing = listSegments();
+        this.nextSegmentIndex = existing.isEmpty() ? 1 : segmentIndex(existing.get(existing.size() - 1)) + 1;
+        openNextSegment();
+        this.writer = new Thread(this::writeLoop, "attendance-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Open (or create) the journal in a directory and start its writer thread
+     */
+    public static AttendanceJournal open(Path directory) throws IOException {
+        return new AttendanceJournal(directory, mark -> { });
+    }
+
+    /**
+     * Open the journal with a callback run for every mark once it is on disk
+     */
+    public static AttendanceJournal open(Path directory, Consumer<AttendanceMark> onDurable) throws IOException {
+        return new AttendanceJournal(directory, onDurable);
+    }
+
+    /**
+     * Queue a mark for appending; the future completes once it has been fsynced
+     */
+    public CompletableFuture<Void> append(AttendanceMark mark) {
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        if (!running) {
+            ack.completeExceptionally(new IOException("Attendance journal is closed"));
+            return ack;
+        }
+        queue.add(new PendingAppend(mark, encode(mark), ack));
+        return ack;
+    }
+
+    /**
+     * Read every mark in the sealed segments, oldest first
+     */
+    public List<AttendanceMark> replay() throws IOException {
+        List<AttendanceMark> marks = new ArrayList<>();
+        for (Path segment : listSegments()) {
+            if (!segment.equals(currentSegment)) {
+                readSegment(segment, marks);
+            }
+        }
+        return marks;
+    }
+
+    /**
+     * Seal the current segment and start a new one. Returns all sealed segments
+     * (oldest first); nothing is rolled while the current segment is empty.
+     */
+    public List<Path> roll() throws IOException {
+        writeLock.lock();
+        try {
+            if (channel.size() > 0) {
+                channel.force(false);
+                channel.close();
+                openNextSegment();
+            }
+            List<Path> sealed = listSegments();
+            sealed.remove(currentSegment);
+            return sealed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Delete sealed segments whose marks have been written to the database
+     */
+    public void delete(List<Path> segments) throws IOException {
+        for (Path segment : segments) {
+            if (!segment.equals(currentSegment)) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    public long getAppendCount() {
+        return appendCount;
+    }
+
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingAppend leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.ack().completeExceptionally(new IOException("Attendance journal is closed"));
+        }
+        writeLock.lock();
+        try {
+            if (channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ========== WRITER ==========
+
+    private void writeLoop() {
+        List<PendingAppend> group = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, MAX_GROUP_SIZE - 1);
+                writeGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void writeGroup(List<PendingAppend> group) {
+        int size = group.stream().mapToInt(append -> append.frame().length).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        group.forEach(append -> buffer.put(append.frame()));
+        buffer.flip();
+
+        writeLock.lock();
+        long start = -1;
+        try {
+            start = channel.position();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            appendCount += group.size();
+            syncCount++;
+            // Still under the lock: a roll cannot seal these marks before the owner has them
+            group.forEach(append -> onDurable.accept(append.mark()));
+        } catch (IOException e) {
+            log.error("Failed to write {} attendance marks to journal {}: {}", group.size(), currentSegment, e.getMessage());
+            discardFailedGroup(start);
+            group.forEach(append -> append.ack().completeExceptionally(e));
+            return;
+        } finally {
+            writeLock.unlock();
+        }
+        group.forEach(append -> append.ack().complete(null));
+    }
+
+    /**
+     * Drop the bytes of a group that failed to write, so replay does not stop at them and lose the
+     * marks acknowledged after. If the segment cannot be cut back, seal it at the torn entry (every
+     * mark before it was acknowledged) and continue in a new segment. Called under the write lock.
+     */
+    private void discardFailedGroup(long start) {
+        if (start >= 0) {
+            try {
+                channel.truncate(start);
+                channel.position(start);
+                return;
+            } catch (IOException e) {
+                log.warn("Cannot truncate journal segment {} to {}, sealing it: {}", currentSegment, start, e.getMessage());
+            }
+        }
+        try {
+            channel.close();
+            openNextSegment();
+        } catch (IOException e) {
+            log.error("Cannot open a new journal segment after a failed write: {}", e.getMessage());
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void openNextSegment() throws IOException {
+        currentSegment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentIndex++, SEGMENT_SUFFIX));
+        channel = FileChannel.open(currentSegment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private static long segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void readSegment(Path segment, List<AttendanceMark> marks) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int entries = 0;
+        while (buffer.remaining() >= FRAME_HEADER_BYTES) {
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            if (length <= 0 || length > MAX_ENTRY_BYTES || length > buffer.remaining()) {
+                log.warn("Torn entry at offset {} of journal segment {}, ignoring the rest of the segment",
+                        buffer.position() - FRAME_HEADER_BYTES, segment);
+                return;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            if (checksum(payload) != crc) {
+                log.warn("Checksum mismatch at entry {} of journal segment {}, ignoring the rest of the segment",
+                        entries, segment);
+                return;
+            }
+            marks.add(decode(payload));
+            entries++;
+        }
+    }
+
+    static byte[] encode(AttendanceMark mark) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(mark.studentId());
+            out.writeLong(mark.date().toEpochDay());
+            out.writeByte(mark.status().getCode());
+            out.writeBoolean(mark.note() != null);
+            if (mark.note() != null) {
+                out.writeUTF(mark.note());
+            }
+            out.writeLong(mark.markedTime() != null ? mark.markedTime().toNanoOfDay() : -1L);
+            out.writeLong(mark.teacherId() != null ? mark.teacherId() : -1L);
+            out.writeLong(mark.markedAt().toLocalDate().toEpochDay());
+            out.writeLong(mark.markedAt().toLocalTime().toNanoOfDay());
+            out.writeLong(mark.schoolId());
+            out.writeLong(mark.version());
+            out.flush();
+            byte[] payload = bytes.toByteArray();
+
+            return ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length)
+                    .putInt(payload.length)
+                    .putInt(checksum(payload))
+                    .put(payload)
+                    .array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static AttendanceMark decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        Long studentId = in.readLong();
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        AttendanceStatus status = AttendanceStatus.fromCode(in.readByte());
+        String note = in.readBoolean() ? in.readUTF() : null;
+        long markedTime = in.readLong();
+        long teacherId = in.readLong();
+        LocalDateTime markedAt = LocalDateTime.of(LocalDate.ofEpochDay(in.readLong()), LocalTime.ofNanoOfDay(in.readLong()));
+        Long schoolId = in.readLong();
+        Long version = in.readLong();
+        return new AttendanceMark(studentId, date, status, note,
+                markedTime >= 0 ? LocalTime.ofNanoOfDay(markedTime) : null,
+                teacherId >= 0 ? teacherId : null,
+                markedAt, schoolId, version);
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private record PendingAppend(AttendanceMark mark, byte[] frame, CompletableFuture<Void> ack) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.school.attendance.service.writebehind;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A single attendance mark as accepted from a teacher, before it reaches {@code attendance_records}.
+ * Marks are keyed by (studentId, date); a later mark for the same key replaces an earlier one.
+ * The school routes the mark to its shard when it is flushed. The version is the one the row has
+ * once the mark is flushed, assigned when the mark is accepted.
+ */
+public record AttendanceMark(Long studentId,
+                             LocalDate date,
+                             AttendanceStatus status,
+                             String note,
+                             LocalTime markedTime,
+                             Long teacherId,
+                             LocalDateTime markedAt,
+                             Long schoolId,
+                             Long version) {
+
+    public Key key() {
+        return new Key(studentId, date);
+    }
+
+    public record Key(Long studentId, LocalDate date) {
+    }
+}
@@ -0,0 +1,396 @@
+package com.school.attendance.service.writebehind;
+
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.repository.AttendanceHistoryWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind Attendance Service
+ * Absorbs the morning marking burst: marks are made durable in a local {@link AttendanceJournal}
+ * and acknowledged, kept in a pending overlay for reads once journaled, and flushed to
+ * {@code attendance_records} in large JDBC batches by a background job, each school's marks on its
+ * own shard. Unflushed marks are replayed from the journal on restart. A mark the database cannot
+ * take stays pending (and its journal segments stay on disk) until a later flush writes it; one
+ * rejected by a constraint max-attempts times in a row is moved to the dead-letter journal.
+ * Each accepted mark is given the row version it will have once flushed, so a mark made against an
+ * expected version is checked against marks that are still pending, not just the database row.
+ */
+//@Service
+@ConditionalOnProperty(name = "app.attendance.write-behind.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceWriteBehindService {
+
+    // Sets the version assigned when the mark was accepted (never lower than a JPA update would),
+    // so stale entity copies and stale expected versions still conflict
+    private static final String UPDATE_SQL =
+            "UPDATE attendance_records SET status = ?, note = ?, marked_time = ?, teacher_id = ?, updated_at = ?, " +
+            "version = GREATEST(version + 1, ?) " +
+            "WHERE student_id = ? AND date = ?";
+
+    // Guarded insert: safe even when the driver does not report per-row update counts
+    private static final String INSERT_SQL =
+            "INSERT INTO attendance_records (date, status, note, marked_time, student_id, teacher_id, created_at, updated_at, version) " +
+            "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ? FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM attendance_records WHERE student_id = ? AND date = ?)";
+
+    // How long a flushed mark's version is kept for marks that read the row before the flush
+    private static final long RESERVATION_RETENTION_MS = 60_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final TenantJobs tenantJobs;
+
+    private final Map<AttendanceMark.Key, AttendanceMark> pending = new ConcurrentHashMap<>();
+    // Consecutive flushes whose write of a mark was rejected by a constraint
+    private final Map<AttendanceMark.Key, Integer> rejections = new ConcurrentHashMap<>();
+    // Version of each key's latest accepted mark; kept for a while after the flush, for marks whose
+    // transaction read the row just before it was flushed
+    private final Map<AttendanceMark.Key, Reservation> versions = new ConcurrentHashMap<>();
+
+    @Value("${app.attendance.write-behind.journal-dir:./data/attendance-journal}")
+    private String journalDir;
+
+    @Value("${app.attendance.write-behind.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.attendance.write-behind.max-pending:200000}")
+    private int maxPending;
+
+    @Value("${app.attendance.write-behind.max-attempts:5}")
+    private int maxAttempts;
+
+    private AttendanceJournal journal;
+    private AttendanceJournal deadLetters;
+
+    /**
+     * Open the journal and replay marks that were acknowledged but not flushed before the last shutdown
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        Path directory = Paths.get(journalDir);
+        // Never replayed: dead letters are for an operator to inspect and re-enter
+        deadLetters = AttendanceJournal.open(directory.resolve("dead-letter"));
+        journal = AttendanceJournal.open(directory, mark -> pending.merge(mark.key(), mark, AttendanceWriteBehindService::newer));
+
+        List<AttendanceMark> replayed = journal.replay();
+        replayed.forEach(mark -> pending.merge(mark.key(), mark, AttendanceWriteBehindService::newer));
+        pending.values().forEach(mark -> versions.put(mark.key(), new Reservation(mark.version(), 0)));
+        log.info("Attendance write-behind journal opened at {}: replayed {} marks ({} distinct)",
+                directory.toAbsolutePath(), replayed.size(), pending.size());
+
+        if (!pending.isEmpty()) {
+            flush();
+        }
+    }
+
+    /**
+     * Accept a mark. Its version is one past the newest of the stored row ({@code storedVersion},
+     * -1 when there is none) and any mark accepted before it; with an {@code expectedVersion} that
+     * is not that newest version the mark fails with an optimistic locking conflict. The returned
+     * future completes once the mark is durable in the journal (and visible to reads), or fails
+     * with a {@link BusinessException} when it could not be journaled; callers wait for it outside
+     * their database transaction.
+     */
+    public CompletableFuture<AttendanceMark> mark(AttendanceMark mark, Long expectedVersion, long storedVersion) {
+        if (pending.size() >= maxPending) {
+            throw new BusinessException("Attendance is being saved, please retry in a moment",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        Reservation[] previous = new Reservation[1];
+        AttendanceMark[] versioned = new AttendanceMark[1];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Void>[] appended = new CompletableFuture[1];
+        Reservation reserved = versions.compute(mark.key(), (key, current) -> {
+            long latest = current != null ? Math.max(current.version(), storedVersion) : storedVersion;
+            if (expectedVersion != null && expectedVersion != latest) {
+                throw new ObjectOptimisticLockingFailureException(AttendanceRecord.class, key);
+            }
+            previous[0] = current;
+            versioned[0] = new AttendanceMark(mark.studentId(), mark.date(), mark.status(), mark.note(),
+                    mark.markedTime(), mark.teacherId(), mark.markedAt(), mark.schoolId(), latest + 1);
+            // Queued while the key is held, so a key's marks reach the journal in version order
+            appended[0] = journal.append(versioned[0]);
+            return new Reservation(latest + 1, 0);
+        });
+
+        return appended[0].handle((ignored, error) -> {
+            if (error != null) {
+                // The mark never happened: the key's newest version is the one before it
+                if (previous[0] != null) {
+                    versions.replace(mark.key(), reserved, previous[0]);
+                } else {
+                    versions.remove(mark.key(), reserved);
+                }
+                log.error("Failed to journal attendance for student {} on {}: {}",
+                        mark.studentId(), mark.date(), error.getMessage());
+                throw new BusinessException("Attendance could not be recorded, please retry",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return versioned[0];
+        });
+    }
+
+    /**
+     * Pending (not yet flushed) mark for a student on a date
+     */
+    public Optional<AttendanceMark> getPending(Long studentId, LocalDate date) {
+        return Optional.ofNullable(pending.get(new AttendanceMark.Key(studentId, date)));
+    }
+
+    /**
+     * Pending marks for a date
+     */
+    public List<AttendanceMark> getPendingForDate(LocalDate date) {
+        return pending.values().stream()
+                .filter(mark -> mark.date().equals(date))
+                .toList();
+    }
+
+    /**
+     * Pending marks for a student between dates
+     */
+    public List<AttendanceMark> getPendingForStudent(Long studentId, LocalDate startDate, LocalDate endDate) {
+        return pending.values().stream()
+                .filter(mark -> mark.studentId().equals(studentId))
+                .filter(mark -> !mark.date().isBefore(startDate) && !mark.date().isAfter(endDate))
+                .toList();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Flush pending marks to the database and drop the journal segments they came from
+     */
+    @Scheduled(fixedDelayString = "${app.attendance.write-behind.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        try {
+            // Roll first: every mark in a sealed segment is already in the pending map
+            List<Path> sealed = journal.roll();
+            if (pending.isEmpty()) {
+                journal.delete(sealed);
+                return;
+            }
+
+            List<AttendanceMark> snapshot = new ArrayList<>(pending.values());
+            snapshot.sort(Comparator.comparing(AttendanceMark::schoolId)
+                    .thenComparing(AttendanceMark::date).thenComparing(AttendanceMark::studentId));
+            long started = System.currentTimeMillis();
+
+            // Chunks never span schools, so each is written on its school's shard
+            List<AttendanceMark> unwritten = new ArrayList<>();
+            int from = 0;
+            while (from < snapshot.size()) {
+                Long schoolId = snapshot.get(from).schoolId();
+                int to = from;
+                while (to < snapshot.size() && to - from < batchSize && snapshot.get(to).schoolId().equals(schoolId)) {
+                    to++;
+                }
+                List<AttendanceMark> chunk = snapshot.subList(from, to);
+                unwritten.addAll(tenantJobs.forSchool(schoolId, () -> writeChunk(chunk)));
+                from = to;
+            }
+
+            // A newer mark for the same key stays pending for the next flush, as do unwritten ones
+            snapshot.removeAll(new HashSet<>(unwritten));
+            snapshot.forEach(mark -> pending.remove(mark.key(), mark));
+            long flushedAt = System.currentTimeMillis();
+            snapshot.forEach(mark -> versions.replace(mark.key(), new Reservation(mark.version(), 0),
+                    new Reservation(mark.version(), flushedAt)));
+            versions.values().removeIf(reservation -> reservation.flushedAt() > 0
+                    && reservation.flushedAt() < flushedAt - RESERVATION_RETENTION_MS);
+            if (unwritten.isEmpty()) {
+                journal.delete(sealed);
+            }
+
+            log.info("Flushed {} attendance marks in {} ms ({} still pending, {} to retry, journal fsyncs so far: {} for {} appends)",
+                    snapshot.size(), System.currentTimeMillis() - started, pending.size(), unwritten.size(),
+                    journal.getSyncCount(), journal.getAppendCount());
+        } catch (IOException | DataAccessException e) {
+            log.error("Attendance write-behind flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Flush remaining marks and close the journal
+     */
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        journal.close();
+        deadLetters.close();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Write a chunk in one transaction. If the batch fails on a constraint (e.g. a student was
+     * deleted meanwhile), fall back to row-by-row so one bad mark cannot block the rest of the
+     * journal. Returns the marks left to retry at the next flush; any other failure (e.g. the
+     * database is unreachable) leaves the rest of the chunk for the next flush as well.
+     */
+    private List<AttendanceMark> writeChunk(List<AttendanceMark> chunk) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> upsert(chunk));
+            chunk.forEach(mark -> rejections.remove(mark.key()));
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Batch of {} attendance marks failed ({}), retrying row by row", chunk.size(), e.getMessage());
+        } catch (DataAccessException e) {
+            log.warn("Batch of {} attendance marks failed, will retry: {}", chunk.size(), e.getMessage());
+            return chunk;
+        }
+
+        List<AttendanceMark> unwritten = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            AttendanceMark mark = chunk.get(i);
+            try {
+                transaction.executeWithoutResult(status -> upsert(List.of(mark)));
+                rejections.remove(mark.key());
+            } catch (DataIntegrityViolationException rowError) {
+                if (!reject(mark, rowError)) {
+                    unwritten.add(mark);
+                }
+            } catch (DataAccessException rowError) {
+                log.warn("Attendance marks left for the next flush: {}", rowError.getMessage());
+                unwritten.addAll(chunk.subList(i, chunk.size()));
+                break;
+            }
+        }
+        return unwritten;
+    }
+
+    /**
+     * Count a constraint rejection of a mark; after max-attempts in a row the mark is moved to the
+     * dead-letter journal (true). A mark that cannot be dead-lettered is kept for retry.
+     */
+    private boolean reject(AttendanceMark mark, DataAccessException error) {
+        int attempts = rejections.merge(mark.key(), 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            log.warn("Attendance mark for student {} on {} rejected ({} of {} attempts): {}",
+                    mark.studentId(), mark.date(), attempts, maxAttempts, error.getMessage());
+            return false;
+        }
+        try {
+            deadLetters.append(mark).join();
+        } catch (RuntimeException e) {
+            log.error("Failed to dead-letter attendance mark for student {} on {}: {}",
+                    mark.studentId(), mark.date(), e.getMessage());
+            return false;
+        }
+        rejections.remove(mark.key());
+        log.error("Attendance mark for student {} on {} moved to the dead-letter journal after {} attempts: {}",
+                mark.studentId(), mark.date(), attempts, error.getMessage());
+        return true;
+    }
+
+    /**
+     * Batch UPDATE existing rows, then batch INSERT the ones that did not exist,
+     * recording history versions in the same transaction
+     */
+    private void upsert(List<AttendanceMark> marks) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, marks, marks.size(), (ps, mark) -> {
+            ps.setByte(1, mark.status().getCode());
+            ps.setString(2, mark.note());
+            ps.setTime(3, mark.markedTime() != null ? Time.valueOf(mark.markedTime()) : null);
+            ps.setObject(4, mark.teacherId());
+            ps.setTimestamp(5, now);
+            ps.setLong(6, mark.version());
+            ps.setLong(7, mark.studentId());
+            ps.setDate(8, Date.valueOf(mark.date()));
+        });
+
+        writeHistory(marks);
+
+        List<AttendanceMark> inserts = new ArrayList<>();
+        int[] counts = updated.length > 0 ? updated[0] : new int[0];
+        for (int i = 0; i < marks.size(); i++) {
+            if (i >= counts.length || counts[i] == 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                inserts.add(marks.get(i));
+            }
+        }
+        if (inserts.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, mark) -> {
+            ps.setDate(1, Date.valueOf(mark.date()));
+            ps.setByte(2, mark.status().getCode());
+            ps.setString(3, mark.note());
+            ps.setTime(4, mark.markedTime() != null ? Time.valueOf(mark.markedTime()) : null);
+            ps.setLong(5, mark.studentId());
+            ps.setObject(6, mark.teacherId());
+            ps.setTimestamp(7, Timestamp.valueOf(mark.markedAt()));
+            ps.setTimestamp(8, now);
+            ps.setLong(9, mark.version());
+            ps.setLong(10, mark.studentId());
+            ps.setDate(11, Date.valueOf(mark.date()));
+        });
+    }
+
+    private void writeHistory(List<AttendanceMark> marks) {
+        // Marks in a chunk are distinct per (student, date): they come from the pending map
+        List<AttendanceHistoryWriter.Version> versions = marks.stream()
+                .map(mark -> new AttendanceHistoryWriter.Version(mark.studentId(), mark.date(), mark.status(),
+                        mark.note(), mark.markedTime(), mark.teacherId(), false))
+                .toList();
+        LocalDateTime changedAt = LocalDateTime.now();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            AttendanceHistoryWriter.write(connection, versions, changedAt);
+            return null;
+        });
+    }
+
+    /**
+     * The mark with the higher version: a key's pending mark is never replaced by an older one
+     */
+    private static AttendanceMark newer(AttendanceMark current, AttendanceMark candidate) {
+        return candidate.version() >= current.version() ? candidate : current;
+    }
+
+    /**
+     * Version of a key's latest accepted mark, and when it was flushed (0 while pending)
+     */
+    private record Reservation(long version, long flushedAt) {
+    }
+}
@@ -0,0 +1,66 @@
+-- School calendar: holidays and extra working days stored once per school (or class)
+-- instead of one HOLIDAY attendance row per student. standard NULL = whole school;
+-- section NULL with a standard = every section of that standard. Weekly off days come
+-- from app.calendar.weekly-off-days and are not stored.
+
+CREATE TABLE IF NOT EXISTS school_calendar_days (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    school_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    standard VARCHAR(10) NULL,
+    section VARCHAR(10) NULL,
+    working_day BOOLEAN NOT NULL DEFAULT FALSE,
+    description VARCHAR(200) NULL,
+    created_at TIMESTAMP NULL,
+
+    INDEX idx_calendar_school_date (school_id, date),
+    CONSTRAINT fk_calendar_school FOREIGN KEY (school_id) REFERENCES schools(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Collapse existing HOLIDAY rows (status 5), hot and archive tiers.
+-- Only classes where every mark of the day is HOLIDAY are collapsed; a student marked
+-- HOLIDAY in a class that otherwise met keeps the row.
+CREATE TEMPORARY TABLE tmp_holiday_classes AS
+SELECT s.school_id, a.date, s.standard, s.section
+FROM (SELECT student_id, date, status FROM attendance_records
+      UNION ALL
+      SELECT student_id, date, status FROM attendance_records_archive) a
+JOIN students s ON s.id = a.student_id
+GROUP BY s.school_id, a.date, s.standard, s.section
+HAVING SUM(a.status <> 5) = 0;
+
+CREATE TEMPORARY TABLE tmp_working_school_days AS
+SELECT DISTINCT s.school_id, a.date
+FROM (SELECT student_id, date, status FROM attendance_records
+      UNION ALL
+      SELECT student_id, date, status FROM attendance_records_archive) a
+JOIN students s ON s.id = a.student_id
+WHERE a.status <> 5;
+
+-- Nobody in the school met that day: one school-wide holiday
+INSERT INTO school_calendar_days (school_id, date, standard, section, working_day, description, created_at)
+SELECT DISTINCT h.school_id, h.date, NULL, NULL, FALSE, 'Holiday', NOW()
+FROM tmp_holiday_classes h
+LEFT JOIN tmp_working_school_days w ON w.school_id = h.school_id AND w.date = h.date
+WHERE w.school_id IS NULL;
+
+-- Otherwise: a holiday for just those classes
+INSERT INTO school_calendar_days (school_id, date, standard, section, working_day, description, created_at)
+SELECT h.school_id, h.date, h.standard, h.section, FALSE, 'Holiday', NOW()
+FROM tmp_holiday_classes h
+JOIN tmp_working_school_days w ON w.school_id = h.school_id AND w.date = h.date;
+
+DELETE ar FROM attendance_records ar
+JOIN students s ON s.id = ar.student_id
+JOIN tmp_holiday_classes h ON h.school_id = s.school_id AND h.date = ar.date
+     AND h.standard = s.standard AND h.section <=> s.section
+WHERE ar.status = 5;
+
+DELETE ar FROM attendance_records_archive ar
+JOIN students s ON s.id = ar.student_id
+JOIN tmp_holiday_classes h ON h.school_id = s.school_id AND h.date = ar.date
+     AND h.standard = s.standard AND h.section <=> s.section
+WHERE ar.status = 5;
+
+DROP TEMPORARY TABLE tmp_working_school_days;
+DROP TEMPORARY TABLE tmp_holiday_classes;
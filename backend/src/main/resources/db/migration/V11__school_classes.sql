@@ -0,0 +1,82 @@
+-- First-class classes: (school, standard, section) gets a compact INT id that students and
+-- teacher assignments reference instead of repeating the strings.
+
+CREATE TABLE IF NOT EXISTS school_classes (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    school_id BIGINT NOT NULL,
+    standard VARCHAR(10) NOT NULL,
+    section VARCHAR(10) NULL,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+
+    UNIQUE KEY uk_school_classes (school_id, standard, section),
+    CONSTRAINT fk_school_classes_school FOREIGN KEY (school_id) REFERENCES schools(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Classes that have students
+INSERT INTO school_classes (school_id, standard, section, created_at)
+SELECT DISTINCT school_id, standard, section, NOW() FROM students;
+
+-- Classes only referenced by teacher assignments ("10-A", or "10" without a section)
+INSERT INTO school_classes (school_id, standard, section, created_at)
+SELECT DISTINCT t.school_id,
+       SUBSTRING_INDEX(tc.class_name, '-', 1),
+       NULLIF(SUBSTRING(tc.class_name, LENGTH(SUBSTRING_INDEX(tc.class_name, '-', 1)) + 2), ''),
+       NOW()
+FROM teacher_classes tc
+JOIN teachers t ON t.id = tc.teacher_id
+WHERE NOT EXISTS (
+    SELECT 1 FROM school_classes c
+    WHERE c.school_id = t.school_id
+      AND c.standard = SUBSTRING_INDEX(tc.class_name, '-', 1)
+      AND c.section <=> NULLIF(SUBSTRING(tc.class_name, LENGTH(SUBSTRING_INDEX(tc.class_name, '-', 1)) + 2), ''));
+
+-- Students: class_id replaces standard/section
+ALTER TABLE students ADD COLUMN class_id INT NULL;
+
+UPDATE students s
+JOIN school_classes c ON c.school_id = s.school_id AND c.standard = s.standard AND c.section <=> s.section
+SET s.class_id = c.id;
+
+ALTER TABLE students MODIFY class_id INT NOT NULL,
+    ADD CONSTRAINT fk_students_class FOREIGN KEY (class_id) REFERENCES school_classes(id);
+
+-- The old (roll_no, standard, section, school_id) unique key was generated by Hibernate, so look up its name;
+-- dropping the columns first would silently shrink it to (roll_no, school_id)
+SET @old_uk = (SELECT index_name FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'students'
+                 AND column_name = 'standard' AND non_unique = 0
+               LIMIT 1);
+SET @drop_old_uk = IF(@old_uk IS NULL, 'SELECT 1', CONCAT('ALTER TABLE students DROP INDEX `', @old_uk, '`'));
+PREPARE stmt FROM @drop_old_uk;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+DROP INDEX IF EXISTS idx_students_school_class_active ON students;
+
+CREATE UNIQUE INDEX uk_students_class_roll ON students (class_id, roll_no);
+CREATE INDEX IF NOT EXISTS idx_students_class_active_roll ON students (class_id, is_active, roll_no);
+CREATE INDEX IF NOT EXISTS idx_students_school_active ON students (school_id, is_active);
+
+ALTER TABLE students DROP COLUMN standard, DROP COLUMN section;
+
+-- Teacher assignments: (teacher, class id) pairs replace free-text class names
+CREATE TABLE IF NOT EXISTS teacher_class_assignments (
+    teacher_id BIGINT NOT NULL,
+    class_id INT NOT NULL,
+
+    PRIMARY KEY (teacher_id, class_id),
+    INDEX idx_teacher_class_assignments_class (class_id, teacher_id),
+    CONSTRAINT fk_teacher_class_assignments_teacher FOREIGN KEY (teacher_id) REFERENCES teachers(id) ON DELETE CASCADE,
+    CONSTRAINT fk_teacher_class_assignments_class FOREIGN KEY (class_id) REFERENCES school_classes(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT IGNORE INTO teacher_class_assignments (teacher_id, class_id)
+SELECT tc.teacher_id, c.id
+FROM teacher_classes tc
+JOIN teachers t ON t.id = tc.teacher_id
+JOIN school_classes c ON c.school_id = t.school_id
+     AND c.standard = SUBSTRING_INDEX(tc.class_name, '-', 1)
+     AND c.section <=> NULLIF(SUBSTRING(tc.class_name, LENGTH(SUBSTRING_INDEX(tc.class_name, '-', 1)) + 2), '');
+
+DROP TABLE teacher_classes;
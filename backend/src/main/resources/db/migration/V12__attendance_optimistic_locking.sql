@@ -0,0 +1,21 @@
+-- Optimistic locking for attendance rows and idempotency keys for the marking API.
+-- Existing rows start at version 0; JPA updates and the write-behind flush increment it.
+
+ALTER TABLE attendance_records
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Short-lived: rows expire after app.attendance.idempotency.ttl-hours and are purged hourly.
+-- Not moved by the shard rebalancer; a retry after a school moves simply marks again.
+CREATE TABLE IF NOT EXISTS attendance_idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    student_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    record_version BIGINT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_attendance_idempotency_key UNIQUE (idempotency_key),
+    INDEX idx_attendance_idempotency_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,7 @@
+-- notification_logs had no secondary indexes: status counts filtered on DATE(sent_at) and the
+-- table grew forever. Counts now use sent_at ranges and old rows are purged in chunks.
+
+CREATE INDEX IF NOT EXISTS idx_notification_logs_status_sent ON notification_logs (status, sent_at);
+CREATE INDEX IF NOT EXISTS idx_notification_logs_type_sent ON notification_logs (type, sent_at);
+CREATE INDEX IF NOT EXISTS idx_notification_logs_school_sent ON notification_logs (school_id, sent_at);
+CREATE INDEX IF NOT EXISTS idx_notification_logs_sent ON notification_logs (sent_at);
@@ -0,0 +1,5 @@
+-- Per-school time zone, used to warm each school's caches before its day starts.
+-- NULL falls back to app.cache.warm-up.default-time-zone.
+
+ALTER TABLE schools
+    ADD COLUMN time_zone VARCHAR(50) NULL;
@@ -0,0 +1,11 @@
+-- Cluster-wide school move lock and change version on the shard directory.
+-- A move takes the lock by setting moving_since/moving_owner on the school's row (a row is
+-- created for schools still on the default shard); every instance checks it before accepting
+-- a write for the school. Every change bumps version, so instances reload the directory when
+-- the sum of versions changes. A lock older than app.sharding.rebalance.lock-timeout-ms is
+-- considered abandoned (its mover crashed) and may be taken over.
+
+ALTER TABLE school_shard_assignments
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN moving_since TIMESTAMP NULL,
+    ADD COLUMN moving_owner VARCHAR(100) NULL;
@@ -0,0 +1,34 @@
+-- A class without a section is stored with section '' instead of NULL: uk_school_classes treats
+-- NULLs as distinct, so concurrent creation of "10" (no section) could insert duplicate classes.
+-- Duplicates that already exist are merged into the oldest row before the column is tightened.
+
+CREATE TEMPORARY TABLE school_class_merge AS
+SELECT c.id AS old_id, k.keep_id
+FROM school_classes c
+JOIN (SELECT school_id, standard, COALESCE(section, '') AS section, MIN(id) AS keep_id
+      FROM school_classes
+      GROUP BY school_id, standard, COALESCE(section, '')) k
+  ON k.school_id = c.school_id AND k.standard = c.standard AND k.section = COALESCE(c.section, '')
+WHERE c.id <> k.keep_id;
+
+-- Fails on uk_students_class_roll if two duplicates hold the same roll number; resolve those by hand
+UPDATE students s
+JOIN school_class_merge m ON m.old_id = s.class_id
+SET s.class_id = m.keep_id;
+
+INSERT IGNORE INTO teacher_class_assignments (teacher_id, class_id)
+SELECT a.teacher_id, m.keep_id
+FROM teacher_class_assignments a
+JOIN school_class_merge m ON m.old_id = a.class_id;
+
+DELETE a FROM teacher_class_assignments a
+JOIN school_class_merge m ON m.old_id = a.class_id;
+
+DELETE c FROM school_classes c
+JOIN school_class_merge m ON m.old_id = c.id;
+
+DROP TEMPORARY TABLE school_class_merge;
+
+UPDATE school_classes SET section = '' WHERE section IS NULL;
+
+ALTER TABLE school_classes MODIFY section VARCHAR(10) NOT NULL DEFAULT '';
@@ -0,0 +1,14 @@
+-- A class without a section keeps its registers under section '' instead of NULL, as in
+-- school_classes (V16): uk_register_class_date treats NULLs as distinct, so two migration runs
+-- for the same day could each insert a register for "10". Registers are derived from
+-- attendance_records, so duplicates are resolved by keeping the most recently written one.
+
+DELETE r FROM class_day_registers r
+JOIN class_day_registers newer
+  ON newer.school_id = r.school_id AND newer.standard = r.standard AND newer.date = r.date
+ AND COALESCE(newer.section, '') = COALESCE(r.section, '')
+ AND newer.id > r.id;
+
+UPDATE class_day_registers SET section = '' WHERE section IS NULL;
+
+ALTER TABLE class_day_registers MODIFY section VARCHAR(10) NOT NULL DEFAULT '';
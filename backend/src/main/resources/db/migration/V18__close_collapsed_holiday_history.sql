@@ -0,0 +1,21 @@
+-- V10 moved HOLIDAY rows (status 5) into the school calendar and deleted them, but left their
+-- current history versions open, so as-of reads still returned the deleted rows. Close every open
+-- HOLIDAY version whose row no longer exists in either tier, as of when the school calendar took
+-- the day over, and record why. change_reason is NULL for ordinary corrections.
+
+ALTER TABLE attendance_record_history ADD COLUMN change_reason VARCHAR(100) NULL;
+
+UPDATE attendance_record_history h
+LEFT JOIN attendance_records ar ON ar.student_id = h.student_id AND ar.date = h.date
+LEFT JOIN attendance_records_archive aa ON aa.student_id = h.student_id AND aa.date = h.date
+SET h.valid_to = COALESCE(
+        (SELECT MIN(c.created_at)
+         FROM school_calendar_days c
+         JOIN students s ON s.school_id = c.school_id
+         WHERE s.id = h.student_id AND c.date = h.date AND c.working_day = FALSE),
+        CURRENT_TIMESTAMP(6)),
+    h.change_reason = 'Holiday moved to the school calendar'
+WHERE h.valid_to IS NULL
+  AND h.status = 5
+  AND ar.student_id IS NULL
+  AND aa.student_id IS NULL;
@@ -0,0 +1,13 @@
+-- Idempotency keys are scoped to the school of the marked student and the caller that sent them
+-- (the authenticated user name, '' for anonymous calls): a key is only unique per client, so two
+-- clients, or two schools, picking the same key must not answer each other's retries.
+-- Existing keys cannot be attributed to a caller and live for hours only, so they are dropped;
+-- a retry of one of them simply marks again.
+
+DELETE FROM attendance_idempotency_keys;
+
+ALTER TABLE attendance_idempotency_keys
+    DROP INDEX uk_attendance_idempotency_key,
+    ADD COLUMN school_id BIGINT NOT NULL,
+    ADD COLUMN caller VARCHAR(100) NOT NULL DEFAULT '',
+    ADD CONSTRAINT uk_attendance_idempotency_key UNIQUE (school_id, caller, idempotency_key);
@@ -0,0 +1,8 @@
+-- Idempotency keys are claimed before the mark is applied: a PENDING row is inserted first, so the
+-- unique key rejects a concurrent request carrying the same key, and is COMPLETED with the outcome
+-- once the mark is durable. A pending row expires after app.attendance.idempotency.pending-timeout-seconds,
+-- so a claim abandoned by a crash does not block retries for the whole ttl.
+-- Every existing row describes a mark that was applied.
+
+ALTER TABLE attendance_idempotency_keys
+    ADD COLUMN status VARCHAR(20) NOT NULL DEFAULT 'COMPLETED';
@@ -0,0 +1,16 @@
+-- The school a student or teacher account belongs to, so requests are routed to the caller's own
+-- school instead of one named by the client. Users stay on the default shard; the backfill covers
+-- accounts whose student or teacher row is on that shard, others are set when the account is linked.
+
+ALTER TABLE users
+    ADD COLUMN school_id BIGINT NULL;
+
+UPDATE users u
+JOIN teachers t ON t.id = u.reference_id
+SET u.school_id = t.school_id
+WHERE u.role = 'TEACHER';
+
+UPDATE users u
+JOIN students s ON s.id = u.reference_id
+SET u.school_id = s.school_id
+WHERE u.role = 'STUDENT';
@@ -0,0 +1,20 @@
+-- One calendar entry per school, date and scope. The "every standard" / "every section" scope was
+-- NULL, which a unique key treats as distinct, so it is stored as '*' instead ('' remains a class
+-- without a section). Duplicates from concurrent declarations keep the most recently written entry.
+-- The unique key starts with (school_id, date) and replaces idx_calendar_school_date.
+
+DELETE d FROM school_calendar_days d
+JOIN school_calendar_days newer
+  ON newer.school_id = d.school_id AND newer.date = d.date
+ AND COALESCE(newer.standard, '*') = COALESCE(d.standard, '*')
+ AND COALESCE(newer.section, '*') = COALESCE(d.section, '*')
+ AND newer.id > d.id;
+
+UPDATE school_calendar_days SET standard = '*' WHERE standard IS NULL;
+UPDATE school_calendar_days SET section = '*' WHERE section IS NULL;
+
+ALTER TABLE school_calendar_days
+    MODIFY standard VARCHAR(10) NOT NULL DEFAULT '*',
+    MODIFY section VARCHAR(10) NOT NULL DEFAULT '*',
+    ADD CONSTRAINT uk_calendar_school_date_scope UNIQUE (school_id, date, standard, section),
+    DROP INDEX idx_calendar_school_date;
@@ -0,0 +1,9 @@
+-- Archive segments are registered before their rows are moved, so range queries read both tiers
+-- across a year while it is being archived. archived_at stays NULL until every row has been moved;
+-- registered_at is when the segment became visible to the boundary caches of other nodes.
+
+ALTER TABLE attendance_archive_segments
+    ADD COLUMN registered_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP AFTER row_count,
+    MODIFY archived_at TIMESTAMP NULL DEFAULT NULL;
+
+UPDATE attendance_archive_segments SET registered_at = archived_at;
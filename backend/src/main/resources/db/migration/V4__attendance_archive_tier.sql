@@ -0,0 +1,34 @@
+-- Hot/cold tiering for attendance records
+-- Closed academic years are moved out of attendance_records into a compressed archive table,
+-- keeping the hot table and its indexes small enough to stay in the buffer pool.
+
+-- Archive tier: same columns as attendance_records, no foreign keys, compressed pages
+CREATE TABLE attendance_records_archive (
+    id BIGINT PRIMARY KEY,
+    date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    note VARCHAR(500),
+    marked_time TIME,
+    is_holiday BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    student_id BIGINT NOT NULL,
+    teacher_id BIGINT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    -- Only the per-student range lookup is served from the archive
+    INDEX idx_archive_student_date (student_id, date),
+    INDEX idx_archive_date (date)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Registry of archived academic years; MAX(end_date) is the hot/cold boundary
+CREATE TABLE attendance_archive_segments (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    academic_year VARCHAR(9) NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    row_count BIGINT NOT NULL DEFAULT 0,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    UNIQUE KEY uk_archive_segment_year (academic_year)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,57 @@
+-- Compact attendance status encoding
+-- status moves from the enum name (VARCHAR) to a one-byte code, is_holiday is dropped
+-- (it is derived from status = HOLIDAY), and the wide indexes are replaced by two
+-- covering indexes that match the repository queries exactly.
+-- Codes: 1=PRESENT 2=ABSENT 3=LATE 4=HALF_DAY 5=HOLIDAY 6=SICK_LEAVE (see AttendanceRecord.AttendanceStatus)
+
+-- Hot table
+ALTER TABLE attendance_records ADD COLUMN status_code TINYINT NULL AFTER status;
+
+UPDATE attendance_records SET status_code = CASE
+    WHEN is_holiday THEN 5
+    WHEN status = 'PRESENT' THEN 1
+    WHEN status = 'ABSENT' THEN 2
+    WHEN status = 'LATE' THEN 3
+    WHEN status = 'HALF_DAY' THEN 4
+    WHEN status = 'HOLIDAY' THEN 5
+    WHEN status = 'SICK_LEAVE' THEN 6
+END;
+
+-- New indexes are built on the code column before the old ones are dropped, so the
+-- student_id foreign key is never left without a supporting index; they follow the rename.
+-- Per-student range queries (counts, statistics, percentage, trend)
+CREATE INDEX idx_attendance_student_date_status ON attendance_records(student_id, date, status_code);
+-- Per-day summaries and status lookups (daily/class summaries, findByDateAndStatus)
+CREATE INDEX idx_attendance_date_status_student ON attendance_records(date, status_code, student_id);
+
+ALTER TABLE attendance_records
+    DROP INDEX idx_attendance_summary,
+    DROP INDEX idx_attendance_status,
+    DROP INDEX idx_attendance_date_status,
+    DROP INDEX idx_attendance_student_date,
+    DROP INDEX idx_attendance_student_id,
+    DROP INDEX idx_attendance_date,
+    DROP COLUMN status,
+    DROP COLUMN is_holiday,
+    CHANGE COLUMN status_code status TINYINT NOT NULL;
+
+-- Archive table
+ALTER TABLE attendance_records_archive ADD COLUMN status_code TINYINT NULL AFTER status;
+
+UPDATE attendance_records_archive SET status_code = CASE
+    WHEN is_holiday THEN 5
+    WHEN status = 'PRESENT' THEN 1
+    WHEN status = 'ABSENT' THEN 2
+    WHEN status = 'LATE' THEN 3
+    WHEN status = 'HALF_DAY' THEN 4
+    WHEN status = 'HOLIDAY' THEN 5
+    WHEN status = 'SICK_LEAVE' THEN 6
+END;
+
+CREATE INDEX idx_archive_student_date_status ON attendance_records_archive(student_id, date, status_code);
+
+ALTER TABLE attendance_records_archive
+    DROP INDEX idx_archive_student_date,
+    DROP COLUMN status,
+    DROP COLUMN is_holiday,
+    CHANGE COLUMN status_code status TINYINT NOT NULL;
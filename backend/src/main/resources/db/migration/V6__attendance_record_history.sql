@@ -0,0 +1,26 @@
+-- Temporal history for attendance corrections
+-- One row per version of a (student_id, date) attendance entry. A version is valid over
+-- [valid_from, valid_to); valid_to IS NULL marks the current version, and a closed version
+-- without a successor means the entry was deleted. Rows are only ever inserted or closed.
+
+CREATE TABLE attendance_record_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    date DATE NOT NULL,
+    status TINYINT NOT NULL,
+    note VARCHAR(500),
+    marked_time TIME,
+    teacher_id BIGINT NULL,
+    valid_from TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    valid_to TIMESTAMP(6) NULL DEFAULT NULL,
+
+    -- As-of lookups for one student's day (also used to close the current version)
+    INDEX idx_history_student_date_valid (student_id, date, valid_from),
+    -- As-of lookups for a whole register on a date, and corrections made to a date
+    INDEX idx_history_date_valid (date, valid_from)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Seed the current version of every existing record
+INSERT INTO attendance_record_history (student_id, date, status, note, marked_time, teacher_id, valid_from)
+SELECT student_id, date, status, note, marked_time, teacher_id, COALESCE(updated_at, created_at, CURRENT_TIMESTAMP(6))
+FROM attendance_records;
@@ -0,0 +1,22 @@
+-- Class-day register storage model (one row per class per day)
+-- student_ids: 8-byte student IDs in roll-number order; statuses: one status code per student
+-- (0 = not marked, otherwise the AttendanceStatus code); notes: sparse JSON keyed by student ID.
+-- Filled by ClassDayRegisterMigrationService; read when app.attendance.storage-model=register.
+
+CREATE TABLE class_day_registers (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    school_id BIGINT NOT NULL,
+    standard VARCHAR(10) NOT NULL,
+    section VARCHAR(10),
+    date DATE NOT NULL,
+    student_ids VARBINARY(1600) NOT NULL,
+    statuses VARBINARY(200) NOT NULL,
+    notes VARCHAR(4000),
+    teacher_id BIGINT NULL,
+    marked_at TIMESTAMP NULL,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+
+    UNIQUE KEY uk_register_class_date (school_id, standard, section, date),
+    INDEX idx_register_school_date (school_id, date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
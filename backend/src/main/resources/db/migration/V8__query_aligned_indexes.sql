@@ -0,0 +1,34 @@
+-- Index set derived from the repository queries (checked by IndexUsageExplainTest).
+-- New indexes are created before the ones they replace so foreign keys always keep a
+-- supporting index. Indexes that only duplicate a unique key prefix, or serve no query,
+-- are dropped to cut write amplification on the marking path.
+
+-- students: class queries filter (school_id, standard, section), mostly with is_active,
+-- and order by roll_no; school-wide listings and counts use the school_id prefix
+CREATE INDEX IF NOT EXISTS idx_students_school_class_active
+    ON students(school_id, standard, section, is_active, roll_no);
+-- gr_no and roll_no lookups are served by uk (gr_no, school_id) and uk (roll_no, standard, section, school_id)
+DROP INDEX IF EXISTS idx_students_gr_no ON students;
+DROP INDEX IF EXISTS idx_students_roll_no ON students;
+DROP INDEX IF EXISTS idx_students_created_at ON students;
+
+-- teachers: active listings ordered by first name, optionally filtered by primary subject
+CREATE INDEX IF NOT EXISTS idx_teachers_school_active_name ON teachers(school_id, is_active, first_name);
+CREATE INDEX IF NOT EXISTS idx_teachers_school_subject ON teachers(school_id, primary_subject, is_active, first_name);
+-- email lookups are served by the unique key on email
+DROP INDEX IF EXISTS idx_teachers_email ON teachers;
+DROP INDEX IF EXISTS idx_teachers_created_at ON teachers;
+
+-- Teacher collections are searched by value (teachers of a subject / class)
+CREATE INDEX IF NOT EXISTS idx_teacher_subjects_subject ON teacher_subjects(subject, teacher_id);
+CREATE INDEX IF NOT EXISTS idx_teacher_classes_class ON teacher_classes(class_name, teacher_id);
+
+-- attendance_records: (student_id, date, status) and (date, status, student_id) come from V5;
+-- the teacher's marks for a day are read in marking order, and "not marked" checks probe (teacher_id, date)
+CREATE INDEX IF NOT EXISTS idx_attendance_teacher_date_created ON attendance_records(teacher_id, date, created_at);
+DROP INDEX IF EXISTS idx_attendance_teacher_date ON attendance_records;
+DROP INDEX IF EXISTS idx_attendance_teacher_id ON attendance_records;
+DROP INDEX IF EXISTS idx_attendance_created_at ON attendance_records;
+
+-- users: login resolves the linked student/teacher by (reference_id, role)
+CREATE INDEX IF NOT EXISTS idx_users_reference_role ON users(reference_id, role);
@@ -0,0 +1,12 @@
+-- School-to-shard directory, kept on the default shard.
+-- Schools without a row live on the default shard; the shard rebalancer switches a row
+-- only after the school's data has been copied and verified on the target shard.
+-- No foreign key to schools: a school's row may live on another shard.
+
+CREATE TABLE school_shard_assignments (
+    school_id BIGINT PRIMARY KEY,
+    shard_key VARCHAR(50) NOT NULL,
+    assigned_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_shard_assignments_shard (shard_key)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,95 @@
+package com.school.attendance.config.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Staleness window after a correction and invalidation throughput across three instances on the
+ * in-memory pub/sub channel.
+ * Run with: mvn test -Dtest=CacheInvalidationBusBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CacheInvalidationBusBenchmarkTest {
+
+    private static final String SUMMARIES = "attendanceSummaries";
+    private static final String KEY = "summary:student:42:from:2024-07-01:to:2024-07-31";
+    private static final int MESSAGES = 20_000;
+
+    private final InMemoryPubSubChannel channel = new InMemoryPubSubChannel();
+    private final List<LayeredCacheManager> managers = new ArrayList<>();
+    private final List<CacheInvalidationBus> buses = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager shared = new ConcurrentMapCacheManager();
+        for (int i = 0; i < 3; i++) {
+            LayeredCacheManager manager = new LayeredCacheManager(new LayeredCacheProperties(), shared);
+            CacheInvalidationBus bus = new CacheInvalidationBus(channel.connect());
+            bus.bind(manager);
+            managers.add(manager);
+            buses.add(bus);
+        }
+        channel.drain();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.close();
+    }
+
+    @Test
+    void measureStalenessAfterACorrection() {
+        cache(0).put(KEY, "92%");
+        assertEquals("92%", cache(1).get(KEY, String.class));
+        assertEquals("92%", cache(2).get(KEY, String.class));
+
+        long corrected = System.nanoTime();
+        cache(0).put(KEY, "95%");
+        awaitTrue(() -> "95%".equals(cache(1).get(KEY, String.class)) && "95%".equals(cache(2).get(KEY, String.class)));
+        long stalenessMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - corrected);
+
+        System.out.printf("%nStaleness window after a correction: %d us (max lag reported by node: %d ms)%n",
+                stalenessMicros, buses.get(1).getMaxLagMs());
+    }
+
+    @Test
+    void measureMessageThroughput() {
+        long started = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            cache(0).evict("count:class:" + (i % 500));
+        }
+        awaitTrue(() -> buses.get(1).getReceived() == MESSAGES && buses.get(2).getReceived() == MESSAGES);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("%nInvalidation throughput: %d messages to 2 nodes in %.0f ms (%.0f msg/s per node)%n",
+                MESSAGES, seconds * 1000, MESSAGES / seconds);
+        assertEquals(MESSAGES, buses.get(0).getPublished());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private LayeredCache cache(int node) {
+        return managers.get(node).getCache(SUMMARIES);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condition not met within 60 s");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.school.attendance.config.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three instances sharing one cache tier and an in-memory stand-in for the Redis pub/sub channel.
+ * Staleness and throughput are measured in CacheInvalidationBusBenchmarkTest
+ */
+class CacheInvalidationBusTest {
+
+    private static final String SUMMARIES = "attendanceSummaries";
+    private static final String KEY = "summary:student:42:from:2024-07-01:to:2024-07-31";
+
+    private final InMemoryPubSubChannel channel = new InMemoryPubSubChannel();
+    private final List<Node> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager shared = new ConcurrentMapCacheManager();
+        for (int i = 0; i < 3; i++) {
+            LayeredCacheManager manager = new LayeredCacheManager(new LayeredCacheProperties(), shared);
+            InMemoryPubSubChannel.Subscriber subscriber = channel.connect();
+            CacheInvalidationBus bus = new CacheInvalidationBus(subscriber);
+            bus.bind(manager);
+            nodes.add(new Node(manager, bus, subscriber));
+        }
+        // Let each node's initial clear run before the test writes anything
+        channel.drain();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.close();
+    }
+
+    @Test
+    void testCorrectionOnOneNodeReachesTheOthers() {
+        cache(0).put(KEY, "92%");
+        assertEquals("92%", cache(1).get(KEY, String.class));
+        assertEquals("92%", cache(2).get(KEY, String.class));
+
+        cache(0).put(KEY, "95%");
+        awaitTrue(() -> "95%".equals(cache(1).get(KEY, String.class)) && "95%".equals(cache(2).get(KEY, String.class)));
+        // The writer's own message does not evict its fresh copy
+        assertEquals("95%", cache(0).getNativeCache().getIfPresent(KEY));
+    }
+
+    @Test
+    void testScopedEvictionReachesEntriesOnlyOtherNodesTracked() {
+        // Only node 2 has read this entry, so only its tag index knows it
+        String daily = "date:2024-07-02:school:1";
+        cache(2).put(daily, "class summary");
+        awaitTrue(() -> nodes.get(0).bus().getReceived() == 1);
+
+        nodes.get(0).manager().evict(CacheScope.school(1L).on(LocalDate.of(2024, 7, 2)), SUMMARIES);
+
+        awaitTrue(() -> cache(2).getNativeCache().getIfPresent(daily) == null);
+        assertNull(cache(0).get(daily));
+        assertNull(cache(2).get(daily));
+    }
+
+    @Test
+    void testReconnectFlushesLocalTier() {
+        cache(0).put(KEY, "92%");
+        awaitTrue(() -> nodes.get(2).bus().getReceived() == 1);
+        assertEquals("92%", cache(2).get(KEY, String.class));
+
+        nodes.get(2).subscriber().disconnect();
+        cache(0).put(KEY, "95%");
+        awaitTrue(() -> nodes.get(1).bus().getReceived() == 2);
+        // The message was lost, node 2 still serves its local copy
+        assertEquals("92%", cache(2).get(KEY, String.class));
+
+        nodes.get(2).subscriber().reconnect();
+        awaitTrue(() -> nodes.get(2).bus().getResubscriptions() == 1);
+        assertEquals("95%", cache(2).get(KEY, String.class));
+    }
+
+    @Test
+    void testExistenceKeysReachOtherNodesAndMissedOnesAreReported() {
+        List<String> added = new CopyOnWriteArrayList<>();
+        List<Integer> missed = new CopyOnWriteArrayList<>();
+        for (int i = 1; i < 3; i++) {
+            int node = i;
+            nodes.get(i).bus().setKeyAdditionListener(new CacheInvalidationBus.KeyAdditionListener() {
+                @Override
+                public void keyAdded(long schoolId, String kind, long hash) {
+                    added.add(node + ":" + schoolId + ":" + kind + ":" + hash);
+                }
+
+                @Override
+                public void additionsMissed() {
+                    missed.add(node);
+                }
+            });
+        }
+
+        nodes.get(0).bus().publishKeyAdded(1L, "ATTENDANCE", -42L);
+        awaitTrue(() -> added.size() == 2);
+        assertTrue(added.containsAll(List.of("1:1:ATTENDANCE:-42", "2:1:ATTENDANCE:-42")), added.toString());
+
+        nodes.get(2).subscriber().disconnect();
+        nodes.get(2).subscriber().reconnect();
+        awaitTrue(() -> missed.equals(List.of(2)));
+    }
+
+    @Test
+    void testMessagesAreCompactAndRoundTrip() {
+        CacheInvalidationMessage key = CacheInvalidationMessage.key("a1b2c3d4", SUMMARIES, 42L);
+        assertTrue(key.encode().length() < 64, key.encode());
+        assertEquals(42L, CacheInvalidationMessage.decode(key.encode()).key());
+        assertEquals(KEY, CacheInvalidationMessage.decode(
+                CacheInvalidationMessage.key("a1b2c3d4", SUMMARIES, KEY).encode()).key());
+
+        CacheScope scope = CacheScope.school(1L).on(LocalDate.of(2024, 7, 2));
+        CacheInvalidationMessage decoded = CacheInvalidationMessage.decode(
+                CacheInvalidationMessage.scope("a1b2c3d4", scope, List.of(SUMMARIES, "dashboardAnalytics")).encode());
+        assertEquals(scope, decoded.scope());
+        assertEquals(List.of(SUMMARIES, "dashboardAnalytics"), decoded.cacheNames());
+
+        nodes.get(1).bus().onMessage("garbage");
+        assertEquals(1, nodes.get(1).bus().getRejected());
+    }
+
+    @Test
+    void testEveryEvictionReachesEveryOtherNode() {
+        int messages = 200;
+        for (int i = 0; i < messages; i++) {
+            cache(0).evict("count:class:" + i);
+        }
+        awaitTrue(() -> nodes.get(1).bus().getReceived() == messages && nodes.get(2).bus().getReceived() == messages);
+        assertEquals(messages, nodes.get(0).bus().getPublished());
+        assertEquals(0, nodes.get(1).bus().getRejected());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private LayeredCache cache(int node) {
+        return nodes.get(node).manager().getCache(SUMMARIES);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condition not met within 10 s");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private record Node(LayeredCacheManager manager, CacheInvalidationBus bus, InMemoryPubSubChannel.Subscriber subscriber) {
+    }
+}
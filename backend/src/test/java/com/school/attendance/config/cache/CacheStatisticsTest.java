@@ -0,0 +1,101 @@
+package com.school.attendance.config.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-prefix statistics and meters of a layered cache over a map standing in for Redis
+ */
+class CacheStatisticsTest {
+
+    private static final String TREND = "trend:student:42:from:2024-07-01:to:2024-07-31";
+    private static final String DAILY = "dailySummary:date:2024-07-02:school:1";
+
+    private ConcurrentMapCacheManager shared;
+    private SimpleMeterRegistry registry;
+    private LayeredCacheManager manager;
+
+    @BeforeEach
+    void setUp() {
+        shared = new ConcurrentMapCacheManager();
+        registry = new SimpleMeterRegistry();
+        manager = new LayeredCacheManager(new LayeredCacheProperties(), shared);
+        manager.bindTo(registry);
+    }
+
+    @Test
+    void testPrefixKeepsNamesAndDropsValues() {
+        assertEquals("trend:student:*", CacheStatistics.prefixOf(TREND));
+        assertEquals("dailySummary:date:*", CacheStatistics.prefixOf(DAILY));
+        assertEquals("student:*", CacheStatistics.prefixOf("student:42"));
+        assertEquals("grNo:*", CacheStatistics.prefixOf("grNo:GR-AB:school:1"));
+        assertEquals("students:class:*", CacheStatistics.prefixOf("students:class:7:page:0:size:20"));
+        assertEquals("Long", CacheStatistics.prefixOf(42L));
+    }
+
+    @Test
+    void testRequestsAndLoadsAreCountedPerPrefix() {
+        LayeredCache cache = manager.getCache("attendancePatterns");
+        cache.get(TREND, () -> List.of(1, 2, 3));
+        cache.get(TREND, () -> List.of());
+        shared.getCache("attendancePatterns").put(DAILY, "summary");
+        cache.get(DAILY, () -> "other");
+        cache.evict(TREND);
+
+        Map<String, CacheStatistics.PrefixSnapshot> snapshot = cache.getStatistics().snapshot();
+        CacheStatistics.PrefixSnapshot trend = snapshot.get("trend:student:*");
+        assertEquals(1, trend.localHits());
+        assertEquals(1, trend.misses());
+        assertEquals(1, trend.loads());
+        assertEquals(0.5, trend.hitRatio());
+        assertEquals(1, trend.invalidations());
+        CacheStatistics.PrefixSnapshot daily = snapshot.get("dailySummary:date:*");
+        assertEquals(1, daily.sharedHits());
+        assertEquals(0, daily.loads());
+
+        assertEquals(1.0, registry.get("cache.requests")
+                .tags("cache", "attendancePatterns", "prefix", "trend:student:*", "result", "miss")
+                .functionCounter().count());
+        assertEquals(1, registry.get("cache.loads")
+                .tags("cache", "attendancePatterns", "prefix", "trend:student:*", "outcome", "success")
+                .timer().count());
+        // Caffeine's own statistics of the local tier
+        assertEquals(1.0, registry.get("cache.size").tags("cache", "attendancePatterns").gauge().value());
+    }
+
+    @Test
+    void testUnexpectedPrefixesAreCappedUnderOther() {
+        LayeredCache cache = manager.getCache("studentProfiles");
+        for (int i = 0; i < CacheStatistics.MAX_PREFIXES + 10; i++) {
+            cache.get("kind" + i + ":1", () -> "value");
+        }
+
+        Map<String, CacheStatistics.PrefixSnapshot> snapshot = cache.getStatistics().snapshot();
+        assertEquals(CacheStatistics.MAX_PREFIXES + 1, snapshot.size());
+        assertEquals(10, snapshot.get(CacheStatistics.OTHER).misses());
+    }
+
+    @Test
+    void testFootprintIsMeasuredPerPrefix() {
+        LayeredCache cache = manager.getCache("attendanceSummaries");
+        for (long student = 1; student <= 30; student++) {
+            cache.put("summary:student:" + student + ":from:2024-07-01:to:2024-07-31",
+                    Map.of("present", 20, "absent", 2, "percentage", 90.9));
+        }
+        cache.put("date:2024-07-02:school:1", "x".repeat(1000));
+
+        Map<String, CacheFootprint.PrefixFootprint> footprint = cache.footprint();
+        assertEquals(30, footprint.get("summary:student:*").entries());
+        assertTrue(footprint.get("summary:student:*").estimatedBytes() > 30 * 30);
+        assertEquals(1, footprint.get("date:*").entries());
+        assertEquals(1002, footprint.get("date:*").estimatedBytes());
+        assertEquals(cache.estimatedBytes(), CacheFootprint.estimatedBytes(footprint));
+    }
+}
@@ -0,0 +1,191 @@
+package com.school.attendance.config.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tags read from cache keys and scoped eviction across the layered caches
+ */
+class CacheTagIndexTest {
+
+    private static final LocalDate JULY_2 = LocalDate.of(2024, 7, 2);
+
+    private ConcurrentMapCacheManager shared;
+    private LayeredCacheManager manager;
+
+    @BeforeEach
+    void setUp() {
+        shared = new ConcurrentMapCacheManager();
+        manager = new LayeredCacheManager(new LayeredCacheProperties(), shared);
+    }
+
+    @Test
+    void testTagsAreReadFromKeys() {
+        CacheTags tags = CacheTags.fromKey("summary:student:42:from:2024-06-01:to:2024-06-30");
+        assertEquals(42L, tags.studentId());
+        assertTrue(tags.covers(LocalDate.of(2024, 6, 30)));
+        assertFalse(tags.covers(JULY_2));
+
+        CacheTags monthly = CacheTags.fromKey("monthly:school:1:year:2024:month:2");
+        assertEquals(1L, monthly.schoolId());
+        assertEquals(LocalDate.of(2024, 2, 29), monthly.to());
+
+        assertEquals(7, CacheTags.fromKey("students:class:7:page:0:size:20").classId());
+        // Search terms later in the key cannot retag the entry
+        assertEquals(1L, CacheTags.fromKey("search:school:1:name:school:2:page:0").schoolId());
+        assertTrue(CacheTags.fromKey(42L).isEmpty());
+        assertTrue(CacheTags.fromKey("standards:all").isEmpty());
+    }
+
+    @Test
+    void testSchoolScopeLeavesOtherSchoolsCached() {
+        LayeredCache classes = manager.getCache("classInformation");
+        LayeredCache config = manager.getCache("schoolConfiguration");
+        classes.put("count:school:1:standard:5:section:A", 30L);
+        classes.put("count:school:2:standard:5:section:A", 28L);
+        config.put("standards:school:1", "5,6");
+        config.put("standards:school:2", "5,6");
+
+        assertEquals(2, manager.evict(CacheScope.school(1L), "classInformation", "schoolConfiguration"));
+
+        assertNull(classes.get("count:school:1:standard:5:section:A"));
+        assertNull(shared.getCache("classInformation").get("count:school:1:standard:5:section:A"));
+        assertNull(config.get("standards:school:1"));
+        assertEquals(28L, classes.get("count:school:2:standard:5:section:A", Long.class));
+        assertEquals("5,6", config.get("standards:school:2", String.class));
+    }
+
+    @Test
+    void testDateScopeMatchesRangesCoveringTheDate() {
+        LayeredCache summaries = manager.getCache("attendanceSummaries");
+        LayeredCache patterns = manager.getCache("attendancePatterns");
+        summaries.put("date:2024-07-02:school:1", "day");
+        summaries.put("date:2024-07-03:school:1", "next day");
+        patterns.put("monthly:school:1:year:2024:month:7", "july");
+        patterns.put("monthly:school:1:year:2024:month:6", "june");
+        patterns.put("classStats:school:1:from:2024-06-01:to:2025-05-31", "year");
+        patterns.put("classStats:school:2:from:2024-07-01:to:2024-07-31", "other school");
+
+        assertEquals(3, manager.evict(CacheScope.school(1L).on(JULY_2)));
+
+        assertNull(summaries.get("date:2024-07-02:school:1"));
+        assertNull(patterns.get("monthly:school:1:year:2024:month:7"));
+        assertNull(patterns.get("classStats:school:1:from:2024-06-01:to:2025-05-31"));
+        assertNotNull(summaries.get("date:2024-07-03:school:1"));
+        assertNotNull(patterns.get("monthly:school:1:year:2024:month:6"));
+        assertNotNull(patterns.get("classStats:school:2:from:2024-07-01:to:2024-07-31"));
+
+        // A date alone reaches every school
+        assertEquals(1, manager.evict(CacheScope.date(JULY_2)));
+    }
+
+    @Test
+    void testStudentScopeAndCacheNameFilter() {
+        LayeredCache summaries = manager.getCache("attendanceSummaries");
+        LayeredCache patterns = manager.getCache("attendancePatterns");
+        summaries.put("summary:student:42:from:2024-06-01:to:2024-06-30", "summary");
+        patterns.put("trend:student:42:from:2024-06-01:to:2024-06-30", "trend");
+        patterns.put("trend:student:43:from:2024-06-01:to:2024-06-30", "other student");
+
+        assertEquals(1, manager.evict(CacheScope.student(42L), "attendancePatterns"));
+        assertNotNull(summaries.get("summary:student:42:from:2024-06-01:to:2024-06-30"));
+        assertNull(patterns.get("trend:student:42:from:2024-06-01:to:2024-06-30"));
+        assertNotNull(patterns.get("trend:student:43:from:2024-06-01:to:2024-06-30"));
+    }
+
+    @Test
+    void testEvictedAndClearedEntriesLeaveTheIndex() {
+        LayeredCache classes = manager.getCache("classInformation");
+        classes.put("count:class:7", 30L);
+        classes.put("count:class:8", 31L);
+        assertEquals(2, manager.getTagIndex().size());
+
+        classes.evict("count:class:7");
+        assertEquals(1, manager.getTagIndex().size());
+        assertEquals(0, manager.evict(CacheScope.schoolClass(7)));
+
+        classes.clear();
+        assertEquals(0, manager.getTagIndex().size());
+        assertThrows(IllegalArgumentException.class, () -> new CacheScope(null, null, null, null));
+    }
+
+    @Test
+    void testSharedTagsReachEntriesWrittenByOtherInstances() {
+        InMemoryTagStore tags = new InMemoryTagStore();
+        LayeredCacheManager writer = new LayeredCacheManager(new LayeredCacheProperties(), shared, tags);
+        writer.getCache("classInformation").put("count:school:1:standard:5:section:A", 30L);
+        writer.getCache("classInformation").put("count:school:2:standard:5:section:A", 28L);
+
+        // Another instance (or this one after a restart) has never seen the keys
+        LayeredCacheManager other = new LayeredCacheManager(new LayeredCacheProperties(), shared, tags);
+        assertEquals(1, other.evict(CacheScope.school(1L)));
+
+        assertNull(shared.getCache("classInformation").get("count:school:1:standard:5:section:A"));
+        assertNotNull(shared.getCache("classInformation").get("count:school:2:standard:5:section:A"));
+        assertEquals(0, other.evict(CacheScope.school(1L)));
+    }
+
+    @Test
+    void testUnreachableTagStoreFallsBackToLocalTags() {
+        CacheTagStore down = new CacheTagStore() {
+            @Override
+            public void add(Collection<String> tags, String member, long expiresAtMillis) {
+                throw new IllegalStateException("Redis is down");
+            }
+
+            @Override
+            public Set<String> members(Collection<String> tags, long nowMillis) {
+                throw new IllegalStateException("Redis is down");
+            }
+
+            @Override
+            public void remove(Collection<String> tags, String member) {
+                throw new IllegalStateException("Redis is down");
+            }
+        };
+        LayeredCacheManager degraded = new LayeredCacheManager(new LayeredCacheProperties(), shared, down);
+        degraded.getCache("classInformation").put("count:class:7", 30L);
+
+        assertEquals(1, degraded.evict(CacheScope.schoolClass(7)));
+        assertNull(degraded.getCache("classInformation").get("count:class:7"));
+    }
+
+    /**
+     * Shared tag store of a cluster, as Redis would hold it
+     */
+    private static class InMemoryTagStore implements CacheTagStore {
+
+        private final Map<String, Map<String, Long>> members = new ConcurrentHashMap<>();
+
+        @Override
+        public void add(Collection<String> tags, String member, long expiresAtMillis) {
+            tags.forEach(tag -> members.computeIfAbsent(tag, t -> new ConcurrentHashMap<>()).put(member, expiresAtMillis));
+        }
+
+        @Override
+        public Set<String> members(Collection<String> tags, long nowMillis) {
+            Set<String> unexpired = new HashSet<>();
+            tags.forEach(tag -> members.getOrDefault(tag, Map.of()).forEach((member, expiresAt) -> {
+                if (expiresAt > nowMillis) {
+                    unexpired.add(member);
+                }
+            }));
+            return unexpired;
+        }
+
+        @Override
+        public void remove(Collection<String> tags, String member) {
+            tags.forEach(tag -> members.getOrDefault(tag, new ConcurrentHashMap<>()).remove(member));
+        }
+    }
+}
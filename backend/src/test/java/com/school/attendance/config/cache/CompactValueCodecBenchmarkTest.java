@@ -0,0 +1,63 @@
+package com.school.attendance.config.cache;
+
+import com.school.attendance.config.RedisConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Payload size and encode/decode time of cached report rows: JDK serialization vs JSON vs the compact codec.
+ * Run with: mvn test -Dtest=CompactValueCodecBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CompactValueCodecBenchmarkTest {
+
+    private static final int[] ROW_COUNTS = {10, 100, 1000};
+    private static final int WARM_UP = 2000;
+    private static final int ITERATIONS = 5000;
+
+    @Test
+    void compareSerializers() {
+        Map<String, RedisSerializer<Object>> serializers = new LinkedHashMap<>();
+        serializers.put("jdk", new JdkSerializationRedisSerializer());
+        serializers.put("json", RedisConfig.jsonSerializer());
+        serializers.put("compact", new CompactValueCodec(Integer.MAX_VALUE));
+        serializers.put("compact+deflate", new CompactValueCodec(1024));
+
+        System.out.printf("%nCache value benchmark: report rows, %d iterations%n", ITERATIONS);
+        System.out.printf("%-8s %-16s %12s %14s %14s%n", "rows", "serializer", "bytes", "encode (us)", "decode (us)");
+        for (int rowCount : ROW_COUNTS) {
+            List<Map<String, Object>> rows = CompactValueCodecTest.reportRows(rowCount);
+            int iterations = Math.max(100, ITERATIONS * 10 / rowCount);
+            serializers.forEach((name, serializer) -> {
+                byte[] bytes = serializer.serialize(rows);
+                assertEquals(rowCount, ((List<?>) serializer.deserialize(bytes)).size());
+
+                measure(WARM_UP, () -> serializer.serialize(rows));
+                long encode = measure(iterations, () -> serializer.serialize(rows));
+                measure(WARM_UP, () -> serializer.deserialize(bytes));
+                long decode = measure(iterations, () -> serializer.deserialize(bytes));
+
+                System.out.printf("%-8d %-16s %12d %14.1f %14.1f%n", rowCount, name, bytes.length,
+                        encode / 1000.0 / iterations, decode / 1000.0 / iterations);
+            });
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static long measure(int iterations, Runnable operation) {
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        return System.nanoTime() - started;
+    }
+}
@@ -0,0 +1,129 @@
+package com.school.attendance.config.cache;
+
+import com.school.attendance.config.RedisConfig;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round trips, compression and versioning of the compact Redis value format
+ */
+class CompactValueCodecTest {
+
+    private final CompactValueCodec codec = new CompactValueCodec(1024);
+
+    @Test
+    void testReportRowsRoundTripAndAreSmallerThanJson() {
+        List<Map<String, Object>> rows = reportRows(20);
+
+        byte[] bytes = codec.serialize(rows);
+
+        assertEquals(rows, codec.deserialize(bytes));
+        byte[] json = RedisConfig.jsonSerializer().serialize(rows);
+        assertTrue(bytes.length * 2 < json.length, bytes.length + " bytes vs " + json.length + " as JSON");
+    }
+
+    @Test
+    void testScalarsCollectionsAndPagesRoundTrip() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("none", null);
+        value.put("flag", true);
+        value.put("negative", -7);
+        value.put("big", Long.MAX_VALUE);
+        value.put("ratio", 91.25);
+        value.put("amount", new BigDecimal("-1234.50"));
+        value.put("day", LocalDate.of(2024, 7, 2));
+        value.put("markedAt", LocalDateTime.of(2024, 7, 2, 8, 45, 12, 500));
+        value.put("time", LocalTime.of(8, 30));
+        value.put("status", AttendanceStatus.LATE);
+        value.put("sections", Set.of("A"));
+        value.put("मराठी", "विद्यार्थी");
+        assertEquals(value, codec.deserialize(codec.serialize(value)));
+
+        Page<String> page = new PageImpl<>(List.of("a", "b"), PageRequest.of(2, 2, Sort.by("rollNo").descending()), 40);
+        Page<?> decoded = (Page<?>) codec.deserialize(codec.serialize(page));
+        assertEquals(page.getContent(), decoded.getContent());
+        assertEquals(page.getPageable(), decoded.getPageable());
+        assertEquals(40, decoded.getTotalElements());
+    }
+
+    @Test
+    void testRecordsAndOtherTypesRoundTrip() {
+        Summary summary = new Summary(42L, "5", List.of(AttendanceStatus.PRESENT, AttendanceStatus.ABSENT), 50.0);
+        assertEquals(summary, codec.deserialize(codec.serialize(summary)));
+
+        Holder holder = new Holder();
+        holder.name = "fallback";
+        holder.count = 3;
+        Holder decoded = (Holder) codec.deserialize(codec.serialize(holder));
+        assertEquals("fallback", decoded.name);
+        assertEquals(3, decoded.count);
+    }
+
+    @Test
+    void testLargeValuesAreCompressed() {
+        List<Map<String, Object>> rows = reportRows(500);
+
+        byte[] compressed = codec.serialize(rows);
+        byte[] plain = new CompactValueCodec(Integer.MAX_VALUE).serialize(rows);
+
+        assertEquals(1, compressed[2]);
+        assertEquals(0, plain[2]);
+        assertTrue(compressed.length < plain.length / 2, compressed.length + " vs " + plain.length);
+        assertEquals(rows, codec.deserialize(compressed));
+    }
+
+    @Test
+    void testOtherVersionsAndFormatsAreRejected() {
+        byte[] bytes = codec.serialize(reportRows(1));
+        bytes[1] = CompactValueCodec.VERSION + 1;
+        assertThrows(SerializationException.class, () -> codec.deserialize(bytes));
+
+        byte[] json = RedisConfig.jsonSerializer().serialize(reportRows(1));
+        assertThrows(SerializationException.class, () -> codec.deserialize(json));
+        assertNull(codec.deserialize(new byte[0]));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    static List<Map<String, Object>> reportRows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("studentId", 1000L + i);
+            row.put("studentName", "Student " + i);
+            row.put("standard", String.valueOf(5 + i % 5));
+            row.put("section", i % 2 == 0 ? "A" : "B");
+            row.put("date", LocalDate.of(2024, 7, 1).plusDays(i % 30));
+            row.put("present", 18L + i % 3);
+            row.put("absent", (long) i % 4);
+            row.put("percentage", 90.0 - i % 7);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    record Summary(Long studentId, String standard, List<AttendanceStatus> statuses, double percentage) {
+    }
+
+    static class Holder {
+        public String name;
+        public int count;
+    }
+}
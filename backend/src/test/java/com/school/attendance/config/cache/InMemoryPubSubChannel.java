@@ -0,0 +1,65 @@
+package com.school.attendance.config.cache;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory stand-in for the Redis pub/sub channel: every published message is handed to each
+ * connected subscriber's own delivery thread (asynchronous, fire-and-forget delivery; messages are
+ * lost while a subscriber is disconnected)
+ */
+class InMemoryPubSubChannel {
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    Subscriber connect() {
+        Subscriber subscriber = new Subscriber();
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Wait until every subscriber has handled what was queued to it so far
+     */
+    void drain() {
+        subscribers.forEach(subscriber -> CompletableFuture.runAsync(() -> { }, subscriber.delivery).join());
+    }
+
+    void close() {
+        subscribers.forEach(subscriber -> subscriber.delivery.shutdownNow());
+    }
+
+    class Subscriber implements CacheInvalidationTransport {
+
+        private final ExecutorService delivery = Executors.newSingleThreadExecutor();
+        private volatile CacheInvalidationTransport.Listener listener;
+        private volatile boolean connected = true;
+
+        @Override
+        public void publish(String message) {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.connected) {
+                    subscriber.delivery.execute(() -> subscriber.listener.onMessage(message));
+                }
+            }
+        }
+
+        @Override
+        public void subscribe(CacheInvalidationTransport.Listener listener) {
+            this.listener = listener;
+            delivery.execute(listener::onSubscribed);
+        }
+
+        void disconnect() {
+            connected = false;
+        }
+
+        void reconnect() {
+            connected = true;
+            delivery.execute(listener::onSubscribed);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.school.attendance.config.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Local tier in front of a shared tier (a concurrent map standing in for Redis)
+ */
+class LayeredCacheManagerTest {
+
+    private ConcurrentMapCacheManager shared;
+    private LayeredCacheProperties properties;
+    private LayeredCacheManager manager;
+
+    @BeforeEach
+    void setUp() {
+        properties = bind(Map.of(
+                "app.cache.defaults.ttl", "30m",
+                "app.cache.caches.studentProfiles.ttl", "1h",
+                "app.cache.caches.studentProfiles.local-max-size", "2",
+                "app.cache.caches.dashboardAnalytics.ttl", "20s",
+                "app.cache.caches.dashboardAnalytics.local-ttl", "1m"));
+        shared = new ConcurrentMapCacheManager();
+        shared.setAllowNullValues(false);
+        manager = new LayeredCacheManager(properties, shared);
+    }
+
+    @Test
+    void testPerCacheSettingsFallBackToDefaults() {
+        LayeredCacheProperties.Spec students = properties.specFor("studentProfiles");
+        assertEquals(Duration.ofHours(1), students.getTtl());
+        assertEquals(2L, students.getLocalMaxSize());
+        assertEquals(Duration.ofMinutes(1), students.getLocalTtl());
+
+        // The local copy never outlives the shared entry
+        assertEquals(Duration.ofSeconds(20), properties.specFor("dashboardAnalytics").effectiveLocalTtl());
+        assertEquals(Duration.ofMinutes(30), properties.specFor("unconfigured").getTtl());
+        assertTrue(manager.getCacheNames().containsAll(List.of("studentProfiles", "dashboardAnalytics")));
+    }
+
+    @Test
+    void testSharedHitsAreCopiedToTheLocalTier() {
+        shared.getCache("classInformation").put("count:class:7", 42L);
+        LayeredCache cache = manager.getCache("classInformation");
+
+        assertEquals(42L, cache.get("count:class:7", Long.class));
+        shared.getCache("classInformation").evict("count:class:7");
+        // Served from memory now, without going back to the shared tier
+        assertEquals(42L, cache.get("count:class:7", Long.class));
+        assertNull(cache.get("missing"));
+    }
+
+    @Test
+    void testWritesAndEvictionsReachBothTiers() {
+        LayeredCache cache = manager.getCache("studentProfiles");
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("Asha", cache.get(1L, () -> { loads.incrementAndGet(); return "Asha"; }));
+        assertEquals("Asha", cache.get(1L, () -> { loads.incrementAndGet(); return "other"; }));
+        assertEquals(1, loads.get());
+        assertEquals("Asha", shared.getCache("studentProfiles").get(1L).get());
+
+        cache.evict(1L);
+        assertNull(cache.get(1L));
+        assertNull(shared.getCache("studentProfiles").get(1L));
+
+        cache.put(2L, "Ravi");
+        cache.clear();
+        assertNull(cache.get(2L));
+        assertNull(shared.getCache("studentProfiles").get(2L));
+    }
+
+    @Test
+    void testLocalTierIsBounded() {
+        LayeredCache cache = manager.getCache("studentProfiles");
+        for (long id = 1; id <= 50; id++) {
+            cache.put(id, "student " + id);
+        }
+        cache.getNativeCache().cleanUp();
+
+        assertTrue(cache.getNativeCache().estimatedSize() <= 2);
+        // Entries evicted locally are still served from the shared tier
+        assertEquals("student 1", cache.get(1L, String.class));
+    }
+
+    @Test
+    void testSharedTierFailureFallsBackToLocal() {
+        Cache failing = new ConcurrentMapCache("schoolConfiguration", false) {
+            @Override
+            public ValueWrapper get(Object key) {
+                throw new IllegalStateException("connection refused");
+            }
+
+            @Override
+            public void put(Object key, Object value) {
+                throw new IllegalStateException("connection refused");
+            }
+        };
+        LayeredCacheManager failingManager = new LayeredCacheManager(properties, new ConcurrentMapCacheManager() {
+            @Override
+            public Cache getCache(String name) {
+                return failing;
+            }
+        });
+        LayeredCache cache = failingManager.getCache("schoolConfiguration");
+
+        assertEquals("loaded", cache.get("standards:school:1", () -> "loaded"));
+        assertEquals("loaded", cache.get("standards:school:1", String.class));
+    }
+
+    @Test
+    void testLocalOnlyWithoutSharedManager() {
+        LayeredCacheManager localOnly = new LayeredCacheManager(properties, null);
+        LayeredCache cache = localOnly.getCache("attendancePatterns");
+
+        cache.put("trend:1", "up");
+        assertFalse(localOnly.isShared());
+        assertNull(cache.getShared());
+        assertEquals("up", cache.get("trend:1", String.class));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static LayeredCacheProperties bind(Map<String, String> values) {
+        return new Binder(new MapConfigurationPropertySource(values))
+                .bindOrCreate("app.cache", LayeredCacheProperties.class);
+    }
+}
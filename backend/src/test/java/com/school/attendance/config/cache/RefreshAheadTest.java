@@ -0,0 +1,136 @@
+package com.school.attendance.config.cache;
+
+import com.school.attendance.config.sharding.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Background reloads of entries that are still read late in their ttl (2s ttl, refresh after 500 ms)
+ */
+class RefreshAheadTest {
+
+    private LayeredCacheManager manager;
+    private LayeredCache cache;
+
+    @BeforeEach
+    void setUp() {
+        LayeredCacheProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "app.cache.refresh-threads", "1",
+                "app.cache.caches.dashboardAnalytics.ttl", "2s",
+                "app.cache.caches.dashboardAnalytics.local-ttl", "2s",
+                "app.cache.caches.dashboardAnalytics.refresh-ahead", "0.25")))
+                .bind("app.cache", LayeredCacheProperties.class).get();
+        manager = new LayeredCacheManager(properties, null);
+        cache = manager.getCache("dashboardAnalytics");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    void testLateReadServesCurrentValueAndSwapsInReload() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        assertEquals(1, cache.get("today", () -> loads.incrementAndGet()));
+
+        Thread.sleep(600);
+        long started = System.nanoTime();
+        Integer served = cache.get("today", () -> {
+            release.await(5, TimeUnit.SECONDS);
+            return loads.incrementAndGet();
+        });
+        // The reader does not wait for the reload
+        assertEquals(1, served);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 200);
+        // A second late read while the reload runs does not start another one
+        assertEquals(1, cache.get("today", () -> loads.incrementAndGet()));
+
+        release.countDown();
+        awaitTrue(() -> cache.getRefreshes() == 1);
+        assertEquals(2, cache.get("today", Integer.class));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testReloadRunsForTheReadersSchool() throws Exception {
+        AtomicReference<Long> reloadedFor = new AtomicReference<>();
+        cache.get("today", () -> 1);
+
+        Thread.sleep(600);
+        TenantContext.callForSchool(7L, () -> cache.get("today", () -> {
+            reloadedFor.set(TenantContext.getSchoolId());
+            return 2;
+        }));
+
+        awaitTrue(() -> cache.getRefreshes() == 1);
+        assertEquals(7L, reloadedFor.get());
+        assertNull(TenantContext.getSchoolId());
+    }
+
+    @Test
+    void testEarlyReadsDoNotRefresh() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("today", () -> loads.incrementAndGet());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, cache.get("today", () -> loads.incrementAndGet()));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, cache.getRefreshes());
+    }
+
+    @Test
+    void testFailedReloadKeepsCurrentValue() throws Exception {
+        cache.get("today", () -> "cached");
+
+        Thread.sleep(600);
+        AtomicInteger attempts = new AtomicInteger();
+        assertEquals("cached", cache.get("today", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("database unavailable");
+        }));
+        awaitTrue(() -> attempts.get() == 1);
+
+        Thread.sleep(50);
+        assertEquals("cached", cache.get("today", String.class));
+        assertEquals(0, cache.getRefreshes());
+    }
+
+    @Test
+    void testEvictedEntriesAreNotRefreshed() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("today", () -> loads.incrementAndGet());
+        cache.put("other", "value");
+
+        Thread.sleep(600);
+        cache.evict("today");
+        // A plain miss loads on the caller's thread and restarts the clock
+        assertEquals(2, cache.get("today", () -> loads.incrementAndGet()));
+        assertEquals(2, cache.get("today", () -> loads.incrementAndGet()));
+        assertEquals(0, cache.getRefreshes());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the refresh");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.school.attendance.config.cache;
+
+import com.school.attendance.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent misses on one key share a single computation
+ */
+class SingleFlightTest {
+
+    private static final int CALLERS = 50;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentCallersShareOneComputation() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        AtomicInteger runs = new AtomicInteger();
+
+        List<String> results = callConcurrently(() -> singleFlight.execute("classStats:school:1", () -> {
+            runs.incrementAndGet();
+            sleep(300);
+            return "stats";
+        }));
+
+        assertEquals(1, runs.get());
+        assertTrue(results.stream().allMatch("stats"::equals));
+        assertEquals(CALLERS - 1, singleFlight.getCoalesced());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void testDifferentKeysAndLaterCallsRunAgain() {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+
+        assertEquals("a", singleFlight.execute("school:1", () -> "a"));
+        assertEquals("b", singleFlight.execute("school:2", () -> "b"));
+        // Nothing is remembered once a computation has finished
+        assertEquals("c", singleFlight.execute("school:1", () -> "c"));
+        assertEquals(3, singleFlight.getExecutions());
+    }
+
+    @Test
+    void testWaitersGiveUpAfterTheTimeout() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> leader = pool.submit(() -> singleFlight.execute("slow", () -> {
+            started.countDown();
+            sleep(1000);
+            return "done";
+        }));
+        started.await();
+
+        BusinessException timeout = assertThrows(BusinessException.class,
+                () -> singleFlight.execute("slow", Duration.ofMillis(50), () -> "not run"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, timeout.getStatus());
+        // The computation itself carries on
+        assertEquals("done", leader.get());
+    }
+
+    @Test
+    void testFailureReachesEveryWaiterAndIsNotRemembered() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> leader = pool.submit(() -> singleFlight.execute("failing", () -> {
+            started.countDown();
+            sleep(300);
+            throw new IllegalStateException("database unavailable");
+        }));
+        started.await();
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("failing", () -> "not run"));
+        assertEquals("database unavailable", failure.getMessage());
+        assertThrows(Exception.class, leader::get);
+        assertEquals("recovered", singleFlight.execute("failing", () -> "recovered"));
+    }
+
+    @Test
+    void testCacheMissesOnOneKeyLoadOnce() throws Exception {
+        LayeredCache cache = new LayeredCacheManager(new LayeredCacheProperties(), null).getCache("attendancePatterns");
+        AtomicInteger loads = new AtomicInteger();
+
+        List<String> results = callConcurrently(() -> cache.get("classStats:school:1:from:2024-07-01:to:2024-07-31", () -> {
+            loads.incrementAndGet();
+            sleep(300);
+            return "stats";
+        }));
+
+        assertEquals(1, loads.get());
+        assertTrue(results.stream().allMatch("stats"::equals));
+        assertEquals("stats", cache.get("classStats:school:1:from:2024-07-01:to:2024-07-31", String.class));
+
+        Cache.ValueRetrievalException failure = assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get("classStats:school:2", () -> {
+                    throw new IllegalStateException("query failed");
+                }));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private List<String> callConcurrently(Supplier<String> call) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(pool.submit(() -> {
+                go.await();
+                return call.get();
+            }));
+        }
+        go.countDown();
+        List<String> results = new ArrayList<>();
+        for (Future<String> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
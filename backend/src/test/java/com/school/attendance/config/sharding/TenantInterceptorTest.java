@@ -0,0 +1,93 @@
+package com.school.attendance.config.sharding;
+
+import com.school.attendance.entity.Role;
+import com.school.attendance.entity.User;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.service.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * School binding of requests for admins, school accounts and unauthenticated callers
+ */
+class TenantInterceptorTest {
+
+    private ShardDirectory shardDirectory;
+    private TenantInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        shardDirectory = mock(ShardDirectory.class);
+        interceptor = new TenantInterceptor(shardDirectory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testSchoolAccountIsBoundToItsOwnSchool() {
+        signIn(Role.TEACHER, 2L);
+
+        interceptor.preHandle(request("GET", null), new MockHttpServletResponse(), new Object());
+        assertEquals(2L, TenantContext.getSchoolId());
+
+        interceptor.preHandle(request("GET", "2"), new MockHttpServletResponse(), new Object());
+        assertEquals(2L, TenantContext.getSchoolId());
+    }
+
+    @Test
+    void testSchoolAccountCannotNameAnotherSchool() {
+        signIn(Role.TEACHER, 2L);
+
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> interceptor.preHandle(request("POST", "3"), new MockHttpServletResponse(), new Object()));
+        assertEquals(HttpStatus.FORBIDDEN, error.getStatus());
+        verify(shardDirectory, never()).beginWrite(anyLong());
+    }
+
+    @Test
+    void testAdminChoosesTheSchool() {
+        signIn(Role.ADMIN, null);
+
+        interceptor.preHandle(request("GET", "3"), new MockHttpServletResponse(), new Object());
+        assertEquals(3L, TenantContext.getSchoolId());
+    }
+
+    @Test
+    void testUnauthenticatedRequestCannotNameASchool() {
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> interceptor.preHandle(request("GET", "3"), new MockHttpServletResponse(), new Object()));
+        assertEquals(HttpStatus.UNAUTHORIZED, error.getStatus());
+
+        interceptor.preHandle(request("GET", null), new MockHttpServletResponse(), new Object());
+        assertNull(TenantContext.getSchoolId());
+    }
+
+    private static MockHttpServletRequest request(String method, String schoolHeader) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/attendance");
+        if (schoolHeader != null) {
+            request.addHeader(TenantInterceptor.SCHOOL_HEADER, schoolHeader);
+        }
+        return request;
+    }
+
+    private static void signIn(Role role, Long schoolId) {
+        User user = new User("user", "secret", role, "user@school.test");
+        user.setSchoolId(schoolId);
+        CustomUserDetails principal = new CustomUserDetails(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.school.attendance.entity;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ClassDayRegister packing
+ */
+class ClassDayRegisterTest {
+
+    private final LocalDate date = LocalDate.of(2024, 7, 15);
+
+    @Test
+    void testNewRegisterIsUnmarked() {
+        ClassDayRegister register = new ClassDayRegister(1L, "10", "A", date, List.of(11L, 12L, 13L));
+
+        assertEquals(3, register.size());
+        assertEquals(24, register.getStudentIds().length);
+        assertEquals(12L, register.studentIdAt(1));
+        assertNull(register.statusAt(1));
+    }
+
+    @Test
+    void testClassWithoutSectionUsesTheEmptySection() {
+        ClassDayRegister register = new ClassDayRegister(1L, "10", null, date, List.of(11L));
+        assertEquals(SchoolClass.NO_SECTION, register.getSection());
+
+        register.setSection(null);
+        assertEquals(SchoolClass.NO_SECTION, register.getSection());
+    }
+
+    @Test
+    void testMarkStoresStatusAndSparseNotes() {
+        ClassDayRegister register = new ClassDayRegister(1L, "10", "A", date, List.of(11L, 12L, 13L));
+
+        register.mark(12L, AttendanceStatus.LATE, "Bus delay", 5L);
+        register.mark(13L, AttendanceStatus.PRESENT, null, 5L);
+
+        assertEquals(AttendanceStatus.LATE, register.statusAt(1));
+        assertEquals(AttendanceStatus.PRESENT, register.statusAt(2));
+        assertNull(register.statusAt(0));
+        assertEquals(1, register.getNotes().size());
+        assertEquals("Bus delay", register.getNotes().get(12L));
+        assertEquals(5L, register.getTeacherId());
+
+        // Re-marking without a note clears it
+        register.mark(12L, AttendanceStatus.PRESENT, null, 6L);
+        assertTrue(register.getNotes().isEmpty());
+    }
+
+    @Test
+    void testMarkAppendsLateJoiner() {
+        ClassDayRegister register = new ClassDayRegister(1L, "10", "A", date, List.of(11L));
+
+        register.mark(99L, AttendanceStatus.ABSENT, null, null);
+
+        assertEquals(2, register.size());
+        assertEquals(1, register.indexOf(99L));
+        assertEquals(AttendanceStatus.ABSENT, register.statusAt(1));
+    }
+
+    @Test
+    void testRosterSizeIsBounded() {
+        List<Long> roster = LongStream.rangeClosed(1, ClassDayRegister.MAX_CLASS_SIZE).boxed().toList();
+        ClassDayRegister register = new ClassDayRegister(1L, "10", "A", date, roster);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> register.mark(10_000L, AttendanceStatus.PRESENT, null, null));
+    }
+}
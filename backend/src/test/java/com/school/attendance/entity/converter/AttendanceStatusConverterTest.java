@@ -0,0 +1,83 @@
+package com.school.attendance.entity.converter;
+
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.Student;
+import com.school.attendance.repository.EntitySchema;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Attendance status stored as its TINYINT code: converter mapping and an H2 round trip
+ */
+class AttendanceStatusConverterTest {
+
+    private final AttendanceStatusConverter converter = new AttendanceStatusConverter();
+
+    @Test
+    void testEveryStatusRoundTripsThroughItsCode() {
+        for (AttendanceStatus status : AttendanceStatus.values()) {
+            Byte code = converter.convertToDatabaseColumn(status);
+            assertEquals(status.getCode(), code);
+            assertEquals(status, converter.convertToEntityAttribute(code));
+        }
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute((byte) 99));
+    }
+
+    @Test
+    void testStatusIsStoredAsTinyintCode() throws SQLException {
+        String url = "jdbc:h2:mem:status-code;DB_CLOSE_DELAY=-1";
+        AttendanceStatus[] statuses = AttendanceStatus.values();
+        try (SessionFactory sessionFactory = EntitySchema.open(url);
+             Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO schools (id, name) VALUES (1, 'School 1')");
+            statement.execute("INSERT INTO school_classes (id, school_id, standard, section) VALUES (1, 1, '10', 'A')");
+            statement.execute("INSERT INTO students (id, gr_no, roll_no, first_name, last_name, date_of_birth, gender, " +
+                    "class_id, is_active, school_id) VALUES (1, 'GR1', '1', 'First', 'Last', DATE '2012-01-01', 'MALE', 1, TRUE, 1)");
+
+            sessionFactory.inTransaction(session -> {
+                Student student = session.getReference(Student.class, 1L);
+                for (int i = 0; i < statuses.length; i++) {
+                    session.persist(new AttendanceRecord(LocalDate.of(2024, 7, 1 + i), statuses[i], null,
+                            LocalTime.of(8, 0), student, null));
+                }
+            });
+
+            try (ResultSet rs = statement.executeQuery("SELECT status FROM attendance_records ORDER BY date")) {
+                assertEquals(Types.TINYINT, rs.getMetaData().getColumnType(1));
+                for (AttendanceStatus status : statuses) {
+                    assertTrue(rs.next());
+                    assertEquals(status.getCode(), rs.getByte(1));
+                }
+            }
+            List<AttendanceStatus> read = new ArrayList<>(sessionFactory.fromSession(session -> session
+                    .createQuery("SELECT a.status FROM AttendanceRecord a ORDER BY a.date", AttendanceStatus.class)
+                    .getResultList()));
+            assertEquals(List.of(statuses), read);
+
+            // Queries compare against the code, not the enum name
+            long absent = sessionFactory.fromSession(session -> session
+                    .createQuery("SELECT COUNT(a) FROM AttendanceRecord a WHERE a.status = :status", Long.class)
+                    .setParameter("status", AttendanceStatus.ABSENT)
+                    .getSingleResult());
+            assertEquals(1L, absent);
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.school.attendance.entity.listener;
+
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.AttendanceRecordHistory;
+import com.school.attendance.entity.Student;
+import com.school.attendance.repository.AttendanceHistoryWriter;
+import com.school.attendance.repository.AttendanceHistoryWriter.Version;
+import com.school.attendance.repository.AttendanceRecordHistoryRepository;
+import com.school.attendance.repository.AttendanceRecordRepositoryImpl;
+import com.school.attendance.repository.EntitySchema;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * History versions written for JPA and bulk changes, and the as-of queries that read them, on H2.
+ * The listener is registered by {@link AttendanceHistoryIntegrator} through the service loader.
+ */
+class AttendanceHistoryListenerTest {
+
+    private static final String URL = "jdbc:h2:mem:attendance_history;DB_CLOSE_DELAY=-1";
+    private static final LocalDate DAY = LocalDate.of(2024, 7, 15);
+
+    private static SessionFactory sessionFactory;
+    private static Connection connection;
+
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        sessionFactory = EntitySchema.open(URL);
+        connection = DriverManager.getConnection(URL);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO schools (id, name) VALUES (1, 'School 1')");
+            statement.execute("INSERT INTO school_classes (id, school_id, standard, section) VALUES (1, 1, '10', 'A')");
+            statement.execute("INSERT INTO students (id, gr_no, roll_no, first_name, last_name, date_of_birth, gender, " +
+                    "class_id, is_active, school_id) SELECT X, 'GR' || X, CAST(X AS VARCHAR), 'First', 'Last', " +
+                    "DATE '2012-01-01', 'MALE', 1, TRUE, 1 FROM SYSTEM_RANGE(1, 3)");
+        }
+    }
+
+    @AfterEach
+    void clearAttendance() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM attendance_record_history");
+            statement.execute("DELETE FROM attendance_records");
+        }
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+        sessionFactory.close();
+    }
+
+    @Test
+    void testInsertUpdateAndDeleteEachCloseThePreviousVersion() {
+        Long id = mark(1L, AttendanceStatus.ABSENT);
+        List<AttendanceRecordHistory> trail = trail(1L);
+        assertEquals(1, trail.size());
+        assertEquals(AttendanceStatus.ABSENT, trail.get(0).getStatus());
+        assertNull(trail.get(0).getValidTo());
+
+        sessionFactory.inTransaction(session -> {
+            AttendanceRecord record = session.get(AttendanceRecord.class, id);
+            record.setStatus(AttendanceStatus.PRESENT);
+            record.setNote("Arrived after assembly");
+        });
+        trail = trail(1L);
+        assertEquals(2, trail.size());
+        assertEquals(trail.get(1).getValidFrom(), trail.get(0).getValidTo());
+        assertEquals(AttendanceStatus.PRESENT, trail.get(1).getStatus());
+        assertEquals("Arrived after assembly", trail.get(1).getNote());
+        assertNull(trail.get(1).getValidTo());
+
+        sessionFactory.inTransaction(session -> session.remove(session.get(AttendanceRecord.class, id)));
+        trail = trail(1L);
+        // A closed version with no successor: the record was deleted
+        assertEquals(2, trail.size());
+        assertNotNull(trail.get(1).getValidTo());
+    }
+
+    @Test
+    void testChangesInOneTransactionProduceOneVersion() {
+        sessionFactory.inTransaction(session -> {
+            AttendanceRecord record = new AttendanceRecord(DAY, AttendanceStatus.ABSENT, null, null,
+                    session.getReference(Student.class, 1L), null);
+            session.persist(record);
+            session.flush();
+            record.setStatus(AttendanceStatus.LATE);
+        });
+
+        List<AttendanceRecordHistory> trail = trail(1L);
+        assertEquals(1, trail.size());
+        assertEquals(AttendanceStatus.LATE, trail.get(0).getStatus());
+    }
+
+    @Test
+    void testRolledBackChangesLeaveNoHistory() {
+        try (var session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.persist(new AttendanceRecord(DAY, AttendanceStatus.ABSENT, null, null,
+                    session.getReference(Student.class, 1L), null));
+            session.flush();
+            session.getTransaction().rollback();
+        }
+
+        assertTrue(trail(1L).isEmpty());
+    }
+
+    @Test
+    void testAsOfReadsSeeTheRegisterBeforeAndAfterACorrection() throws InterruptedException {
+        Long id = mark(1L, AttendanceStatus.ABSENT);
+        mark(2L, AttendanceStatus.PRESENT);
+        LocalDateTime beforeCorrection = pause();
+
+        sessionFactory.inTransaction(session -> session.get(AttendanceRecord.class, id).setStatus(AttendanceStatus.PRESENT));
+        LocalDateTime afterCorrection = pause();
+
+        assertEquals(Optional.of(AttendanceStatus.ABSENT), studentAsOf(1L, beforeCorrection));
+        assertEquals(Optional.of(AttendanceStatus.PRESENT), studentAsOf(1L, afterCorrection));
+        assertEquals(Optional.empty(), studentAsOf(1L, trail(1L).get(0).getValidFrom().minusNanos(1000)));
+
+        assertEquals(List.of(AttendanceStatus.ABSENT, AttendanceStatus.PRESENT), registerAsOf(beforeCorrection));
+        assertEquals(List.of(AttendanceStatus.PRESENT, AttendanceStatus.PRESENT), registerAsOf(afterCorrection));
+
+        List<AttendanceRecordHistory> range = sessionFactory.fromSession(session -> session
+                .createQuery(query("findStudentAttendanceBetweenAsOf"), AttendanceRecordHistory.class)
+                .setParameter("studentId", 1L)
+                .setParameter("startDate", DAY.minusDays(7))
+                .setParameter("endDate", DAY)
+                .setParameter("asOf", beforeCorrection)
+                .getResultList());
+        assertEquals(1, range.size());
+        assertEquals(AttendanceStatus.ABSENT, range.get(0).getStatus());
+    }
+
+    @Test
+    void testBulkStatusUpdateVersionsEveryStudent() {
+        mark(1L, AttendanceStatus.ABSENT);
+        mark(2L, AttendanceStatus.ABSENT);
+
+        sessionFactory.inTransaction(session -> {
+            AttendanceRecordRepositoryImpl repository = new AttendanceRecordRepositoryImpl();
+            ReflectionTestUtils.setField(repository, "entityManager", session);
+            assertEquals(2, repository.bulkUpdateAttendanceStatus(List.of(1L, 2L), DAY, AttendanceStatus.PRESENT));
+        });
+
+        for (Long studentId : List.of(1L, 2L)) {
+            List<AttendanceRecordHistory> trail = trail(studentId);
+            assertEquals(2, trail.size());
+            assertNotNull(trail.get(0).getValidTo());
+            assertEquals(AttendanceStatus.PRESENT, trail.get(1).getStatus());
+            assertNull(trail.get(1).getValidTo());
+        }
+    }
+
+    @Test
+    void testWriterClosesDeletedEntriesWithoutOpeningAVersion() throws SQLException {
+        LocalDateTime opened = LocalDateTime.of(2024, 7, 15, 9, 0);
+        LocalDateTime changed = opened.plusHours(1);
+        AttendanceHistoryWriter.write(connection, List.of(
+                new Version(1L, DAY, AttendanceStatus.ABSENT, null, LocalTime.of(9, 0), null, false),
+                new Version(2L, DAY, AttendanceStatus.PRESENT, "On time", null, null, false)), opened);
+        AttendanceHistoryWriter.write(connection, List.of(
+                Version.deleted(1L, DAY),
+                new Version(2L, DAY, AttendanceStatus.LATE, null, null, null, false)), changed);
+
+        List<AttendanceRecordHistory> deleted = trail(1L);
+        assertEquals(1, deleted.size());
+        assertEquals(LocalTime.of(9, 0), deleted.get(0).getMarkedTime());
+        assertEquals(changed, deleted.get(0).getValidTo());
+
+        List<AttendanceRecordHistory> corrected = trail(2L);
+        assertEquals(2, corrected.size());
+        assertEquals(changed, corrected.get(0).getValidTo());
+        assertEquals(changed, corrected.get(1).getValidFrom());
+        assertEquals(AttendanceStatus.LATE, corrected.get(1).getStatus());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Long mark(Long studentId, AttendanceStatus status) {
+        return sessionFactory.fromTransaction(session -> {
+            AttendanceRecord record = new AttendanceRecord(DAY, status, null, null,
+                    session.getReference(Student.class, studentId), null);
+            session.persist(record);
+            return record.getId();
+        });
+    }
+
+    private List<AttendanceRecordHistory> trail(Long studentId) {
+        return sessionFactory.fromSession(session -> session.createQuery(
+                        "FROM AttendanceRecordHistory h WHERE h.studentId = :studentId AND h.date = :date " +
+                        "ORDER BY h.validFrom, h.id", AttendanceRecordHistory.class)
+                .setParameter("studentId", studentId)
+                .setParameter("date", DAY)
+                .getResultList());
+    }
+
+    private Optional<AttendanceStatus> studentAsOf(Long studentId, LocalDateTime asOf) {
+        return sessionFactory.fromSession(session -> session
+                .createQuery(query("findStudentAttendanceAsOf"), AttendanceRecordHistory.class)
+                .setParameter("studentId", studentId)
+                .setParameter("date", DAY)
+                .setParameter("asOf", asOf)
+                .uniqueResultOptional()
+                .map(AttendanceRecordHistory::getStatus));
+    }
+
+    private List<AttendanceStatus> registerAsOf(LocalDateTime asOf) {
+        return sessionFactory.fromSession(session -> session
+                .createQuery(query("findClassRegisterAsOf"), AttendanceRecordHistory.class)
+                .setParameter("schoolId", 1L)
+                .setParameter("standard", "10")
+                .setParameter("section", "A")
+                .setParameter("date", DAY)
+                .setParameter("asOf", asOf)
+                .getResultList()
+                .stream().map(AttendanceRecordHistory::getStatus).toList());
+    }
+
+    /**
+     * The repository's JPQL, so the test reads history exactly as the application does
+     */
+    private static String query(String method) {
+        return Arrays.stream(AttendanceRecordHistoryRepository.class.getMethods())
+                .filter(candidate -> candidate.getName().equals(method))
+                .findFirst().orElseThrow()
+                .getAnnotation(Query.class).value();
+    }
+
+    /**
+     * An instant strictly between two commits
+     */
+    private static LocalDateTime pause() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime instant = LocalDateTime.now();
+        Thread.sleep(5);
+        return instant;
+    }
+}
@@ -1,14 +1,17 @@
 package com.school.attendance.exception;
 
 import com.school.attendance.dto.ApiResponse;
+import com.school.attendance.entity.AttendanceRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -90,6 +93,52 @@ class GlobalExceptionHandlerTest {
         assertEquals("/api/test", apiResponse.getPath());
     }
 
+    @Test
+    void testHandleBusinessExceptionWithStatus() {
+        // Given
+        BusinessException exception = new BusinessException("Idempotency key was reused", HttpStatus.UNPROCESSABLE_ENTITY);
+
+        // When
+        ResponseEntity<ApiResponse<Object>> response = globalExceptionHandler.handleBusinessException(exception, webRequest);
+
+        // Then
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals("Idempotency key was reused", response.getBody().getMessage());
+    }
+
+    @Test
+    void testHandleOptimisticLockingFailureException() {
+        // Given
+        ObjectOptimisticLockingFailureException exception =
+                new ObjectOptimisticLockingFailureException(AttendanceRecord.class, 42L);
+
+        // When
+        ResponseEntity<ApiResponse<Object>> response =
+                globalExceptionHandler.handleOptimisticLockingFailureException(exception, webRequest);
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        ApiResponse<Object> apiResponse = response.getBody();
+        assertNotNull(apiResponse);
+        assertFalse(apiResponse.isSuccess());
+        assertEquals("/api/test", apiResponse.getPath());
+    }
+
+    @Test
+    void testHandleDataIntegrityViolationException() {
+        // Given
+        DataIntegrityViolationException exception = new DataIntegrityViolationException(
+                "could not execute statement", new RuntimeException("Duplicate entry for key 'date_student_id'"));
+
+        // When
+        ResponseEntity<ApiResponse<Object>> response =
+                globalExceptionHandler.handleDataIntegrityViolationException(exception, webRequest);
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertFalse(response.getBody().isSuccess());
+    }
+
     @Test
     void testHandleIllegalArgumentException() {
         // Given
@@ -0,0 +1,220 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.event.AttendanceEvents;
+import com.school.attendance.service.async.AsyncReportGenerationService;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hot/cold attendance queries and cursor streaming on H2
+ */
+class AttendanceRecordRepositoryImplTest {
+
+    private static final String URL = "jdbc:h2:mem:attendance_records;DB_CLOSE_DELAY=-1";
+    private static final LocalDate DAY = LocalDate.of(2024, 7, 15);
+    private static final int FETCH_SIZE = 25;
+
+    private static SessionFactory sessionFactory;
+    private static Connection connection;
+
+    private Session session;
+    private AttendanceRecordRepositoryImpl repository;
+
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        sessionFactory = EntitySchema.open(URL);
+        connection = DriverManager.getConnection(URL);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO schools (id, name) VALUES (1, 'School 1'), (2, 'School 2')");
+            statement.execute("INSERT INTO school_classes (id, school_id, standard, section) " +
+                    "VALUES (1, 1, '10', 'A'), (2, 1, '10', 'B'), (3, 2, '9', 'A')");
+            // School 1: students 1-60 in 10-A, 61-120 in 10-B; school 2: students 121-130
+            statement.execute("INSERT INTO students (id, gr_no, roll_no, first_name, last_name, date_of_birth, gender, " +
+                    "class_id, is_active, school_id) SELECT X, 'GR' || X, CAST(X AS VARCHAR), 'First', 'Last', " +
+                    "DATE '2012-01-01', 'MALE', CASEWHEN(X <= 60, 1, CASEWHEN(X <= 120, 2, 3)), TRUE, " +
+                    "CASEWHEN(X <= 120, 1, 2) FROM SYSTEM_RANGE(1, 130)");
+            // Present / absent / late in turn
+            statement.execute("INSERT INTO attendance_records (date, status, student_id, created_at) " +
+                    "SELECT DATE '2024-07-15', MOD(X, 3) + 1, X, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 130)");
+            // 2022-2023 has been archived: 10-A on its last two days, student 1 absent and the rest present
+            statement.execute("INSERT INTO attendance_archive_segments (academic_year, start_date, end_date, " +
+                    "row_count, registered_at, archived_at) VALUES ('2022-2023', DATE '2022-06-01', DATE '2023-05-31', " +
+                    "120, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+            statement.execute("INSERT INTO attendance_records_archive (id, date, status, student_id, archived_at) " +
+                    "SELECT 1000 + d.X * 100 + s.X, DATEADD('DAY', d.X, DATE '2023-05-30'), " +
+                    "CASEWHEN(s.X = 1, 2, 1), s.X, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 60) s, SYSTEM_RANGE(0, 1) d");
+        }
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void openSession() {
+        session = sessionFactory.openSession();
+        session.beginTransaction();
+        repository = new AttendanceRecordRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "entityManager", session);
+        ReflectionTestUtils.setField(repository, "streamFetchSize", FETCH_SIZE);
+    }
+
+    @AfterEach
+    void closeSession() {
+        session.getTransaction().rollback();
+        session.close();
+    }
+
+    @Test
+    void testStudentRangeAcrossTheBoundaryReadsBothTiersNewestFirst() {
+        List<AttendanceRecord> records = repository.findByStudentIdAndDateBetweenOrderByDateDesc(
+                1L, LocalDate.of(2023, 5, 1), DAY);
+
+        assertEquals(List.of(DAY, LocalDate.of(2023, 5, 31), LocalDate.of(2023, 5, 30)),
+                records.stream().map(AttendanceRecord::getDate).toList());
+        assertEquals(List.of(AttendanceStatus.ABSENT, AttendanceStatus.ABSENT, AttendanceStatus.ABSENT),
+                records.stream().map(AttendanceRecord::getStatus).toList());
+        // Ranges entirely after the boundary only see hot rows
+        assertEquals(1, repository.findByStudentIdAndDateBetweenOrderByDateDesc(1L, DAY, DAY).size());
+    }
+
+    @Test
+    void testAggregatesAddUpBothTiers() {
+        LocalDate from = LocalDate.of(2023, 5, 1);
+
+        assertEquals(3, repository.countByStudentAndStatus(1L, AttendanceStatus.ABSENT, from, DAY));
+        assertEquals(0, repository.countByStudentAndStatus(1L, AttendanceStatus.PRESENT, from, DAY));
+        assertArrayEquals(new Object[]{3L, 0L}, repository.getStudentAttendancePercentage(1L, from, DAY));
+        assertArrayEquals(new Object[]{3L, 3L}, repository.getStudentAttendancePercentage(2L, from, DAY));
+
+        Map<AttendanceStatus, Long> statistics = new EnumMap<>(AttendanceStatus.class);
+        repository.getStudentAttendanceStatistics(2L, from, DAY)
+                .forEach(row -> statistics.put((AttendanceStatus) row[0], (Long) row[1]));
+        assertEquals(Map.of(AttendanceStatus.PRESENT, 2L, AttendanceStatus.LATE, 1L), statistics);
+
+        List<Object[]> monthly = repository.getMonthlyClassAttendanceSummary(1L, "10", "A", from, DAY);
+        assertEquals(List.of("2023-05-30 PRESENT 59", "2023-05-30 ABSENT 1", "2023-05-31 PRESENT 59",
+                        "2023-05-31 ABSENT 1", "2024-07-15 PRESENT 20", "2024-07-15 ABSENT 20", "2024-07-15 LATE 20"),
+                monthly.stream().map(row -> row[0] + " " + row[1] + " " + row[2]).toList());
+
+        // Every third student on the hot day, and student 1 on both archived days
+        assertEquals(44 + 2, repository.findByStatusAndDateBetween(AttendanceStatus.ABSENT, from, DAY).size());
+    }
+
+    @Test
+    void testPagesContinueFromHotRowsIntoTheArchive() {
+        LocalDate from = LocalDate.of(2023, 5, 1);
+
+        Page<AttendanceRecord> first = repository.findByDateBetweenOrderByDateDesc(from, DAY, PageRequest.of(0, 100));
+        assertEquals(250, first.getTotalElements());
+        assertTrue(first.getContent().stream().allMatch(record -> record.getDate().equals(DAY)));
+
+        Page<AttendanceRecord> second = repository.findByDateBetweenOrderByDateDesc(from, DAY, PageRequest.of(1, 100));
+        assertEquals(100, second.getNumberOfElements());
+        assertEquals(30, second.getContent().stream().filter(record -> record.getDate().equals(DAY)).count());
+        assertEquals(60, second.getContent().stream()
+                .filter(record -> record.getDate().equals(LocalDate.of(2023, 5, 31))).count());
+
+        Page<AttendanceRecord> last = repository.findAttendanceWithPagination(from, DAY, PageRequest.of(2, 100));
+        assertEquals(50, last.getNumberOfElements());
+        assertTrue(last.getContent().stream().allMatch(record -> record.getDate().equals(LocalDate.of(2023, 5, 30))));
+    }
+
+    @Test
+    void testAYearBeingArchivedIsReadFromBothTiers() {
+        // 2023-2024 is registered but not complete: student 1 has one day moved and one still hot
+        session.createNativeMutationQuery("INSERT INTO attendance_archive_segments (academic_year, start_date, " +
+                "end_date, row_count, registered_at) VALUES ('2023-2024', DATE '2023-06-01', DATE '2024-05-31', 0, " +
+                "CURRENT_TIMESTAMP)").executeUpdate();
+        session.createNativeMutationQuery("INSERT INTO attendance_records (date, status, student_id, created_at) " +
+                "VALUES (DATE '2023-09-01', 1, 1, CURRENT_TIMESTAMP)").executeUpdate();
+        session.createNativeMutationQuery("INSERT INTO attendance_records_archive (id, date, status, student_id, " +
+                "archived_at) VALUES (5000, DATE '2023-09-02', 2, 1, CURRENT_TIMESTAMP)").executeUpdate();
+        repository.refreshArchiveBoundary();
+
+        assertEquals(Optional.of(LocalDate.of(2024, 5, 31)), repository.getArchiveBoundary());
+        assertEquals(List.of(LocalDate.of(2023, 9, 2), LocalDate.of(2023, 9, 1)),
+                repository.findByStudentIdAndDateBetweenOrderByDateDesc(
+                                1L, LocalDate.of(2023, 9, 1), LocalDate.of(2023, 9, 30))
+                        .stream().map(AttendanceRecord::getDate).toList());
+        try (Stream<AttendanceRecord> records = repository.streamBySchoolIdAndDateBetween(
+                1L, LocalDate.of(2023, 9, 1), LocalDate.of(2023, 9, 30))) {
+            assertEquals(2, records.count());
+        }
+    }
+
+    @Test
+    void testStreamSpansSeveralFetchWindowsWithABoundedPersistenceContext() {
+        Set<Long> students = new HashSet<>();
+        AtomicInteger largestContext = new AtomicInteger();
+
+        try (Stream<AttendanceRecord> records = repository.streamBySchoolIdAndDateBetween(1L, DAY, DAY)) {
+            records.forEach(record -> {
+                largestContext.accumulateAndGet(session.getStatistics().getEntityCount(), Math::max);
+                // Fetched with the row, so still readable once the window is cleared
+                assertNotNull(record.getStudent().getSchoolClass().getDisplayName());
+                students.add(record.getStudent().getId());
+            });
+        }
+
+        assertEquals(120, students.size());
+        // One window of records and students plus the classes, never the whole result
+        assertTrue(largestContext.get() <= 2 * FETCH_SIZE + 2, "entities held: " + largestContext.get());
+    }
+
+    @Test
+    void testDailySummaryAggregatesEveryStreamedWindow() {
+        AttendanceRecordRepository records = mock(AttendanceRecordRepository.class);
+        when(records.streamBySchoolIdAndDateBetween(anyLong(), any(), any())).thenAnswer(call -> repository
+                .streamBySchoolIdAndDateBetween(call.getArgument(0), call.getArgument(1), call.getArgument(2)));
+        AsyncReportGenerationService reports = new AsyncReportGenerationService(records, mock(StudentRepository.class));
+
+        String report = ReflectionTestUtils.invokeMethod(reports, "generateDailySummaryReport",
+                new AttendanceEvents.AttendanceReportRequestedEvent(this, "DAILY_SUMMARY", "CSV", 1L,
+                        "admin@school.test", DAY, DAY, 1L, null));
+
+        assertNotNull(report);
+        assertTrue(report.contains("Total Students: 120\n"), report);
+        assertTrue(report.contains("Present: 40 (33.3%)\n"), report);
+        assertTrue(report.contains("Absent: 40 (33.3%)\n"), report);
+        assertTrue(report.contains("Late: 40 (33.3%)\n"), report);
+        assertTrue(report.contains("Overall Attendance Rate: 66.67%\n"), report);
+        assertTrue(report.contains("Class 10-A: 40/60 students present (66.7%)\n"), report);
+        assertTrue(report.contains("Class 10-B: 40/60 students present (66.7%)\n"), report);
+        assertFalse(report.contains("Class 9-A"), report);
+    }
+}
@@ -0,0 +1,56 @@
+package com.school.attendance.repository;
+
+import com.school.attendance.entity.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test helper that generates the schema of every mapped entity on a JDBC URL (H2 in the tests)
+ */
+public final class EntitySchema {
+
+    public static final List<Class<?>> ENTITIES = List.of(
+            School.class, SchoolClass.class, Student.class, Teacher.class, User.class, AttendanceRecord.class,
+            ArchivedAttendanceRecord.class, AttendanceArchiveSegment.class, AttendanceRecordHistory.class,
+            ClassDayRegister.class, NotificationLog.class, NotificationSettings.class,
+            SchoolCalendarDay.class, AttendanceIdempotencyKey.class);
+
+    private EntitySchema() {
+    }
+
+    /**
+     * Create the tables and open a session factory on them (no second-level cache); the caller closes it
+     */
+    public static SessionFactory open(String url) {
+        return open(url, Map.of());
+    }
+
+    /**
+     * Create the tables and open a session factory with extra Hibernate settings; the caller closes it
+     */
+    public static SessionFactory open(String url, Map<String, Object> settings) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.URL, url)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, false)
+                .applySetting(AvailableSettings.USE_QUERY_CACHE, false)
+                .applySettings(settings)
+                .build();
+        MetadataSources sources = new MetadataSources(registry);
+        ENTITIES.forEach(sources::addAnnotatedClass);
+        return sources.buildMetadata().buildSessionFactory();
+    }
+
+    /**
+     * Create the tables only; the in-memory database must outlive the connection (DB_CLOSE_DELAY=-1)
+     */
+    public static void create(String url) {
+        open(url).close();
+    }
+}
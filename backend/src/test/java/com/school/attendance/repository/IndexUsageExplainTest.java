@@ -0,0 +1,317 @@
+package com.school.attendance.repository;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.Table;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EXPLAIN-plan regression tests: the schema is generated from the entity mappings on H2 and
+ * the SQL shape of each hot repository query must be answered through the expected index.
+ * Also checks that every index declared on an entity is created by a migration.
+ */
+class IndexUsageExplainTest {
+
+    private static final String URL = "jdbc:h2:mem:explain;DB_CLOSE_DELAY=-1";
+    /** CREATE [UNIQUE] INDEX [IF NOT EXISTS] name, or an inline [UNIQUE] KEY / INDEX name (...) table clause. */
+    private static final Pattern CREATED_INDEX = Pattern.compile(
+            "(?i)(?:CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)" +
+            "|^\\s*(?:UNIQUE\\s+)?(?:KEY|INDEX)\\s+(\\w+)\\s*\\()", Pattern.MULTILINE);
+    private static SessionFactory sessionFactory;
+    private static Connection connection;
+
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        sessionFactory = EntitySchema.open(URL);
+
+        connection = DriverManager.getConnection(URL);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO schools (id, name) SELECT X, 'School ' || X FROM SYSTEM_RANGE(1, 4)");
+            // 20 classes per school (standards 0-9, sections A/B); id = school offset + standard * 2 + section + 1
+            statement.execute("INSERT INTO school_classes (id, school_id, standard, section) SELECT X + 1, X / 20 + 1, " +
+                    "CAST(MOD(X / 2, 10) AS VARCHAR), CASEWHEN(MOD(X, 2) = 0, 'A', 'B') FROM SYSTEM_RANGE(0, 79)");
+            statement.execute("INSERT INTO students (id, gr_no, roll_no, first_name, last_name, date_of_birth, gender, " +
+                    "class_id, is_active, school_id) SELECT X, 'GR' || X, CAST(MOD(X, 40) AS VARCHAR), " +
+                    "'First', 'Last', DATE '2012-01-01', 'MALE', " +
+                    "MOD(X / 800, 4) * 20 + MOD(X / 40, 10) * 2 + MOD(X / 400, 2) + 1, MOD(X, 50) <> 0, MOD(X / 800, 4) + 1 " +
+                    "FROM SYSTEM_RANGE(0, 3199)");
+            statement.execute("INSERT INTO teachers (id, emp_no, first_name, last_name, date_of_birth, gender, " +
+                    "primary_subject, email, is_active, school_id) SELECT X, 'EMP' || X, 'First' || X, 'Last', " +
+                    "DATE '1985-01-01', 'FEMALE', 'Subject ' || MOD(X, 12), 't' || X || '@school.test', TRUE, " +
+                    "MOD(X, 4) + 1 FROM SYSTEM_RANGE(1, 200)");
+            statement.execute("INSERT INTO teacher_subjects (teacher_id, subject) SELECT X, 'Subject ' || MOD(X, 12) " +
+                    "FROM SYSTEM_RANGE(1, 200)");
+            statement.execute("INSERT INTO teacher_class_assignments (teacher_id, class_id) " +
+                    "SELECT X, MOD(X, 4) * 20 + MOD(X, 10) * 2 + 1 FROM SYSTEM_RANGE(1, 200)");
+            statement.execute("INSERT INTO attendance_records (date, status, student_id, teacher_id, created_at) " +
+                    "SELECT DATEADD('DAY', d.X, DATE '2024-07-01'), MOD(s.X + d.X, 6) + 1, s.X, MOD(s.X, 200) + 1, " +
+                    "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(0, 3199) s, SYSTEM_RANGE(0, 19) d");
+            statement.execute("INSERT INTO notification_logs (type, recipient, subject, status, sent_at, school_id) " +
+                    "SELECT CASEWHEN(MOD(X, 3) = 0, 'SMS', 'EMAIL'), 'p' || X, 'Absent', " +
+                    "CASEWHEN(MOD(X, 10) = 0, 'FAILED', 'SUCCESS'), DATEADD('MINUTE', X * 7, TIMESTAMP '2024-01-01 00:00:00'), " +
+                    "MOD(X, 4) + 1 FROM SYSTEM_RANGE(1, 20000)");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        connection.close();
+        sessionFactory.close();
+    }
+
+    // ========== STUDENT QUERIES ==========
+
+    @Test
+    void testClassRosterUsesClassIndex() throws SQLException {
+        // findByClassIdAndIsActiveTrueOrderByRollNo / countByClassIdAndIsActiveTrue
+        assertUsesIndex("SELECT * FROM students s WHERE s.class_id = 11 AND s.is_active = TRUE ORDER BY s.roll_no",
+                "idx_students_class_active_roll");
+        assertUsesIndex("SELECT COUNT(*) FROM students s WHERE s.class_id = 11 AND s.is_active = TRUE",
+                "idx_students_class_active_roll");
+    }
+
+    @Test
+    void testClassRosterByNameResolvesClassFirst() throws SQLException {
+        // findBySchoolIdAndStandardAndSectionAndIsActiveTrueOrderByRollNo / countBy... / findDistinctSections...
+        String byName = "FROM school_classes c JOIN students s ON s.class_id = c.id WHERE c.school_id = 1 " +
+                "AND c.standard = '5' AND c.section = 'A' AND s.is_active = TRUE";
+        assertUsesIndex("SELECT s.* " + byName + " ORDER BY s.roll_no", "uk_school_classes");
+        assertUsesIndex("SELECT s.* " + byName + " ORDER BY s.roll_no", "idx_students_class_active_roll");
+        assertUsesIndex("SELECT COUNT(*) " + byName, "idx_students_class_active_roll");
+    }
+
+    @Test
+    void testSchoolWideStudentListingAvoidsScans() throws SQLException {
+        // findBySchoolIdAndIsActiveTrueOrderByStandardAscSectionAscRollNoAsc / countBySchoolIdAndIsActiveTrue
+        // (any school_id-prefixed index will do: the class index or the foreign key's own)
+        assertNoTableScan("SELECT s.* FROM students s JOIN school_classes c ON c.id = s.class_id " +
+                "WHERE s.school_id = 2 AND s.is_active = TRUE ORDER BY c.standard, c.section, s.roll_no");
+        assertUsesIndex("SELECT COUNT(*) FROM students s WHERE s.school_id = 2 AND s.is_active = TRUE",
+                "idx_students_school_active");
+    }
+
+    @Test
+    void testStudentNaturalKeysUseUniqueConstraints() throws SQLException {
+        // findByGrNoAndSchoolId / findByRollNoAndStandardAndSectionAndSchoolId
+        assertNoTableScan("SELECT * FROM students s WHERE s.gr_no = 'GR10' AND s.school_id = 1");
+        assertNoTableScan("SELECT s.* FROM students s JOIN school_classes c ON c.id = s.class_id " +
+                "WHERE s.roll_no = '10' AND c.standard = '5' AND c.section = 'A' AND c.school_id = 1");
+    }
+
+    // ========== ATTENDANCE QUERIES ==========
+
+    @Test
+    void testClassAttendanceByDateAvoidsScans() throws SQLException {
+        // findClassAttendanceByClassIdAndDate / findClassAttendanceByDate / getDailyAttendanceSummary
+        assertNoTableScan("SELECT ar.* FROM attendance_records ar JOIN students s ON s.id = ar.student_id " +
+                "WHERE s.class_id = 11 AND ar.date = DATE '2024-07-05' ORDER BY s.roll_no");
+        assertNoTableScan("SELECT ar.* FROM attendance_records ar JOIN students s ON s.id = ar.student_id " +
+                "JOIN school_classes c ON c.id = s.class_id WHERE c.school_id = 1 AND c.standard = '5' " +
+                "AND c.section = 'A' AND ar.date = DATE '2024-07-05' ORDER BY s.roll_no");
+        assertNoTableScan("SELECT c.standard, c.section, ar.status, COUNT(*) FROM attendance_records ar " +
+                "JOIN students s ON s.id = ar.student_id JOIN school_classes c ON c.id = s.class_id " +
+                "WHERE s.school_id = 1 AND ar.date = DATE '2024-07-05' AND ar.status <> 5 " +
+                "GROUP BY c.id, c.standard, c.section, ar.status");
+    }
+
+    @Test
+    void testStudentRangeUsesStudentDateStatusIndex() throws SQLException {
+        // getStudentAttendanceStatistics / countByStudentAndStatus / getStudentAttendancePercentage
+        assertUsesIndex("SELECT ar.status, COUNT(*) FROM attendance_records ar WHERE ar.student_id = 42 " +
+                "AND ar.date BETWEEN DATE '2024-07-01' AND DATE '2024-07-31' AND ar.status <> 5 GROUP BY ar.status",
+                "idx_attendance_student_date_status");
+    }
+
+    @Test
+    void testDayStatusUsesDateStatusIndex() throws SQLException {
+        // findByDateAndStatus
+        assertUsesIndex("SELECT ar.* FROM attendance_records ar WHERE ar.date = DATE '2024-07-05' AND ar.status = 2",
+                "idx_attendance_date_status_student");
+    }
+
+    @Test
+    void testTeacherMarksUseTeacherDateIndex() throws SQLException {
+        // findByTeacherIdAndDateOrderByCreatedAt / findTeachersNotMarkedAttendance
+        assertUsesIndex("SELECT ar.* FROM attendance_records ar WHERE ar.teacher_id = 7 " +
+                "AND ar.date = DATE '2024-07-05' ORDER BY ar.created_at", "idx_attendance_teacher_date_created");
+    }
+
+    @Test
+    void testArchivedStudentRangeUsesArchiveIndex() throws SQLException {
+        // ArchivedAttendanceRecordRepository.findByStudentIdAndDateBetweenOrderByDateDesc
+        assertUsesIndex("SELECT a.* FROM attendance_records_archive a WHERE a.student_id = 42 " +
+                "AND a.date BETWEEN DATE '2023-07-01' AND DATE '2023-07-31' ORDER BY a.date DESC",
+                "idx_archive_student_date_status");
+    }
+
+    @Test
+    void testHistoryAsOfUsesHistoryIndex() throws SQLException {
+        // AttendanceRecordHistoryRepository.findStudentAttendanceAsOf
+        assertUsesIndex("SELECT h.* FROM attendance_record_history h WHERE h.student_id = 42 " +
+                "AND h.date = DATE '2024-07-05' AND h.valid_from <= TIMESTAMP '2024-07-06 00:00:00' " +
+                "AND (h.valid_to IS NULL OR h.valid_to > TIMESTAMP '2024-07-06 00:00:00')",
+                "idx_history_student_date_valid");
+    }
+
+    @Test
+    void testSchoolRegistersUseRegisterIndex() throws SQLException {
+        // ClassDayRegisterRepository.findBySchoolIdAndDateOrderByStandardAscSectionAsc
+        assertUsesIndex("SELECT r.* FROM class_day_registers r WHERE r.school_id = 1 AND r.date = DATE '2024-07-05'",
+                "idx_register_school_date");
+    }
+
+    // ========== TEACHER AND USER QUERIES ==========
+
+    @Test
+    void testTeacherListingsUseSchoolIndexes() throws SQLException {
+        // findBySchoolIdAndIsActiveTrueOrderByFirstName / findBySchoolIdAndPrimarySubjectAndIsActiveTrue...
+        assertUsesIndex("SELECT t.* FROM teachers t WHERE t.school_id = 1 AND t.is_active = TRUE ORDER BY t.first_name",
+                "idx_teachers_school_active_name");
+        assertUsesIndex("SELECT t.* FROM teachers t WHERE t.school_id = 1 AND t.primary_subject = 'Subject 3' " +
+                "AND t.is_active = TRUE ORDER BY t.first_name", "idx_teachers_school_subject");
+    }
+
+    @Test
+    void testTeacherCollectionsAreSearchedByValue() throws SQLException {
+        // findBySubject / findByAssignedClass
+        assertUsesIndex("SELECT ts.teacher_id FROM teacher_subjects ts WHERE ts.subject = 'Subject 3'",
+                "idx_teacher_subjects_subject");
+        // Hibernate's generated key on the join table leads with class_id, so H2 may pick either;
+        // the migration's key is (teacher_id, class_id) and relies on the secondary index
+        assertNoTableScan("SELECT tca.teacher_id FROM teacher_class_assignments tca WHERE tca.class_id = 11");
+    }
+
+    @Test
+    void testUserReferenceLookupUsesIndex() throws SQLException {
+        // UserRepository.findByReferenceIdAndRole
+        assertUsesIndex("SELECT u.* FROM users u WHERE u.reference_id = 42 AND u.role = 'TEACHER'",
+                "idx_users_reference_role");
+    }
+
+    @Test
+    void testNotificationLogQueriesUseSentAtIndexes() throws SQLException {
+        // NotificationLogRepository.countByStatusToday / findBySchoolIdOrderBySentAtDesc / findIdsSentBefore
+        assertUsesIndex("SELECT COUNT(*) FROM notification_logs n WHERE n.status = 'FAILED' AND " +
+                "n.sent_at >= TIMESTAMP '2024-02-01 00:00:00' AND n.sent_at < TIMESTAMP '2024-02-02 00:00:00'",
+                "idx_notification_logs_status_sent");
+        assertUsesIndex("SELECT * FROM notification_logs n WHERE n.school_id = 2 ORDER BY n.sent_at DESC LIMIT 20",
+                "idx_notification_logs_school_sent");
+        assertUsesIndex("SELECT n.id FROM notification_logs n WHERE n.sent_at < TIMESTAMP '2024-01-15 00:00:00' " +
+                "ORDER BY n.sent_at LIMIT 5000", "idx_notification_logs_sent");
+    }
+
+    @Test
+    void testIdempotencyKeyLookupsUseIndexes() throws SQLException {
+        // AttendanceIdempotencyKeyRepository.findBySchoolIdAndCallerAndIdempotencyKey / deleteExpired
+        assertUsesIndex("SELECT * FROM attendance_idempotency_keys k WHERE k.school_id = 2 AND " +
+                "k.caller = 'teacher1' AND k.idempotency_key = 'retry-1'", "uk_attendance_idempotency_key");
+        assertUsesIndex("SELECT k.id FROM attendance_idempotency_keys k WHERE k.expires_at <= TIMESTAMP '2024-07-01 00:00:00'",
+                "idx_attendance_idempotency_expires");
+    }
+
+    // ========== MIGRATIONS ==========
+
+    @Test
+    void testEveryEntityIndexIsCreatedByAMigration() throws IOException, URISyntaxException {
+        Path migrations = Paths.get(getClass().getResource("/db/migration").toURI());
+        String sql;
+        try (Stream<Path> files = Files.list(migrations)) {
+            sql = files.map(IndexUsageExplainTest::read).collect(Collectors.joining("\n"));
+        }
+
+        Set<String> created = new HashSet<>();
+        Matcher matcher = CREATED_INDEX.matcher(sql);
+        while (matcher.find()) {
+            created.add((matcher.group(1) != null ? matcher.group(1) : matcher.group(2)).toLowerCase(Locale.ROOT));
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String index : declaredIndexes()) {
+            if (!created.contains(index.toLowerCase(Locale.ROOT))) {
+                missing.add(index);
+            }
+        }
+        assertTrue(missing.isEmpty(), "Indexes declared on entities but not created by a migration: " + missing);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static void assertUsesIndex(String sql, String index) throws SQLException {
+        String plan = explain(sql);
+        assertTrue(plan.contains(index.toUpperCase(Locale.ROOT)), () -> "Expected " + index + " in plan:\n" + plan);
+        assertFalse(plan.contains("tableScan"), () -> "Unexpected table scan in plan:\n" + plan);
+    }
+
+    private static void assertNoTableScan(String sql) throws SQLException {
+        String plan = explain(sql);
+        assertFalse(plan.contains("tableScan"), () -> "Unexpected table scan in plan:\n" + plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+
+    private static List<String> declaredIndexes() {
+        List<String> names = new ArrayList<>();
+        for (Class<?> entity : EntitySchema.ENTITIES) {
+            Table table = entity.getAnnotation(Table.class);
+            if (table != null) {
+                Stream.of(table.indexes()).map(Index::name).forEach(names::add);
+            }
+            for (Field field : entity.getDeclaredFields()) {
+                CollectionTable collectionTable = field.getAnnotation(CollectionTable.class);
+                if (collectionTable != null) {
+                    Stream.of(collectionTable.indexes()).map(Index::name).forEach(names::add);
+                }
+                JoinTable joinTable = field.getAnnotation(JoinTable.class);
+                if (joinTable != null) {
+                    Stream.of(joinTable.indexes()).map(Index::name).forEach(names::add);
+                }
+            }
+        }
+        return names;
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read migration " + file, e);
+        }
+    }
+}
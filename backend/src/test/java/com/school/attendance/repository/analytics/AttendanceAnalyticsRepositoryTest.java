@@ -0,0 +1,143 @@
+package com.school.attendance.repository.analytics;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.school.attendance.entity.AttendanceRecord.AttendanceStatus.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Window-function and fallback analytics against the same H2 data set
+ */
+class AttendanceAnalyticsRepositoryTest {
+
+    private static final LocalDate JUNE_START = LocalDate.of(2024, 6, 1);
+    private static final LocalDate JULY_START = LocalDate.of(2024, 7, 1);
+    private static final LocalDate JULY_END = LocalDate.of(2024, 7, 31);
+
+    private JdbcTemplate jdbcTemplate;
+    private AttendanceAnalyticsRepository windowRepository;
+    private AttendanceAnalyticsRepository aggregateRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:analytics;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE students (id BIGINT PRIMARY KEY, school_id BIGINT NOT NULL)");
+        for (String table : List.of("attendance_records", "attendance_records_archive")) {
+            jdbcTemplate.execute("CREATE TABLE " + table + " (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "student_id BIGINT NOT NULL, date DATE NOT NULL, status TINYINT NOT NULL)");
+        }
+        jdbcTemplate.update("INSERT INTO students (id, school_id) VALUES (1, 1), (2, 1), (3, 2)");
+
+        // June is archived; student 2's absence streak runs across the tier boundary
+        archived(1, "2024-06-27", PRESENT);
+        archived(1, "2024-06-28", PRESENT);
+        archived(2, "2024-06-27", ABSENT);
+        archived(2, "2024-06-28", ABSENT);
+        archived(3, "2024-06-28", PRESENT);
+
+        marks(1, PRESENT, ABSENT, ABSENT, HOLIDAY, ABSENT, PRESENT);
+        marks(2, ABSENT, PRESENT, SICK_LEAVE, HOLIDAY, LATE, ABSENT);
+        marks(3, ABSENT, ABSENT, ABSENT, HOLIDAY, ABSENT, ABSENT);
+
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        windowRepository = new WindowFunctionAttendanceAnalyticsRepository(namedJdbcTemplate);
+        aggregateRepository = new AggregateAttendanceAnalyticsRepository(namedJdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testMonthlySeriesWithMonthOverMonthChange() {
+        List<AttendanceSeriesPoint> series = windowRepository.getMonthlySeries(1L, JUNE_START, JULY_END);
+
+        assertEquals(2, series.size());
+        AttendanceSeriesPoint june = series.get(0);
+        AttendanceSeriesPoint july = series.get(1);
+
+        assertEquals(JUNE_START, june.period());
+        assertEquals(50.0, june.attendanceRate(), 0.001);
+        assertNull(june.rateChange());
+
+        assertEquals(JULY_START, july.period());
+        assertEquals(3, july.present());
+        assertEquals(5, july.absent());
+        assertEquals(1, july.late());
+        assertEquals(1, july.sickLeave());
+        assertEquals(2, july.holiday());
+        assertEquals(1, july.holidayDays());
+        assertEquals(40.0, july.attendanceRate(), 0.001);
+        assertEquals(50.0, july.previousAttendanceRate(), 0.001);
+        assertEquals(-10.0, july.rateChange(), 0.001);
+        assertEquals(600.0 / 14, july.cumulativeAttendanceRate(), 0.001);
+    }
+
+    @Test
+    void testDailySeriesCountsHolidayOnlyDays() {
+        List<AttendanceSeriesPoint> series = windowRepository.getDailySeries(null, JULY_START, JULY_END);
+
+        assertEquals(6, series.size());
+        AttendanceSeriesPoint holiday = series.get(3);
+        assertEquals(LocalDate.of(2024, 7, 4), holiday.period());
+        assertEquals(0, holiday.marked());
+        assertEquals(1, holiday.holidayDays());
+        assertEquals(0.0, holiday.attendanceRate(), 0.001);
+        assertEquals(series.get(2).attended(), holiday.previousAttended());
+    }
+
+    @Test
+    void testAbsenceStreaksSkipHolidaysAndSpanArchive() {
+        List<AbsenceStreak> streaks = windowRepository.findAbsenceStreaks(null, JUNE_START, JULY_END, 3, 10);
+
+        assertEquals(List.of(
+                new AbsenceStreak(3L, JULY_START, LocalDate.of(2024, 7, 8), 5),
+                new AbsenceStreak(2L, LocalDate.of(2024, 6, 27), JULY_START, 3),
+                new AbsenceStreak(1L, LocalDate.of(2024, 7, 2), LocalDate.of(2024, 7, 5), 3)), streaks);
+
+        assertEquals(2, windowRepository.findAbsenceStreaks(1L, JUNE_START, JULY_END, 3, 10).size());
+        assertEquals(1, windowRepository.findAbsenceStreaks(null, JUNE_START, JULY_END, 3, 1).size());
+    }
+
+    @Test
+    void testFallbackMatchesWindowFunctions() {
+        for (Long schoolId : new Long[]{null, 1L, 2L}) {
+            assertEquals(windowRepository.getDailySeries(schoolId, JUNE_START, JULY_END),
+                    aggregateRepository.getDailySeries(schoolId, JUNE_START, JULY_END));
+            assertEquals(windowRepository.getMonthlySeries(schoolId, JUNE_START, JULY_END),
+                    aggregateRepository.getMonthlySeries(schoolId, JUNE_START, JULY_END));
+            assertEquals(windowRepository.findAbsenceStreaks(schoolId, JUNE_START, JULY_END, 1, 10),
+                    aggregateRepository.findAbsenceStreaks(schoolId, JUNE_START, JULY_END, 1, 10));
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void archived(long studentId, String date, AttendanceStatus status) {
+        jdbcTemplate.update("INSERT INTO attendance_records_archive (student_id, date, status) VALUES (?, ?, ?)",
+                studentId, Date.valueOf(date), status.getCode());
+    }
+
+    /**
+     * Marks for July 1st-5th and 8th (the weekend is not a school day)
+     */
+    private void marks(long studentId, AttendanceStatus... statuses) {
+        int[] days = {1, 2, 3, 4, 5, 8};
+        for (int i = 0; i < statuses.length; i++) {
+            jdbcTemplate.update("INSERT INTO attendance_records (student_id, date, status) VALUES (?, ?, ?)",
+                    studentId, Date.valueOf(JULY_START.withDayOfMonth(days[i])), statuses[i].getCode());
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.school.attendance.repository.register;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.ClassDayRegister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Write amplification and read latency of per-student rows vs class-day registers on H2.
+ * Run with: mvn test -Dtest=ClassDayRegisterBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ClassDayRegisterBenchmarkTest {
+
+    private static final int CLASSES = 30;
+    private static final int CLASS_SIZE = 40;
+    private static final int DAYS = 60;
+    private static final int READS = 2000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 7, 1);
+    private static final AttendanceStatus[] STATUSES = {
+            AttendanceStatus.PRESENT, AttendanceStatus.PRESENT, AttendanceStatus.PRESENT,
+            AttendanceStatus.PRESENT, AttendanceStatus.ABSENT, AttendanceStatus.LATE};
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:register_benchmark;DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE attendance_records (id BIGINT AUTO_INCREMENT PRIMARY KEY, date DATE NOT NULL, " +
+                    "status TINYINT NOT NULL, note VARCHAR(500), marked_time TIME, student_id BIGINT NOT NULL, " +
+                    "teacher_id BIGINT, created_at TIMESTAMP, updated_at TIMESTAMP, " +
+                    "school_id BIGINT NOT NULL, standard VARCHAR(10) NOT NULL, section VARCHAR(10), " +
+                    "roll_no INT NOT NULL, CONSTRAINT uk_rows UNIQUE (date, student_id))");
+            ddl.execute("CREATE INDEX idx_rows_student_date_status ON attendance_records(student_id, date, status)");
+            ddl.execute("CREATE INDEX idx_rows_date_status_student ON attendance_records(date, status, student_id)");
+            ddl.execute("CREATE TABLE class_day_registers (id BIGINT AUTO_INCREMENT PRIMARY KEY, school_id BIGINT NOT NULL, " +
+                    "standard VARCHAR(10) NOT NULL, section VARCHAR(10), date DATE NOT NULL, " +
+                    "student_ids VARBINARY(1600) NOT NULL, statuses VARBINARY(200) NOT NULL, notes VARCHAR(4000), " +
+                    "teacher_id BIGINT, marked_at TIMESTAMP, created_at TIMESTAMP, updated_at TIMESTAMP, " +
+                    "CONSTRAINT uk_register UNIQUE (school_id, standard, section, date))");
+            ddl.execute("CREATE INDEX idx_register_school_date ON class_day_registers(school_id, date)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void compareStorageModels() throws SQLException {
+        Random random = new Random(42);
+        byte[][][] marks = new byte[DAYS][CLASSES][CLASS_SIZE];
+        for (byte[][] day : marks) {
+            for (byte[] classDay : day) {
+                for (int i = 0; i < CLASS_SIZE; i++) {
+                    classDay[i] = STATUSES[random.nextInt(STATUSES.length)].getCode();
+                }
+            }
+        }
+
+        long rowWriteNanos = writeRows(marks);
+        long registerWriteNanos = writeRegisters(marks);
+
+        int rowCount = count("attendance_records");
+        int registerCount = count("class_day_registers");
+        assertEquals(DAYS * CLASSES * CLASS_SIZE, rowCount);
+        assertEquals(DAYS * CLASSES, registerCount);
+
+        // Each row carries the PK plus the unique key and two covering indexes; each register the PK, unique key and one index
+        long rowIndexEntries = rowCount * 4L;
+        long registerIndexEntries = registerCount * 3L;
+
+        long rowClassRead = time(READS, i -> classFromRows(dayOf(i), i % CLASSES));
+        long registerClassRead = time(READS, i -> classFromRegister(dayOf(i), i % CLASSES));
+        long rowSummaryRead = time(READS / 10, i -> summaryFromRows(dayOf(i)));
+        long registerSummaryRead = time(READS / 10, i -> summaryFromRegisters(dayOf(i)));
+
+        System.out.printf("%nClass-day register benchmark: %d classes x %d students x %d days%n", CLASSES, CLASS_SIZE, DAYS);
+        System.out.printf("%-34s %15s %15s%n", "", "rows", "register");
+        System.out.printf("%-34s %15d %15d%n", "rows written", rowCount, registerCount);
+        System.out.printf("%-34s %15d %15d%n", "index entries written", rowIndexEntries, registerIndexEntries);
+        System.out.printf("%-34s %15.1f %15.1f%n", "write time per class-day (us)",
+                rowWriteNanos / 1000.0 / (DAYS * CLASSES), registerWriteNanos / 1000.0 / (DAYS * CLASSES));
+        System.out.printf("%-34s %15.1f %15.1f%n", "class register read (us)",
+                rowClassRead / 1000.0 / READS, registerClassRead / 1000.0 / READS);
+        System.out.printf("%-34s %15.1f %15.1f%n", "school daily summary read (us)",
+                rowSummaryRead / 1000.0 / (READS / 10), registerSummaryRead / 1000.0 / (READS / 10));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private long writeRows(byte[][][] marks) throws SQLException {
+        long started = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO attendance_records (date, status, student_id, school_id, standard, section, roll_no, " +
+                "created_at, updated_at) VALUES (?, ?, ?, 1, ?, 'A', ?, ?, ?)")) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (int day = 0; day < DAYS; day++) {
+                for (int c = 0; c < CLASSES; c++) {
+                    for (int i = 0; i < CLASS_SIZE; i++) {
+                        insert.setDate(1, Date.valueOf(FIRST_DAY.plusDays(day)));
+                        insert.setByte(2, marks[day][c][i]);
+                        insert.setLong(3, studentId(c, i));
+                        insert.setString(4, String.valueOf(c));
+                        insert.setInt(5, i + 1);
+                        insert.setTimestamp(6, now);
+                        insert.setTimestamp(7, now);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            }
+        }
+        return System.nanoTime() - started;
+    }
+
+    private long writeRegisters(byte[][][] marks) throws SQLException {
+        long started = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO class_day_registers (school_id, standard, section, date, student_ids, statuses, " +
+                "created_at, updated_at) VALUES (1, ?, 'A', ?, ?, ?, ?, ?)")) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (int day = 0; day < DAYS; day++) {
+                for (int c = 0; c < CLASSES; c++) {
+                    List<Long> roster = new ArrayList<>(CLASS_SIZE);
+                    for (int i = 0; i < CLASS_SIZE; i++) {
+                        roster.add(studentId(c, i));
+                    }
+                    ClassDayRegister register = new ClassDayRegister(1L, String.valueOf(c), "A",
+                            FIRST_DAY.plusDays(day), roster);
+                    for (int i = 0; i < CLASS_SIZE; i++) {
+                        register.mark(studentId(c, i), AttendanceStatus.fromCode(marks[day][c][i]), null, null);
+                    }
+                    insert.setString(1, register.getStandard());
+                    insert.setDate(2, Date.valueOf(register.getDate()));
+                    insert.setBytes(3, register.getStudentIds());
+                    insert.setBytes(4, register.getStatuses());
+                    insert.setTimestamp(5, now);
+                    insert.setTimestamp(6, now);
+                    insert.executeUpdate();
+                }
+            }
+        }
+        return System.nanoTime() - started;
+    }
+
+    private int classFromRows(LocalDate date, int classIndex) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT student_id, status FROM attendance_records WHERE school_id = 1 AND standard = ? " +
+                "AND section = 'A' AND date = ? ORDER BY roll_no")) {
+            query.setString(1, String.valueOf(classIndex));
+            query.setDate(2, Date.valueOf(date));
+            return drain(query);
+        }
+    }
+
+    private int classFromRegister(LocalDate date, int classIndex) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT student_ids, statuses FROM class_day_registers WHERE school_id = 1 AND standard = ? " +
+                "AND section = 'A' AND date = ?")) {
+            query.setString(1, String.valueOf(classIndex));
+            query.setDate(2, Date.valueOf(date));
+            try (ResultSet rs = query.executeQuery()) {
+                int marked = 0;
+                while (rs.next()) {
+                    byte[] statuses = rs.getBytes(2);
+                    for (byte status : statuses) {
+                        marked += status != 0 ? 1 : 0;
+                    }
+                }
+                return marked;
+            }
+        }
+    }
+
+    private int summaryFromRows(LocalDate date) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT standard, section, status, COUNT(*) FROM attendance_records WHERE school_id = 1 AND date = ? " +
+                "GROUP BY standard, section, status")) {
+            query.setDate(1, Date.valueOf(date));
+            return drain(query);
+        }
+    }
+
+    private int summaryFromRegisters(LocalDate date) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT standard, section, statuses FROM class_day_registers WHERE school_id = 1 AND date = ?")) {
+            query.setDate(1, Date.valueOf(date));
+            try (ResultSet rs = query.executeQuery()) {
+                int groups = 0;
+                while (rs.next()) {
+                    int[] counts = new int[8];
+                    for (byte status : rs.getBytes(3)) {
+                        counts[status]++;
+                    }
+                    for (int count : counts) {
+                        groups += count > 0 ? 1 : 0;
+                    }
+                }
+                return groups;
+            }
+        }
+    }
+
+    private int drain(PreparedStatement query) throws SQLException {
+        try (ResultSet rs = query.executeQuery()) {
+            int rows = 0;
+            while (rs.next()) {
+                rows++;
+            }
+            return rows;
+        }
+    }
+
+    private long time(int iterations, SqlTask task) throws SQLException {
+        for (int i = 0; i < iterations / 10; i++) {
+            task.run(i); // warm-up
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run(i);
+        }
+        return System.nanoTime() - started;
+    }
+
+    private int count(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static LocalDate dayOf(int iteration) {
+        return FIRST_DAY.plusDays(iteration % DAYS);
+    }
+
+    private static long studentId(int classIndex, int position) {
+        return classIndex * 1000L + position + 1;
+    }
+
+    @FunctionalInterface
+    private interface SqlTask {
+        void run(int iteration) throws SQLException;
+    }
+}
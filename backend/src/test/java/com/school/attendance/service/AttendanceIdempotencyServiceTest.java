@@ -0,0 +1,106 @@
+package com.school.attendance.service;
+
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.entity.AttendanceIdempotencyKey;
+import com.school.attendance.entity.AttendanceIdempotencyKey.Status;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.repository.AttendanceIdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Claiming idempotency keys against a mocked repository (anonymous caller)
+ */
+class AttendanceIdempotencyServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 7, 15);
+
+    private AttendanceIdempotencyKeyRepository repository;
+    private AttendanceIdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AttendanceIdempotencyKeyRepository.class);
+        service = new AttendanceIdempotencyService(repository, mock(PlatformTransactionManager.class), mock(TenantJobs.class));
+        ReflectionTestUtils.setField(service, "ttlHours", 24L);
+        ReflectionTestUtils.setField(service, "pendingTimeoutSeconds", 60L);
+        when(repository.saveAndFlush(any(AttendanceIdempotencyKey.class))).thenAnswer(call -> call.getArgument(0));
+        when(repository.save(any(AttendanceIdempotencyKey.class))).thenAnswer(call -> call.getArgument(0));
+    }
+
+    @Test
+    void testNewKeyIsClaimedAsPendingAndCompletedLater() {
+        when(repository.findBySchoolIdAndCallerAndIdempotencyKey(1L, "", "retry-1")).thenReturn(Optional.empty());
+
+        AttendanceIdempotencyKey claimed = service.claim(1L, "retry-1", "hash", 42L, DATE);
+
+        assertEquals(Status.PENDING, claimed.getStatus());
+        assertTrue(claimed.getExpiresAt().isBefore(LocalDateTime.now().plusMinutes(2)));
+        verify(repository).saveAndFlush(claimed);
+
+        AttendanceIdempotencyKey completed = service.complete(claimed, 3L);
+        assertEquals(Status.COMPLETED, completed.getStatus());
+        assertEquals(3L, completed.getRecordVersion());
+        assertTrue(completed.getExpiresAt().isAfter(LocalDateTime.now().plusHours(23)));
+    }
+
+    @Test
+    void testCompletedKeyIsReturnedWithoutWriting() {
+        AttendanceIdempotencyKey stored = stored(Status.COMPLETED, "hash", LocalDateTime.now().plusHours(1));
+        when(repository.findBySchoolIdAndCallerAndIdempotencyKey(1L, "", "retry-1")).thenReturn(Optional.of(stored));
+
+        assertSame(stored, service.claim(1L, "retry-1", "hash", 42L, DATE));
+        verify(repository, never()).saveAndFlush(any(AttendanceIdempotencyKey.class));
+    }
+
+    @Test
+    void testPendingKeyIsAConflict() {
+        AttendanceIdempotencyKey stored = stored(Status.PENDING, "hash", LocalDateTime.now().plusSeconds(30));
+        when(repository.findBySchoolIdAndCallerAndIdempotencyKey(1L, "", "retry-1")).thenReturn(Optional.of(stored));
+
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> service.claim(1L, "retry-1", "hash", 42L, DATE));
+        assertEquals(HttpStatus.CONFLICT, error.getStatus());
+        verify(repository, never()).saveAndFlush(any(AttendanceIdempotencyKey.class));
+    }
+
+    @Test
+    void testKeyReusedForAnotherMarkIsRejected() {
+        AttendanceIdempotencyKey stored = stored(Status.COMPLETED, "other", LocalDateTime.now().plusHours(1));
+        when(repository.findBySchoolIdAndCallerAndIdempotencyKey(1L, "", "retry-1")).thenReturn(Optional.of(stored));
+
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> service.claim(1L, "retry-1", "hash", 42L, DATE));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, error.getStatus());
+    }
+
+    @Test
+    void testOnlyExpiredKeysAreReusedInPlace() {
+        AttendanceIdempotencyKey stored = stored(Status.COMPLETED, "other", LocalDateTime.now().minusSeconds(1));
+        when(repository.findBySchoolIdAndCallerAndIdempotencyKey(1L, "", "retry-1")).thenReturn(Optional.of(stored));
+
+        AttendanceIdempotencyKey claimed = service.claim(1L, "retry-1", "hash", 42L, DATE);
+
+        assertSame(stored, claimed);
+        assertEquals(7L, claimed.getId());
+        assertEquals(Status.PENDING, claimed.getStatus());
+        assertEquals("hash", claimed.getRequestHash());
+        assertNull(claimed.getRecordVersion());
+    }
+
+    private static AttendanceIdempotencyKey stored(Status status, String hash, LocalDateTime expiresAt) {
+        return new AttendanceIdempotencyKey(7L, 1L, "", "retry-1", hash, 42L, DATE, 2L, status,
+                LocalDateTime.now().minusMinutes(5), expiresAt);
+    }
+}
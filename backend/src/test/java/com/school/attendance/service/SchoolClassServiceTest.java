@@ -0,0 +1,60 @@
+package com.school.attendance.service;
+
+import com.school.attendance.entity.School;
+import com.school.attendance.entity.SchoolClass;
+import com.school.attendance.repository.SchoolClassRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Class lookup and creation against a mocked repository
+ */
+class SchoolClassServiceTest {
+
+    private SchoolClassRepository schoolClassRepository;
+    private SchoolClassService service;
+    private School school;
+
+    @BeforeEach
+    void setUp() {
+        schoolClassRepository = mock(SchoolClassRepository.class);
+        service = new SchoolClassService(schoolClassRepository, mock(PlatformTransactionManager.class));
+        school = new School();
+        school.setId(1L);
+    }
+
+    @Test
+    void testClassWithoutSectionIsStoredWithAnEmptySection() {
+        when(schoolClassRepository.findClass(1L, "10", SchoolClass.NO_SECTION)).thenReturn(Optional.empty());
+        when(schoolClassRepository.save(any(SchoolClass.class))).thenAnswer(call -> {
+            SchoolClass created = call.getArgument(0);
+            created.setId(4);
+            return created;
+        });
+
+        SchoolClass created = service.getOrCreate(school, "10", null);
+
+        assertEquals(SchoolClass.NO_SECTION, created.getSection());
+        assertEquals("10", created.getDisplayName());
+        assertEquals(4, service.getClassId(1L, "10", null));
+    }
+
+    @Test
+    void testConcurrentlyCreatedClassIsReadBack() {
+        SchoolClass existing = new SchoolClass(school, "10", "A");
+        existing.setId(7);
+        when(schoolClassRepository.findClass(1L, "10", "A")).thenReturn(Optional.empty()).thenReturn(Optional.of(existing));
+        when(schoolClassRepository.save(any(SchoolClass.class))).thenThrow(new DataIntegrityViolationException("uk_school_classes"));
+
+        assertSame(existing, service.getOrCreate(school, "10", "A"));
+        verify(schoolClassRepository, times(2)).findClass(1L, "10", "A");
+    }
+}
@@ -0,0 +1,154 @@
+package com.school.attendance.service.archive;
+
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.entity.AttendanceArchiveSegment;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.repository.ArchivedAttendanceRecordRepository;
+import com.school.attendance.repository.AttendanceArchiveSegmentRepository;
+import com.school.attendance.repository.AttendanceRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Archive job ordering against mocked repositories: the segment is visible before any row moves
+ */
+class AttendanceArchiveServiceTest {
+
+    private static final LocalDate YEAR_END = LocalDate.of(2021, 5, 31);
+
+    private AttendanceRecordRepository records;
+    private ArchivedAttendanceRecordRepository archived;
+    private AttendanceArchiveSegmentRepository segments;
+    private TenantJobs tenantJobs;
+    private AttendanceArchiveService service;
+
+    // archivedAt of the segment at each save, in call order
+    private final List<Optional<LocalDateTime>> savedStates = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        records = mock(AttendanceRecordRepository.class);
+        archived = mock(ArchivedAttendanceRecordRepository.class);
+        segments = mock(AttendanceArchiveSegmentRepository.class);
+        tenantJobs = mock(TenantJobs.class);
+        service = new AttendanceArchiveService(records, archived, segments,
+                mock(PlatformTransactionManager.class), tenantJobs);
+        ReflectionTestUtils.setField(service, "academicYearStartMonth", 6);
+        ReflectionTestUtils.setField(service, "retainedClosedYears", 1);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "boundaryCacheSeconds", 0L);
+
+        when(segments.findByAcademicYear(anyString())).thenReturn(Optional.empty());
+        when(segments.save(any(AttendanceArchiveSegment.class))).thenAnswer(call -> {
+            AttendanceArchiveSegment segment = call.getArgument(0);
+            if (segment.getId() == null) {
+                segment.setId(9L);
+                when(segments.findById(9L)).thenReturn(Optional.of(segment));
+            }
+            savedStates.add(Optional.ofNullable(segment.getArchivedAt()));
+            return segment;
+        });
+        when(records.findIdsByDateOnOrBefore(eq(YEAR_END), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(archived.countByDateBetween(LocalDate.of(2020, 6, 1), YEAR_END)).thenReturn(3L);
+    }
+
+    @Test
+    void testSegmentIsRegisteredBeforeRowsMoveAndCompletedAfter() {
+        AttendanceArchiveSegment segment = service.archiveAcademicYear(2020);
+
+        InOrder order = inOrder(segments, records, archived);
+        order.verify(segments).save(any(AttendanceArchiveSegment.class));
+        order.verify(records).refreshArchiveBoundary();
+        order.verify(archived).copyFromHotTier(eq(List.of(1L, 2L)), any());
+        order.verify(records).deleteByIdIn(List.of(1L, 2L));
+        order.verify(archived).copyFromHotTier(eq(List.of(3L)), any());
+        order.verify(records).deleteByIdIn(List.of(3L));
+        order.verify(segments).save(segment);
+        order.verify(records).refreshArchiveBoundary();
+
+        // Registered incomplete, so queries read both tiers; complete once every row has moved
+        assertEquals(List.of(Optional.empty(), Optional.of(segment.getArchivedAt())), savedStates);
+        assertEquals("2020-2021", segment.getAcademicYear());
+        assertEquals(YEAR_END, segment.getEndDate());
+        assertEquals(3L, segment.getRowCount());
+    }
+
+    @Test
+    void testRowsOnlyMoveOnceOtherNodesCanSeeTheSegment() {
+        ReflectionTestUtils.setField(service, "boundaryCacheSeconds", 1L);
+        long[] firstMove = new long[1];
+        when(archived.copyFromHotTier(anyList(), any())).thenAnswer(call -> {
+            if (firstMove[0] == 0) {
+                firstMove[0] = System.nanoTime();
+            }
+            return 0;
+        });
+
+        long start = System.nanoTime();
+        service.archiveAcademicYear(2020);
+
+        assertTrue(firstMove[0] - start >= 900_000_000L, "moved after " + (firstMove[0] - start) / 1_000_000 + "ms");
+    }
+
+    @Test
+    void testResumedYearDoesNotWaitAgain() {
+        ReflectionTestUtils.setField(service, "boundaryCacheSeconds", 300L);
+        AttendanceArchiveSegment resumed = new AttendanceArchiveSegment("2020-2021", LocalDate.of(2020, 6, 1),
+                YEAR_END, LocalDateTime.now().minusHours(1));
+        resumed.setId(9L);
+        when(segments.findByAcademicYear("2020-2021")).thenReturn(Optional.of(resumed));
+        when(segments.findById(9L)).thenReturn(Optional.of(resumed));
+
+        long start = System.nanoTime();
+        assertSame(resumed, service.archiveAcademicYear(2020));
+
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertNotNull(resumed.getArchivedAt());
+        verify(records, times(2)).deleteByIdIn(anyList());
+    }
+
+    @Test
+    void testOpenOrRetainedYearsAreRejected() {
+        int currentStartYear = LocalDate.now().getMonthValue() >= 6 ? LocalDate.now().getYear() : LocalDate.now().getYear() - 1;
+
+        assertThrows(BusinessException.class, () -> service.archiveAcademicYear(currentStartYear - 1));
+        verifyNoInteractions(segments, archived);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testScheduledRunArchivesEveryClosedYearOldestFirst() {
+        int currentStartYear = LocalDate.now().getMonthValue() >= 6 ? LocalDate.now().getYear() : LocalDate.now().getYear() - 1;
+        when(tenantJobs.onEveryShard(any(Supplier.class)))
+                .thenAnswer(call -> Collections.singletonList(((Supplier<?>) call.getArgument(0)).get()));
+        when(records.findEarliestDate()).thenReturn(Optional.of(LocalDate.of(currentStartYear - 4, 9, 1)));
+
+        service.archiveClosedAcademicYears();
+
+        InOrder order = inOrder(segments);
+        for (int startYear = currentStartYear - 4; startYear <= currentStartYear - 2; startYear++) {
+            order.verify(segments).findByAcademicYear(startYear + "-" + (startYear + 1));
+        }
+        verify(segments, never()).findByAcademicYear((currentStartYear - 1) + "-" + currentStartYear);
+    }
+}
@@ -0,0 +1,233 @@
+package com.school.attendance.service.backup;
+
+import com.school.attendance.config.sharding.ShardDirectory;
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.repository.EntitySchema;
+import com.school.attendance.service.backup.BackupManifest.Mode;
+import com.school.attendance.service.backup.BackupManifest.Segment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Full and incremental exports and chain restore between two H2 databases
+ */
+class AttendanceBackupServiceTest {
+
+    @TempDir
+    Path backupDir;
+
+    private DataSource source;
+    private DataSource target;
+    private JdbcTemplate sourceJdbc;
+    private JdbcTemplate targetJdbc;
+    private AttendanceBackupService backupService;
+    private AttendanceBackupService restoreService;
+
+    @BeforeEach
+    void setUp() {
+        source = database("backup-source");
+        target = database("backup-target");
+        sourceJdbc = new JdbcTemplate(source);
+        targetJdbc = new JdbcTemplate(target);
+        seed(sourceJdbc);
+
+        backupService = service(source);
+        restoreService = service(target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sourceJdbc.execute("DROP ALL OBJECTS");
+        targetJdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testFullBackupWritesMonthlySegmentsWithChecksums() throws Exception {
+        BackupManifest manifest = backupService.backup(Mode.FULL);
+
+        assertEquals(Mode.FULL, manifest.mode());
+        assertEquals(List.of("2024-06", "2024-07"), periods(manifest, "attendance_records"));
+        assertEquals(List.of("all"), periods(manifest, "students"));
+        assertEquals(List.of("undated"), periods(manifest, "notification_logs"));
+        assertEquals(8, rows(manifest, "attendance_records"));
+
+        for (Segment segment : manifest.segments()) {
+            Path file = backupDir.resolve(manifest.id()).resolve(segment.file());
+            assertEquals(segment.sha256(), BackupSegmentFile.sha256(file));
+            assertEquals(segment.bytes(), Files.size(file));
+        }
+        assertEquals(List.of(manifest.id()), backupService.listBackups().stream().map(BackupManifest::id).toList());
+    }
+
+    @Test
+    void testIncrementalBackupHoldsOnlyChangedRows() throws Exception {
+        BackupManifest full = backupService.backup(Mode.FULL);
+        waitForNextSecond();
+        correctAttendance(12L, 2);
+        waitForNextSecond();
+
+        BackupManifest incremental = backupService.backup(Mode.INCREMENTAL);
+
+        assertEquals(Mode.INCREMENTAL, incremental.mode());
+        assertEquals(full.id(), incremental.baseBackupId());
+        assertEquals(full.cutoff().minusSeconds(300), incremental.changedSince());
+        assertEquals(List.of("2024-07"), periods(incremental, "attendance_records"));
+        assertEquals(1, rows(incremental, "attendance_records"));
+        // Reference tables are small and always complete
+        assertEquals(3, rows(incremental, "students"));
+    }
+
+    @Test
+    void testIncrementalBackupPicksUpChangesCommittedAfterThePreviousRun() throws Exception {
+        BackupManifest full = backupService.backup(Mode.FULL);
+        // Stamped before the full run's cutoff, committed after it (e.g. a write-behind flush)
+        sourceJdbc.update("UPDATE attendance_records SET status = 2, updated_at = ? WHERE id = 22",
+                Timestamp.valueOf(full.cutoff().minusSeconds(10)));
+        waitForNextSecond();
+
+        BackupManifest incremental = backupService.backup(Mode.INCREMENTAL);
+        restoreService.restore(incremental.id());
+
+        assertEquals(2, targetJdbc.queryForObject("SELECT status FROM attendance_records WHERE id = 22", Integer.class));
+    }
+
+    @Test
+    void testRestoreReplaysFullAndIncrementalRuns() throws Exception {
+        backupService.backup(Mode.FULL);
+        waitForNextSecond();
+        correctAttendance(12L, 2);
+        sourceJdbc.update("INSERT INTO attendance_records (id, date, status, student_id, updated_at) " +
+                "VALUES (99, DATE '2024-08-01', 1, 3, ?)", Timestamp.valueOf(LocalDateTime.now()));
+        // Archive June: rows keep their ids
+        sourceJdbc.update("INSERT INTO attendance_records_archive (id, date, status, student_id, archived_at) " +
+                "SELECT id, date, status, student_id, ? FROM attendance_records WHERE date < DATE '2024-07-01'",
+                Timestamp.valueOf(LocalDateTime.now()));
+        sourceJdbc.update("DELETE FROM attendance_records WHERE date < DATE '2024-07-01'");
+        waitForNextSecond();
+
+        BackupManifest incremental = backupService.backup(Mode.INCREMENTAL);
+        long restored = restoreService.restore(incremental.id());
+
+        assertTrue(restored > 0);
+        for (String table : List.of("schools", "school_classes", "students", "teachers", "teacher_class_assignments",
+                "attendance_records", "attendance_records_archive", "notification_logs")) {
+            assertEquals(snapshot(sourceJdbc, table), snapshot(targetJdbc, table), table);
+        }
+        assertEquals(2, targetJdbc.queryForObject("SELECT status FROM attendance_records WHERE id = 12", Integer.class));
+        assertEquals(LocalTime.of(8, 5, 30, 250_000_000),
+                targetJdbc.queryForObject("SELECT marked_time FROM attendance_records WHERE id = 11", LocalTime.class));
+    }
+
+    @Test
+    void testCorruptSegmentIsRejectedBeforeLoading() throws Exception {
+        BackupManifest full = backupService.backup(Mode.FULL);
+        Segment segment = full.segments().stream()
+                .filter(candidate -> candidate.table().equals("attendance_records")).findFirst().orElseThrow();
+        Path file = backupDir.resolve(full.id()).resolve(segment.file());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+
+        assertThrows(BusinessException.class, () -> restoreService.restore(full.id()));
+        assertEquals(0, targetJdbc.queryForObject("SELECT COUNT(*) FROM schools", Integer.class));
+    }
+
+    @Test
+    void testRestoreRequiresEmptyTarget() {
+        BackupManifest full = backupService.backup(Mode.FULL);
+
+        assertThrows(BusinessException.class, () -> service(source).restore(full.id()));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private AttendanceBackupService service(DataSource dataSource) {
+        AttendanceBackupService service = new AttendanceBackupService(dataSource,
+                new TenantJobs(new StaticListableBeanFactory().getBeanProvider(ShardDirectory.class)));
+        ReflectionTestUtils.setField(service, "backupDir", backupDir.toString());
+        ReflectionTestUtils.setField(service, "safetyLagSeconds", 300L);
+        ReflectionTestUtils.setField(service, "fetchSize", 2);
+        ReflectionTestUtils.setField(service, "restoreBatchSize", 2);
+        ReflectionTestUtils.setField(service, "fullIntervalDays", 7);
+        return service;
+    }
+
+    private void correctAttendance(long recordId, int status) {
+        sourceJdbc.update("UPDATE attendance_records SET status = ?, updated_at = ?, version = version + 1 WHERE id = ?",
+                status, Timestamp.valueOf(LocalDateTime.now()), recordId);
+    }
+
+    private static void waitForNextSecond() throws InterruptedException {
+        // Runs are cut at whole seconds
+        Thread.sleep(1100);
+    }
+
+    private static List<String> periods(BackupManifest manifest, String table) {
+        return manifest.segments().stream().filter(segment -> segment.table().equals(table))
+                .map(Segment::period).sorted().toList();
+    }
+
+    private static long rows(BackupManifest manifest, String table) {
+        return manifest.segments().stream().filter(segment -> segment.table().equals(table))
+                .mapToLong(Segment::rows).sum();
+    }
+
+    private static List<Map<String, Object>> snapshot(JdbcTemplate jdbc, String table) {
+        return jdbc.queryForList("SELECT * FROM " + table + " ORDER BY 1, 2");
+    }
+
+    private static DataSource database(String name) {
+        String url = "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+        EntitySchema.create(url);
+        return new DriverManagerDataSource(url);
+    }
+
+    /**
+     * One school, class and teacher, three students with attendance in June and July 2024,
+     * (one marked at a fractional second), a register (binary columns) and an undated notification log
+     */
+    private static void seed(JdbcTemplate jdbc) {
+        jdbc.update("INSERT INTO schools (id, name) VALUES (1, 'School 1')");
+        jdbc.update("INSERT INTO school_classes (id, school_id, standard, section) VALUES (1, 1, '5', 'A')");
+        jdbc.update("INSERT INTO teachers (id, emp_no, first_name, last_name, date_of_birth, gender, email, " +
+                "is_active, school_id) VALUES (1, 'EMP1', 'T', 'Teacher', DATE '1980-01-01', 'FEMALE', 't@test', TRUE, 1)");
+        jdbc.update("INSERT INTO teacher_class_assignments (teacher_id, class_id) VALUES (1, 1)");
+        for (long studentId = 1; studentId <= 3; studentId++) {
+            jdbc.update("INSERT INTO students (id, gr_no, roll_no, first_name, last_name, date_of_birth, gender, " +
+                    "class_id, is_active, school_id) VALUES (?, ?, ?, 'S', 'Student', DATE '2012-01-01', 'MALE', 1, TRUE, 1)",
+                    studentId, "GR" + studentId, String.valueOf(studentId));
+        }
+        jdbc.update("INSERT INTO attendance_records (id, date, status, student_id, teacher_id, created_at) VALUES " +
+                "(11, DATE '2024-07-01', 1, 1, 1, TIMESTAMP '2024-07-01 09:00:00'), " +
+                "(12, DATE '2024-07-02', 1, 1, 1, TIMESTAMP '2024-07-02 09:00:00'), " +
+                "(21, DATE '2024-07-01', 2, 2, 1, TIMESTAMP '2024-07-01 09:00:00'), " +
+                "(22, DATE '2024-07-02', 1, 2, 1, TIMESTAMP '2024-07-02 09:00:00'), " +
+                "(31, DATE '2024-07-01', 1, 3, 1, TIMESTAMP '2024-07-01 09:00:00'), " +
+                "(32, DATE '2024-07-02', 3, 3, 1, NULL), " +
+                "(41, DATE '2024-06-28', 1, 1, 1, TIMESTAMP '2024-06-28 09:00:00'), " +
+                "(42, DATE '2024-06-28', 2, 2, 1, TIMESTAMP '2024-06-28 09:00:00')");
+        jdbc.update("INSERT INTO class_day_registers (id, school_id, standard, section, date, student_ids, statuses, " +
+                "created_at) VALUES (1, 1, '5', 'A', DATE '2024-07-02', X'0000000000000001', X'01', TIMESTAMP '2024-07-02 09:00:00')");
+        jdbc.update("UPDATE attendance_records SET marked_time = TIME '08:05:30.25' WHERE id = 11");
+        jdbc.update("INSERT INTO notification_logs (id, type, recipient, subject, status, school_id) " +
+                "VALUES (1, 'EMAIL', 'p@test', 'Absent', 'SUCCESS', 1)");
+    }
+}
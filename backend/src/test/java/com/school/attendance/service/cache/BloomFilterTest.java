@@ -0,0 +1,52 @@
+package com.school.attendance.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * No false negatives, and a false-positive rate close to the one the filter was sized for
+ */
+class BloomFilterTest {
+
+    @Test
+    void testAddedKeysAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(BloomFilter.hash("GR-" + i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(BloomFilter.hash("GR-" + i)));
+        }
+        assertFalse(filter.isSaturated());
+    }
+
+    @Test
+    void testFalsePositiveRateMatchesTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long student = 1; student <= 50; student++) {
+            for (long day = 0; day < 200; day++) {
+                filter.add(BloomFilter.hash(student, 19_900 + day));
+            }
+        }
+
+        int falsePositives = 0;
+        int checks = 100_000;
+        for (long student = 1_000; student < 1_000 + checks / 200; student++) {
+            for (long day = 0; day < 200; day++) {
+                falsePositives += filter.mightContain(BloomFilter.hash(student, 19_900 + day)) ? 1 : 0;
+            }
+        }
+
+        double rate = (double) falsePositives / checks;
+        assertTrue(rate < 0.02, "false-positive rate " + rate);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void testKeyPartsAreSeparated() {
+        assertNotEquals(BloomFilter.hash("5", "AB", "1"), BloomFilter.hash("5A", "B", "1"));
+        assertNotEquals(BloomFilter.hash(1L, 2L), BloomFilter.hash(2L, 1L));
+    }
+}
@@ -0,0 +1,168 @@
+package com.school.attendance.service.cache;
+
+import com.school.attendance.config.sharding.ShardDirectory;
+import com.school.attendance.config.sharding.TenantContext;
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.repository.SchoolRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Warm-up of two schools in different time zones against mocked cached services
+ */
+class CacheWarmUpServiceTest {
+
+    private static final ZoneId KOLKATA = ZoneId.of("Asia/Kolkata");
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private SchoolRepository schoolRepository;
+    private CachedStudentService students;
+    private CachedAttendanceService attendance;
+    private SimpleMeterRegistry meterRegistry;
+    private CacheWarmUpService service;
+
+    @BeforeEach
+    void setUp() {
+        schoolRepository = mock(SchoolRepository.class);
+        when(schoolRepository.findIdsAndTimeZones()).thenReturn(List.of(
+                new Object[]{1L, null}, new Object[]{2L, "Europe/London"}));
+
+        students = mock(CachedStudentService.class);
+        when(students.getStandardsBySchool(anyLong())).thenAnswer(call -> query(List.of("5", "6")));
+        when(students.getSectionsByStandard(anyLong(), anyString())).thenAnswer(call -> query(List.of("A", "B")));
+        when(students.getStudentCountByClass(anyLong(), anyString(), anyString())).thenAnswer(call -> query(30L));
+        attendance = mock(CachedAttendanceService.class);
+        when(attendance.getDailyAttendanceSummaryByClass(any(), anyLong())).thenAnswer(call -> query(List.of()));
+
+        meterRegistry = new SimpleMeterRegistry();
+        service = new CacheWarmUpService(Optional.of(schoolRepository), Optional.of(students),
+                Optional.of(attendance), new TenantJobs(new StaticListableBeanFactory().getBeanProvider(ShardDirectory.class)),
+                meterRegistry, "06:30", "Asia/Kolkata", 2, Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testStartupWarmsEverySchoolWithBoundedConcurrency() throws Exception {
+        assertFalse(service.isCriticalWarm());
+
+        service.warmUpAll("startup").get(10, TimeUnit.SECONDS);
+
+        // Two standards with two sections each, per school
+        verify(students, times(4)).getStudentCountByClass(eq(1L), anyString(), anyString());
+        verify(students, times(4)).getStudentCountByClass(eq(2L), anyString(), anyString());
+        // Each school's dashboard is warmed for its own local date
+        verify(attendance).getDailyAttendanceSummaryByClass(LocalDate.now(KOLKATA), 1L);
+        verify(attendance).getDailyAttendanceSummaryByClass(LocalDate.now(LONDON), 2L);
+        assertTrue(maxRunning.get() <= 2, "ran " + maxRunning.get() + " warm-up queries at once");
+
+        awaitTrue(() -> service.isCriticalWarm());
+        assertEquals(0, service.getPendingSchools());
+        assertEquals(2.0, meterRegistry.counter("cache.warmup.schools", "outcome", "warmed").count());
+        assertEquals(1, meterRegistry.timer("cache.warmup.run.duration", "trigger", "startup").count());
+    }
+
+    @Test
+    void testScheduledRunWarmsEachSchoolOnceAfterItsLocalWarmUpTime() throws Exception {
+        // 07:00 in Kolkata, 01:30 in London
+        Instant kolkataMorning = Instant.parse("2026-03-02T01:30:00Z");
+        service.warmUpDueSchools(kolkataMorning).get(10, TimeUnit.SECONDS);
+        service.warmUpDueSchools(kolkataMorning.plusSeconds(300)).get(10, TimeUnit.SECONDS);
+
+        verify(students, times(1)).getStandardsBySchool(1L);
+        verify(students, never()).getStandardsBySchool(2L);
+
+        // 07:00 in London
+        service.warmUpDueSchools(Instant.parse("2026-03-02T07:00:00Z")).get(10, TimeUnit.SECONDS);
+
+        verify(students, times(1)).getStandardsBySchool(1L);
+        verify(students, times(1)).getStandardsBySchool(2L);
+        verify(attendance).getDailyAttendanceSummaryByClass(LocalDate.of(2026, 3, 2), 2L);
+    }
+
+    @Test
+    void testFailedScheduledWarmUpIsRetriedAtTheNextCheck() throws Exception {
+        Instant kolkataMorning = Instant.parse("2026-03-02T01:30:00Z");
+        when(students.getStandardsBySchool(1L))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenAnswer(call -> query(List.of("5")));
+
+        service.warmUpDueSchools(kolkataMorning).get(10, TimeUnit.SECONDS);
+        service.warmUpDueSchools(kolkataMorning.plusSeconds(300)).get(10, TimeUnit.SECONDS);
+        service.warmUpDueSchools(kolkataMorning.plusSeconds(600)).get(10, TimeUnit.SECONDS);
+
+        // Failed, retried and warmed, then left alone for the rest of the day
+        verify(students, times(2)).getStandardsBySchool(1L);
+        verify(students, times(1)).getSectionsByStandard(eq(1L), anyString());
+    }
+
+    @Test
+    void testLoadsRunForTheirSchool() throws Exception {
+        when(students.getStandardsBySchool(anyLong())).thenAnswer(call -> {
+            assertEquals(call.getArgument(0, Long.class), TenantContext.getSchoolId());
+            return query(List.of("5"));
+        });
+
+        service.warmUpAll("startup").get(10, TimeUnit.SECONDS);
+
+        assertEquals(2.0, meterRegistry.counter("cache.warmup.schools", "outcome", "warmed").count());
+    }
+
+    @Test
+    void testFailingSchoolDoesNotHoldBackReadiness() throws Exception {
+        when(students.getStandardsBySchool(1L)).thenThrow(new IllegalStateException("database unavailable"));
+
+        service.warmUpAll("startup").get(10, TimeUnit.SECONDS);
+
+        awaitTrue(() -> service.isCriticalWarm());
+        assertEquals(1.0, meterRegistry.counter("cache.warmup.schools", "outcome", "failed").count());
+        assertEquals(1.0, meterRegistry.counter("cache.warmup.schools", "outcome", "warmed").count());
+        verify(students, times(4)).getStudentCountByClass(eq(2L), anyString(), anyString());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Stand-in for a cache-miss query that records how many run at once
+     */
+    private <T> T query(T result) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(10);
+            return result;
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for readiness");
+            Thread.sleep(10);
+        }
+    }
+}
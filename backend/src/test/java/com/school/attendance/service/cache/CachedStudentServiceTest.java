@@ -0,0 +1,83 @@
+package com.school.attendance.service.cache;
+
+import com.school.attendance.entity.School;
+import com.school.attendance.entity.SchoolClass;
+import com.school.attendance.entity.Student;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Duplicate GR and roll numbers rejected through the existence checks before a student is written
+ */
+class CachedStudentServiceTest {
+
+    private StudentRepository studentRepository;
+    private ExistenceFilterService existenceFilters;
+    private CachedStudentService service;
+    private School school;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository = mock(StudentRepository.class);
+        when(studentRepository.save(any(Student.class))).thenAnswer(call -> call.getArgument(0));
+        existenceFilters = mock(ExistenceFilterService.class);
+        service = new CachedStudentService(studentRepository, mock(SecondLevelCacheService.class),
+                mock(CacheInvalidationService.class), mock(CacheStatisticsService.class), Optional.of(existenceFilters));
+        school = new School();
+        school.setId(1L);
+    }
+
+    @Test
+    void testNewStudentWithATakenGrNumberIsRejected() {
+        when(existenceFilters.grNoExists(1L, "GR-1")).thenReturn(true);
+
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> service.createStudent(student(null, "GR-1", "7")));
+
+        assertEquals(HttpStatus.CONFLICT, error.getStatus());
+        verify(studentRepository, never()).save(any(Student.class));
+    }
+
+    @Test
+    void testNewStudentWithFreeKeysIsCreatedAndRecorded() {
+        Student created = service.createStudent(student(null, "GR-2", "8"));
+
+        verify(existenceFilters).grNoExists(1L, "GR-2");
+        verify(existenceFilters).rollNoExists(1L, "5", "A", "8");
+        verify(existenceFilters).recordStudent(created);
+    }
+
+    @Test
+    void testUpdateOnlyChecksKeysThatChange() {
+        when(studentRepository.findById(3L)).thenReturn(Optional.of(student(3L, "GR-3", "9")));
+
+        service.updateStudent(student(3L, "GR-3", "9"));
+        verify(existenceFilters, never()).grNoExists(anyLong(), anyString());
+        verify(existenceFilters, never()).rollNoExists(anyLong(), anyString(), anyString(), anyString());
+
+        when(existenceFilters.rollNoExists(1L, "5", "A", "10")).thenReturn(true);
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> service.updateStudent(student(3L, "GR-3", "10")));
+        assertEquals(HttpStatus.CONFLICT, error.getStatus());
+        verify(existenceFilters, never()).grNoExists(anyLong(), anyString());
+    }
+
+    private Student student(Long id, String grNo, String rollNo) {
+        Student student = new Student();
+        student.setId(id);
+        student.setGrNo(grNo);
+        student.setRollNo(rollNo);
+        student.setSchool(school);
+        student.setSchoolClass(new SchoolClass(school, "5", "A"));
+        return student;
+    }
+}
@@ -0,0 +1,151 @@
+package com.school.attendance.service.cache;
+
+import com.school.attendance.config.cache.LayeredCacheManager;
+import com.school.attendance.config.sharding.ShardDirectory;
+import com.school.attendance.config.sharding.TenantContext;
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.entity.School;
+import com.school.attendance.entity.SchoolClass;
+import com.school.attendance.entity.Student;
+import com.school.attendance.repository.AttendanceRecordRepository;
+import com.school.attendance.repository.SchoolRepository;
+import com.school.attendance.repository.StudentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Existence checks of one school against mocked repositories: definite negatives skip the database
+ */
+class ExistenceFilterServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private StudentRepository studentRepository;
+    private AttendanceRecordRepository attendanceRecordRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ExistenceFilterService service;
+    private volatile Long loadedForSchool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SchoolRepository schoolRepository = mock(SchoolRepository.class);
+        when(schoolRepository.findIdsAndTimeZones()).thenReturn(List.<Object[]>of(new Object[]{1L, null}));
+
+        List<Object[]> students = new ArrayList<>();
+        List<Object[]> attendance = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            students.add(new Object[]{"GR-" + i, String.valueOf(i % 40 + 1), String.valueOf(i % 10 + 1), "A"});
+            attendance.add(new Object[]{(long) i, TODAY.minusDays(1)});
+        }
+        studentRepository = mock(StudentRepository.class);
+        when(studentRepository.findExistenceKeysBySchoolId(1L)).thenReturn(students);
+        when(studentRepository.existsByGrNoAndSchoolId(anyString(), eq(1L)))
+                .thenAnswer(call -> call.<String>getArgument(0).startsWith("GR-"));
+        attendanceRecordRepository = mock(AttendanceRecordRepository.class);
+        when(attendanceRecordRepository.findStudentDatesBySchoolIdSince(eq(1L), any())).thenAnswer(call -> {
+            loadedForSchool = TenantContext.getSchoolId();
+            return attendance;
+        });
+
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ExistenceFilterService(Optional.of(schoolRepository), Optional.of(studentRepository),
+                Optional.of(attendanceRecordRepository),
+                mock(LayeredCacheManager.class),
+                new TenantJobs(new StaticListableBeanFactory().getBeanProvider(ShardDirectory.class)),
+                meterRegistry, 0.01, 400);
+        service.rebuildAll().get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testOnlyPossibleMatchesReachTheDatabase() {
+        assertTrue(service.grNoExists(1L, "GR-42"));
+        verify(studentRepository).existsByGrNoAndSchoolId("GR-42", 1L);
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(service.grNoExists(1L, "NEW-" + i));
+        }
+        int queried = (int) mockingDetails(studentRepository).getInvocations().stream()
+                .filter(call -> call.getMethod().getName().equals("existsByGrNoAndSchoolId"))
+                .count() - 1;
+
+        ExistenceFilterService.KindReport report = service.getReport().get(ExistenceFilterService.Kind.GR_NO.ordinal());
+        assertEquals(500, report.keys());
+        assertEquals(1001, report.checks());
+        assertEquals(queried, report.falsePositives());
+        assertEquals(1000 - queried, report.filtered());
+        assertEquals(queried / 1000.0, report.falsePositiveRate());
+        assertTrue(report.falsePositiveRate() < 0.03, "false-positive rate " + report.falsePositiveRate());
+        assertEquals(1000.0 - queried, meterRegistry.get("existence.filter.checks")
+                .tags("kind", "gr_no", "result", "filtered").functionCounter().count());
+    }
+
+    @Test
+    void testInsertsAreVisibleImmediately() {
+        School school = new School();
+        school.setId(1L);
+        Student student = new Student();
+        student.setGrNo("NEW-1");
+        student.setRollNo("41");
+        student.setSchool(school);
+        student.setSchoolClass(new SchoolClass(school, "3", "A"));
+        when(studentRepository.existsByGrNoAndSchoolId("NEW-1", 1L)).thenReturn(true);
+        when(studentRepository.existsByRollNoAndStandardAndSectionAndSchoolId("41", "3", "A", 1L)).thenReturn(true);
+        when(attendanceRecordRepository.existsByStudentIdAndDate(7L, TODAY)).thenReturn(true);
+
+        service.recordStudent(student);
+        service.recordAttendance(1L, 7L, TODAY);
+
+        assertTrue(service.grNoExists(1L, "NEW-1"));
+        assertTrue(service.rollNoExists(1L, "3", "A", "41"));
+        assertTrue(service.attendanceExists(1L, 7L, TODAY));
+    }
+
+    @Test
+    void testInsertsOfOtherInstancesAreApplied() {
+        when(attendanceRecordRepository.existsByStudentIdAndDate(9_999L, TODAY)).thenReturn(true);
+
+        service.keyAdded(1L, ExistenceFilterService.Kind.ATTENDANCE.name(), BloomFilter.hash(9_999L, TODAY.toEpochDay()));
+
+        assertTrue(service.attendanceExists(1L, 9_999L, TODAY));
+        verify(attendanceRecordRepository).existsByStudentIdAndDate(9_999L, TODAY);
+    }
+
+    @Test
+    void testSchoolsAreRebuiltOnTheirShard() {
+        assertEquals(1L, loadedForSchool);
+    }
+
+    @Test
+    void testUnknownSchoolsAndOldDatesGoToTheDatabase() {
+        when(attendanceRecordRepository.findByStudentIdAndDate(anyLong(), any())).thenReturn(Optional.empty());
+
+        assertFalse(service.grNoExists(2L, "GR-9"));
+        verify(studentRepository).existsByGrNoAndSchoolId("GR-9", 2L);
+
+        LocalDate lastYear = TODAY.minusDays(500);
+        assertTrue(service.findAttendance(1L, 1L, lastYear,
+                () -> attendanceRecordRepository.findByStudentIdAndDate(1L, lastYear)).isEmpty());
+        verify(attendanceRecordRepository).findByStudentIdAndDate(1L, lastYear);
+
+        service.findAttendance(1L, 9_999L, TODAY, () -> attendanceRecordRepository.findByStudentIdAndDate(9_999L, TODAY));
+        assertEquals(2, service.getReport().stream().mapToLong(ExistenceFilterService.KindReport::unfiltered).sum());
+    }
+}
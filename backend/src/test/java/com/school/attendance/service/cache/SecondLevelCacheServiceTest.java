@@ -0,0 +1,130 @@
+package com.school.attendance.service.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.configuration.TypesafeConfigurator;
+import com.school.attendance.entity.Student;
+import com.school.attendance.entity.Teacher;
+import com.school.attendance.repository.EntitySchema;
+import com.typesafe.config.ConfigFactory;
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Region eviction on an H2 session factory with the Caffeine JCache second-level cache of application.conf
+ */
+class SecondLevelCacheServiceTest {
+
+    private static final String URL = "jdbc:h2:mem:second-level;DB_CLOSE_DELAY=-1";
+    private static final String TEACHER_SUBJECTS = Teacher.class.getName() + ".subjects";
+
+    private SessionFactory sessionFactory;
+    private SecondLevelCacheService service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        sessionFactory = EntitySchema.open(URL, Map.of(
+                AvailableSettings.USE_SECOND_LEVEL_CACHE, true,
+                AvailableSettings.USE_QUERY_CACHE, true,
+                AvailableSettings.CACHE_REGION_FACTORY, "jcache",
+                "hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+                "hibernate.javax.cache.missing_cache_strategy", "create"));
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO schools (id, name) VALUES (1, 'School 1')");
+            statement.execute("INSERT INTO school_classes (id, school_id, standard, section) VALUES (1, 1, '10', 'A')");
+            statement.execute("INSERT INTO students (id, gr_no, roll_no, first_name, last_name, date_of_birth, gender, " +
+                    "class_id, is_active, school_id) VALUES (1, 'GR1', '1', 'First', 'Last', DATE '2012-01-01', 'MALE', 1, TRUE, 1), " +
+                    "(2, 'GR2', '2', 'First', 'Last', DATE '2012-01-01', 'MALE', 1, TRUE, 1)");
+            statement.execute("INSERT INTO teachers (id, emp_no, first_name, last_name, date_of_birth, gender, " +
+                    "primary_subject, email, is_active, school_id) VALUES (1, 'EMP1', 'First', 'Last', DATE '1985-01-01', " +
+                    "'FEMALE', 'Maths', 't1@school.test', TRUE, 1)");
+            statement.execute("INSERT INTO teacher_subjects (teacher_id, subject) VALUES (1, 'Maths')");
+        }
+        service = new SecondLevelCacheService(sessionFactory);
+
+        sessionFactory.inSession(session -> {
+            session.get(Student.class, 1L);
+            session.get(Student.class, 2L);
+            Hibernate.initialize(session.get(Teacher.class, 1L).getSubjects());
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        sessionFactory.close();
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    void testEvictStudentDropsOnlyThatStudent() {
+        assertTrue(cache().containsEntity(Student.class, 1L));
+
+        service.evictStudent(1L);
+
+        assertFalse(cache().containsEntity(Student.class, 1L));
+        assertTrue(cache().containsEntity(Student.class, 2L));
+    }
+
+    @Test
+    void testEvictTeacherDropsItsCollections() {
+        assertTrue(cache().containsCollection(TEACHER_SUBJECTS, 1L));
+
+        service.evictTeacher(1L);
+
+        assertFalse(cache().containsEntity(Teacher.class, 1L));
+        assertFalse(cache().containsCollection(TEACHER_SUBJECTS, 1L));
+        assertTrue(cache().containsEntity(Student.class, 1L));
+    }
+
+    @Test
+    void testEvictStudentRegionKeepsOtherRegions() {
+        service.evictStudentRegion();
+
+        assertFalse(cache().containsEntity(Student.class, 1L));
+        assertFalse(cache().containsEntity(Student.class, 2L));
+        assertTrue(cache().containsEntity(Teacher.class, 1L));
+    }
+
+    @Test
+    void testStatisticsReportRegions() {
+        sessionFactory.getStatistics().setStatisticsEnabled(true);
+        sessionFactory.inSession(session -> session.get(Student.class, 1L));
+
+        Map<String, Map<String, Object>> statistics = service.getStatistics();
+
+        assertEquals(1L, statistics.get("student").get("hits"));
+        assertTrue(statistics.containsKey("queryCache"));
+    }
+
+    @Test
+    void testUpdateTimestampsRegionIsUnboundedAndNeverExpires() {
+        CaffeineConfiguration<Object, Object> timestamps = TypesafeConfigurator
+                .<Object, Object>from(ConfigFactory.load(), "default-update-timestamps-region").orElseThrow();
+        assertTrue(timestamps.getMaximumSize().isEmpty());
+        assertTrue(timestamps.getExpireAfterWrite().isEmpty());
+
+        CaffeineConfiguration<Object, Object> queryResults = TypesafeConfigurator
+                .<Object, Object>from(ConfigFactory.load(), "default-query-results-region").orElseThrow();
+        assertEquals(2000L, queryResults.getMaximumSize().getAsLong());
+    }
+
+    private Cache cache() {
+        return sessionFactory.getCache();
+    }
+}
@@ -0,0 +1,92 @@
+package com.school.attendance.service.cache.snapshot;
+
+import com.school.attendance.config.cache.CompactValueCodec;
+import com.school.attendance.entity.AttendanceRecord;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import com.school.attendance.entity.School;
+import com.school.attendance.entity.SchoolClass;
+import com.school.attendance.entity.Student;
+import com.school.attendance.entity.Teacher;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Snapshots built from entities, and their round trip through the Redis value codec
+ */
+class CacheSnapshotTest {
+
+    private final CompactValueCodec codec = new CompactValueCodec(1024);
+
+    @Test
+    void testStudentCardFlattensSchoolAndClass() {
+        StudentCard card = StudentCard.of(student());
+
+        assertEquals(42L, card.id());
+        assertEquals(1L, card.schoolId());
+        assertEquals(7, card.classId());
+        assertEquals("5", card.standard());
+        assertEquals("A", card.section());
+        assertEquals("Asha Patil", card.fullName());
+        assertEquals(Student.Gender.FEMALE, card.gender());
+        assertTrue(card.active());
+
+        Page<StudentCard> roster = new PageImpl<>(List.of(card), PageRequest.of(0, 20), 1);
+        Page<?> decoded = (Page<?>) codec.deserialize(codec.serialize(roster));
+        assertEquals(List.of(card), decoded.getContent());
+    }
+
+    @Test
+    void testAttendanceRowCarriesStudentAndTeacherNames() {
+        Teacher teacher = new Teacher();
+        teacher.setId(9L);
+        teacher.setFirstName("Meera");
+        teacher.setLastName("Joshi");
+        AttendanceRecord record = new AttendanceRecord();
+        record.setId(100L);
+        record.setDate(LocalDate.of(2024, 7, 2));
+        record.setStatus(AttendanceStatus.LATE);
+        record.setMarkedTime(LocalTime.of(8, 40));
+        record.setStudent(student());
+        record.setTeacher(teacher);
+
+        AttendanceRow row = AttendanceRow.of(record);
+
+        assertEquals(42L, row.studentId());
+        assertEquals("Asha Patil", row.studentName());
+        assertEquals("5", row.standard());
+        assertEquals(9L, row.teacherId());
+        assertEquals("Meera Joshi", row.teacherName());
+        assertEquals(List.of(row), codec.deserialize(codec.serialize(List.of(row))));
+
+        record.setTeacher(null);
+        assertNull(AttendanceRow.of(record).teacherName());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static Student student() {
+        School school = new School();
+        school.setId(1L);
+        SchoolClass schoolClass = new SchoolClass(school, "5", "A");
+        schoolClass.setId(7);
+        Student student = new Student();
+        student.setId(42L);
+        student.setGrNo("GR-42");
+        student.setRollNo("12");
+        student.setFirstName("Asha");
+        student.setLastName("Patil");
+        student.setDateOfBirth(LocalDate.of(2014, 3, 9));
+        student.setGender(Student.Gender.FEMALE);
+        student.setSchool(school);
+        student.setSchoolClass(schoolClass);
+        return student;
+    }
+}
@@ -0,0 +1,82 @@
+package com.school.attendance.service.calendar;
+
+import com.school.attendance.entity.SchoolCalendarDay;
+import com.school.attendance.repository.EntitySchema;
+import com.school.attendance.repository.SchoolCalendarDayRepository;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Calendar cache expiry, and the stored scope of calendar entries on H2
+ */
+class SchoolCalendarServiceTest {
+
+    private static final LocalDate HOLIDAY = LocalDate.of(2024, 7, 17);
+
+    @Test
+    void testCachedCalendarIsReloadedAfterItsTtl() {
+        SchoolCalendarDayRepository repository = mock(SchoolCalendarDayRepository.class);
+        when(repository.findBySchoolIdAndDateBetweenOrderByDate(eq(1L), any(), any())).thenReturn(List.of());
+        SchoolCalendarService service = new SchoolCalendarService(repository);
+        ReflectionTestUtils.setField(service, "weeklyOffDays", "SUNDAY");
+        ReflectionTestUtils.setField(service, "cacheTtlSeconds", 300L);
+
+        assertTrue(service.isWorkingDay(1L, HOLIDAY, null, null));
+        // Declared on another instance: not seen until the cached year expires
+        when(repository.findBySchoolIdAndDateBetweenOrderByDate(eq(1L), any(), any()))
+                .thenReturn(List.of(new SchoolCalendarDay(1L, HOLIDAY, null, null, false, "Holiday")));
+        assertTrue(service.isWorkingDay(1L, HOLIDAY, null, null));
+        verify(repository, times(1)).findBySchoolIdAndDateBetweenOrderByDate(eq(1L), any(), any());
+
+        ReflectionTestUtils.setField(service, "cacheTtlSeconds", 0L);
+        assertFalse(service.isWorkingDay(1L, HOLIDAY, null, null));
+    }
+
+    @Test
+    void testWiderScopesAreStoredAsWildcardsAndUniquePerDay() throws SQLException {
+        String url = "jdbc:h2:mem:calendar;DB_CLOSE_DELAY=-1";
+        try (SessionFactory sessionFactory = EntitySchema.open(url);
+             Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO schools (id, name) VALUES (1, 'School 1')");
+            sessionFactory.inTransaction(session -> {
+                session.persist(new SchoolCalendarDay(1L, HOLIDAY, null, null, false, "Holiday"));
+                session.persist(new SchoolCalendarDay(1L, HOLIDAY, "10", null, true, "Exam"));
+                session.persist(new SchoolCalendarDay(1L, HOLIDAY, "10", "", true, "Exam"));
+            });
+
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT standard, section FROM school_calendar_days ORDER BY id")) {
+                assertTrue(rs.next());
+                assertEquals("*|*", rs.getString(1) + "|" + rs.getString(2));
+                assertTrue(rs.next());
+                assertEquals("10|*", rs.getString(1) + "|" + rs.getString(2));
+                assertTrue(rs.next());
+                assertEquals("10|", rs.getString(1) + "|" + rs.getString(2));
+            }
+            List<SchoolCalendarDay> read = sessionFactory.fromSession(session -> session
+                    .createQuery("FROM SchoolCalendarDay ORDER BY id", SchoolCalendarDay.class).getResultList());
+            assertTrue(read.get(0).isSchoolWide());
+            assertNull(read.get(1).getSection());
+            assertEquals("", read.get(2).getSection());
+
+            // A second school-wide entry for the same day breaks the unique key
+            assertThrows(SQLException.class, () -> statement.execute("INSERT INTO school_calendar_days " +
+                    "(school_id, date, standard, section, working_day) VALUES (1, DATE '2024-07-17', '*', '*', TRUE)"));
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+}
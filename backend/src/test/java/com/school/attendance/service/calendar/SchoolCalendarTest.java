@@ -0,0 +1,83 @@
+package com.school.attendance.service.calendar;
+
+import com.school.attendance.entity.SchoolCalendarDay;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SchoolCalendar working-day bitset
+ */
+class SchoolCalendarTest {
+
+    private static final Set<DayOfWeek> SUNDAYS = EnumSet.of(DayOfWeek.SUNDAY);
+
+    // July 2024: 31 days, 4 Sundays (7, 14, 21, 28)
+    private final LocalDate julyFirst = LocalDate.of(2024, 7, 1);
+    private final LocalDate julyLast = LocalDate.of(2024, 7, 31);
+
+    @Test
+    void testWeeklyOffDaysAreNotWorkingDays() {
+        SchoolCalendar calendar = SchoolCalendar.build(1L, 2024, SUNDAYS, List.of());
+
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2024, 7, 7)));
+        assertTrue(calendar.isWorkingDay(LocalDate.of(2024, 7, 6)));
+        assertEquals(27, calendar.countWorkingDays(julyFirst, julyLast, null, null));
+        assertEquals(366 - 52, calendar.countWorkingDays(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), null, null));
+    }
+
+    @Test
+    void testSchoolHolidayAppliesToEveryClass() {
+        SchoolCalendar calendar = SchoolCalendar.build(1L, 2024, SUNDAYS, List.of(
+                holiday(LocalDate.of(2024, 7, 17), null, null)));
+
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2024, 7, 17)));
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2024, 7, 17), "10", "A"));
+        assertEquals(26, calendar.countWorkingDays(julyFirst, julyLast, "10", "A"));
+    }
+
+    @Test
+    void testNarrowestOverrideWins() {
+        SchoolCalendar calendar = SchoolCalendar.build(1L, 2024, SUNDAYS, List.of(
+                holiday(LocalDate.of(2024, 7, 17), null, null),
+                // Standard 10 sits an exam on the school holiday, except section B
+                new SchoolCalendarDay(1L, LocalDate.of(2024, 7, 17), "10", null, true, "Exam"),
+                holiday(LocalDate.of(2024, 7, 17), "10", "B"),
+                // Make-up Sunday for one class only
+                new SchoolCalendarDay(1L, LocalDate.of(2024, 7, 28), "9", "A", true, "Make-up day")));
+
+        LocalDate exam = LocalDate.of(2024, 7, 17);
+        assertTrue(calendar.isWorkingDay(exam, "10", "A"));
+        assertTrue(calendar.isWorkingDay(exam, "10", null));
+        assertFalse(calendar.isWorkingDay(exam, "10", "B"));
+        assertFalse(calendar.isWorkingDay(exam, "9", "A"));
+
+        assertTrue(calendar.isWorkingDay(LocalDate.of(2024, 7, 28), "9", "A"));
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2024, 7, 28), "9", "B"));
+        assertEquals(27, calendar.countWorkingDays(julyFirst, julyLast, "9", "A"));
+        assertEquals(26, calendar.countWorkingDays(julyFirst, julyLast, "9", "B"));
+    }
+
+    @Test
+    void testRangeIsClippedToTheYear() {
+        SchoolCalendar calendar = SchoolCalendar.build(1L, 2024, SUNDAYS, List.of());
+
+        // 2024-12-30 (Mon) and 2024-12-31 (Tue) fall in this calendar
+        assertEquals(2, calendar.countWorkingDays(LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 10), null, null));
+        assertEquals(0, calendar.countWorkingDays(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 10), null, null));
+        assertEquals(0, calendar.countWorkingDays(julyLast, julyFirst, null, null));
+        assertThrows(IllegalArgumentException.class, () -> calendar.isWorkingDay(LocalDate.of(2025, 1, 2)));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static SchoolCalendarDay holiday(LocalDate date, String standard, String section) {
+        return new SchoolCalendarDay(1L, date, standard, section, false, "Holiday");
+    }
+}
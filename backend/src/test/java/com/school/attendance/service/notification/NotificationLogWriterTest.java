@@ -0,0 +1,103 @@
+package com.school.attendance.service.notification;
+
+import com.school.attendance.config.sharding.ShardDirectory;
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.entity.NotificationLog;
+import com.school.attendance.entity.NotificationLog.NotificationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Buffered notification log inserts against H2
+ */
+class NotificationLogWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NotificationLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:notification-logs;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE notification_logs (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "type VARCHAR(10) NOT NULL, recipient VARCHAR(255) NOT NULL, subject VARCHAR(255) NOT NULL, " +
+                "message CLOB, status VARCHAR(10) NOT NULL, error_message VARCHAR(255), sent_at TIMESTAMP, " +
+                "student_id BIGINT, school_id BIGINT)");
+
+        writer = new NotificationLogWriter(jdbcTemplate,
+                new TenantJobs(new StaticListableBeanFactory().getBeanProvider(ShardDirectory.class)));
+        ReflectionTestUtils.setField(writer, "batchSize", 3);
+        ReflectionTestUtils.setField(writer, "maxPending", 5);
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testRowsAreBufferedUntilFlush() {
+        writer.append(email("a@school.test"));
+        writer.append(sms("9876543210"));
+
+        assertEquals(0, countLogs());
+        assertEquals(2, writer.getPendingCount());
+
+        writer.flush();
+
+        assertEquals(2, countLogs());
+        assertEquals(0, writer.getPendingCount());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notification_logs WHERE status = 'FAILED' AND sent_at IS NOT NULL", Integer.class));
+    }
+
+    @Test
+    void testFullBatchIsWrittenByTheAppendingThread() {
+        writer.append(email("a@school.test"));
+        writer.append(email("b@school.test"));
+        writer.append(email("c@school.test"));
+
+        assertEquals(3, countLogs());
+        assertEquals(0, writer.getPendingCount());
+    }
+
+    @Test
+    void testFailedBatchIsRequeuedAndOverflowIsDropped() {
+        jdbcTemplate.execute("ALTER TABLE notification_logs RENAME TO notification_logs_offline");
+        for (int i = 0; i < 7; i++) {
+            writer.append(email("user" + i + "@school.test"));
+        }
+
+        // Batch-triggered writes fail and are requeued; rows beyond max-pending are dropped
+        assertEquals(5, writer.getPendingCount());
+        assertEquals(2, writer.getDroppedCount());
+
+        jdbcTemplate.execute("ALTER TABLE notification_logs_offline RENAME TO notification_logs");
+        writer.flush();
+
+        assertEquals(5, countLogs());
+        assertEquals(0, writer.getPendingCount());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private int countLogs() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_logs", Integer.class);
+    }
+
+    private static NotificationLog email(String to) {
+        return new NotificationLog(NotificationType.EMAIL, to, "Absence alert", "Your child was absent today", 1L, 1L);
+    }
+
+    private static NotificationLog sms(String to) {
+        return new NotificationLog(NotificationType.SMS, to, "SMS", "Absent today", "SMS sending failed", 1L, 1L);
+    }
+}
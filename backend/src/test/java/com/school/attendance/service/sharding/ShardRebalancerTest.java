@@ -0,0 +1,232 @@
+package com.school.attendance.service.sharding;
+
+import com.school.attendance.config.sharding.ShardDataSources;
+import com.school.attendance.config.sharding.ShardDirectory;
+import com.school.attendance.config.sharding.ShardRoutingDataSource;
+import com.school.attendance.config.sharding.ShardScatterGather;
+import com.school.attendance.config.sharding.TenantContext;
+import com.school.attendance.exception.BusinessException;
+import com.school.attendance.repository.EntitySchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routing, scatter-gather and school moves across two local H2 shards
+ */
+class ShardRebalancerTest {
+
+    private final Map<String, DataSource> pools = new LinkedHashMap<>();
+    private ShardDirectory directory;
+    private ShardRoutingDataSource routing;
+    private JdbcTemplate routed;
+    private ShardScatterGather scatterGather;
+    private ShardRebalancer rebalancer;
+
+    @BeforeEach
+    void setUp() {
+        for (String shard : List.of("shard0", "shard1")) {
+            String url = "jdbc:h2:mem:" + shard + ";DB_CLOSE_DELAY=-1";
+            EntitySchema.create(url);
+            pools.put(shard, new DriverManagerDataSource(url));
+        }
+        new JdbcTemplate(pools.get("shard0")).execute("CREATE TABLE school_shard_assignments (" +
+                "school_id BIGINT PRIMARY KEY, shard_key VARCHAR(50) NOT NULL, assigned_at TIMESTAMP NOT NULL, " +
+                "version BIGINT DEFAULT 0 NOT NULL, moving_since TIMESTAMP, moving_owner VARCHAR(100))");
+
+        seedSchool(pools.get("shard0"), 1, 100);
+        seedSchool(pools.get("shard0"), 2, 200);
+
+        ShardDataSources shardDataSources = new ShardDataSources(pools);
+        directory = new ShardDirectory(pools.get("shard0"), "shard0", pools.keySet());
+        directory.load();
+
+        routing = new ShardRoutingDataSource(directory);
+        routing.setTargetDataSources(new LinkedHashMap<>(pools));
+        routing.setDefaultTargetDataSource(pools.get("shard0"));
+        routing.afterPropertiesSet();
+        routed = new JdbcTemplate(routing);
+
+        scatterGather = new ShardScatterGather(directory, Executors.newFixedThreadPool(2), 5000);
+        rebalancer = new ShardRebalancer(shardDataSources, directory);
+        ReflectionTestUtils.setField(rebalancer, "chunkSize", 2);
+        ReflectionTestUtils.setField(rebalancer, "drainMs", 0L);
+        ReflectionTestUtils.setField(rebalancer, "lockTimeoutMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        pools.values().forEach(pool -> new JdbcTemplate(pool).execute("DROP ALL OBJECTS"));
+    }
+
+    @Test
+    void testMoveSchoolCopiesVerifiesAndSwitchesDirectory() {
+        Map<String, Long> moved = rebalancer.moveSchool(2L, "shard1");
+
+        assertEquals(1L, moved.get("schools"));
+        assertEquals(3L, moved.get("students"));
+        assertEquals(6L, moved.get("attendance_records"));
+        assertEquals(1L, moved.get("teacher_subjects"));
+        assertEquals(1L, moved.get("school_classes"));
+        assertEquals(1L, moved.get("teacher_class_assignments"));
+        assertEquals(1L, moved.get("class_day_registers"));
+        assertEquals(1L, moved.get("notification_logs"));
+
+        assertEquals("shard1", directory.shardFor(2L));
+        assertEquals(0, countOn("shard0", "SELECT COUNT(*) FROM students WHERE school_id = 2"));
+        assertEquals(3, countOn("shard0", "SELECT COUNT(*) FROM students WHERE school_id = 1"));
+        assertEquals(3, countOn("shard1", "SELECT COUNT(*) FROM students WHERE school_id = 2"));
+        assertFalse(directory.isMoving(2L));
+
+        // The assignment survives a reload from the directory table
+        directory.load();
+        assertEquals("shard1", directory.shardFor(2L));
+    }
+
+    @Test
+    void testRoutingFollowsTenantContext() {
+        rebalancer.moveSchool(2L, "shard1");
+
+        assertEquals(3, TenantContext.callForSchool(1L, () -> routedCount("SELECT COUNT(*) FROM students")));
+        assertEquals(3, TenantContext.callForSchool(2L, () -> routedCount("SELECT COUNT(*) FROM students")));
+        assertEquals(0, TenantContext.callForSchool(2L,
+                () -> routedCount("SELECT COUNT(*) FROM students WHERE school_id = 1")));
+        // Unassigned schools and requests without a school use the default shard
+        assertEquals(3, routedCount("SELECT COUNT(*) FROM students"));
+        assertEquals(0, TenantContext.callOnShard("shard1",
+                () -> routedCount("SELECT COUNT(*) FROM students WHERE school_id = 1")));
+    }
+
+    @Test
+    void testScatterGatherCoversEveryShard() {
+        rebalancer.moveSchool(2L, "shard1");
+
+        Map<String, Integer> perShard = scatterGather.onEveryShard(
+                shard -> routedCount("SELECT COUNT(*) FROM attendance_records"));
+
+        assertEquals(Map.of("shard0", 6, "shard1", 6), perShard);
+    }
+
+    @Test
+    void testFailedMoveLeavesSchoolOnSource() {
+        // A conflicting row on the target makes the copy fail part-way through
+        new JdbcTemplate(pools.get("shard1")).update(
+                "INSERT INTO schools (id, name) VALUES (999, 'Other')");
+        new JdbcTemplate(pools.get("shard1")).update("INSERT INTO teachers (id, emp_no, first_name, last_name, " +
+                "date_of_birth, gender, email, is_active, school_id) VALUES (200, 'X', 'A', 'B', DATE '1980-01-01', " +
+                "'MALE', 'x@test', TRUE, 999)");
+
+        assertThrows(RuntimeException.class, () -> rebalancer.moveSchool(2L, "shard1"));
+
+        assertEquals("shard0", directory.shardFor(2L));
+        assertEquals(3, countOn("shard0", "SELECT COUNT(*) FROM students WHERE school_id = 2"));
+        assertEquals(0, countOn("shard1", "SELECT COUNT(*) FROM students WHERE school_id = 2"));
+        assertFalse(directory.isMoving(2L));
+    }
+
+    @Test
+    void testMoveToCurrentShardIsRejected() {
+        assertThrows(BusinessException.class, () -> rebalancer.moveSchool(1L, "shard0"));
+    }
+
+    @Test
+    void testMoveLockHeldByAnotherInstanceIsRespected() {
+        new JdbcTemplate(pools.get("shard0")).update("INSERT INTO school_shard_assignments " +
+                "(school_id, shard_key, assigned_at, version, moving_since, moving_owner) " +
+                "VALUES (2, 'shard0', CURRENT_TIMESTAMP, 1, CURRENT_TIMESTAMP, 'other-instance')");
+
+        assertThrows(BusinessException.class, () -> rebalancer.moveSchool(2L, "shard1"));
+        assertEquals(3, countOn("shard0", "SELECT COUNT(*) FROM students WHERE school_id = 2"));
+
+        // Writes see the lock through the directory row
+        directory.refresh(2L);
+        assertTrue(directory.isMoving(2L));
+    }
+
+    @Test
+    void testAbandonedMoveLockIsTakenOver() {
+        new JdbcTemplate(pools.get("shard0")).update("INSERT INTO school_shard_assignments " +
+                "(school_id, shard_key, assigned_at, version, moving_since, moving_owner) " +
+                "VALUES (2, 'shard0', CURRENT_TIMESTAMP, 1, DATEADD('HOUR', -2, CURRENT_TIMESTAMP), 'crashed')");
+
+        rebalancer.moveSchool(2L, "shard1");
+
+        assertEquals("shard1", directory.shardFor(2L));
+        assertFalse(directory.isMoving(2L));
+    }
+
+    @Test
+    void testDirectoryPicksUpAnotherInstancesChanges() {
+        ShardDirectory other = new ShardDirectory(pools.get("shard0"), "shard0", pools.keySet());
+        other.load();
+
+        directory.assign(1L, "shard1");
+        assertEquals("shard0", other.shardFor(1L));
+
+        other.refresh();
+        assertEquals("shard1", other.shardFor(1L));
+    }
+
+    @Test
+    void testUnboundConnectionFailsOnceTenantIsRequired() {
+        routing.requireTenant();
+
+        Exception unbound = assertThrows(Exception.class, () -> routedCount("SELECT COUNT(*) FROM students"));
+        assertInstanceOf(IllegalStateException.class, unbound.getCause());
+        assertEquals(3, TenantContext.callForSchool(1L,
+                () -> routedCount("SELECT COUNT(*) FROM students WHERE school_id = 1")));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private int routedCount(String sql) {
+        return routed.queryForObject(sql, Integer.class);
+    }
+
+    private int countOn(String shard, String sql) {
+        return new JdbcTemplate(pools.get(shard)).queryForObject(sql, Integer.class);
+    }
+
+    /**
+     * A school with one class of three students, one teacher, two days of attendance and one row in each satellite table;
+     * ids start at the given base so schools never collide across shards
+     */
+    private static void seedSchool(DataSource pool, long schoolId, long base) {
+        JdbcTemplate jdbc = new JdbcTemplate(pool);
+        jdbc.update("INSERT INTO schools (id, name) VALUES (?, ?)", schoolId, "School " + schoolId);
+        jdbc.update("INSERT INTO teachers (id, emp_no, first_name, last_name, date_of_birth, gender, email, " +
+                "is_active, school_id) VALUES (?, ?, 'T', 'Teacher', DATE '1980-01-01', 'FEMALE', ?, TRUE, ?)",
+                base, "EMP" + base, "t" + base + "@school.test", schoolId);
+        jdbc.update("INSERT INTO teacher_subjects (teacher_id, subject) VALUES (?, 'Maths')", base);
+        jdbc.update("INSERT INTO school_classes (id, school_id, standard, section) VALUES (?, ?, '5', 'A')",
+                (int) base, schoolId);
+        jdbc.update("INSERT INTO teacher_class_assignments (teacher_id, class_id) VALUES (?, ?)", base, (int) base);
+        for (long i = 1; i <= 3; i++) {
+            long studentId = base + i;
+            jdbc.update("INSERT INTO students (id, gr_no, roll_no, first_name, last_name, date_of_birth, gender, " +
+                    "class_id, is_active, school_id) VALUES (?, ?, ?, 'S', 'Student', DATE '2012-01-01', " +
+                    "'MALE', ?, TRUE, ?)", studentId, "GR" + studentId, String.valueOf(i), (int) base, schoolId);
+            for (int day = 1; day <= 2; day++) {
+                jdbc.update("INSERT INTO attendance_records (id, date, status, student_id, teacher_id) " +
+                        "VALUES (?, DATEADD('DAY', ?, DATE '2024-07-01'), 1, ?, ?)",
+                        studentId * 10 + day, day, studentId, base);
+            }
+        }
+        jdbc.update("INSERT INTO class_day_registers (id, school_id, standard, section, date, student_ids, statuses) " +
+                "VALUES (?, ?, '5', 'A', DATE '2024-07-02', X'00', X'01')", base, schoolId);
+        jdbc.update("INSERT INTO notification_logs (id, type, recipient, subject, status, school_id) " +
+                "VALUES (?, 'EMAIL', 'p@test', 'Absent', 'SUCCESS', ?)", base, schoolId);
+    }
+}
@@ -0,0 +1,147 @@
+package com.school.attendance.service.writebehind;
+
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AttendanceJournal
+ */
+class AttendanceJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndReplayAfterRestart() throws IOException {
+        AttendanceMark first = mark(1L, AttendanceStatus.PRESENT, "On time", 7L);
+        AttendanceMark second = mark(2L, AttendanceStatus.ABSENT, null, null);
+
+        try (AttendanceJournal journal = AttendanceJournal.open(directory)) {
+            journal.append(first).join();
+            journal.append(second).join();
+        }
+
+        try (AttendanceJournal journal = AttendanceJournal.open(directory)) {
+            assertEquals(List.of(first, second), journal.replay());
+        }
+    }
+
+    @Test
+    void testConcurrentAppendsAreGroupCommitted() throws IOException {
+        try (AttendanceJournal journal = AttendanceJournal.open(directory)) {
+            List<CompletableFuture<Void>> acks = new ArrayList<>();
+            for (long studentId = 1; studentId <= 500; studentId++) {
+                acks.add(journal.append(mark(studentId, AttendanceStatus.PRESENT, null, null)));
+            }
+            CompletableFuture.allOf(acks.toArray(new CompletableFuture[0])).join();
+
+            assertEquals(500, journal.getAppendCount());
+            assertTrue(journal.getSyncCount() < 500, "appends should share fsyncs");
+        }
+    }
+
+    @Test
+    void testMarksInSealedSegmentsWereHandedOver() throws IOException {
+        List<AttendanceMark> durable = new CopyOnWriteArrayList<>();
+        try (AttendanceJournal journal = AttendanceJournal.open(directory, durable::add)) {
+            List<CompletableFuture<Void>> acks = new ArrayList<>();
+            for (long studentId = 1; studentId <= 200; studentId++) {
+                acks.add(journal.append(mark(studentId, AttendanceStatus.PRESENT, null, null)));
+                if (studentId % 50 == 0) {
+                    // Rolled while appends are still queued: the owner already has every sealed mark
+                    journal.roll();
+                    assertTrue(durable.containsAll(journal.replay()));
+                }
+            }
+            CompletableFuture.allOf(acks.toArray(new CompletableFuture[0])).join();
+            assertEquals(200, durable.size());
+        }
+    }
+
+    @Test
+    void testRollAndDeleteSealedSegments() throws IOException {
+        try (AttendanceJournal journal = AttendanceJournal.open(directory)) {
+            journal.append(mark(1L, AttendanceStatus.PRESENT, null, null)).join();
+
+            List<Path> sealed = journal.roll();
+            assertEquals(1, sealed.size());
+            assertEquals(1, journal.replay().size());
+
+            // An empty current segment is not rolled again
+            assertEquals(sealed, journal.roll());
+
+            journal.delete(sealed);
+            assertTrue(journal.replay().isEmpty());
+        }
+    }
+
+    @Test
+    void testReplayStopsAtTornEntry() throws IOException {
+        AttendanceMark kept = mark(1L, AttendanceStatus.LATE, "Bus delay", null);
+        try (AttendanceJournal journal = AttendanceJournal.open(directory)) {
+            journal.append(kept).join();
+            journal.append(mark(2L, AttendanceStatus.PRESENT, null, null)).join();
+        }
+
+        // Simulate a crash in the middle of the last write
+        Path segment;
+        try (var files = Files.list(directory)) {
+            segment = files.sorted().findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 5), StandardOpenOption.TRUNCATE_EXISTING);
+
+        try (AttendanceJournal journal = AttendanceJournal.open(directory)) {
+            assertEquals(List.of(kept), journal.replay());
+        }
+    }
+
+    @Test
+    void testReplaySkipsCorruptEntry() throws IOException {
+        try (AttendanceJournal journal = AttendanceJournal.open(directory)) {
+            journal.append(mark(1L, AttendanceStatus.PRESENT, null, null)).join();
+        }
+
+        Path segment;
+        try (var files = Files.list(directory)) {
+            segment = files.sorted().findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 0x1;
+        Files.write(segment, bytes);
+
+        try (AttendanceJournal journal = AttendanceJournal.open(directory)) {
+            assertTrue(journal.replay().isEmpty());
+        }
+    }
+
+    @Test
+    void testAppendAfterCloseFails() throws IOException {
+        AttendanceJournal journal = AttendanceJournal.open(directory);
+        journal.close();
+
+        CompletableFuture<Void> ack = journal.append(mark(1L, AttendanceStatus.PRESENT, null, null));
+        assertTrue(ack.isCompletedExceptionally());
+    }
+
+    private AttendanceMark mark(Long studentId, AttendanceStatus status, String note, Long teacherId) {
+        return new AttendanceMark(studentId, LocalDate.of(2024, 7, 15), status, note, LocalTime.of(8, 5, 30),
+                teacherId, LocalDateTime.of(2024, 7, 15, 8, 5, 31), 1L, 0L);
+    }
+}
@@ -0,0 +1,98 @@
+package com.school.attendance.service.writebehind;
+
+import com.school.attendance.config.sharding.TenantJobs;
+import com.school.attendance.entity.AttendanceRecord.AttendanceStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Versions of write-behind marks, accepted against a journal in a temporary directory (nothing is flushed)
+ */
+class AttendanceWriteBehindServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private AttendanceWriteBehindService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TenantJobs tenantJobs = mock(TenantJobs.class);
+        // The database is unreachable: flushes keep every mark pending
+        when(tenantJobs.forSchool(any(), any())).thenThrow(new QueryTimeoutException("database unreachable"));
+        service = new AttendanceWriteBehindService(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+                tenantJobs);
+        ReflectionTestUtils.setField(service, "journalDir", directory.toString());
+        ReflectionTestUtils.setField(service, "maxPending", 100);
+        service.start();
+    }
+
+    @Test
+    void testMarksAreVersionedPastTheStoredRow() {
+        assertEquals(0L, service.mark(mark(AttendanceStatus.PRESENT), null, -1L).join().version());
+        assertEquals(1L, service.mark(mark(AttendanceStatus.ABSENT), 0L, -1L).join().version());
+        assertEquals(1L, service.getPending(1L, LocalDate.of(2024, 7, 15)).orElseThrow().version());
+    }
+
+    @Test
+    void testExpectedVersionIsCheckedAgainstPendingMarks() {
+        service.mark(mark(AttendanceStatus.PRESENT), 3L, 3L).join();
+
+        // The row still says 3, but the pending mark already made it 4
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> service.mark(mark(AttendanceStatus.ABSENT), 3L, 3L));
+        assertEquals(AttendanceStatus.PRESENT, service.getPending(1L, LocalDate.of(2024, 7, 15)).orElseThrow().status());
+        assertEquals(5L, service.mark(mark(AttendanceStatus.ABSENT), 4L, 3L).join().version());
+    }
+
+    @Test
+    void testConcurrentMarksLeaveTheNewestVersionPending() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<AttendanceMark>> marks = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                AttendanceStatus status = i % 2 == 0 ? AttendanceStatus.PRESENT : AttendanceStatus.ABSENT;
+                marks.add(executor.submit(() -> service.mark(mark(status), null, -1L).join()));
+            }
+            for (Future<AttendanceMark> mark : marks) {
+                mark.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(199L, service.getPending(1L, LocalDate.of(2024, 7, 15)).orElseThrow().version());
+
+        // Replay after a restart keeps the newest mark as well
+        service.shutdown();
+        service.start();
+        assertEquals(199L, service.getPending(1L, LocalDate.of(2024, 7, 15)).orElseThrow().version());
+        assertEquals(200L, service.mark(mark(AttendanceStatus.LATE), 199L, -1L).join().version());
+    }
+
+    private AttendanceMark mark(AttendanceStatus status) {
+        return new AttendanceMark(1L, LocalDate.of(2024, 7, 15), status, null, LocalTime.of(8, 5, 30),
+                null, LocalDateTime.of(2024, 7, 15, 8, 5, 31), 1L, null);
+    }
+}